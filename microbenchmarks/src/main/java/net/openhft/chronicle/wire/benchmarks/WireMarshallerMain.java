@@ -0,0 +1,131 @@
+/*
+ *     Copyright (C) 2015-2020 chronicle.software
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Lesser General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package net.openhft.chronicle.wire.benchmarks;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.wire.Wire;
+import net.openhft.chronicle.wire.WireMarshaller;
+import net.openhft.chronicle.wire.WireType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes and reads {@link Data} and {@link Data2} with the {@link WireMarshaller} which uses a FieldAccess per field,
+ * and the one from {@link WireMarshaller#ofGenerated(Class)} which uses a class generated for the DTO.
+ * <p>
+ * The <code>text</code> field is transient, so both write the same five fields, rather than using the
+ * DTO's own writeMarshallable.
+ */
+@State(Scope.Thread)
+public class WireMarshallerMain {
+    @Param({"BINARY_LIGHT", "YAML_ONLY"})
+    public String wireType;
+
+    final Data data = new Data(123, 1234567890L, 1234, true, "Hello World!", Side.Sell);
+    final Data2 data2 = new Data2(123, 1234567890L, 1234, true, "Hello World!", Side.Sell);
+    final Data dataB = new Data();
+    final Data2 data2B = new Data2();
+
+    final WireMarshaller<Data> dataFields = WireMarshaller.of(Data.class);
+    final WireMarshaller<Data> dataGenerated = WireMarshaller.ofGenerated(Data.class);
+    final WireMarshaller<Data2> data2Fields = WireMarshaller.of(Data2.class);
+    final WireMarshaller<Data2> data2Generated = WireMarshaller.ofGenerated(Data2.class);
+
+    private Wire wire;
+
+    public static void main(String... args) throws RunnerException {
+        if (Jvm.isDebug()) {
+            for (String wireType : new String[]{"BINARY_LIGHT", "YAML_ONLY"}) {
+                WireMarshallerMain main = new WireMarshallerMain();
+                main.wireType = wireType;
+                main.setUp();
+                // both should write the same bytes
+                main.dataFields.writeMarshallable(main.data, main.wire);
+                String expected = main.wire.bytes().toHexString();
+                main.wire.clear();
+                main.dataGenerated.writeMarshallable(main.data, main.wire);
+                String actual = main.wire.bytes().toHexString();
+                if (!expected.equals(actual))
+                    throw new AssertionError(expected + " != " + actual);
+                main.dataGenerated();
+                main.data2Generated();
+                main.tearDown();
+                System.out.println(wireType + " " + main.dataGenerated.getClass().getSimpleName() + " OK");
+            }
+            return;
+        }
+        int time = Jvm.getBoolean("longTest") ? 30 : 5;
+        System.out.println("measurementTime: " + time + " secs");
+        Options opt = new OptionsBuilder()
+                .include(WireMarshallerMain.class.getSimpleName())
+                .warmupIterations(3)
+                .measurementIterations(3)
+                .forks(1)
+                .mode(Mode.AverageTime)
+                .warmupTime(TimeValue.seconds(2))
+                .measurementTime(TimeValue.seconds(time))
+                .timeUnit(TimeUnit.NANOSECONDS)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup
+    public void setUp() {
+        wire = WireType.valueOf(wireType).apply(Bytes.allocateElasticDirect(256).unchecked(true));
+    }
+
+    @TearDown
+    public void tearDown() {
+        wire.bytes().releaseLast();
+    }
+
+    @Benchmark
+    public Data dataFields() {
+        return writeRead(dataFields, data, dataB);
+    }
+
+    @Benchmark
+    public Data dataGenerated() {
+        return writeRead(dataGenerated, data, dataB);
+    }
+
+    @Benchmark
+    public Data2 data2Fields() {
+        return writeRead(data2Fields, data2, data2B);
+    }
+
+    @Benchmark
+    public Data2 data2Generated() {
+        return writeRead(data2Generated, data2, data2B);
+    }
+
+    private <T> T writeRead(WireMarshaller<T> wm, T from, T to) {
+        wire.clear();
+        wm.writeMarshallable(from, wire);
+        wm.readMarshallable(to, wire, true);
+        return to;
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ *     Copyright (C) 2015-2020 chronicle.software
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Lesser General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.openhft.chronicle.wire.benchmarks.channel;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.core.io.IOTools;
+import net.openhft.chronicle.wire.DocumentContext;
+import net.openhft.chronicle.wire.channel.ChronicleChannel;
+import net.openhft.chronicle.wire.channel.ChronicleContext;
+import net.openhft.chronicle.wire.channel.ChronicleGatewayMain;
+import net.openhft.chronicle.wire.channel.echo.EchoHandler;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip latency and throughput of ChronicleChannels to an {@link EchoHandler}.
+ * <p>
+ * Each benchmark thread has its own channel to the same gateway, so running with 8 or 64 threads measures
+ * many concurrent channels and the fan-in to the gateway. {@link #echo()} is run in SampleTime mode
+ * to report percentiles, {@link #throughput()} writes {@link #BATCH} messages before reading the replies.
+ * <p>
+ * Run with e.g. <code>-Dthreads=1,8,64 -Dtransport=tcp</code> to select a subset.
+ */
+@State(Scope.Thread)
+public class ChannelMain {
+    static final int BATCH = 64;
+
+    @Param({"16", "256", "4096"})
+    public int size;
+
+    private ChronicleChannel channel;
+    private Bytes<?> payload;
+    private Bytes<?> reply;
+
+    public static void main(String... args) throws RunnerException, IOException {
+        if (Jvm.isDebug()) {
+            // run each combination once
+            for (String transport : new String[]{"internal", "tcp", "shm"}) {
+                Gateway gateway = new Gateway();
+                gateway.transport = transport;
+                for (boolean buffered : new boolean[]{false, true}) {
+                    gateway.buffered = buffered;
+                    gateway.setUp();
+                    ChannelMain main = new ChannelMain();
+                    main.size = 256;
+                    main.setUp(gateway);
+                    main.echo();
+                    main.throughput();
+                    main.tearDown();
+                    gateway.tearDown();
+                    System.out.println(transport + " buffered: " + buffered + " OK");
+                }
+            }
+            return;
+        }
+        int time = Jvm.getBoolean("longTest") ? 30 : 5;
+        System.out.println("measurementTime: " + time + " secs");
+        for (String threads : System.getProperty("threads", "1,8,64").split(",")) {
+            OptionsBuilder builder = new OptionsBuilder();
+            builder.include(ChannelMain.class.getSimpleName())
+                    .warmupIterations(3)
+                    .measurementIterations(3)
+                    .forks(1)
+                    .warmupTime(TimeValue.seconds(2))
+                    .measurementTime(TimeValue.seconds(time))
+                    .threads(Integer.parseInt(threads.trim()));
+            String transport = System.getProperty("transport");
+            if (transport != null)
+                builder.param("transport", transport.split(","));
+            Options opt = builder.build();
+            new Runner(opt).run();
+        }
+    }
+
+    @Setup
+    public void setUp(Gateway gateway) {
+        channel = gateway.context.newChannelSupplier(new EchoHandler().buffered(gateway.buffered))
+                .buffered(gateway.buffered)
+                .get();
+        payload = Bytes.allocateDirect(size);
+        for (int i = 0; i < size; i++)
+            payload.writeByte((byte) ('A' + i % 26));
+        reply = Bytes.allocateElasticDirect(size);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Closeable.closeQuietly(channel);
+        payload.releaseLast();
+        reply.releaseLast();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Bytes<?> echo() {
+        write();
+        read();
+        return reply;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(BATCH)
+    public Bytes<?> throughput() {
+        for (int i = 0; i < BATCH; i++)
+            write();
+        for (int i = 0; i < BATCH; i++)
+            read();
+        return reply;
+    }
+
+    private void write() {
+        try (DocumentContext dc = channel.writingDocument()) {
+            dc.wire().write("echo").bytes(payload);
+        }
+    }
+
+    private void read() {
+        while (true) {
+            try (DocumentContext dc = channel.readingDocument()) {
+                if (dc.isPresent()) {
+                    reply.clear();
+                    dc.wire().read("echo").bytes(reply);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * The context shared by all the threads, with a gateway for tcp and shm.
+     * Buffering applies to both ends of tcp channels, and is ignored by the other transports.
+     */
+    @State(Scope.Benchmark)
+    public static class Gateway {
+        @Param({"internal", "tcp", "shm"})
+        public String transport;
+
+        @Param({"false", "true"})
+        public boolean buffered;
+
+        ChronicleGatewayMain gateway;
+        ChronicleContext context;
+
+        @Setup
+        public void setUp() throws IOException {
+            final String url;
+            switch (transport) {
+                case "internal":
+                    url = "internal://";
+                    break;
+                case "tcp":
+                    // starts a gateway in this process
+                    url = "tcp://:0";
+                    break;
+                case "shm":
+                    IOTools.deleteDirWithFiles("target/shm-bench");
+                    url = "shm:target/shm-bench";
+                    gateway = new ChronicleGatewayMain(url);
+                    gateway.start();
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown transport " + transport);
+            }
+            context = ChronicleContext.newContext(url).buffered(buffered);
+        }
+
+        @TearDown
+        public void tearDown() {
+            Closeable.closeQuietly(context, gateway);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ *     Copyright (C) 2015-2020 chronicle.software
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Lesser General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.openhft.chronicle.wire.benchmarks.reduction;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.wire.domestic.reduction.ConcurrentCollectors;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collector;
+
+/**
+ * Compares the contention of the concurrent collectors which share one lock or reference, with the striped ones,
+ * when many threads accumulate into the same container, as a Reduction or an unordered parallel stream does.
+ * <p>
+ * Run with e.g. <code>-Dthreads=1,8</code> to select the thread counts.
+ */
+@State(Scope.Benchmark)
+public class ConcurrentCollectorsMain {
+    private static final Long[] VALUES = new Long[1024];
+
+    static {
+        for (int i = 0; i < VALUES.length; i++)
+            VALUES[i] = (long) i;
+    }
+
+    private Accumulating<Long> concurrentList;
+    private Accumulating<Long> stripedList;
+    private Accumulating<Long> concurrentSet;
+    private Accumulating<Long> stripedSet;
+    private Accumulating<Long> concurrentReducing;
+    private Accumulating<Long> stripedReducing;
+    private Accumulating<Long> summingLong;
+
+    public static void main(String... args) throws RunnerException {
+        if (Jvm.isDebug()) {
+            ConcurrentCollectorsMain main = new ConcurrentCollectorsMain();
+            main.setUp();
+            ThreadState state = new ThreadState();
+            main.concurrentList(state);
+            main.stripedList(state);
+            main.concurrentSet(state);
+            main.stripedSet(state);
+            main.concurrentReducing(state);
+            main.stripedReducing(state);
+            main.summingLong(state);
+            System.out.println("reducing: " + main.concurrentReducing.finish() + " striped: " + main.stripedReducing.finish()
+                    + " summingLong: " + main.summingLong.finish());
+            return;
+        }
+        int time = Jvm.getBoolean("longTest") ? 30 : 3;
+        System.out.println("measurementTime: " + time + " secs");
+        for (String threads : System.getProperty("threads", "1,8").split(",")) {
+            Options opt = new OptionsBuilder()
+                    .include(ConcurrentCollectorsMain.class.getSimpleName())
+                    .warmupIterations(3)
+                    .measurementIterations(3)
+                    .forks(1)
+                    .mode(Mode.Throughput)
+                    .timeUnit(TimeUnit.MICROSECONDS)
+                    .warmupTime(TimeValue.seconds(1))
+                    .measurementTime(TimeValue.seconds(time))
+                    .threads(Integer.parseInt(threads.trim()))
+                    .build();
+            new Runner(opt).run();
+        }
+    }
+
+    // the lists grow for as long as they are accumulated into
+    @Setup(Level.Iteration)
+    public void setUp() {
+        concurrentList = new Accumulating<>(ConcurrentCollectors.toConcurrentList());
+        stripedList = new Accumulating<>(ConcurrentCollectors.toStripedList());
+        concurrentSet = new Accumulating<>(ConcurrentCollectors.toConcurrentSet());
+        stripedSet = new Accumulating<>(ConcurrentCollectors.toStripedSet());
+        concurrentReducing = new Accumulating<>(ConcurrentCollectors.reducingConcurrent(0L, Long::sum));
+        stripedReducing = new Accumulating<>(ConcurrentCollectors.reducingStriped(0L, Long::sum));
+        summingLong = new Accumulating<>(ConcurrentCollectors.summingLongConcurrent(Long::longValue));
+    }
+
+    @Benchmark
+    public Object concurrentList(ThreadState state) {
+        return concurrentList.accept(state.next());
+    }
+
+    @Benchmark
+    public Object stripedList(ThreadState state) {
+        return stripedList.accept(state.next());
+    }
+
+    @Benchmark
+    public Object concurrentSet(ThreadState state) {
+        return concurrentSet.accept(state.next());
+    }
+
+    @Benchmark
+    public Object stripedSet(ThreadState state) {
+        return stripedSet.accept(state.next());
+    }
+
+    @Benchmark
+    public Object concurrentReducing(ThreadState state) {
+        return concurrentReducing.accept(state.next());
+    }
+
+    @Benchmark
+    public Object stripedReducing(ThreadState state) {
+        return stripedReducing.accept(state.next());
+    }
+
+    @Benchmark
+    public Object summingLong(ThreadState state) {
+        return summingLong.accept(state.next());
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private int next;
+
+        Long next() {
+            return VALUES[next++ & (VALUES.length - 1)];
+        }
+    }
+
+    /**
+     * One container shared by all the threads, with the finisher applied at the end of the iteration.
+     */
+    static final class Accumulating<T> {
+        private final Object container;
+        private final BiConsumer<Object, T> accumulator;
+        private final Function<Object, ?> finisher;
+
+        @SuppressWarnings("unchecked")
+        <A> Accumulating(Collector<T, A, ?> collector) {
+            this.container = collector.supplier().get();
+            this.accumulator = (BiConsumer<Object, T>) collector.accumulator();
+            this.finisher = (Function<Object, ?>) collector.finisher();
+        }
+
+        Object accept(T t) {
+            accumulator.accept(container, t);
+            return container;
+        }
+
+        Object finish() {
+            return finisher.apply(container);
+        }
+    }
+}
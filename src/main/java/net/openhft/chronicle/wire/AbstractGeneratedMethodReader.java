@@ -21,12 +21,14 @@ import net.openhft.chronicle.bytes.Bytes;
 import net.openhft.chronicle.bytes.MethodReader;
 import net.openhft.chronicle.bytes.MethodReaderInterceptorReturns;
 import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.Maths;
 import net.openhft.chronicle.core.io.ClosedIllegalStateException;
 import net.openhft.chronicle.core.util.Mocker;
 import net.openhft.chronicle.wire.utils.MethodReaderStatus;
 import org.jetbrains.annotations.NotNull;
 
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -55,6 +57,12 @@ public abstract class AbstractGeneratedMethodReader implements MethodReader {
     private Predicate predicate;
     private boolean scanning;
 
+    // the last event name, either in place in eventNameBytes or as text
+    private Bytes<?> eventNameBytes;
+    private long eventNamePosition;
+    private int eventNameLength = -1;
+    private String eventNameText;
+
     protected AbstractGeneratedMethodReader(MarshallableIn in,
                                             WireParselet debugLoggingParselet) {
         this.in = in;
@@ -223,6 +231,7 @@ public abstract class AbstractGeneratedMethodReader implements MethodReader {
             // This input event didn't generate an output event.
             // Saving message history - in case next input event will be processed by another method reader,
             // that method reader will cooperatively write saved history.
+            messageHistory.detach();
             messageHistory = tempMessageHistory.getAndSet(messageHistory);
             MessageHistory.set(messageHistory);
             assert (messageHistory != tempMessageHistory.get());
@@ -356,6 +365,121 @@ public abstract class AbstractGeneratedMethodReader implements MethodReader {
         }
     }
 
+    /**
+     * Reads the name of the next event and returns its hash, which is the same as {@link String#hashCode()} for the name.
+     * <p>
+     * For a {@link BinaryWire} the name is hashed in place and not copied, so it can only be compared with
+     * {@link #eventNameEquals(byte[])} before the value is read. Other wires read the name as a String.
+     *
+     * @param wireIn to read the event name from.
+     * @return the hash of the event name, or 0 if there wasn't one.
+     */
+    protected int readEventNameHash(WireIn wireIn) {
+        eventNameText = null;
+        eventNameLength = -1;
+        if (wireIn instanceof BinaryWire) {
+            wireIn.consumePadding();
+            final Bytes<?> bytes = wireIn.bytes();
+            final int code = bytes.peekUnsignedByte();
+            if (code >= BinaryWireCode.FIELD_NAME0 && code <= BinaryWireCode.FIELD_NAME31) {
+                bytes.uncheckedReadSkipOne();
+                return hashEventName(bytes, code - BinaryWireCode.FIELD_NAME0);
+            }
+            if (code == BinaryWireCode.EVENT_NAME || code == BinaryWireCode.FIELD_NAME_ANY) {
+                bytes.uncheckedReadSkipOne();
+                final long length = bytes.readStopBit();
+                return length < 0 ? 0 : hashEventName(bytes, Maths.toUInt31(length));
+            }
+        }
+        return readEventNameStringHash(wireIn);
+    }
+
+    /**
+     * Reads the name of the next event as a String and returns its hash, for readers with event names which are not
+     * all ASCII, as these are compared with {@link #eventNameEquals(String)}.
+     *
+     * @param wireIn to read the event name from.
+     * @return the hash of the event name, or 0 if there wasn't one.
+     */
+    protected int readEventNameStringHash(WireIn wireIn) {
+        eventNameLength = -1;
+        final String name = wireIn.readEvent(String.class);
+        eventNameText = name;
+        return name == null ? 0 : name.hashCode();
+    }
+
+    private int hashEventName(Bytes<?> bytes, int length) {
+        final long start = bytes.readPosition();
+        int h = 0;
+        for (int i = 0; i < length; i++)
+            h = 31 * h + bytes.readUnsignedByte(start + i);
+        bytes.readSkip(length);
+        eventNameBytes = bytes;
+        eventNamePosition = start;
+        eventNameLength = length;
+        return h;
+    }
+
+    /**
+     * @param name the encoding of a known event name, which is all ASCII.
+     * @return whether the last event name read by {@link #readEventNameHash(WireIn)} matches.
+     */
+    protected boolean eventNameEquals(byte[] name) {
+        if (eventNameText != null) {
+            if (eventNameText.length() != name.length)
+                return false;
+            for (int i = 0; i < name.length; i++)
+                if (eventNameText.charAt(i) != (name[i] & 0xFF))
+                    return false;
+            return true;
+        }
+        if (eventNameLength != name.length)
+            return false;
+        for (int i = 0; i < name.length; i++)
+            if (eventNameBytes.readByte(eventNamePosition + i) != name[i])
+                return false;
+        return true;
+    }
+
+    /**
+     * Compares names which are not all ASCII and so can only be matched when read as a String by
+     * {@link #readEventNameStringHash(WireIn)}.
+     */
+    protected boolean eventNameEquals(String name) {
+        return name.equals(eventNameText);
+    }
+
+    /**
+     * Sets the name for an event which was read by method id.
+     */
+    protected void eventName(String name) {
+        eventNameText = name;
+        eventNameLength = -1;
+    }
+
+    /**
+     * Only used for debug logging and the default parselet, which may keep the name, so a name hashed in place is
+     * copied to a String once per event.
+     *
+     * @return the last event name read as a String, or {@code null} if there wasn't one.
+     */
+    protected CharSequence lastEventName() {
+        if (eventNameText != null || eventNameLength < 0)
+            return eventNameText;
+        final char[] chars = new char[eventNameLength];
+        for (int i = 0; i < eventNameLength; i++)
+            chars[i] = (char) eventNameBytes.readUnsignedByte(eventNamePosition + i);
+        eventNameText = new String(chars);
+        return eventNameText;
+    }
+
+    /**
+     * Used by the generated code to hold the encoding of a known event name, which is all ASCII.
+     */
+    protected static byte[] eventNameBytes(String name) {
+        return name.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
     private MessageHistory messageHistory() {
         if (messageHistory == null)
             messageHistory = MessageHistory.get();
@@ -21,16 +21,23 @@ package net.openhft.chronicle.wire;
 import net.openhft.chronicle.bytes.AppendableUtil;
 import net.openhft.chronicle.bytes.Bytes;
 import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.util.StringUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.time.chrono.IsoChronology;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.time.format.DateTimeParseException;
 import java.time.temporal.TemporalAccessor;
 import java.time.temporal.TemporalQueries;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -66,6 +73,11 @@ public abstract class AbstractTimestampLongConverter implements LongConverter {
      */
     public static final String INCLUDE_ZONE_SUFFIX_WHEN_ZONE_IS_UTC_SYSTEM_PROPERTY = "timestampLongConverters.includeZoneSuffixWhenZoneIsUTC";
 
+    // "yyyy-MM-ddT"
+    private static final int DATE_LENGTH = 11;
+    private static final long DAYS_0000_TO_1970 = 719528L;
+    private static final long[] TENS = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L};
+
     /**
      * The specific timezone used by this converter.
      */
@@ -96,6 +108,21 @@ public abstract class AbstractTimestampLongConverter implements LongConverter {
      */
     private final long nanosPerAmount;
 
+    /**
+     * The number of digits in a fraction of a second, e.g. 3 for milliseconds.
+     */
+    private final int fractionDigits;
+
+    /**
+     * Whether the fast path writes and reads the same text as the formatters, checked on first use, 0 if not checked yet.
+     */
+    private int fastPath;
+
+    /**
+     * The last day, or part of a day, with one zone offset, which was written or read.
+     */
+    private Day day;
+
     /**
      * Constructs a new {@code AbstractTimestampLongConverter} with the specified time unit.
      * The zone ID is fetched from the system property. If the system property is not set, UTC is used.
@@ -131,6 +158,7 @@ public abstract class AbstractTimestampLongConverter implements LongConverter {
         this.writingUtcDatesWithNoSuffix = this.zoneId.equals(UTC) && !includeZoneSuffixForUTC;
         this.amountPerSecond = timeUnit.convert(1, TimeUnit.SECONDS);
         this.nanosPerAmount = TimeUnit.NANOSECONDS.convert(1, timeUnit);
+        this.fractionDigits = Long.toString(amountPerSecond).length() - 1;
         this.formatterForParsing = createFormatter();
         if (writingUtcDatesWithNoSuffix) {
             this.formatterForFormatting = createFormatterWithNoZoneSuffix();
@@ -151,6 +179,19 @@ public abstract class AbstractTimestampLongConverter implements LongConverter {
     public long parse(CharSequence text) {
         if (text == null || text.length() == 0)
             return 0;
+        if (!fastPath())
+            return parseSlow(text);
+        final long fast = parseFast(text, day);
+        if (fast != Long.MIN_VALUE)
+            return fast;
+        final long value = parseSlow(text);
+        // so the next value for this day is read without the formatter
+        if (value > 0)
+            dayFor(value);
+        return value;
+    }
+
+    private long parseSlow(CharSequence text) {
         try {
             if (text.length() > 4 && text.charAt(4) == '/')
                 text = text.toString().replace('/', '-');
@@ -223,6 +264,18 @@ public abstract class AbstractTimestampLongConverter implements LongConverter {
             AppendableUtil.append(text, value);
             return;
         }
+        if (text instanceof StringBuilder) {
+            append((StringBuilder) text, value);
+            return;
+        }
+        if (text instanceof Bytes) {
+            append((Bytes<?>) text, value);
+            return;
+        }
+        appendSlow(text, value);
+    }
+
+    private void appendSlow(Appendable text, long value) {
         LocalDateTime ldt = LocalDateTime.ofEpochSecond(
                 value / amountPerSecond,
                 (int) (value % amountPerSecond * nanosPerAmount),
@@ -236,24 +289,312 @@ public abstract class AbstractTimestampLongConverter implements LongConverter {
     }
 
     /**
-     * Appends the provided long value to the given {@code StringBuilder}. This method delegates to {@code append(Appendable, long)}.
+     * Appends the provided long value to the given {@code StringBuilder}. A value of zero or less is written as a number.
      *
      * @param text  the {@code StringBuilder} to append to
      * @param value the long value to be appended
      */
     @Override
     public void append(StringBuilder text, long value) {
-        append((Appendable) text, value);
+        if (value <= 0) {
+            AppendableUtil.append(text, value);
+            return;
+        }
+        final Day day = fastPath() ? dayFor(value) : null;
+        if (day == null)
+            appendSlow(text, value);
+        else
+            appendFast(text, day, value);
+    }
+
+    private void appendFast(StringBuilder text, Day day, long value) {
+        text.append(day.prefix);
+        final long second = value / amountPerSecond;
+        final int secondOfDay = (int) (second - day.midnight);
+        append2(text, secondOfDay / 3600);
+        text.append(':');
+        append2(text, secondOfDay / 60 % 60);
+        text.append(':');
+        append2(text, secondOfDay % 60);
+        long fraction = value - second * amountPerSecond;
+        if (fraction != 0) {
+            text.append('.');
+            int digits = fractionDigits;
+            // trailing zeros are dropped, as the formatter does
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                digits--;
+            }
+            for (long tens = TENS[digits - 1]; tens > 0; tens /= 10)
+                text.append((char) ('0' + fraction / tens % 10));
+        }
+        text.append(day.suffix);
+    }
+
+    private static void append2(StringBuilder text, int n) {
+        text.append((char) ('0' + n / 10)).append((char) ('0' + n % 10));
     }
 
     /**
-     * Appends the provided long value to the given {@code Bytes}. This method delegates to {@code append(Appendable, long)}.
+     * Appends the provided long value to the given {@code Bytes}. A value of zero or less is written as a number.
      *
      * @param bytes the {@code Bytes} to append to
      * @param value the long value to be appended
      */
     @Override
     public void append(Bytes<?> bytes, long value) {
-        append((Appendable) bytes, value);
+        if (value <= 0) {
+            AppendableUtil.append(bytes, value);
+            return;
+        }
+        final Day day = fastPath() ? dayFor(value) : null;
+        if (day == null)
+            appendSlow(bytes, value);
+        else
+            appendFast(bytes, day, value);
+    }
+
+    private void appendFast(Bytes<?> bytes, Day day, long value) {
+        bytes.write(day.prefixBytes);
+        final long second = value / amountPerSecond;
+        final int secondOfDay = (int) (second - day.midnight);
+        write2(bytes, secondOfDay / 3600);
+        bytes.writeUnsignedByte(':');
+        write2(bytes, secondOfDay / 60 % 60);
+        bytes.writeUnsignedByte(':');
+        write2(bytes, secondOfDay % 60);
+        long fraction = value - second * amountPerSecond;
+        if (fraction != 0) {
+            bytes.writeUnsignedByte('.');
+            int digits = fractionDigits;
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                digits--;
+            }
+            for (long tens = TENS[digits - 1]; tens > 0; tens /= 10)
+                bytes.writeUnsignedByte((int) ('0' + fraction / tens % 10));
+        }
+        bytes.write(day.suffixBytes);
+    }
+
+    private static void write2(Bytes<?> bytes, int n) {
+        bytes.writeUnsignedByte('0' + n / 10);
+        bytes.writeUnsignedByte('0' + n % 10);
+    }
+
+    /**
+     * @return the cached day for this value, or null if the formatter is needed
+     */
+    private Day dayFor(long value) {
+        Day day = this.day;
+        if (day != null && value >= day.start && value < day.end)
+            return day;
+        day = newDay(value);
+        if (day != null)
+            this.day = day;
+        return day;
+    }
+
+    private Day newDay(long value) {
+        final long second = Math.floorDiv(value, amountPerSecond);
+        final Instant instant = Instant.ofEpochSecond(second);
+        final ZoneRules rules = zoneId.getRules();
+        final ZoneOffset offset = rules.getOffset(instant);
+        final LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(second + offset.getTotalSeconds(), 86400));
+        if (date.getYear() > 9999)
+            return null;
+        final long midnight = date.toEpochDay() * 86400 - offset.getTotalSeconds();
+        long start = midnight;
+        long end = midnight + 86400;
+        // the offset must be the same for the whole of the part of the day cached
+        final ZoneOffsetTransition previous = rules.previousTransition(instant.plusSeconds(1));
+        if (previous != null && previous.toEpochSecond() > start)
+            start = previous.toEpochSecond();
+        final ZoneOffsetTransition next = rules.nextTransition(instant);
+        if (next != null && next.toEpochSecond() < end)
+            end = next.toEpochSecond();
+        // midnight at this offset can be in the previous day on the day of a transition
+        final StringBuilder sb = new StringBuilder(40);
+        appendSlow(sb, start * amountPerSecond);
+        final String prefix = sb.substring(0, DATE_LENGTH);
+        final String suffix = writingUtcDatesWithNoSuffix ? "" : offset.getId();
+        return new Day(start * amountPerSecond, end * amountPerSecond, midnight, date.toEpochDay(),
+                start == midnight && end == midnight + 86400, offset.getTotalSeconds(), prefix, suffix);
+    }
+
+    /**
+     * Reads yyyy-MM-ddTHH:mm:ss with an optional fraction and offset without creating objects, when the zone offset
+     * for that day is cached.
+     *
+     * @return the value, or Long.MIN_VALUE if the formatter is needed
+     */
+    private long parseFast(CharSequence text, Day day) {
+        final int length = text.length();
+        if (length < DATE_LENGTH + 8)
+            return Long.MIN_VALUE;
+        final char sep = text.charAt(4);
+        if ((sep != '-' && sep != '/') || text.charAt(7) != sep || text.charAt(10) != 'T'
+                || text.charAt(13) != ':' || text.charAt(16) != ':')
+            return Long.MIN_VALUE;
+        final int year = digits(text, 0, 4);
+        final int month = digits(text, 5, 2);
+        final int dayOfMonth = digits(text, 8, 2);
+        final int hour = digits(text, 11, 2);
+        final int minute = digits(text, 14, 2);
+        final int second = digits(text, 17, 2);
+        if (year < 0 || month < 1 || month > 12 || dayOfMonth < 1 || dayOfMonth > lengthOfMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59)
+            return Long.MIN_VALUE;
+
+        int pos = 19;
+        long fraction = 0;
+        if (pos < length && text.charAt(pos) == '.') {
+            pos++;
+            int n = 0;
+            for (char ch; pos < length && (ch = text.charAt(pos)) >= '0' && ch <= '9'; pos++, n++)
+                fraction = fraction * 10 + (ch - '0');
+            if (n == 0 || n > fractionDigits)
+                return Long.MIN_VALUE;
+            fraction *= TENS[fractionDigits - n];
+        }
+
+        final long epochDay = epochDay(year, month, dayOfMonth);
+        final int secondOfDay = hour * 3600 + minute * 60 + second;
+        // as with the formatter, the time is local to the zoneId whether there is an offset or not
+        if (pos < length && !isOffset(text, pos, length))
+            return Long.MIN_VALUE;
+        // only a day without a change of offset, as a local time can be ambiguous
+        if (day == null || day.epochDay != epochDay || !day.wholeDay)
+            return Long.MIN_VALUE;
+        return (epochDay * 86400 + secondOfDay - day.offsetSeconds) * amountPerSecond + fraction;
+    }
+
+    /**
+     * @return whether the rest of the text is Z, +HH:MM or +HH:MM:ss
+     */
+    private static boolean isOffset(CharSequence text, int pos, int length) {
+        final char sign = text.charAt(pos);
+        if (sign == 'Z')
+            return pos + 1 == length;
+        if ((sign != '+' && sign != '-') || (length != pos + 6 && length != pos + 9) || text.charAt(pos + 3) != ':')
+            return false;
+        final int hours = digits(text, pos + 1, 2);
+        final int minutes = digits(text, pos + 4, 2);
+        int seconds = 0;
+        if (length == pos + 9) {
+            if (text.charAt(pos + 6) != ':')
+                return false;
+            seconds = digits(text, pos + 7, 2);
+        }
+        return hours >= 0 && minutes >= 0 && minutes <= 59 && seconds >= 0 && seconds <= 59
+                && hours * 3600 + minutes * 60 + seconds <= 18 * 3600;
+    }
+
+    /**
+     * @return the decimal number, or -1 if any character is not a digit
+     */
+    private static int digits(CharSequence text, int pos, int count) {
+        int n = 0;
+        for (int i = pos; i < pos + count; i++) {
+            final char ch = text.charAt(i);
+            if (ch < '0' || ch > '9')
+                return -1;
+            n = n * 10 + (ch - '0');
+        }
+        return n;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return IsoChronology.INSTANCE.isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * As LocalDate.toEpochDay() without creating a LocalDate, for years 0 to 9999
+     */
+    private static long epochDay(int year, int month, int dayOfMonth) {
+        long total = 365L * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += dayOfMonth - 1;
+        if (month > 2) {
+            total--;
+            if (!IsoChronology.INSTANCE.isLeapYear(year))
+                total--;
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * The fast path is used if it gives the same results as the formatters for a few values, so a subclass with
+     * a different fraction, or which reads dates differently, uses the formatters.
+     */
+    private boolean fastPath() {
+        int fastPath = this.fastPath;
+        if (fastPath == 0)
+            this.fastPath = fastPath = checkFastPath() ? 1 : -1;
+        return fastPath > 0;
+    }
+
+    private boolean checkFastPath() {
+        final StringBuilder expected = new StringBuilder();
+        final StringBuilder actual = new StringBuilder();
+        try {
+            for (long second : new long[]{1_000_000_000L, 1675177572L, 4102444799L}) {
+                for (long fraction : new long[]{0, 1, amountPerSecond / 2, amountPerSecond / 10 * 9 + 1, amountPerSecond - 1}) {
+                    final long value = second * amountPerSecond + fraction;
+                    expected.setLength(0);
+                    appendSlow(expected, value);
+                    final Day day = newDay(value);
+                    if (day == null)
+                        return false;
+                    actual.setLength(0);
+                    appendFast(actual, day, value);
+                    if (!StringUtils.isEqual(expected, actual) || parseFast(expected, day) != parseSlow(expected))
+                        return false;
+                }
+            }
+            return true;
+        } catch (RuntimeException e) {
+            Jvm.debug().on(getClass(), "Using the formatters as the fast path failed", e);
+            return false;
+        }
+    }
+
+    /**
+     * A day, or the part of a day with one zone offset, with the text before and after the time.
+     */
+    private static final class Day {
+        final long start;
+        final long end;
+        final long midnight;
+        final long epochDay;
+        final boolean wholeDay;
+        final int offsetSeconds;
+        final String prefix;
+        final byte[] prefixBytes;
+        final String suffix;
+        final byte[] suffixBytes;
+
+        Day(long start, long end, long midnight, long epochDay, boolean wholeDay, int offsetSeconds, String prefix, String suffix) {
+            this.start = start;
+            this.end = end;
+            this.midnight = midnight;
+            this.epochDay = epochDay;
+            this.wholeDay = wholeDay;
+            this.offsetSeconds = offsetSeconds;
+            this.prefix = prefix;
+            this.prefixBytes = prefix.getBytes(StandardCharsets.ISO_8859_1);
+            this.suffix = suffix;
+            this.suffixBytes = suffix.getBytes(StandardCharsets.ISO_8859_1);
+        }
     }
 }
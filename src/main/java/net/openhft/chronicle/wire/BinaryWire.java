@@ -69,6 +69,7 @@ public class BinaryWire extends AbstractWire implements Wire {
 
     static final ScopedResourcePool<StringBuilder> SBP = StringBuilderPool.createThreadLocal();
     private static final boolean SUPPORT_DELTA = supportDelta();
+    private static final boolean READ_INPUT_ORDER = Jvm.getBoolean("wire.binary.readInputOrder", true);
     private static final UTF8StringInterner UTF8 = new UTF8StringInterner(4096);
     private static final Bit8StringInterner BIT8 = new Bit8StringInterner(1024);
     private static final ClassValue<Boolean> USES_SELF_DESCRIBING = ClassLocal.withInitial(k -> {
@@ -180,6 +181,16 @@ public class BinaryWire extends AbstractWire implements Wire {
         return true;
     }
 
+    /**
+     * Fields are read in the order they appear, with a hashed lookup by name ignoring case, or by field number, for
+     * any which are not in the expected order, so each field is only scanned once. This doesn't apply to numeric
+     * fields which are matched by code. Set wire.binary.readInputOrder to false to read in the order of the DTO.
+     */
+    @Override
+    public boolean hintReadInputOrder() {
+        return READ_INPUT_ORDER && !numericFields;
+    }
+
     /**
      * @return null is no override, true is always use self describing, false is never use self describing.
      */
@@ -222,6 +233,10 @@ public class BinaryWire extends AbstractWire implements Wire {
         return fieldLess;
     }
 
+    public boolean numericFields() {
+        return numericFields;
+    }
+
     @NotNull
     @Override
     public DocumentContext writingDocument(boolean metaData) {
@@ -4198,13 +4213,21 @@ public class BinaryWire extends AbstractWire implements Wire {
         @NotNull
         String[] inField = new String[128];
 
+        /**
+         * Discard the objects and field names retained from previous messages.
+         */
+        void resetDelta() {
+            Arrays.fill(inObjects, null);
+            Arrays.fill(inField, null);
+        }
+
         @NotNull
         @Override
         protected <T> T anchor() throws InvalidMarshallableException {
             long ref = bytes.readStopBit();
 //            System.out.println("anchor " + ref + " inObjects " + Integer.toHexString(inObjects.hashCode()));
             if (ref >= inObjects.length)
-                inObjects = Arrays.copyOf(inObjects, inObjects.length * 2);
+                inObjects = Arrays.copyOf(inObjects, Math.max(inObjects.length * 2, Maths.toUInt31(ref) + 1));
             @NotNull T t = super.typedMarshallable0();
             inObjects[Maths.toUInt31(ref)] = (Marshallable) t;
             return t;
@@ -19,13 +19,19 @@ package net.openhft.chronicle.wire;
 
 import net.openhft.chronicle.bytes.*;
 import net.openhft.chronicle.core.io.InvalidMarshallableException;
+import net.openhft.chronicle.core.util.ObjectUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * YAML Based wire format
@@ -35,11 +41,14 @@ public class CSVWire extends TextWire {
     private static final ThreadLocal<StopCharTester> ESCAPED_END_OF_TEXT = ThreadLocal.withInitial(
             StopCharTesters.COMMA_STOP::escaping);
 
-    private final List<String> header = new ArrayList<>();
+    private static final long MIN_CHUNK_SIZE = 1 << 20;
+
+    private final List<String> header;
 
     @SuppressWarnings("rawtypes")
     public CSVWire(@NotNull Bytes<?> bytes, boolean use8bit) {
         super(bytes, use8bit);
+        header = new ArrayList<>();
         while (lineStart == 0) {
             long start = bytes.readPosition();
             header.add(valueIn.text());
@@ -53,11 +62,153 @@ public class CSVWire extends TextWire {
         this(bytes, false);
     }
 
+    /**
+     * For reading rows after the header has been read.
+     *
+     * @param bytes   positioned at the start of a row
+     * @param use8bit whether the text is 8-bit
+     * @param header  already read
+     */
+    CSVWire(@NotNull Bytes<?> bytes, boolean use8bit, List<String> header) {
+        super(bytes, use8bit);
+        this.header = header;
+    }
+
     @NotNull
     public static CSVWire fromFile(String name) throws IOException {
         return new CSVWire(BytesUtil.readFile(name), true);
     }
 
+    /**
+     * Reads the rows of a file in parallel, without reading the whole file into memory first.
+     * <p>
+     * The file is memory mapped and split into chunks at line breaks outside double quotes, which are parsed
+     * on the common {@link ForkJoinPool}, each row into a new <code>rowType</code> by its readMarshallable.
+     * The header is read once and shared by the chunks. Quotes inside a quoted value should be doubled,
+     * as a backslash escaped quote is counted as a quote when finding where to split.
+     * <p>
+     * The stream should be closed to release the mapping.
+     *
+     * @param name    of the file
+     * @param rowType of each row
+     * @param ordered whether the rows are in the order of the file, otherwise they are in whatever order they are parsed
+     * @return a parallel stream of the rows
+     */
+    @NotNull
+    public static <T extends Marshallable> Stream<T> streamFromFile(String name, Class<T> rowType, boolean ordered) throws IOException {
+        final long length = new File(name).length();
+        final long chunkSize = Math.max(MIN_CHUNK_SIZE, length / (ForkJoinPool.getCommonPoolParallelism() * 4L));
+        return streamFromFile(name, rowType, ordered, chunkSize);
+    }
+
+    @NotNull
+    static <T extends Marshallable> Stream<T> streamFromFile(String name, Class<T> rowType, boolean ordered, long chunkSize) throws IOException {
+        final File file = new File(name);
+        final long length = file.length();
+        if (length == 0)
+            return Stream.empty();
+        final MappedBytes mappedBytes = MappedBytes.singleMappedBytes(file, length, true);
+        try {
+            final BytesStore<?, ?> store = mappedBytes.bytesStore();
+            final Bytes<?> headerBytes = store.bytesForRead();
+            final List<String> header;
+            final long dataStart;
+            try {
+                headerBytes.readLimit(length);
+                header = Collections.unmodifiableList(new CSVWire(headerBytes, true).header());
+                dataStart = headerBytes.readPosition();
+            } finally {
+                headerBytes.releaseLast();
+            }
+            final long[] splits = splits(store, dataStart, length, chunkSize);
+            final Stream<T> rows = IntStream.range(0, splits.length - 1)
+                    .parallel()
+                    .mapToObj(i -> readRows(store, splits[i], splits[i + 1], header, rowType))
+                    .flatMap(List::stream);
+            return (ordered ? rows : rows.unordered())
+                    .onClose(mappedBytes::releaseLast);
+        } catch (RuntimeException e) {
+            mappedBytes.releaseLast();
+            throw e;
+        }
+    }
+
+    /**
+     * Finds where to split the data into chunks, after a line break which isn't in double quotes.
+     * Whether each nominal split is inside quotes is found from the number of quotes in the chunks before it,
+     * which are counted in parallel.
+     */
+    static long[] splits(BytesStore<?, ?> store, long start, long end, long chunkSize) {
+        final int chunks = Math.toIntExact((end - start + chunkSize - 1) / chunkSize);
+        final long[] quotes = IntStream.range(0, chunks)
+                .parallel()
+                .mapToLong(i -> countQuotes(store, start + i * chunkSize, Math.min(end, start + (i + 1) * chunkSize)))
+                .toArray();
+        final long[] splits = new long[chunks + 1];
+        int count = 0;
+        splits[count++] = start;
+        long quotesBefore = 0;
+        for (int i = 1; i < chunks; i++) {
+            quotesBefore += quotes[i - 1];
+            final long nominal = start + i * chunkSize;
+            // a row longer than a chunk can end after the next nominal split
+            if (nominal < splits[count - 1])
+                continue;
+            final long split = nextRow(store, nominal, end, (quotesBefore & 1) != 0);
+            if (split < end && split > splits[count - 1])
+                splits[count++] = split;
+        }
+        splits[count++] = end;
+        final long[] result = new long[count];
+        System.arraycopy(splits, 0, result, 0, count);
+        return result;
+    }
+
+    private static long countQuotes(BytesStore<?, ?> store, long from, long to) {
+        long count = 0;
+        for (long i = from; i < to; i++)
+            if (store.readByte(i) == '"')
+                count++;
+        return count;
+    }
+
+    private static long nextRow(BytesStore<?, ?> store, long from, long end, boolean inQuotes) {
+        for (long i = from; i < end; i++) {
+            final byte b = store.readByte(i);
+            if (b == '"')
+                inQuotes = !inQuotes;
+            else if (b == '\n' && !inQuotes)
+                return i + 1;
+        }
+        return end;
+    }
+
+    private static <T extends Marshallable> List<T> readRows(BytesStore<?, ?> store, long start, long end, List<String> header, Class<T> rowType) {
+        final Bytes<?> bytes = store.bytesForRead();
+        try {
+            bytes.readLimit(end);
+            bytes.readPosition(start);
+            final CSVWire wire = new CSVWire(bytes, true, header);
+            final List<T> rows = new ArrayList<>();
+            // skips line breaks and comments between rows
+            while (wire.valueIn.hasNext()) {
+                final T row = ObjectUtils.newInstance(rowType);
+                row.readMarshallable(wire);
+                rows.add(row);
+            }
+            return rows;
+        } finally {
+            bytes.releaseLast();
+        }
+    }
+
+    /**
+     * @return the column names read from the first line
+     */
+    public List<String> header() {
+        return header;
+    }
+
     @NotNull
     public static CSVWire from(@NotNull String text) {
         return new CSVWire(Bytes.from(text));
@@ -20,6 +20,10 @@ package net.openhft.chronicle.wire;
 import net.openhft.chronicle.core.Maths;
 import net.openhft.chronicle.core.util.StringUtils;
 
+/**
+ * An open addressed map from a CharSequence to a value, which can be looked up with a StringBuilder without creating garbage.
+ * The map doesn't resize, so it should be created with a capacity larger than the number of keys.
+ */
 public class CharSequenceObjectMap<T> {
     private static final int K0 = 0x6d0f27bd;
     @SuppressWarnings("unused")
@@ -39,10 +43,10 @@ public class CharSequenceObjectMap<T> {
 
     public void put(CharSequence name, T t) {
         int h = hashFor(name);
-        for (int i = 0; i < mask; i++) {
-            if (keys[i] == null || StringUtils.isEqual(keys[i], name)) {
-                keys[i] = name.toString();
-                values[i] = t;
+        for (int i = 0; i <= mask; i++) {
+            if (keys[h] == null || StringUtils.isEqual(keys[h], name)) {
+                keys[h] = name.toString();
+                values[h] = t;
                 return;
             }
             h = (h + 1) & mask;
@@ -52,20 +56,43 @@ public class CharSequenceObjectMap<T> {
 
     public T get(CharSequence cs) {
         int h = hashFor(cs);
-        for (int i = 0; i < mask; i++) {
-            if (keys[i] == null)
+        for (int i = 0; i <= mask; i++) {
+            if (keys[h] == null)
                 return null;
-            if (StringUtils.isEqual(keys[i], cs))
-                return values[i];
+            if (StringUtils.isEqual(keys[h], cs))
+                return values[h];
             h = (h + 1) & mask;
         }
-        throw new IllegalStateException("Map is full");
+        return null;
+    }
+
+    /**
+     * Looks up a key ignoring case. Only keys put in lower case can be found this way.
+     *
+     * @param cs the name to look up, which is not changed
+     * @return the value, or null if there isn't one
+     */
+    public T getIgnoreCase(CharSequence cs) {
+        int h = hashFor(cs, true);
+        for (int i = 0; i <= mask; i++) {
+            if (keys[h] == null)
+                return null;
+            if (StringUtils.equalsCaseIgnore(keys[h], cs))
+                return values[h];
+            h = (h + 1) & mask;
+        }
+        return null;
     }
 
     private int hashFor(CharSequence name) {
+        return hashFor(name, false);
+    }
+
+    private int hashFor(CharSequence name, boolean lowerCase) {
         long h = name.length();
         for (int i = 0; i < name.length(); i++) {
-            h = h * K0 + name.charAt(i);
+            final char ch = name.charAt(i);
+            h = h * K0 + (lowerCase ? Character.toLowerCase(ch) : ch);
         }
         return (int) Maths.agitate(h) & mask;
     }
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.util.BinaryLengthLength;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.io.InvalidMarshallableException;
+import net.openhft.chronicle.core.util.ClassLocal;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static net.openhft.chronicle.wire.BinaryWireCode.ANCHOR;
+import static net.openhft.chronicle.wire.BinaryWireCode.UPDATED_ALIAS;
+
+/**
+ * A BinaryWire which only writes the fields of a typed {@link Marshallable} which have changed since it was last written.
+ * <p>
+ * The first time a type is written, it is written in full after an <code>ANCHOR</code> with a reference number.
+ * After that, an <code>UPDATED_ALIAS</code> to that reference is written with only the fields which differ from
+ * the copy the writer retained. The reader retains an instance per reference and applies the fields written onto it.
+ * <p>
+ * {@link KeyedMarshallable}s are retained per hash of their key, so values for different keys, e.g. different symbols,
+ * are compared with the last value for that key.
+ * <p>
+ * The writer and reader must see every document in the same order, and {@link #reset()} discards the retained state
+ * on both sides. {@link #clear()} retains it so the same wire can be cleared between messages.
+ * If a document is rolled back, the values written in it are written in full next time, as the reader didn't see them.
+ */
+public class DeltaWire extends BinaryWire {
+    static final int KEYED_SLOTS = Math.max(1, Integer.getInteger("deltaWire.keyedSlots", 256));
+    private static final ClassLocal<Boolean> SUPPORTS_DELTA = ClassLocal.withInitial(DeltaWire::supportsDelta);
+    private final DeltaDocumentContext deltaContext = new DeltaDocumentContext();
+
+    public DeltaWire(@NotNull Bytes<?> bytes) {
+        super(bytes, false, false, false, Integer.MAX_VALUE, "binary", true);
+    }
+
+    /**
+     * Only classes which use the default field by field marshalling can be written as a delta.
+     */
+    static boolean supportsDelta(Class<?> tClass) {
+        if (!Marshallable.class.isAssignableFrom(tClass)
+                || tClass.isEnum()
+                || DynamicEnum.class.isAssignableFrom(tClass)
+                || Jvm.isLambdaClass(tClass))
+            return false;
+        try {
+            return tClass.getMethod("writeMarshallable", WireOut.class).getDeclaringClass() == Marshallable.class
+                    && tClass.getMethod("readMarshallable", WireIn.class).getDeclaringClass() == Marshallable.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    @NotNull
+    @Override
+    protected FixedBinaryValueOut getFixedBinaryValueOut(boolean fixed) {
+        return new DeltaValueOut();
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        ((DeltaValueOut) getValueOut()).resetDelta();
+        ((DeltaValueIn) valueIn).resetDelta();
+    }
+
+    @NotNull
+    @Override
+    public DocumentContext writingDocument(boolean metaData) {
+        final boolean nested = !writingIsComplete();
+        final long position = bytes.writePosition();
+        final DocumentContext dc = super.writingDocument(metaData);
+        if (!nested)
+            deltaContext.startPosition = position;
+        deltaContext.documentContext(dc);
+        return deltaContext;
+    }
+
+    @Override
+    public DocumentContext acquireWritingDocument(boolean metaData) {
+        if (!writingIsComplete() && deltaContext.chainedElement())
+            return deltaContext;
+        return writingDocument(metaData);
+    }
+
+    @Override
+    public void rollbackIfNotComplete() {
+        final boolean open = !writingIsComplete();
+        super.rollbackIfNotComplete();
+        if (open)
+            ((DeltaValueOut) getValueOut()).endDocument(false);
+    }
+
+    static final class DeltaSlot {
+        final int ref;
+        Marshallable previous;
+
+        DeltaSlot(int ref) {
+            this.ref = ref;
+        }
+    }
+
+    protected class DeltaValueOut extends BinaryValueOut {
+        private final Map<Class<?>, DeltaSlot[]> slotsByClass = new HashMap<>();
+        // the slots written in the document being written
+        private final List<DeltaSlot> written = new ArrayList<>();
+        private Bytes<?> keyBytes;
+        private int nextRef = 0;
+        private int depth = 0;
+
+        @NotNull
+        @Override
+        public WireOut typedMarshallable(@Nullable WriteMarshallable marshallable) throws InvalidMarshallableException {
+            // only the outermost object is sent as a delta, nested values are written in full when they change.
+            if (marshallable == null
+                    || depth > 0
+                    || !SUPPORTS_DELTA.get(marshallable.getClass())
+                    || !useSelfDescribingMessage(marshallable))
+                return super.typedMarshallable(marshallable);
+
+            final Marshallable m = (Marshallable) marshallable;
+            final DeltaSlot slot = acquireSlot(m);
+            depth++;
+            try {
+                if (slot.previous == null)
+                    writeAnchor(m, slot);
+                else
+                    writeUpdate(m, slot);
+            } finally {
+                depth--;
+            }
+            if (!writingIsComplete())
+                written.add(slot);
+            return DeltaWire.this;
+        }
+
+        /**
+         * @param complete whether the document was completed, otherwise it was rolled back and the reader won't see the
+         *                 values written in it, so they are written in full next time
+         */
+        void endDocument(boolean complete) {
+            if (!complete)
+                for (DeltaSlot slot : written)
+                    slot.previous = null;
+            written.clear();
+        }
+
+        private void writeAnchor(Marshallable m, DeltaSlot slot) throws InvalidMarshallableException {
+            String typeName = Wires.typeNameFor(classLookup(), m);
+            if (bytes.retainedHexDumpDescription())
+                bytes.writeHexDumpDescription("anchor " + slot.ref + " " + typeName);
+            writeCode(ANCHOR).writeStopBit(slot.ref);
+            bytes.writeUtf8(typeName);
+            marshallable(m);
+            slot.previous = Wires.deepCopy(m);
+        }
+
+        private void writeUpdate(Marshallable m, DeltaSlot slot) throws InvalidMarshallableException {
+            if (bytes.retainedHexDumpDescription())
+                bytes.writeHexDumpDescription("update " + slot.ref);
+            writeCode(UPDATED_ALIAS).writeStopBit(slot.ref);
+            final BinaryLengthLength binaryLengthLength = m.binaryLengthLength();
+            long pos = binaryLengthLength.initialise(bytes);
+
+            WireMarshaller<Marshallable> wm = WireMarshaller.WIRE_MARSHALLER_CL.get(m.getClass());
+            wm.writeMarshallableDelta(m, DeltaWire.this, slot.previous);
+
+            binaryLengthLength.writeLength(bytes, pos, bytes.writePosition());
+        }
+
+        @NotNull
+        private DeltaSlot acquireSlot(Marshallable m) {
+            final Class<?> aClass = m.getClass();
+            final boolean keyed = m instanceof KeyedMarshallable;
+            DeltaSlot[] slots = slotsByClass.get(aClass);
+            if (slots == null)
+                slotsByClass.put(aClass, slots = new DeltaSlot[keyed ? KEYED_SLOTS : 1]);
+
+            // a hash collision only makes the delta larger as both sides use the same slot.
+            int index = keyed ? (keyHash((KeyedMarshallable) m) & 0x7FFFFFFF) % slots.length : 0;
+            DeltaSlot slot = slots[index];
+            if (slot == null)
+                slots[index] = slot = new DeltaSlot(nextRef++);
+            return slot;
+        }
+
+        private int keyHash(KeyedMarshallable km) {
+            if (keyBytes == null)
+                keyBytes = Bytes.allocateElasticOnHeap();
+            keyBytes.clear();
+            km.writeKey(keyBytes);
+            int h = 0;
+            for (long i = keyBytes.readPosition(); i < keyBytes.readLimit(); i++)
+                h = h * 31 + keyBytes.readByte(i);
+            return h;
+        }
+
+        void resetDelta() {
+            slotsByClass.clear();
+            written.clear();
+            nextRef = 0;
+        }
+    }
+
+    /**
+     * Tells the writer whether the document was completed or rolled back when it is closed.
+     */
+    private final class DeltaDocumentContext extends DocumentContextHolder {
+        long startPosition;
+
+        @Override
+        public void close() {
+            final boolean open = !writingIsComplete();
+            super.close();
+            // a rolled back document is removed from the bytes
+            if (open && writingIsComplete())
+                ((DeltaValueOut) getValueOut()).endDocument(bytes.writePosition() > startPosition);
+        }
+
+        @Override
+        public void rollbackOnClose() {
+            documentContext().rollbackOnClose();
+        }
+
+        @Override
+        public void rollbackIfNotComplete() {
+            DeltaWire.this.rollbackIfNotComplete();
+        }
+    }
+}
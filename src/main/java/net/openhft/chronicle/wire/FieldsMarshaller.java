@@ -0,0 +1,41 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.core.io.InvalidMarshallableException;
+
+/**
+ * Writes and reads the fields of a DTO with code generated for its class by {@link WireMarshaller#ofGenerated(Class)}.
+ *
+ * @param <T> the type of the DTO
+ */
+public interface FieldsMarshaller<T> {
+    /**
+     * Writes each field in turn, as {@link WireMarshaller#writeMarshallable(Object, WireOut)} does.
+     */
+    void writeMarshallable(T t, WireOut out) throws InvalidMarshallableException;
+
+    /**
+     * Reads each field in the order of the DTO, as {@link WireMarshaller#readMarshallableDTOOrder(Object, WireIn, boolean)} does.
+     *
+     * @param defaults  the values of fields which are missing, if overwrite is true
+     * @param overwrite whether fields are replaced rather than updated
+     */
+    void readMarshallable(T t, WireIn wire, T defaults, boolean overwrite) throws InvalidMarshallableException;
+}
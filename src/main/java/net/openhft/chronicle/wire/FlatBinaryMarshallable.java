@@ -0,0 +1,49 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.BytesIn;
+import net.openhft.chronicle.bytes.BytesOut;
+import net.openhft.chronicle.core.io.IORuntimeException;
+
+/**
+ * This uses a fixed binary layout, see {@link FlatLayout}, for non self describing messages, and so any field
+ * can be read in place with a {@link FlatView}. Text wires are self describing as usual.
+ * <p>
+ * Fields may be primitives, text, enums, nested FlatBinaryMarshallable, or Lists of text or FlatBinaryMarshallable.
+ * Nested FlatBinaryMarshallable must be final classes.
+ * <p>
+ * This is read and written by the usual {@link SerializationStrategies#MARSHALLABLE} strategy, as its
+ * {@link #readMarshallable(BytesIn)} and {@link #writeMarshallable(BytesOut)} use the layout.
+ */
+public abstract class FlatBinaryMarshallable extends BytesInBinaryMarshallable {
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void readMarshallable(BytesIn<?> bytes) throws IORuntimeException {
+        FlatLayout.of((Class<FlatBinaryMarshallable>) getClass()).read(this, (Bytes<?>) bytes);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void writeMarshallable(BytesOut<?> bytes) {
+        FlatLayout.of((Class<FlatBinaryMarshallable>) getClass()).write(this, (Bytes<?>) bytes);
+    }
+}
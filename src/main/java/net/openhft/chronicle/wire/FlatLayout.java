@@ -0,0 +1,403 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.io.IORuntimeException;
+import net.openhft.chronicle.core.util.ClassLocal;
+import net.openhft.chronicle.core.util.ObjectUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.*;
+
+import static net.openhft.chronicle.core.UnsafeMemory.*;
+
+/**
+ * The fixed binary layout of a {@link FlatBinaryMarshallable}, derived from the fields the {@link WireMarshaller} would write.
+ * <p>
+ * A record is a header of its length and a description of the layout, then a fixed area with a slot per field,
+ * then a variable area. Primitives are held in their slot, largest first, so each is aligned relative to the start
+ * of its record. Records are written wherever they fall, e.g. a nested record after some text, so a field is only
+ * aligned in memory if its record happens to start on an 8 byte boundary.
+ * Text, enums, nested records and lists have an <code>int</code> slot holding their offset from the start
+ * of the record, or 0 for null. A nested record is written with the layout of its declared type, so that type
+ * must be final. Text is held as UTF-8 with a stop bit length, and a list is a count followed by
+ * a table of offsets to its elements.
+ * <p>
+ * As every field is at a known offset, a {@link FlatView} can read any field of a record in place,
+ * without reading the record into an object.
+ */
+public final class FlatLayout<T> {
+    static final int HEADER = 8;
+    private static final ClassLocal<FlatLayout<?>> LAYOUTS = ClassLocal.withInitial(FlatLayout::new);
+
+    private final Class<T> type;
+    private final Field[] fields;
+    private final Map<String, Field> fieldMap = new HashMap<>();
+    private final int fixedLength;
+    private final int description;
+
+    @SuppressWarnings("unchecked")
+    private FlatLayout(Class<?> type) {
+        this.type = (Class<T>) type;
+        final WireMarshaller<?> marshaller = WireMarshaller.WIRE_MARSHALLER_CL.get(type);
+        final List<Field> list = new ArrayList<>();
+        for (WireMarshaller.FieldAccess fa : marshaller.fields)
+            list.add(new Field(this, fa.field, fa.offset));
+        // largest first so each is aligned relative to the start of the record
+        list.sort(Comparator.comparingInt((Field f) -> -f.kind.size));
+        int offset = HEADER;
+        int hash = type.getName().hashCode();
+        for (Field f : list) {
+            f.position = offset;
+            offset += f.kind.size;
+            fieldMap.put(f.name, f);
+            hash = hash * 31 + f.name.hashCode() * 17 + f.kind.ordinal();
+        }
+        this.fields = list.toArray(new Field[0]);
+        this.fixedLength = offset;
+        this.description = hash;
+    }
+
+    /**
+     * @param type of the records
+     * @param <T>  type of the records
+     * @return the layout for the type
+     * @throws IllegalArgumentException if a field is of a type which can't be laid out
+     */
+    @SuppressWarnings("unchecked")
+    @NotNull
+    public static <T> FlatLayout<T> of(@NotNull Class<T> type) {
+        return (FlatLayout<T>) LAYOUTS.get(type);
+    }
+
+    public Class<T> type() {
+        return type;
+    }
+
+    /**
+     * @return the length of the header and fixed area, the minimum length of a record
+     */
+    public int fixedLength() {
+        return fixedLength;
+    }
+
+    /**
+     * @param name of the field
+     * @return the field with the name
+     * @throws IllegalArgumentException if there is no field with the name
+     */
+    @NotNull
+    public Field field(@NotNull String name) {
+        final Field field = fieldMap.get(name);
+        if (field == null)
+            throw new IllegalArgumentException("No field " + name + " in " + type.getName());
+        return field;
+    }
+
+    /**
+     * @param bytes containing a record
+     * @param start of the record
+     * @throws IORuntimeException if the record was written with a different layout
+     */
+    void checkDescription(@NotNull Bytes<?> bytes, long start) {
+        final int description0 = bytes.readInt(start + 4);
+        if (description0 != description)
+            throw new IORuntimeException("Record at " + start + " doesn't have the layout of " + type.getName());
+    }
+
+    /**
+     * Appends the record for an object.
+     *
+     * @param t     to write
+     * @param bytes to append to
+     */
+    public void write(@NotNull T t, @NotNull Bytes<?> bytes) {
+        final long start = bytes.writePosition();
+        bytes.writeInt(0);
+        bytes.writeInt(description);
+        bytes.writeSkip(fixedLength - HEADER);
+        for (Field f : fields) {
+            final long slot = start + f.position;
+            switch (f.kind) {
+                case BOOLEAN:
+                    bytes.writeByte(slot, (byte) (unsafeGetBoolean(t, f.offset) ? 1 : 0));
+                    break;
+                case BYTE:
+                    bytes.writeByte(slot, unsafeGetByte(t, f.offset));
+                    break;
+                case CHAR:
+                    bytes.writeShort(slot, (short) unsafeGetChar(t, f.offset));
+                    break;
+                case SHORT:
+                    bytes.writeShort(slot, unsafeGetShort(t, f.offset));
+                    break;
+                case INT:
+                    bytes.writeInt(slot, unsafeGetInt(t, f.offset));
+                    break;
+                case FLOAT:
+                    bytes.writeFloat(slot, unsafeGetFloat(t, f.offset));
+                    break;
+                case LONG:
+                    bytes.writeLong(slot, unsafeGetLong(t, f.offset));
+                    break;
+                case DOUBLE:
+                    bytes.writeDouble(slot, unsafeGetDouble(t, f.offset));
+                    break;
+                default:
+                    final Object o = unsafeGetObject(t, f.offset);
+                    bytes.writeInt(slot, o == null ? 0 : (int) (bytes.writePosition() - start));
+                    if (o != null)
+                        writeVariable(f, o, bytes, start);
+                    break;
+            }
+        }
+        bytes.writeInt(start, (int) (bytes.writePosition() - start));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeVariable(Field f, Object o, Bytes<?> bytes, long start) {
+        switch (f.kind) {
+            case TEXT:
+                bytes.writeUtf8((CharSequence) o);
+                break;
+            case ENUM:
+                bytes.writeUtf8(((Enum<?>) o).name());
+                break;
+            case NESTED:
+                ((FlatLayout<Object>) f.nested()).write(o, bytes);
+                break;
+            case TEXT_LIST:
+            case NESTED_LIST:
+                final Collection<?> c = (Collection<?>) o;
+                bytes.writeInt(c.size());
+                final long table = bytes.writePosition();
+                bytes.writeSkip(c.size() * 4L);
+                int i = 0;
+                for (Object e : c) {
+                    bytes.writeInt(table + 4L * i++, e == null ? 0 : (int) (bytes.writePosition() - start));
+                    if (e == null)
+                        continue;
+                    if (f.kind == Kind.TEXT_LIST)
+                        bytes.writeUtf8((CharSequence) e);
+                    else
+                        ((FlatLayout<Object>) f.nested()).write(e, bytes);
+                }
+                break;
+            default:
+                throw new AssertionError(f.kind);
+        }
+    }
+
+    /**
+     * Reads the record at the read position into an object, and skips it.
+     *
+     * @param using to read into, or null to create one
+     * @param bytes to read from
+     * @return the object read into
+     * @throws IORuntimeException if the record was written with a different layout
+     */
+    @NotNull
+    public T read(@Nullable T using, @NotNull Bytes<?> bytes) {
+        final long start = bytes.readPosition();
+        checkDescription(bytes, start);
+        final int length = bytes.readInt(start);
+        final T t = using == null ? ObjectUtils.newInstance(type) : using;
+        for (Field f : fields) {
+            final long slot = start + f.position;
+            switch (f.kind) {
+                case BOOLEAN:
+                    unsafePutBoolean(t, f.offset, bytes.readByte(slot) != 0);
+                    break;
+                case BYTE:
+                    unsafePutByte(t, f.offset, bytes.readByte(slot));
+                    break;
+                case CHAR:
+                    unsafePutChar(t, f.offset, (char) bytes.readShort(slot));
+                    break;
+                case SHORT:
+                    unsafePutShort(t, f.offset, bytes.readShort(slot));
+                    break;
+                case INT:
+                    unsafePutInt(t, f.offset, bytes.readInt(slot));
+                    break;
+                case FLOAT:
+                    unsafePutFloat(t, f.offset, bytes.readFloat(slot));
+                    break;
+                case LONG:
+                    unsafePutLong(t, f.offset, bytes.readLong(slot));
+                    break;
+                case DOUBLE:
+                    unsafePutDouble(t, f.offset, bytes.readDouble(slot));
+                    break;
+                default:
+                    final int ref = bytes.readInt(slot);
+                    final Object existing = unsafeGetObject(t, f.offset);
+                    unsafePutObject(t, f.offset, ref == 0 ? null : readVariable(f, existing, bytes, start, start + ref));
+                    break;
+            }
+        }
+        bytes.readPosition(start + length);
+        return t;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object readVariable(Field f, Object existing, Bytes<?> bytes, long start, long position) {
+        bytes.readPosition(position);
+        switch (f.kind) {
+            case TEXT:
+                if (f.type == StringBuilder.class) {
+                    final StringBuilder sb = existing == null ? new StringBuilder() : (StringBuilder) existing;
+                    bytes.readUtf8(sb);
+                    return sb;
+                }
+                return bytes.readUtf8();
+            case ENUM:
+                return Enum.valueOf((Class) f.type, bytes.readUtf8());
+            case NESTED:
+                return ((FlatLayout<Object>) f.nested()).read(existing, bytes);
+            case TEXT_LIST:
+            case NESTED_LIST:
+                final Collection<Object> c = existing == null
+                        ? (f.type.isAssignableFrom(ArrayList.class) ? new ArrayList<>() : ObjectUtils.newInstance((Class<Collection<Object>>) f.type))
+                        : (Collection<Object>) existing;
+                c.clear();
+                final int size = bytes.readInt(position);
+                for (int i = 0; i < size; i++) {
+                    final int ref = bytes.readInt(position + 4 + 4L * i);
+                    if (ref == 0) {
+                        c.add(null);
+                        continue;
+                    }
+                    bytes.readPosition(start + ref);
+                    c.add(f.kind == Kind.TEXT_LIST ? bytes.readUtf8() : ((FlatLayout<Object>) f.nested()).read(null, bytes));
+                }
+                return c;
+            default:
+                throw new AssertionError(f.kind);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FlatLayout{" + type.getName() + ", fields=" + Arrays.toString(fields) + '}';
+    }
+
+    enum Kind {
+        LONG(8), DOUBLE(8),
+        INT(4), FLOAT(4), TEXT(4), ENUM(4), NESTED(4), TEXT_LIST(4), NESTED_LIST(4),
+        CHAR(2), SHORT(2),
+        BOOLEAN(1), BYTE(1);
+
+        final int size;
+
+        Kind(int size) {
+            this.size = size;
+        }
+    }
+
+    /**
+     * A field of a layout, for reading it from a {@link FlatView}.
+     */
+    public static final class Field {
+        final FlatLayout<?> owner;
+        final String name;
+        final Class<?> type;
+        final Kind kind;
+        final long offset;
+        @Nullable
+        private final Class<?> nestedType;
+        // resolved lazily as a type can contain itself
+        private FlatLayout<?> nested;
+        int position;
+
+        Field(FlatLayout<?> owner, java.lang.reflect.Field field, long offset) {
+            this.owner = owner;
+            this.name = field.getName();
+            this.type = field.getType();
+            this.offset = offset;
+            Class<?> nestedType = null;
+            if (type.isPrimitive()) {
+                kind = type == boolean.class ? Kind.BOOLEAN
+                        : type == byte.class ? Kind.BYTE
+                        : type == char.class ? Kind.CHAR
+                        : type == short.class ? Kind.SHORT
+                        : type == int.class ? Kind.INT
+                        : type == float.class ? Kind.FLOAT
+                        : type == long.class ? Kind.LONG
+                        : Kind.DOUBLE;
+            } else if (type == String.class || type == CharSequence.class || type == StringBuilder.class) {
+                kind = Kind.TEXT;
+            } else if (type.isEnum()) {
+                kind = Kind.ENUM;
+            } else if (FlatBinaryMarshallable.class.isAssignableFrom(type)) {
+                kind = Kind.NESTED;
+                nestedType = finalType(type);
+            } else if (List.class.isAssignableFrom(type) || type == Collection.class) {
+                final Class<?> element = elementType(field);
+                if (element == String.class || element == CharSequence.class) {
+                    kind = Kind.TEXT_LIST;
+                } else if (element != null && FlatBinaryMarshallable.class.isAssignableFrom(element)) {
+                    kind = Kind.NESTED_LIST;
+                    nestedType = finalType(element);
+                } else {
+                    throw new IllegalArgumentException("Field " + name + " must be a List of String or FlatBinaryMarshallable");
+                }
+            } else {
+                throw new IllegalArgumentException("Field " + name + " of " + type + " can't be laid out flat");
+            }
+            this.nestedType = nestedType;
+        }
+
+        private Class<?> finalType(Class<?> nestedType) {
+            // a subclass would be written with fewer fields than it has
+            if (!Modifier.isFinal(nestedType.getModifiers()))
+                throw new IllegalArgumentException("Field " + name + " of " + nestedType + " must be of a final class to be laid out flat");
+            return nestedType;
+        }
+
+        FlatLayout<?> nested() {
+            if (nested == null && nestedType != null)
+                nested = of(nestedType);
+            return nested;
+        }
+
+        @Nullable
+        private static Class<?> elementType(java.lang.reflect.Field field) {
+            final Type generic = field.getGenericType();
+            if (!(generic instanceof ParameterizedType))
+                return null;
+            final Type arg = ((ParameterizedType) generic).getActualTypeArguments()[0];
+            return arg instanceof Class ? (Class<?>) arg : null;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return name + ": " + kind + " @" + position;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.io.IORuntimeException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A flyweight over a record written with a {@link FlatLayout}, which reads fields in place from the {@link Bytes}
+ * without reading the record into an object. Text is read into a caller's StringBuilder, and nested records and
+ * list elements are read through another view, so reading a field doesn't allocate.
+ * <p>
+ * Fields can be looked up by name, or by a {@link FlatLayout.Field} from {@link FlatLayout#field(String)} to avoid the lookup.
+ * A view is only valid while the bytes it wraps are unchanged, and is not thread-safe.
+ * <pre>{@code
+ * FlatView view = new FlatView();
+ * try (DocumentContext dc = wire.readingDocument()) {
+ *     view.wrap(Order.class, dc.wire());
+ *     double price = view.getDouble("price");
+ * }
+ * }</pre>
+ */
+public final class FlatView {
+    private FlatLayout<?> layout;
+    private Bytes<?> bytes;
+    private long start;
+
+    /**
+     * Wraps the marshallable value next in a binary wire, e.g. written with <code>getValueOut().object(record)</code>.
+     *
+     * @param type of the record
+     * @param wire to read from
+     * @return this
+     * @throws IORuntimeException if the record was written with a different layout
+     */
+    @NotNull
+    public FlatView wrap(@NotNull Class<?> type, @NotNull WireIn wire) {
+        wire.consumePadding();
+        // skips any type prefix and the length
+        wire.getValueIn().readLength();
+        final Bytes<?> bytes = wire.bytes();
+        return wrap(FlatLayout.of(type), bytes, bytes.readPosition());
+    }
+
+    /**
+     * Wraps the record at a position.
+     *
+     * @param layout of the record
+     * @param bytes  to read from
+     * @param start  of the record
+     * @return this
+     * @throws IORuntimeException if the record was written with a different layout
+     */
+    @NotNull
+    public FlatView wrap(@NotNull FlatLayout<?> layout, @NotNull Bytes<?> bytes, long start) {
+        layout.checkDescription(bytes, start);
+        this.layout = layout;
+        this.bytes = bytes;
+        this.start = start;
+        return this;
+    }
+
+    public FlatLayout<?> layout() {
+        return layout;
+    }
+
+    /**
+     * @return the length of the record
+     */
+    public int length() {
+        return bytes.readInt(start);
+    }
+
+    public boolean getBoolean(@NotNull String name) {
+        return getBoolean(layout.field(name));
+    }
+
+    public boolean getBoolean(@NotNull FlatLayout.Field field) {
+        return bytes.readByte(slot(field, FlatLayout.Kind.BOOLEAN)) != 0;
+    }
+
+    public byte getByte(@NotNull FlatLayout.Field field) {
+        return bytes.readByte(slot(field, FlatLayout.Kind.BYTE));
+    }
+
+    public char getChar(@NotNull FlatLayout.Field field) {
+        return (char) bytes.readShort(slot(field, FlatLayout.Kind.CHAR));
+    }
+
+    public short getShort(@NotNull FlatLayout.Field field) {
+        return bytes.readShort(slot(field, FlatLayout.Kind.SHORT));
+    }
+
+    public int getInt(@NotNull String name) {
+        return getInt(layout.field(name));
+    }
+
+    public int getInt(@NotNull FlatLayout.Field field) {
+        return bytes.readInt(slot(field, FlatLayout.Kind.INT));
+    }
+
+    public float getFloat(@NotNull FlatLayout.Field field) {
+        return bytes.readFloat(slot(field, FlatLayout.Kind.FLOAT));
+    }
+
+    public long getLong(@NotNull String name) {
+        return getLong(layout.field(name));
+    }
+
+    public long getLong(@NotNull FlatLayout.Field field) {
+        return bytes.readLong(slot(field, FlatLayout.Kind.LONG));
+    }
+
+    public double getDouble(@NotNull String name) {
+        return getDouble(layout.field(name));
+    }
+
+    public double getDouble(@NotNull FlatLayout.Field field) {
+        return bytes.readDouble(slot(field, FlatLayout.Kind.DOUBLE));
+    }
+
+    /**
+     * @param name of a text or enum field
+     * @param sb   to append the text to
+     * @return false if the field is null
+     */
+    public boolean readText(@NotNull String name, @NotNull StringBuilder sb) {
+        return readText(layout.field(name), sb);
+    }
+
+    /**
+     * @param field a text or enum field
+     * @param sb    to append the text to
+     * @return false if the field is null
+     */
+    public boolean readText(@NotNull FlatLayout.Field field, @NotNull StringBuilder sb) {
+        if (field.kind != FlatLayout.Kind.ENUM)
+            checkKind(field, FlatLayout.Kind.TEXT);
+        return readUtf8(ref(field), sb);
+    }
+
+    /**
+     * @param name  of a nested record field
+     * @param using view to wrap the nested record with
+     * @return the view, or null if the field is null
+     */
+    @Nullable
+    public FlatView nested(@NotNull String name, @NotNull FlatView using) {
+        return nested(layout.field(name), using);
+    }
+
+    @Nullable
+    public FlatView nested(@NotNull FlatLayout.Field field, @NotNull FlatView using) {
+        checkKind(field, FlatLayout.Kind.NESTED);
+        final int ref = ref(field);
+        return ref == 0 ? null : using.wrap(field.nested(), bytes, start + ref);
+    }
+
+    /**
+     * @param name of a list field
+     * @return the number of elements, or -1 if the list is null
+     */
+    public int size(@NotNull String name) {
+        return size(layout.field(name));
+    }
+
+    public int size(@NotNull FlatLayout.Field field) {
+        final int ref = listRef(field);
+        return ref == 0 ? -1 : bytes.readInt(start + ref);
+    }
+
+    /**
+     * @param field a list of text field
+     * @param index of the element
+     * @param sb    to append the text to
+     * @return false if the element is null
+     */
+    public boolean readText(@NotNull FlatLayout.Field field, int index, @NotNull StringBuilder sb) {
+        checkKind(field, FlatLayout.Kind.TEXT_LIST);
+        return readUtf8(elementRef(field, index), sb);
+    }
+
+    /**
+     * @param field a list of nested records field
+     * @param index of the element
+     * @param using view to wrap the element with
+     * @return the view, or null if the element is null
+     */
+    @Nullable
+    public FlatView element(@NotNull FlatLayout.Field field, int index, @NotNull FlatView using) {
+        checkKind(field, FlatLayout.Kind.NESTED_LIST);
+        final int ref = elementRef(field, index);
+        return ref == 0 ? null : using.wrap(field.nested(), bytes, start + ref);
+    }
+
+    private int listRef(FlatLayout.Field field) {
+        if (field.kind != FlatLayout.Kind.NESTED_LIST)
+            checkKind(field, FlatLayout.Kind.TEXT_LIST);
+        return ref(field);
+    }
+
+    private int elementRef(FlatLayout.Field field, int index) {
+        final int ref = ref(field);
+        if (ref == 0 || index < 0 || index >= bytes.readInt(start + ref))
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + (ref == 0 ? -1 : bytes.readInt(start + ref)));
+        return bytes.readInt(start + ref + 4 + 4L * index);
+    }
+
+    private int ref(FlatLayout.Field field) {
+        return bytes.readInt(start + field.position);
+    }
+
+    private boolean readUtf8(int ref, StringBuilder sb) {
+        if (ref == 0)
+            return false;
+        final long position = bytes.readPosition();
+        try {
+            bytes.readPosition(start + ref);
+            bytes.readUtf8(sb);
+        } finally {
+            bytes.readPosition(position);
+        }
+        return true;
+    }
+
+    private long slot(FlatLayout.Field field, FlatLayout.Kind kind) {
+        checkKind(field, kind);
+        return start + field.position;
+    }
+
+    private void checkKind(FlatLayout.Field field, FlatLayout.Kind kind) {
+        if (field.kind != kind || field.owner != layout)
+            throw new IllegalArgumentException("Field " + field + " is not a " + kind + " of " + layout.type().getName());
+    }
+}
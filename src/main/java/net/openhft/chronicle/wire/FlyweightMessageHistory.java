@@ -0,0 +1,413 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.*;
+import net.openhft.chronicle.bytes.util.BinaryLengthLength;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.io.IORuntimeException;
+import net.openhft.chronicle.core.io.InvalidMarshallableException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.BiConsumer;
+
+import static net.openhft.chronicle.core.time.SystemTimeProvider.CLOCK;
+import static net.openhft.chronicle.wire.VanillaMessageHistory.MESSAGE_HISTORY_LENGTH;
+
+/**
+ * A {@link MessageHistory} which holds the sources and timings in a fixed binary layout, rather than arrays,
+ * so the binary form written by {@link VanillaMessageHistory#useBytesMarshallable(boolean)} is read and written
+ * with one bulk copy per section instead of element by element.
+ * <p>
+ * The binary form is read in place: the sources and timings read are viewed in the message, and those added after
+ * are written to a fixed region of this history's own store, so {@link #addSource(int, long)} and
+ * {@link #addTiming(long)} write in place. The view is only valid while the message is being read, so anything
+ * keeping this history after that must call {@link #detach()} first, which copies the viewed part, as a method
+ * reader does when it keeps a history to write with the next output.
+ * <p>
+ * This writes the binary form by default, which a {@link VanillaMessageHistory} can read.
+ */
+public class FlyweightMessageHistory extends SelfDescribingMarshallable implements MessageHistory {
+    private static final int MAX_TIMINGS = MESSAGE_HISTORY_LENGTH * 2;
+    private static final int SOURCE_IDS = 0;
+    private static final int SOURCE_INDEXES = SOURCE_IDS + MESSAGE_HISTORY_LENGTH * 4;
+    private static final int TIMINGS = SOURCE_INDEXES + MESSAGE_HISTORY_LENGTH * 8;
+    private static final int LENGTH = TIMINGS + MAX_TIMINGS * 8;
+
+    // on heap as a thread local history is never released
+    private final transient BytesStore<?, byte[]> store = BytesStore.wrap(new byte[LENGTH]);
+    // the message the first viewSources and viewTimings are read from, if not null
+    private transient BytesStore<?, ?> view;
+    private transient long viewIds;
+    private transient long viewTimingsAt;
+    private transient int viewSources;
+    private transient int viewTimings;
+    private final transient BiConsumer<FlyweightMessageHistory, ValueOut> acceptSourcesConsumer = this::acceptSources;
+    private final transient BiConsumer<FlyweightMessageHistory, ValueOut> acceptTimingsConsumer = this::acceptTimings;
+    private transient boolean dirty;
+    private transient int sources;
+    private transient int timings;
+    private transient boolean addSourceDetails = false;
+    private transient boolean useBytesMarshallable = true;
+    private transient boolean historyWallClock = Jvm.getBoolean("history.wall.clock");
+
+    private static void acceptSourcesRead(FlyweightMessageHistory t, ValueIn in) {
+        while (in.hasNextSequenceItem()) {
+            t.addSource(in.int32(), in.int64());
+        }
+    }
+
+    private static void acceptTimingsRead(FlyweightMessageHistory t, ValueIn in) {
+        while (in.hasNextSequenceItem()) {
+            t.addTiming(in.int64());
+        }
+    }
+
+    /**
+     * Whether to automatically add the source and a timestamp on read.
+     *
+     * @param addSourceDetails True if source details should be added, false otherwise.
+     */
+    public void addSourceDetails(boolean addSourceDetails) {
+        this.addSourceDetails = addSourceDetails;
+    }
+
+    public boolean addSourceDetails() {
+        return addSourceDetails;
+    }
+
+    /**
+     * @param useBytesMarshallable whether to write the binary form to a binary wire, true by default
+     */
+    public void useBytesMarshallable(boolean useBytesMarshallable) {
+        this.useBytesMarshallable = useBytesMarshallable;
+    }
+
+    public void historyWallClock(boolean historyWallClock) {
+        this.historyWallClock = historyWallClock;
+    }
+
+    @Override
+    public void reset() {
+        clearView();
+        sources = timings = 0;
+    }
+
+    @Override
+    public void reset(int sourceId, long sourceIndex) {
+        clearView();
+        sources = 1;
+        store.writeInt(SOURCE_IDS, sourceId);
+        store.writeLong(SOURCE_INDEXES, sourceIndex);
+        timings = 1;
+        store.writeLong(TIMINGS, nanoTime());
+    }
+
+    @Override
+    public int lastSourceId() {
+        return sources <= 0 ? -1 : sourceId(sources - 1);
+    }
+
+    @Override
+    public long lastSourceIndex() {
+        return sources <= 0 ? -1 : sourceIndex(sources - 1);
+    }
+
+    @Override
+    public int timings() {
+        return timings;
+    }
+
+    @Override
+    public long timing(int n) {
+        if (n < viewTimings)
+            return view.readLong(viewTimingsAt + n * 8L);
+        return store.readLong(TIMINGS + n * 8L);
+    }
+
+    @Override
+    public int sources() {
+        return sources;
+    }
+
+    @Override
+    public int sourceId(int n) {
+        if (n < viewSources)
+            return view.readInt(viewIds + n * 4L);
+        return store.readInt(SOURCE_IDS + n * 4L);
+    }
+
+    @Override
+    public long sourceIndex(int n) {
+        if (n < viewSources)
+            return view.readLong(viewIds + viewSources * 4L + n * 8L);
+        return store.readLong(SOURCE_INDEXES + n * 8L);
+    }
+
+    @Override
+    public boolean sourceIdsEndsWith(int[] sourceIds) {
+        int start = sources - sourceIds.length;
+        if (start < 0)
+            return false;
+        for (int i = 0; i < sourceIds.length; i++) {
+            if (sourceId(start + i) != sourceIds[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Appends a source in place.
+     *
+     * @param id    The ID of the source.
+     * @param index The index of the source.
+     */
+    public void addSource(int id, long index) {
+        if (sources >= MESSAGE_HISTORY_LENGTH)
+            throw new IllegalStateException("Have exceeded message history size: " + this);
+        store.writeInt(SOURCE_IDS + sources * 4L, id);
+        store.writeLong(SOURCE_INDEXES + sources * 8L, index);
+        sources++;
+        dirty = true;
+    }
+
+    /**
+     * Appends a timing in place.
+     *
+     * @param l The timing value to be added.
+     */
+    public void addTiming(long l) {
+        if (timings >= MAX_TIMINGS)
+            throw new IllegalStateException("Have exceeded message history size: " + this);
+        store.writeLong(TIMINGS + timings * 8L, l);
+        timings++;
+    }
+
+    @Override
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    @Override
+    public void readMarshallable(@NotNull WireIn wire) throws IORuntimeException, InvalidMarshallableException {
+        Bytes<?> bytes = wire.bytes();
+        if (bytes.peekUnsignedByte() == BinaryWireCode.BYTES_MARSHALLABLE) {
+            bytes.readSkip(1);
+            readMarshallable0(bytes);
+        } else {
+            clearView();
+            sources = 0;
+            wire.read("sources").sequence(this, FlyweightMessageHistory::acceptSourcesRead);
+            timings = 0;
+            wire.read("timings").sequence(this, FlyweightMessageHistory::acceptTimingsRead);
+        }
+        if (addSourceDetails) {
+            @Nullable Object o = wire.parent();
+            if (o instanceof SourceContext) {
+                @Nullable SourceContext dc = (SourceContext) o;
+                addSource(dc.sourceId(), dc.index());
+            }
+
+            addTiming(nanoTime());
+        }
+    }
+
+    @Override
+    public void readMarshallable(@NotNull BytesIn<?> bytes) throws IORuntimeException {
+        readMarshallable0(bytes);
+        assert !addSourceDetails : "Bytes marshalling does not yet support addSourceDetails";
+    }
+
+    private void readMarshallable0(@NotNull BytesIn<?> bytes) {
+        clearView();
+        final int sources = bytes.readUnsignedByte();
+        if (sources > MESSAGE_HISTORY_LENGTH)
+            throw new IORuntimeException("Too many sources " + sources);
+        final long ids = bytes.readPosition();
+        bytes.readSkip(sources * 12L);
+        final int timings = bytes.readUnsignedByte();
+        if (timings > MAX_TIMINGS)
+            throw new IORuntimeException("Too many timings " + timings);
+        final long timingsAt = bytes.readPosition();
+        bytes.readSkip(timings * 8L);
+        this.sources = sources;
+        this.timings = timings;
+
+        final BytesStore<?, ?> bs = bytes instanceof Bytes ? ((Bytes<?>) bytes).bytesStore() : null;
+        if (bs != null && bs.inside(ids, bytes.readPosition() - ids)) {
+            view = bs;
+            viewIds = ids;
+            viewTimingsAt = timingsAt;
+            viewSources = sources;
+            viewTimings = timings;
+        } else {
+            final RandomDataInput in = (RandomDataInput) bytes;
+            store.write(SOURCE_IDS, in, ids, sources * 4L);
+            store.write(SOURCE_INDEXES, in, ids + sources * 4L, sources * 8L);
+            store.write(TIMINGS, in, timingsAt, timings * 8L);
+        }
+    }
+
+    private void clearView() {
+        view = null;
+        viewSources = viewTimings = 0;
+    }
+
+    /**
+     * Copies the sources and timings viewed in the message read into this history's own store.
+     */
+    @Override
+    public void detach() {
+        if (view == null)
+            return;
+        copyView(store);
+        clearView();
+    }
+
+    private void copyView(BytesStore<?, byte[]> to) {
+        to.write(SOURCE_IDS, view, viewIds, viewSources * 4L);
+        to.write(SOURCE_INDEXES, view, viewIds + viewSources * 4L, viewSources * 8L);
+        to.write(TIMINGS, view, viewTimingsAt, viewTimings * 8L);
+    }
+
+    @Override
+    public void writeMarshallable(@NotNull WireOut wire) {
+        if (useBytesMarshallable && wire.isBinary()) {
+            wire.bytes().writeUnsignedByte(BinaryWireCode.BYTES_MARSHALLABLE);
+            writeMarshallable(wire.bytes());
+        } else {
+            wire.write("sources").sequence(this, acceptSourcesConsumer);
+            wire.write("timings").sequence(this, acceptTimingsConsumer);
+        }
+        dirty = false;
+    }
+
+    @Override
+    public void writeMarshallable(@NotNull BytesOut<?> bytes) {
+        bytes.writeUnsignedByte(sources);
+        if (viewSources > 0)
+            bytes.write(view, viewIds, viewSources * 4L);
+        bytes.write(store, SOURCE_IDS + viewSources * 4L, (sources - viewSources) * 4L);
+        if (viewSources > 0)
+            bytes.write(view, viewIds + viewSources * 4L, viewSources * 8L);
+        bytes.write(store, SOURCE_INDEXES + viewSources * 8L, (sources - viewSources) * 8L);
+        // one more time for this output
+        bytes.writeUnsignedByte(timings + 1);
+        if (viewTimings > 0)
+            bytes.write(view, viewTimingsAt, viewTimings * 8L);
+        bytes.write(store, TIMINGS + viewTimings * 8L, (timings - viewTimings) * 8L);
+        bytes.writeLong(nanoTime());
+        dirty = false;
+    }
+
+    private void acceptSources(FlyweightMessageHistory t, ValueOut out) {
+        for (int i = 0; i < t.sources; i++) {
+            out.uint32(t.sourceId(i));
+            out.int64_0x(t.sourceIndex(i));
+        }
+    }
+
+    private void acceptTimings(FlyweightMessageHistory t, ValueOut out) {
+        for (int i = 0; i < t.timings; i++) {
+            out.int64(t.timing(i));
+        }
+        if (!(out.wireOut() instanceof HashWire))
+            out.int64(nanoTime());
+    }
+
+    protected long nanoTime() {
+        return historyWallClock ? CLOCK.currentTimeNanos() : System.nanoTime();
+    }
+
+    @Override
+    public BinaryLengthLength binaryLengthLength() {
+        return BinaryLengthLength.LENGTH_16BIT;
+    }
+
+    @Override
+    public void doWriteHistory(DocumentContext dc) {
+        dc.wire().writeEventName(MethodReader.HISTORY).marshallable(this);
+    }
+
+    /**
+     * Copies the sources and timings without adding a timing, as writeMarshallable would.
+     *
+     * @return copy of this
+     */
+    @Override
+    public @NotNull FlyweightMessageHistory deepCopy() {
+        FlyweightMessageHistory copy = new FlyweightMessageHistory();
+        copy.store.write(0L, store, 0L, (long) LENGTH);
+        if (view != null)
+            copyView(copy.store);
+        copy.sources = sources;
+        copy.timings = timings;
+        copy.addSourceDetails = addSourceDetails;
+        copy.useBytesMarshallable = useBytesMarshallable;
+        copy.historyWallClock = historyWallClock;
+        return copy;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof FlyweightMessageHistory))
+            return false;
+        FlyweightMessageHistory that = (FlyweightMessageHistory) o;
+        if (sources != that.sources || timings != that.timings)
+            return false;
+        for (int i = 0; i < sources; i++)
+            if (sourceId(i) != that.sourceId(i) || sourceIndex(i) != that.sourceIndex(i))
+                return false;
+        for (int i = 0; i < timings; i++)
+            if (timing(i) != that.timing(i))
+                return false;
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = sources * 31 + timings;
+        for (int i = 0; i < sources; i++)
+            h = h * 31 + sourceId(i);
+        for (int i = 0; i < timings; i++)
+            h = h * 31 + Long.hashCode(timing(i));
+        return h;
+    }
+
+    /**
+     * A custom toString as writeMarshallable adds the current time
+     *
+     * @return String representation
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("FlyweightMessageHistory { sources: [");
+        for (int i = 0; i < sources; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(sourceId(i)).append("=0x").append(Long.toHexString(sourceIndex(i)));
+        }
+        sb.append("], timings: [");
+        for (int i = 0; i < timings; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(timing(i));
+        }
+        return sb.append("], addSourceDetails=").append(addSourceDetails).append(" }").toString();
+    }
+}
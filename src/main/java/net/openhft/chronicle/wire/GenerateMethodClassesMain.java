@@ -0,0 +1,126 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.core.util.ObjectUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the source of the generated method writers and readers at build time, so they are compiled with the rest of a project
+ * instead of by the in process compiler the first time they are used. {@link VanillaMethodWriterBuilder} and
+ * {@link VanillaMethodReaderBuilder} use a class with the generated name if it is on the class path.
+ * <p>
+ * As the interfaces are loaded, this runs after they are compiled, and the output directory is compiled after it,
+ * e.g. with the exec-maven-plugin in the <code>process-classes</code> phase and a second execution of the compiler plugin.
+ * <pre>
+ * GenerateMethodClassesMain target/generated-sources/wire --writer=com.acme.Events --reader=com.acme.EventsHandler
+ * </pre>
+ * Options
+ * <ul>
+ *     <li><code>--wireType=</code> the WireType of the writers, BINARY_LIGHT by default; readers only depend on whether it is TEXT or YAML</li>
+ *     <li><code>--metaData</code> writers write meta data</li>
+ *     <li><code>--genericEvent=</code> the name of the writers' generic event method</li>
+ *     <li><code>--verboseTypes</code> writers use verbose types</li>
+ *     <li><code>--writer=</code> an interface to generate a method writer for</li>
+ *     <li><code>--reader=</code> an implementation class to generate a method reader for</li>
+ * </ul>
+ * Writers with an UpdateInterceptor, and readers with an interceptor or meta data handler, are still generated when first used.
+ */
+public class GenerateMethodClassesMain {
+    private WireType wireType = WireType.BINARY_LIGHT;
+    private boolean metaData;
+    private String genericEvent;
+    private boolean verboseTypes;
+
+    public static void main(String... args) throws ClassNotFoundException, IOException {
+        for (Path path : main0(args))
+            System.out.println("Generated " + path);
+    }
+
+    static List<Path> main0(String... args) throws ClassNotFoundException, IOException {
+        if (args.length < 1)
+            throw new IllegalArgumentException("Usage: GenerateMethodClassesMain {output-dir} [--wireType=] [--metaData] [--genericEvent=] [--verboseTypes] [--writer=interface] [--reader=class] ...");
+        final Path dir = Paths.get(args[0]);
+        final GenerateMethodClassesMain main = new GenerateMethodClassesMain();
+        final List<Path> generated = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            final String arg = args[i];
+            final int eq = arg.indexOf('=');
+            final String name = eq < 0 ? arg : arg.substring(0, eq);
+            final String value = eq < 0 ? null : arg.substring(eq + 1);
+            switch (name) {
+                case "--wireType":
+                    main.wireType = WireType.valueOf(value);
+                    break;
+                case "--metaData":
+                    main.metaData = true;
+                    break;
+                case "--genericEvent":
+                    main.genericEvent = value;
+                    break;
+                case "--verboseTypes":
+                    main.verboseTypes = true;
+                    break;
+                case "--writer":
+                    generated.add(main.writer(dir, Class.forName(value)));
+                    break;
+                case "--reader":
+                    generated.add(main.reader(dir, Class.forName(value)));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument " + arg);
+            }
+        }
+        return generated;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Path writer(Path dir, Class<?> tClass) throws IOException {
+        if (!tClass.isInterface())
+            throw new IllegalArgumentException("Expected an interface for a method writer " + tClass.getName());
+        final VanillaMethodWriterBuilder<?> builder = new VanillaMethodWriterBuilder(tClass, wireType, () -> null);
+        builder.metaData(metaData);
+        builder.genericEvent(genericEvent);
+        builder.verboseTypes(verboseTypes);
+        return write(dir, builder.fullClassName(), builder.sourceCode());
+    }
+
+    Path reader(Path dir, Class<?> implClass) throws IOException {
+        if (implClass.isInterface())
+            throw new IllegalArgumentException("Expected an implementation class for a method reader " + implClass.getName());
+        // only the class of the instance is used
+        final Object instance = ObjectUtils.newInstance(implClass);
+        final GenerateMethodReader gmr = new GenerateMethodReader(wireType.isText() ? wireType : null, null, null, instance);
+        return write(dir, gmr.packageName() + "." + gmr.generatedClassName(), gmr.sourceCode());
+    }
+
+    private static Path write(Path dir, String fullClassName, String sourceCode) throws IOException {
+        final Path path = dir.resolve(fullClassName.replace('.', '/') + ".java");
+        Files.createDirectories(path.getParent());
+        Files.write(path, sourceCode.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+}
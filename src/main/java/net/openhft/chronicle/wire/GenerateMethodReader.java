@@ -83,6 +83,9 @@ public class GenerateMethodReader {
     private final SourceCodeFormatter eventIdSwitchBlock = new JavaSourceCodeFormatter();
     private final SourceCodeFormatter eventIdSwitchBlockMeta = new JavaSourceCodeFormatter();
     private final SourceCodeFormatter numericConverters = new JavaSourceCodeFormatter();
+    private final SourceCodeFormatter eventNameConstants = new JavaSourceCodeFormatter();
+    private final Map<String, Integer> eventIndexes = new LinkedHashMap<>();
+    private final Map<String, Integer> eventIndexesMeta = new LinkedHashMap<>();
     private final String generatedClassName;
     private final Set<String> fieldNames = new LinkedHashSet<>();
     private boolean methodFilterPresent;
@@ -138,6 +141,17 @@ public class GenerateMethodReader {
         }
     }
 
+    /**
+     * Generates the source of the method reader class without compiling it, e.g. to compile it with the rest of a build.
+     *
+     * @return the Java source
+     */
+    public String sourceCode() {
+        if (!isSourceCodeGenerated)
+            generateSourceCode();
+        return sourceCode.toString();
+    }
+
     /**
      * Generates source code of {@link MethodReader} for specified {@link #instances}.
      */
@@ -173,6 +187,13 @@ public class GenerateMethodReader {
             }
         }
 
+        final boolean historyHandled = eventIndexes.containsKey(MethodReader.HISTORY);
+        final int historyIndex = eventIndex(eventIndexes, MethodReader.HISTORY);
+        addMethodIdSwitch(MethodReader.HISTORY, MethodReader.MESSAGE_HISTORY_METHOD_ID, historyIndex, eventIdSwitchBlock);
+
+        final boolean historyHandledMeta = eventIndexesMeta.containsKey(MethodReader.HISTORY);
+        final int historyIndexMeta = eventIndex(eventIndexesMeta, MethodReader.HISTORY);
+
         if (!packageName().isEmpty())
             sourceCode.append(format("package %s;\n", packageName()));
 
@@ -220,6 +241,10 @@ public class GenerateMethodReader {
             sourceCode.append("\n");
         }
 
+        sourceCode.append("// event names to match\n");
+        sourceCode.append(eventNameConstants);
+        sourceCode.append("\n");
+
         if (hasChainedCalls) {
             sourceCode.append("// chained call result\n");
             sourceCode.append("private Object chainedCallReturnResult;");
@@ -258,38 +283,38 @@ public class GenerateMethodReader {
         sourceCode.append("@Override\n" +
                 "protected MethodReaderStatus readOneGenerated(WireIn wireIn) {\n" +
                 "ValueIn valueIn = wireIn.getValueIn();\n" +
-                "String lastEventName = \"\";\n" +
+                "int event;\n" +
                 "if (wireIn.bytes().peekUnsignedByte() == BinaryWireCode.FIELD_NUMBER) {\n" +
                 "int methodId = (int) wireIn.readEventNumber();\n" +
                 "switch (methodId) {\n");
 
-        addMethodIdSwitch(MethodReader.HISTORY, MethodReader.MESSAGE_HISTORY_METHOD_ID, eventIdSwitchBlock);
         sourceCode.append(eventIdSwitchBlock);
 
         sourceCode.append("default:\n" +
+                "event = -1;\n" +
                 // below should be garbage-free if methodId is low. This will now drop through for defaultParselet
-                "lastEventName = Integer.toString(methodId);\n" +
+                "eventName(Integer.toString(methodId));\n" +
                 "break;\n" +
                 "}\n" +
                 "}\n" +
-                "else {\n" +
-                "lastEventName = wireIn.readEvent(String.class);\n" +
-                "}\n" +
+                "else {\n");
+        appendEventNameHashSwitch(eventIndexes);
+        sourceCode.append("}\n" +
                 "try {\n" +
                 "if (Jvm.isDebug())\n" +
-                "debugLoggingParselet.accept(lastEventName, valueIn);\n" +
-                "if (lastEventName == null)\n" +
+                "debugLoggingParselet.accept(lastEventName(), valueIn);\n" +
+                "if (event < 0 && lastEventName() == null)\n" +
                 "throw new IllegalStateException(\"Failed to read method name or ID\");\n" +
-                "switch (lastEventName) {\n");
-        if (!eventNameSwitchBlock.contains("case \"history\":"))
-            sourceCode.append("case MethodReader.HISTORY:\n" +
+                "switch (event) {\n");
+        if (!historyHandled)
+            sourceCode.append(format("case %d: // %s\n", historyIndex, MethodReader.HISTORY) +
                     "valueIn.marshallable(messageHistory);\n" +
                     "return MethodReaderStatus.HISTORY;\n\n");
 
         sourceCode.append(eventNameSwitchBlock);
 
         sourceCode.append("default:\n" +
-                "defaultParselet.accept(lastEventName, valueIn);\n" +
+                "defaultParselet.accept(lastEventName(), valueIn);\n" +
                 "return MethodReaderStatus.UNKNOWN;\n" +
                 "}\n");
 
@@ -304,7 +329,7 @@ public class GenerateMethodReader {
         sourceCode.append("@Override\n" +
                 "protected MethodReaderStatus readOneMetaGenerated(WireIn wireIn) {\n" +
                 "ValueIn valueIn = wireIn.getValueIn();\n" +
-                "String lastEventName = \"\";\n" +
+                "int event;\n" +
                 "if (wireIn.bytes().peekUnsignedByte() == BinaryWireCode.FIELD_NUMBER) {\n" +
                 "int methodId = (int) wireIn.readEventNumber();\n" +
                 "switch (methodId) {\n");
@@ -316,23 +341,24 @@ public class GenerateMethodReader {
                 "return MethodReaderStatus.UNKNOWN;\n" +
                 "}\n" +
                 "}\n" +
-                "else {\n" +
-                "lastEventName = wireIn.readEvent(String.class);\n" +
-                "}\n" +
+                "else {\n");
+        appendEventNameHashSwitch(eventIndexesMeta);
+        sourceCode.append("}\n" +
                 "try {\n" +
                 "if (Jvm.isDebug())\n" +
-                "debugLoggingParselet.accept(lastEventName, valueIn);\n" +
-                "if (lastEventName == null)\n" +
+                "debugLoggingParselet.accept(lastEventName(), valueIn);\n" +
+                "if (event < 0 && lastEventName() == null)\n" +
                 "throw new IllegalStateException(\"Failed to read method name or ID\");\n" +
-                "switch (lastEventName) {\n" +
-                "case MethodReader.HISTORY:\n" +
-                "valueIn.marshallable(messageHistory);\n" +
-                "return MethodReaderStatus.HISTORY;\n\n");
+                "switch (event) {\n");
+        if (!historyHandledMeta)
+            sourceCode.append(format("case %d: // %s\n", historyIndexMeta, MethodReader.HISTORY) +
+                    "valueIn.marshallable(messageHistory);\n" +
+                    "return MethodReaderStatus.HISTORY;\n\n");
 
         sourceCode.append(eventNameSwitchBlockMeta);
 
         sourceCode.append("default:\n" +
-                "defaultParselet.accept(lastEventName, valueIn);\n" +
+                "defaultParselet.accept(lastEventName(), valueIn);\n" +
                 "return MethodReaderStatus.UNKNOWN;\n" +
                 "}\n");
 
@@ -490,14 +516,16 @@ public class GenerateMethodReader {
 
         final MethodId methodIdAnnotation = Jvm.findAnnotation(m, MethodId.class);
 
+        final int eventIndex = eventIndex(eventNameSwitchBlock == eventNameSwitchBlockMeta ? eventIndexesMeta : eventIndexes, m.getName());
+
         if (methodIdAnnotation != null) {
             int methodId = Maths.toInt32(methodIdAnnotation.value());
-            addMethodIdSwitch(m.getName(), methodId, eventIdSwitchBlock);
+            addMethodIdSwitch(m.getName(), methodId, eventIndex, eventIdSwitchBlock);
         }
 
         String chainedCallPrefix = chainReturnType != null ? "chainedCallReturnResult = " : "";
 
-        eventNameSwitchBlock.append(format("case \"%s\":\n", m.getName()));
+        eventNameSwitchBlock.append(format("case %d: // %s\n", eventIndex, m.getName()));
         if (parameterTypes.length == 0) {
             eventNameSwitchBlock.append("valueIn.skipValue();\n");
             eventNameSwitchBlock.append(methodCall(m, instanceFieldName, chainedCallPrefix, chainReturnType));
@@ -558,12 +586,69 @@ public class GenerateMethodReader {
             handleInterface(chainReturnType, "chainedCallReturnResult", false, eventNameSwitchBlock, eventIdSwitchBlock);
     }
 
-    private void addMethodIdSwitch(String methodName, int methodId, SourceCodeFormatter eventIdSwitchBlock) {
+    private void addMethodIdSwitch(String methodName, int methodId, int eventIndex, SourceCodeFormatter eventIdSwitchBlock) {
         eventIdSwitchBlock.append(format("case %d:\n", methodId));
-        eventIdSwitchBlock.append(format("lastEventName = \"%s\";\n", methodName));
+        eventIdSwitchBlock.append(format("event = %d;\n", eventIndex));
+        eventIdSwitchBlock.append(format("eventName(\"%s\");\n", methodName));
         eventIdSwitchBlock.append("break;\n\n");
     }
 
+    /**
+     * Assigns the index the generated code switches on for an event name, and the constant its name is matched with.
+     *
+     * @param indexes   the event indexes for either data or meta data events.
+     * @param eventName of the method.
+     * @return the index of the event, unique across data and meta data events.
+     */
+    private int eventIndex(Map<String, Integer> indexes, String eventName) {
+        Integer index = indexes.get(eventName);
+        if (index == null) {
+            index = eventIndexes.size() + eventIndexesMeta.size();
+            indexes.put(eventName, index);
+            if (isAscii(eventName))
+                eventNameConstants.append(format("private static final byte[] EVENT_NAME_%d = eventNameBytes(\"%s\");\n", index, eventName));
+        }
+        return index;
+    }
+
+    private static boolean isAscii(String eventName) {
+        return eventName.chars().allMatch(ch -> ch < 0x80);
+    }
+
+    /**
+     * Generates code which reads the event name and sets <code>event</code> to its index, or -1 if it's not known.
+     * <p>
+     * This switches on the hash of the name, so the name can be matched in place without creating a String.
+     * A name which is not ASCII can be encoded differently on the wire, so if there are any, all the names are read
+     * and matched as Strings.
+     */
+    private void appendEventNameHashSwitch(Map<String, Integer> indexes) {
+        final Map<Integer, List<String>> namesByHash = new TreeMap<>();
+        for (String eventName : indexes.keySet())
+            namesByHash.computeIfAbsent(eventName.hashCode(), h -> new ArrayList<>()).add(eventName);
+        final boolean ascii = indexes.keySet().stream().allMatch(GenerateMethodReader::isAscii);
+
+        sourceCode.append(ascii
+                ? "switch (readEventNameHash(wireIn)) {\n"
+                : "switch (readEventNameStringHash(wireIn)) {\n");
+        for (Map.Entry<Integer, List<String>> entry : namesByHash.entrySet()) {
+            sourceCode.append(format("case %d:\n", entry.getKey()));
+            sourceCode.append("event = ");
+            for (String eventName : entry.getValue()) {
+                String matches = ascii
+                        ? format("EVENT_NAME_%d", indexes.get(eventName))
+                        : format("\"%s\"", eventName);
+                sourceCode.append(format("eventNameEquals(%s) ? %d : ", matches, indexes.get(eventName)));
+            }
+            sourceCode.append("-1;\n" +
+                    "break;\n\n");
+        }
+        sourceCode.append("default:\n" +
+                "event = -1;\n" +
+                "break;\n" +
+                "}\n");
+    }
+
     /**
      * Generates code that invokes passed method, saves method return value (in case it's a chained call)
      * and handles {@link MethodReaderInterceptorReturns} if it's specified.
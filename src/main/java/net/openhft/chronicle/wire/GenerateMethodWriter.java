@@ -278,108 +278,12 @@ public class GenerateMethodWriter {
         return result;
     }
 
-    @SuppressWarnings("StringConcatenationInsideStringBufferAppend")
     private Class<?> createClass() {
 
-        SourceCodeFormatter interfaceMethods = new SourceCodeFormatter(1);
         SourceCodeFormatter imports = new JavaSourceCodeFormatter();
 
         try {
-            imports.append("package " + packageName + ";\n\n");
-            SortedSet<String> importSet = new TreeSet<>();
-            importSet.add(LongConversion.class.getName());
-            importSet.add(GenerateMethodWriter.class.getName());
-            importSet.add(MessageHistory.class.getName());
-            importSet.add(MethodReader.class.getName());
-            importSet.add(UpdateInterceptor.class.getName());
-            importSet.add(MethodId.class.getName());
-            importSet.add(GenerateMethodWriter.class.getName());
-            importSet.add(DocumentContext.class.getName());
-            importSet.add(WriteDocumentContext.class.getName());
-            importSet.add(MethodWriterInvocationHandlerSupplier.class.getName());
-            importSet.add(Jvm.class.getName());
-            importSet.add(Closeable.class.getName());
-            importSet.add(DocumentContextHolder.class.getName());
-            importSet.add(java.lang.reflect.InvocationHandler.class.getName());
-            importSet.add(java.lang.reflect.Method.class.getName());
-            importSet.add(java.util.stream.IntStream.class.getName());
-            importSet.add(java.util.ArrayList.class.getName());
-            importSet.add(java.util.List.class.getName());
-            importSet.add(Supplier.class.getName());
-            for (Class interfaceClazz : interfaces) {
-                importSet.add(nameForClass(interfaceClazz));
-
-                if (!interfaceClazz.isInterface())
-                    throw new MethodWriterValidationException("expecting an interface instead of class=" + interfaceClazz.getName());
-
-                // TODO: Need a test to show when an extra import is required.
-                for (Method dm : interfaceClazz.getMethods()) {
-                    if (dm.isDefault() || Modifier.isStatic(dm.getModifiers()))
-                        continue;
-                    String template = templateFor(dm, interfaceClazz);
-                    if (template != null)
-                        continue;
-                    for (Type type : getParameterTypes(dm, interfaceClazz)) {
-                        Class pType = erase(type);
-                        if (pType.isPrimitive() || pType.isArray() || pType.getPackage().getName().equals("java.lang"))
-                            continue;
-                        importSet.add(nameForClass(pType));
-                    }
-                }
-            }
-            importSet.removeIf(s -> s.startsWith("net.openhft.chronicle.bytes"));
-            importSet.add("net.openhft.chronicle.bytes.*");
-            importSet.removeIf(s -> s.startsWith("net.openhft.chronicle.wire"));
-            importSet.add("net.openhft.chronicle.wire.*");
-
-            for (String s : importSet) {
-                imports.append("import ").append(s).append(";\n");
-            }
-
-            imports.append("\npublic final class ")
-                    .append(className)
-                    .append(" implements ");
-
-            Set<String> handledMethodSignatures = new HashSet<>();
-            Set<String> methodIds = new HashSet<>();
-
-            for (Class interfaceClazz : interfaces) {
-
-                String interfaceName = nameForClass(importSet, interfaceClazz);
-                imports.append(interfaceName);
-                imports.append(", ");
-
-                if (!interfaceClazz.isInterface())
-                    throw new MethodWriterValidationException("expecting an interface instead of class=" + interfaceClazz.getName());
-
-                for (Method dm : interfaceClazz.getMethods()) {
-                    final int modifiers = dm.getModifiers();
-                    if (Modifier.isStatic(modifiers) || isSynthetic(modifiers))
-                        continue;
-
-                    final Class<?> returnType = returnType(dm, interfaceClazz);
-                    if (dm.isDefault() && (!returnType.equals(void.class) && !returnType.isInterface()))
-                        continue;
-
-                    final String signature = signature(dm, interfaceClazz);
-                    if (!handledMethodSignatures.add(signature))
-                        continue;
-
-                    String template = templateFor(dm, interfaceClazz);
-                    if (template == null) {
-                        interfaceMethods.append(createMethod(importSet, dm, interfaceClazz, methodIds));
-                    } else {
-                        interfaceMethods.append(template);
-                    }
-                }
-            }
-
-            imports.append(MethodWriter.class.getSimpleName());
-            imports.append(" {\n\n");
-            constructorAndFields(importSet, className, imports);
-            addMarshallableOut(imports);
-            imports.append(interfaceMethods);
-            imports.append("\n}\n");
+            generateSourceCode(imports);
             if (DUMP_CODE)
                 System.out.println(imports);
 
@@ -402,6 +306,138 @@ public class GenerateMethodWriter {
 
     }
 
+    /**
+     * Generates the source of the method writer class without compiling it, e.g. to compile it with the rest of a build.
+     *
+     * @return the Java source
+     */
+    @NotNull
+    public static String sourceCode(String fullClassName,
+                                    Set<Class<?>> interfaces,
+                                    final WireType wireType,
+                                    final String genericEvent,
+                                    boolean metaData,
+                                    boolean useMethodId,
+                                    final boolean useUpdateInterceptor,
+                                    boolean verboseTypes) {
+        String packageName = ReflectionUtil.generatedPackageName(fullClassName);
+
+        int lastDot = fullClassName.lastIndexOf('.');
+        String className = lastDot == -1 ? fullClassName : fullClassName.substring(lastDot + 1);
+
+        SourceCodeFormatter sourceCode = new JavaSourceCodeFormatter();
+        new GenerateMethodWriter(packageName,
+                interfaces,
+                className,
+                GenerateMethodWriter.class.getClassLoader(),
+                wireType,
+                genericEvent,
+                metaData, useMethodId, useUpdateInterceptor, verboseTypes)
+                .generateSourceCode(sourceCode);
+        return sourceCode.toString();
+    }
+
+    @SuppressWarnings("StringConcatenationInsideStringBufferAppend")
+    private void generateSourceCode(SourceCodeFormatter imports) {
+        SourceCodeFormatter interfaceMethods = new SourceCodeFormatter(1);
+
+        imports.append("package " + packageName + ";\n\n");
+        SortedSet<String> importSet = new TreeSet<>();
+        importSet.add(LongConversion.class.getName());
+        importSet.add(GenerateMethodWriter.class.getName());
+        importSet.add(MessageHistory.class.getName());
+        importSet.add(MethodReader.class.getName());
+        importSet.add(UpdateInterceptor.class.getName());
+        importSet.add(MethodId.class.getName());
+        importSet.add(GenerateMethodWriter.class.getName());
+        importSet.add(DocumentContext.class.getName());
+        importSet.add(WriteDocumentContext.class.getName());
+        importSet.add(MethodWriterInvocationHandlerSupplier.class.getName());
+        importSet.add(Jvm.class.getName());
+        importSet.add(Closeable.class.getName());
+        importSet.add(DocumentContextHolder.class.getName());
+        importSet.add(java.lang.reflect.InvocationHandler.class.getName());
+        importSet.add(java.lang.reflect.Method.class.getName());
+        importSet.add(java.util.stream.IntStream.class.getName());
+        importSet.add(java.util.ArrayList.class.getName());
+        importSet.add(java.util.List.class.getName());
+        importSet.add(Supplier.class.getName());
+        for (Class interfaceClazz : interfaces) {
+            importSet.add(nameForClass(interfaceClazz));
+
+            if (!interfaceClazz.isInterface())
+                throw new MethodWriterValidationException("expecting an interface instead of class=" + interfaceClazz.getName());
+
+            // TODO: Need a test to show when an extra import is required.
+            for (Method dm : interfaceClazz.getMethods()) {
+                if (dm.isDefault() || Modifier.isStatic(dm.getModifiers()))
+                    continue;
+                String template = templateFor(dm, interfaceClazz);
+                if (template != null)
+                    continue;
+                for (Type type : getParameterTypes(dm, interfaceClazz)) {
+                    Class pType = erase(type);
+                    if (pType.isPrimitive() || pType.isArray() || pType.getPackage().getName().equals("java.lang"))
+                        continue;
+                    importSet.add(nameForClass(pType));
+                }
+            }
+        }
+        importSet.removeIf(s -> s.startsWith("net.openhft.chronicle.bytes"));
+        importSet.add("net.openhft.chronicle.bytes.*");
+        importSet.removeIf(s -> s.startsWith("net.openhft.chronicle.wire"));
+        importSet.add("net.openhft.chronicle.wire.*");
+
+        for (String s : importSet) {
+            imports.append("import ").append(s).append(";\n");
+        }
+
+        imports.append("\npublic final class ")
+                .append(className)
+                .append(" implements ");
+
+        Set<String> handledMethodSignatures = new HashSet<>();
+        Set<String> methodIds = new HashSet<>();
+
+        for (Class interfaceClazz : interfaces) {
+
+            String interfaceName = nameForClass(importSet, interfaceClazz);
+            imports.append(interfaceName);
+            imports.append(", ");
+
+            if (!interfaceClazz.isInterface())
+                throw new MethodWriterValidationException("expecting an interface instead of class=" + interfaceClazz.getName());
+
+            for (Method dm : interfaceClazz.getMethods()) {
+                final int modifiers = dm.getModifiers();
+                if (Modifier.isStatic(modifiers) || isSynthetic(modifiers))
+                    continue;
+
+                final Class<?> returnType = returnType(dm, interfaceClazz);
+                if (dm.isDefault() && (!returnType.equals(void.class) && !returnType.isInterface()))
+                    continue;
+
+                final String signature = signature(dm, interfaceClazz);
+                if (!handledMethodSignatures.add(signature))
+                    continue;
+
+                String template = templateFor(dm, interfaceClazz);
+                if (template == null) {
+                    interfaceMethods.append(createMethod(importSet, dm, interfaceClazz, methodIds));
+                } else {
+                    interfaceMethods.append(template);
+                }
+            }
+        }
+
+        imports.append(MethodWriter.class.getSimpleName());
+        imports.append(" {\n\n");
+        constructorAndFields(importSet, className, imports);
+        addMarshallableOut(imports);
+        imports.append(interfaceMethods);
+        imports.append("\n}\n");
+    }
+
     private Class<?> returnType(Method dm, Class interfaceClazz) {
         Type returnType = GenericReflection.getReturnType(dm, interfaceClazz);
         if (!(returnType instanceof Class))
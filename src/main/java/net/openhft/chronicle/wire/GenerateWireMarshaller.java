@@ -0,0 +1,223 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.util.ClassNotFoundRuntimeException;
+import net.openhft.chronicle.core.util.ObjectUtils;
+import net.openhft.chronicle.wire.WireMarshaller.FieldAccess;
+import net.openhft.chronicle.wire.utils.SourceCodeFormatter;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates a {@link FieldsMarshaller} for a DTO, which writes and reads each field by name, with straight line code.
+ * <p>
+ * Only DTOs whose fields are all booleans, ints, longs, floats, doubles, Strings or enums, and can be accessed from the
+ * DTO's package, are supported, so the generated code does what the {@link FieldAccess} for each field does.
+ */
+final class GenerateWireMarshaller extends AbstractClassGenerator<GenerateWireMarshaller.GWMMetaData> {
+    private final Class<?> tClass;
+    private final FieldAccess[] fields;
+
+    private GenerateWireMarshaller(Class<?> tClass, FieldAccess[] fields) {
+        super(new GWMMetaData());
+        this.tClass = tClass;
+        this.fields = fields;
+        final String packageName = packageName(tClass);
+        metaData().packageName(packageName)
+                .baseClassName(tClass.getName().substring(packageName.length() + 1) + "WireMarshaller")
+                .interfaces().add(FieldsMarshaller.class);
+    }
+
+    /**
+     * @return a marshaller using a generated class, or <code>wm</code> if the DTO isn't supported
+     */
+    @SuppressWarnings("unchecked")
+    static <T> WireMarshaller<T> generate(@NotNull Class<T> tClass, @NotNull WireMarshaller<T> wm) {
+        if (!isSupported(tClass, wm.fields))
+            return wm;
+        try {
+            final Class<?> aClass = new GenerateWireMarshaller(tClass, wm.fields).acquireClass(tClass.getClassLoader());
+            final FieldsMarshaller<T> code = (FieldsMarshaller<T>) ObjectUtils.newInstance(aClass);
+            return new GeneratedWireMarshaller<>(wm, code);
+        } catch (Throwable t) {
+            Jvm.warn().on(GenerateWireMarshaller.class, "Unable to generate a marshaller for " + tClass.getName() + ", using its fields", t);
+            return wm;
+        }
+    }
+
+    static boolean isSupported(Class<?> tClass, FieldAccess[] fields) {
+        if (tClass.getClassLoader() == null
+                || tClass.getCanonicalName() == null
+                || packageName(tClass).isEmpty()
+                || !isAccessible(tClass, tClass))
+            return false;
+        final Set<String> names = new HashSet<>();
+        for (FieldAccess fa : fields) {
+            final Field field = fa.field;
+            final int modifiers = field.getModifiers();
+            if (Modifier.isFinal(modifiers)
+                    || !isAccessible(tClass, modifiers, field.getDeclaringClass())
+                    || fa.commentAnnotation != null
+                    // a field hidden by another of the same name
+                    || !names.add(field.getName()))
+                return false;
+            if (fa.getClass() == WireMarshaller.ObjectFieldAccess.class) {
+                final Class<?> type = field.getType();
+                if (!type.isEnum()
+                        || DynamicEnum.class.isAssignableFrom(type)
+                        || fa.isLeaf != null
+                        || Jvm.findAnnotation(field, AsMarshallable.class) != null
+                        || type.getCanonicalName() == null
+                        || !isAccessible(tClass, type))
+                    return false;
+            } else if (readMethod(fa) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAccessible(Class<?> tClass, Class<?> type) {
+        for (Class<?> c = type; c != null; c = c.getEnclosingClass())
+            if (!isAccessible(tClass, c.getModifiers(), c))
+                return false;
+        return true;
+    }
+
+    private static boolean isAccessible(Class<?> tClass, int modifiers, Class<?> declaringClass) {
+        if (Modifier.isPublic(modifiers) && Modifier.isPublic(declaringClass.getModifiers()))
+            return true;
+        return !Modifier.isPrivate(modifiers)
+                && declaringClass.getClassLoader() == tClass.getClassLoader()
+                && packageName(declaringClass).equals(packageName(tClass));
+    }
+
+    private static String packageName(Class<?> c) {
+        final String name = c.getName();
+        return name.substring(0, Math.max(0, name.lastIndexOf('.')));
+    }
+
+    /**
+     * @return the ValueIn method which reads this kind of field, or null if it isn't supported
+     */
+    private static String readMethod(FieldAccess fa) {
+        final Class<? extends FieldAccess> kind = fa.getClass();
+        if (kind == WireMarshaller.BooleanFieldAccess.class)
+            return "bool";
+        if (kind == WireMarshaller.IntegerFieldAccess.class)
+            return "int32";
+        if (kind == WireMarshaller.LongFieldAccess.class)
+            return "int64";
+        if (kind == WireMarshaller.FloatFieldAccess.class)
+            return "float32";
+        if (kind == WireMarshaller.DoubleFieldAccess.class)
+            return "float64";
+        if (kind == WireMarshaller.StringFieldAccess.class)
+            return "text";
+        return null;
+    }
+
+    @Override
+    protected void generateFields(SourceCodeFormatter mainCode) {
+        // as the FieldAccess writes and reads with a WireKey, and so a text wire doesn't allocate one each time
+        for (FieldAccess fa : fields) {
+            final String name = fa.field.getName();
+            mainCode.append("private static final ").append(nameForClass(WireKey.class)).append(' ').append(name)
+                    .append("$key = () -> \"").append(name).append("\";\n");
+        }
+    }
+
+    @Override
+    protected void generateMethod(Method method, StringBuilder params, List<String> paramList, SourceCodeFormatter mainCode) {
+        final String dtoName = nameForClass(tClass);
+        mainCode.append("final ").append(dtoName).append(" dto$ = (").append(dtoName).append(") ").append(paramList.get(0)).append(";\n");
+        switch (method.getName()) {
+            case "writeMarshallable":
+                generateWrite(paramList.get(1), mainCode);
+                break;
+            case "readMarshallable":
+                mainCode.append("final ").append(dtoName).append(" defaults$ = (").append(dtoName).append(") ").append(paramList.get(2)).append(";\n");
+                generateRead(paramList.get(1), paramList.get(3), mainCode);
+                break;
+            default:
+                throw new IllegalStateException("Unexpected method " + method);
+        }
+    }
+
+    private void generateWrite(String out, SourceCodeFormatter mainCode) {
+        for (FieldAccess fa : fields) {
+            final String name = fa.field.getName();
+            mainCode.append(out).append(".write(").append(name).append("$key).");
+            final String read = readMethod(fa);
+            if (read == null)
+                mainCode.append("object(").append(nameForClass(fa.field.getType())).append(".class, dto$.").append(name).append(");\n");
+            else
+                mainCode.append(read).append("(dto$.").append(name).append(");\n");
+        }
+    }
+
+    private void generateRead(String wire, String overwrite, SourceCodeFormatter mainCode) {
+        mainCode.append(nameForClass(ValueIn.class)).append(" in$;\n")
+                .append("long pos$;\n");
+        for (FieldAccess fa : fields) {
+            final String name = fa.field.getName();
+            final String read = readMethod(fa);
+            mainCode.append("in$ = ").append(wire).append(".read(").append(name).append("$key);\n")
+                    .append("if (in$.isPresent()) {\n")
+                    .append("pos$ = ").append(wire).append(".bytes().readPosition();\n")
+                    .append("try {\n")
+                    .append("dto$.").append(name).append(" = ");
+            if (read == null) {
+                final String typeName = nameForClass(fa.field.getType());
+                mainCode.append("in$.object((").append(typeName).append(") null, ").append(typeName).append(".class, false);\n");
+            } else if (read.equals("bool") || read.equals("text")) {
+                mainCode.append("in$.").append(read).append("();\n");
+            } else {
+                // as the FieldAccess does, so a delta wire can update the value
+                mainCode.append(overwrite).append(" ? in$.").append(read).append("() : in$.").append(read).append("(dto$.").append(name).append(");\n");
+            }
+            // as FieldAccess.readValue does, only this field is read again
+            mainCode.append("} catch (").append(nameForClass(UnexpectedFieldHandlingException.class))
+                    .append(" | ").append(nameForClass(ClassCastException.class))
+                    .append(" | ").append(nameForClass(ClassNotFoundRuntimeException.class)).append(" e$) {\n")
+                    .append("throw e$;\n")
+                    .append("} catch (").append(nameForClass(RuntimeException.class)).append(" e$) {\n")
+                    .append(wire).append(".bytes().readPosition(pos$);\n")
+                    .append(nameForClass(Jvm.class)).append(".warn().on(getClass(), \"Failed to read '").append(name)
+                    .append("' with '\" + in$.text() + \"' taking default\", e$);\n")
+                    .append("if (defaults$ != null)\n")
+                    .append("dto$.").append(name).append(" = defaults$.").append(name).append(";\n")
+                    .append("}\n")
+                    .append("} else if (").append(overwrite).append(" && defaults$ != null) {\n")
+                    .append("dto$.").append(name).append(" = defaults$.").append(name).append(";\n")
+                    .append("}\n");
+        }
+    }
+
+    public static class GWMMetaData extends AbstractClassGenerator.MetaData<GWMMetaData> {
+    }
+}
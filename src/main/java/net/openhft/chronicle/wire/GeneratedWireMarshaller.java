@@ -0,0 +1,58 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.HexDumpBytesDescription;
+import net.openhft.chronicle.core.io.InvalidMarshallableException;
+import net.openhft.chronicle.core.io.ValidatableUtil;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@link WireMarshaller} which writes and reads all the fields with a class generated for the DTO, see
+ * {@link WireMarshaller#ofGenerated(Class)}. Other operations use the fields as before.
+ * <p>
+ * Where the wire hints it should be read in input order, the fields are read as before, as only the DTO's order is
+ * generated. If a value can't be read, that field warns and takes the default, as the fields do.
+ */
+class GeneratedWireMarshaller<T> extends WireMarshaller<T> {
+    private final FieldsMarshaller<T> code;
+
+    GeneratedWireMarshaller(@NotNull WireMarshaller<T> wm, @NotNull FieldsMarshaller<T> code) {
+        super(wm.fields, wm.isLeaf(), wm.defaultValue());
+        this.code = code;
+    }
+
+    @Override
+    public void writeMarshallable(T t, @NotNull WireOut out) throws InvalidMarshallableException {
+        ValidatableUtil.validate(t);
+        HexDumpBytesDescription bytes = out.bytesComment();
+        bytes.adjustHexDumpIndentation(+1);
+        code.writeMarshallable(t, out);
+        bytes.adjustHexDumpIndentation(-1);
+    }
+
+    @Override
+    public void readMarshallable(T t, @NotNull WireIn in, boolean overwrite) throws InvalidMarshallableException {
+        if (in.hintReadInputOrder())
+            readMarshallableInputOrder(t, in, overwrite);
+        else
+            code.readMarshallable(t, in, defaultValue(), overwrite);
+        ValidatableUtil.validate(t);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.wire.internal.stream.WireIndexedMarshallableIn;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@link MarshallableIn} which can read from the document at an index, so a range of documents can be split
+ * and read by a number of readers at once, e.g. by a parallel stream.
+ * <p>
+ * Indexes increase from one document to the next, but need not be consecutive.
+ */
+public interface IndexedMarshallableIn extends MarshallableIn {
+
+    /**
+     * Indexes the documents of a binary wire from its read position to its read limit.
+     *
+     * @param wire with the documents to read, which are not consumed
+     * @return an IndexedMarshallableIn of the documents
+     * @throws IllegalArgumentException if the wire is not binary
+     */
+    @NotNull
+    static IndexedMarshallableIn of(@NotNull Wire wire) {
+        return new WireIndexedMarshallableIn(wire);
+    }
+
+    /**
+     * @return the index of the next document to read
+     */
+    long index();
+
+    /**
+     * @return the index after the last document available
+     */
+    long endIndex();
+
+    /**
+     * @param fromIndex of the first document in the range
+     * @param toIndex   after the last document in the range
+     * @return the index of a document near the middle of the range, or <code>fromIndex</code> if it can't be split
+     */
+    long midIndex(long fromIndex, long toIndex);
+
+    /**
+     * @param fromIndex of the first document to read
+     * @return a new reader of the same documents, independent of this one
+     */
+    @NotNull
+    IndexedMarshallableIn reader(long fromIndex);
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.BytesOut;
+import net.openhft.chronicle.core.io.IORuntimeException;
+import net.openhft.chronicle.core.io.InvalidMarshallableException;
+import net.openhft.chronicle.core.io.Validatable;
+import net.openhft.chronicle.core.scoped.ScopedResource;
+import net.openhft.chronicle.core.util.ClassLocal;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * A {@link SelfDescribingMarshallable} which, when read from a binary wire, only decodes each field the first time
+ * it is accessed. Reading copies the message and makes one pass over it to find where each field is, skipping the
+ * values, so a consumer which uses only a few fields of a large message doesn't pay to read the rest.
+ * <p>
+ * Accessors must call {@link #materialise(String)} before using a field, and setters before changing one,
+ * <pre>
+ * public List&lt;Leg&gt; legs() {
+ *     materialise("legs");
+ *     return legs;
+ * }
+ * </pre>
+ * Fields which are accessed directly need {@link #materialiseAll()} first. Access by name through {@link Wires}, e.g.
+ * {@link Wires#getField(Object, String, Class)}, writing, copying, comparing, hashing, toString and resetting
+ * materialise every field, so these behave as if the message had been read eagerly.
+ * <p>
+ * Text wires, field-less or numeric field binary wires, classes which are {@link Validatable} and classes which
+ * override <code>unexpectedField</code> are read eagerly. This is not thread safe.
+ */
+public abstract class LazyMarshallable extends SelfDescribingMarshallable {
+    private static final ClassLocal<LazyFields> LAZY_FIELDS_CL = ClassLocal.withInitial(LazyFields::new);
+
+    // a copy of the message, the fields not yet read are decoded from this
+    private transient Wire lazyWire;
+    private transient LazyFields lazyFields;
+    // start and end of each field's value in lazyWire, or -1 if it wasn't present
+    private transient long[] starts;
+    private transient long[] ends;
+    private transient long[] pending;
+    private transient int pendingCount;
+
+    @Override
+    public void readMarshallable(@NotNull WireIn wire) throws IORuntimeException, InvalidMarshallableException {
+        final LazyFields lf = lazyFields();
+        if (!lf.lazy || !canSkim(wire)) {
+            pendingCount = 0;
+            super.readMarshallable(wire);
+            return;
+        }
+        final Bytes<?> bytes = wire.bytes();
+        if (lazyWire == null)
+            lazyWire = WireType.BINARY_LIGHT.apply(Bytes.allocateElasticOnHeap());
+        lazyWire.classLookup(wire.classLookup());
+        final Bytes<?> copy = lazyWire.bytes();
+        copy.clear();
+        copy.write(bytes, bytes.readPosition(), bytes.readRemaining());
+        bytes.readSkip(bytes.readRemaining());
+
+        skim(lf);
+    }
+
+    // fields can only be found by name
+    private static boolean canSkim(WireIn wire) {
+        if (!(wire instanceof BinaryWire))
+            return false;
+        final BinaryWire bw = (BinaryWire) wire;
+        return !bw.fieldLess() && !bw.numericFields();
+    }
+
+    private void skim(LazyFields lf) {
+        final int n = lf.fields.length;
+        if (starts == null) {
+            starts = new long[n];
+            ends = new long[n];
+            pending = new long[(n + 63) >>> 6];
+        }
+        Arrays.fill(starts, -1L);
+        Arrays.fill(ends, -1L);
+        Arrays.fill(pending, -1L);
+        pendingCount = n;
+
+        final Bytes<?> copy = lazyWire.bytes();
+        try (ScopedResource<StringBuilder> stlSb = Wires.acquireStringBuilderScoped()) {
+            final StringBuilder sb = stlSb.get();
+            while (lazyWire.hasMore()) {
+                final ValueIn vin = lazyWire.read(sb);
+                final long start = copy.readPosition();
+                vin.skipValue();
+                final Integer index = lf.indexOf(sb);
+                if (index != null) {
+                    starts[index] = start;
+                    ends[index] = copy.readPosition();
+                }
+            }
+        }
+    }
+
+    /**
+     * Decodes a field if it hasn't been read yet. Fields missing from the message are given their default value.
+     *
+     * @param name of the field
+     * @throws IllegalArgumentException if there is no such field
+     */
+    protected final void materialise(@NotNull String name) throws InvalidMarshallableException {
+        if (pendingCount == 0)
+            return;
+        final Integer index = lazyFields().index.get(name);
+        if (index == null)
+            throw new IllegalArgumentException("No field '" + name + "' in " + getClass().getName());
+        materialise(index);
+    }
+
+    /**
+     * Decodes all the fields not yet read.
+     */
+    public final void materialiseAll() throws InvalidMarshallableException {
+        for (int i = 0; pendingCount > 0 && i < starts.length; i++)
+            materialise(i);
+    }
+
+    /**
+     * @param name of the field
+     * @return whether this field has been read, or was never lazy
+     */
+    public boolean isMaterialised(@NotNull String name) {
+        if (pendingCount == 0)
+            return true;
+        final Integer index = lazyFields().index.get(name);
+        return index == null || (pending[index >>> 6] & (1L << index)) == 0;
+    }
+
+    private void materialise(int index) throws InvalidMarshallableException {
+        final long bit = 1L << index;
+        if ((pending[index >>> 6] & bit) == 0)
+            return;
+        // clear first so a failed read isn't repeated
+        pending[index >>> 6] &= ~bit;
+        pendingCount--;
+
+        final LazyFields lf = lazyFields();
+        final WireMarshaller.FieldAccess field = lf.fields[index];
+        final Bytes<?> copy = lazyWire.bytes();
+        try {
+            if (starts[index] < 0) {
+                field.setDefaultValue(lf.marshaller.defaultValue(), this);
+            } else {
+                copy.readPositionRemaining(starts[index], ends[index] - starts[index]);
+                field.readValue(this, lf.marshaller.defaultValue(), lazyWire.getValueIn(), true);
+            }
+        } catch (IllegalAccessException e) {
+            throw new AssertionError(e);
+        }
+        if (pendingCount == 0)
+            copy.clear();
+    }
+
+    private LazyFields lazyFields() {
+        LazyFields lf = lazyFields;
+        if (lf == null)
+            lazyFields = lf = LAZY_FIELDS_CL.get(getClass());
+        return lf;
+    }
+
+    @Override
+    public void writeMarshallable(@NotNull WireOut wire) throws InvalidMarshallableException {
+        materialiseAll();
+        super.writeMarshallable(wire);
+    }
+
+    @Override
+    public void writeMarshallable(BytesOut<?> bytes) {
+        materialiseAll();
+        super.writeMarshallable(bytes);
+    }
+
+    @Override
+    public void reset() {
+        pendingCount = 0;
+        super.reset();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        materialiseAll();
+        if (o instanceof LazyMarshallable)
+            ((LazyMarshallable) o).materialiseAll();
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        materialiseAll();
+        return super.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        materialiseAll();
+        return super.toString();
+    }
+
+    static final class LazyFields {
+        final WireMarshaller<Object> marshaller;
+        final WireMarshaller.FieldAccess[] fields;
+        final CharSequenceObjectMap<Integer> index;
+        final boolean lazy;
+
+        @SuppressWarnings("unchecked")
+        LazyFields(Class<?> type) {
+            marshaller = WireMarshaller.WIRE_MARSHALLER_CL.get(type);
+            fields = marshaller.fields;
+            index = new CharSequenceObjectMap<>(fields.length * 3);
+            for (int i = 0; i < fields.length; i++) {
+                index.put(fields[i].key.name().toString(), i);
+                index.put(fields[i].key.name().toString().toLowerCase(), i);
+            }
+            lazy = !Validatable.class.isAssignableFrom(type)
+                    && !(marshaller instanceof WireMarshallerForUnexpectedFields);
+        }
+
+        /**
+         * Finds a field by name ignoring case, as {@link WireMarshaller} does.
+         *
+         * @param sb the name read, which may be changed to lower case
+         */
+        Integer indexOf(StringBuilder sb) {
+            final Integer i = index.get(sb);
+            if (i != null)
+                return i;
+            for (int j = 0; j < sb.length(); j++)
+                sb.setCharAt(j, Character.toLowerCase(sb.charAt(j)));
+            return index.get(sb);
+        }
+    }
+}
@@ -0,0 +1,627 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.BytesStore;
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.core.io.AbstractCloseable;
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.core.io.IORuntimeException;
+import net.openhft.chronicle.core.io.IOTools;
+import net.openhft.chronicle.core.io.InvalidMarshallableException;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A {@code ChronicleBitSet} held in a memory mapped file, so it persists across restarts and can be shared between processes.
+ * <p>
+ * The file is mapped <code>chunkBytes</code> at a time, and grows a chunk at a time as higher bits are set, so there is no
+ * size to choose up front. As bits are indexed by <code>int</code>, it holds at most 2^31 bits, a file of 256 MiB. Changes to a word are a compare-and-swap on the mapped memory without locking, and scans such as
+ * {@link #nextSetBit(int)} read the words of each chunk directly.
+ * <p>
+ * Changes are written to the file by the operating system, call {@link #flush()} to force them to the storage device e.g. at a checkpoint.
+ */
+public class MappedBitSet extends AbstractCloseable implements Marshallable, ChronicleBitSet {
+    static final long MAGIC = 0x3154455354494242L; // "BBITSET1"
+    static final int MIN_CHUNK_BYTES = 4 << 10;
+    static final int DEFAULT_CHUNK_BYTES = 1 << 20;
+    // the header is a cache line, then the words
+    private static final int MAGIC_OFFSET = 0;
+    private static final int USED_OFFSET = 8;
+    private static final int HEADER_BYTES = 64;
+    private static final long WORD_MASK = ~0L;
+    private static final Chunk[] NO_CHUNKS = {};
+
+    private File file;
+    private int chunkBytes;
+    private transient int chunkShift;
+    private transient FileChannel channel;
+    private transient BytesStore<?, ?> header;
+    // grown under the lock on this, read without it
+    private transient volatile Chunk[] chunks = NO_CHUNKS;
+
+    // for readMarshallable
+    private MappedBitSet() {
+        singleThreadedCheckDisabled(true);
+    }
+
+    public MappedBitSet(@NotNull File file) {
+        this(file, DEFAULT_CHUNK_BYTES);
+    }
+
+    /**
+     * @param file       to create or open
+     * @param chunkBytes the size of each mapping, a power of two of at least 4 KiB
+     */
+    public MappedBitSet(@NotNull File file, int chunkBytes) {
+        this.file = file;
+        this.chunkBytes = chunkBytes;
+        open();
+    }
+
+    private void open() {
+        if (chunkBytes < MIN_CHUNK_BYTES || Integer.bitCount(chunkBytes) != 1)
+            throw new IllegalArgumentException("chunkBytes must be a power of 2 and at least " + MIN_CHUNK_BYTES + ", was " + chunkBytes);
+        singleThreadedCheckDisabled(true);
+        chunkShift = Integer.numberOfTrailingZeros(chunkBytes);
+        try {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            // only an empty file is new, another process creating it at the same time writes the same magic
+            if (channel.size() == 0)
+                channel.write(ByteBuffer.allocate(8).order(ByteOrder.nativeOrder()).putLong(0, MAGIC), MAGIC_OFFSET);
+        } catch (IOException ioe) {
+            Closeable.closeQuietly(channel);
+            throw new IORuntimeException(ioe);
+        }
+        header = chunk(0);
+        final long magic = header.readVolatileLong(MAGIC_OFFSET);
+        if (magic != MAGIC) {
+            close();
+            throw new IORuntimeException("Not a " + MappedBitSet.class.getSimpleName() + " file " + file + " magic: 0x" + Long.toHexString(magic));
+        }
+    }
+
+    /**
+     * Given a bit index, return word index containing it.
+     */
+    private static int wordIndex(int bitIndex) {
+        if (bitIndex < 0)
+            throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+
+        return (int) (bitIndex / BITS_PER_WORD);
+    }
+
+    /**
+     * Checks that fromIndex ... toIndex is a valid range of bit indices.
+     */
+    private static void checkRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0)
+            throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+        if (toIndex < 0)
+            throw new IndexOutOfBoundsException("toIndex < 0: " + toIndex);
+        if (fromIndex > toIndex)
+            throw new IndexOutOfBoundsException("fromIndex: " + fromIndex +
+                    " > toIndex: " + toIndex);
+    }
+
+    private static long offsetOf(int wordIndex) {
+        return HEADER_BYTES + wordIndex * 8L;
+    }
+
+    private BytesStore<?, ?> storeOf(long offset) {
+        final int index = (int) (offset >>> chunkShift);
+        final Chunk[] cs = chunks;
+        if (index < cs.length) {
+            final Chunk chunk = cs[index];
+            if (chunk != null)
+                return chunk.store;
+        }
+        return chunk(index);
+    }
+
+    private synchronized BytesStore<?, ?> chunk(int index) {
+        Chunk[] cs = chunks;
+        if (index < cs.length && cs[index] != null)
+            return cs[index].store;
+        throwExceptionIfClosed();
+        try {
+            // extends the file if needed
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, (long) index << chunkShift, chunkBytes);
+            cs = Arrays.copyOf(cs, Math.max(cs.length, index + 1));
+            cs[index] = new Chunk(buffer);
+            chunks = cs;
+            return cs[index].store;
+        } catch (IOException ioe) {
+            throw new IORuntimeException(ioe);
+        }
+    }
+
+    private long readWord(int wordIndex) {
+        final long offset = offsetOf(wordIndex);
+        return storeOf(offset).readVolatileLong(offset & (chunkBytes - 1));
+    }
+
+    private void writeWord(int wordIndex, long bits) {
+        final long offset = offsetOf(wordIndex);
+        storeOf(offset).writeOrderedLong(offset & (chunkBytes - 1), bits);
+    }
+
+    private long updateWord(int wordIndex, long param, LongArrayValueBitSet.LongFunction function) {
+        final long offset = offsetOf(wordIndex);
+        final BytesStore<?, ?> store = storeOf(offset);
+        final long off = offset & (chunkBytes - 1);
+        for (; ; ) {
+            final long oldValue = store.readVolatileLong(off);
+            final long value = function.apply(oldValue, param);
+            if (oldValue == value || store.compareAndSwapLong(off, oldValue, value))
+                return oldValue;
+        }
+    }
+
+    private long or(int wordIndex, long param) {
+        return updateWord(wordIndex, param, (x, y) -> x | y);
+    }
+
+    private void and(int wordIndex, long param) {
+        updateWord(wordIndex, param, (x, y) -> x & y);
+    }
+
+    private void caret(int wordIndex, long param) {
+        updateWord(wordIndex, param, (x, y) -> x ^ y);
+    }
+
+    /**
+     * Ensures that the words in use include wordIndex.
+     */
+    private void expandTo(int wordIndex) {
+        final long wordsRequired = wordIndex + 1L;
+        for (; ; ) {
+            final long used = header.readVolatileLong(USED_OFFSET);
+            if (used >= wordsRequired || header.compareAndSwapLong(USED_OFFSET, used, wordsRequired))
+                return;
+        }
+    }
+
+    @Override
+    public int getWordsInUse() {
+        return Math.toIntExact(header.readVolatileLong(USED_OFFSET));
+    }
+
+    @Override
+    public long getWord(int wordIndex) {
+        return wordIndex < getWordsInUse() ? readWord(wordIndex) : 0;
+    }
+
+    @Override
+    public void setWord(int wordIndex, long bits) {
+        throwExceptionIfClosed();
+        expandTo(wordIndex);
+        writeWord(wordIndex, bits);
+    }
+
+    /**
+     * Forces the changes to the storage device, so the bits set are retained if the machine fails.
+     */
+    public void flush() {
+        throwExceptionIfClosed();
+        for (Chunk chunk : chunks)
+            if (chunk != null)
+                chunk.buffer.force();
+    }
+
+    /**
+     * @return the file this is mapped from
+     */
+    public File file() {
+        return file;
+    }
+
+    @Override
+    protected synchronized void performClose() {
+        for (Chunk chunk : chunks)
+            if (chunk != null)
+                chunk.close();
+        chunks = NO_CHUNKS;
+        Closeable.closeQuietly(channel);
+    }
+
+    @Override
+    public int size() {
+        final long mappedWords = ((long) chunks.length * chunkBytes - HEADER_BYTES) / 8;
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(mappedWords, getWordsInUse()) * BITS_PER_WORD);
+    }
+
+    @Override
+    public void set(int bitIndex) {
+        throwExceptionIfClosed();
+
+        int wordIndex = wordIndex(bitIndex);
+        expandTo(wordIndex);
+        or(wordIndex, 1L << bitIndex);
+    }
+
+    /**
+     * Sets a bit, returning whether it was set already, e.g. to detect a duplicate.
+     *
+     * @param bitIndex a bit index
+     * @return the previous value of the bit
+     */
+    public boolean getAndSet(int bitIndex) {
+        throwExceptionIfClosed();
+
+        int wordIndex = wordIndex(bitIndex);
+        expandTo(wordIndex);
+        final long bit = 1L << bitIndex;
+        return (or(wordIndex, bit) & bit) != 0;
+    }
+
+    @Override
+    public void set(int fromIndex, int toIndex) {
+        throwExceptionIfClosed();
+
+        checkRange(fromIndex, toIndex);
+
+        if (fromIndex == toIndex)
+            return;
+
+        int startWordIndex = wordIndex(fromIndex);
+        int endWordIndex = wordIndex(toIndex - 1);
+        expandTo(endWordIndex);
+
+        long firstWordMask = WORD_MASK << fromIndex;
+        long lastWordMask = WORD_MASK >>> -toIndex;
+        if (startWordIndex == endWordIndex) {
+            or(startWordIndex, firstWordMask & lastWordMask);
+        } else {
+            or(startWordIndex, firstWordMask);
+            for (int i = startWordIndex + 1; i < endWordIndex; i++)
+                writeWord(i, WORD_MASK);
+            or(endWordIndex, lastWordMask);
+        }
+    }
+
+    @Override
+    public boolean get(int bitIndex) {
+        throwExceptionIfClosed();
+
+        int wordIndex = wordIndex(bitIndex);
+        return wordIndex < getWordsInUse()
+                && (readWord(wordIndex) & (1L << bitIndex)) != 0;
+    }
+
+    @Override
+    public void clear(int bitIndex) {
+        throwExceptionIfClosed();
+
+        int wordIndex = wordIndex(bitIndex);
+        if (wordIndex >= getWordsInUse())
+            return;
+
+        and(wordIndex, ~(1L << bitIndex));
+    }
+
+    @Override
+    public void clear(int fromIndex, int toIndex) {
+        throwExceptionIfClosed();
+
+        checkRange(fromIndex, toIndex);
+
+        if (fromIndex == toIndex)
+            return;
+
+        final int wordsInUse = getWordsInUse();
+        int startWordIndex = wordIndex(fromIndex);
+        if (startWordIndex >= wordsInUse)
+            return;
+
+        int endWordIndex = wordIndex(toIndex - 1);
+        long lastWordMask = WORD_MASK >>> -toIndex;
+        if (endWordIndex >= wordsInUse) {
+            endWordIndex = wordsInUse - 1;
+            lastWordMask = WORD_MASK;
+        }
+
+        long firstWordMask = WORD_MASK << fromIndex;
+        if (startWordIndex == endWordIndex) {
+            and(startWordIndex, ~(firstWordMask & lastWordMask));
+        } else {
+            and(startWordIndex, ~firstWordMask);
+            for (int i = startWordIndex + 1; i < endWordIndex; i++)
+                writeWord(i, 0L);
+            and(endWordIndex, ~lastWordMask);
+        }
+    }
+
+    @Override
+    public void clear() {
+        throwExceptionIfClosed();
+
+        for (int i = getWordsInUse() - 1; i >= 0; i--)
+            writeWord(i, 0L);
+        header.writeOrderedLong(USED_OFFSET, 0L);
+    }
+
+    @Override
+    public void flip(int bitIndex) {
+        throwExceptionIfClosed();
+
+        int wordIndex = wordIndex(bitIndex);
+        expandTo(wordIndex);
+        caret(wordIndex, 1L << bitIndex);
+    }
+
+    @Override
+    public void flip(int fromIndex, int toIndex) {
+        throwExceptionIfClosed();
+
+        checkRange(fromIndex, toIndex);
+
+        if (fromIndex == toIndex)
+            return;
+
+        int startWordIndex = wordIndex(fromIndex);
+        int endWordIndex = wordIndex(toIndex - 1);
+        expandTo(endWordIndex);
+
+        long firstWordMask = WORD_MASK << fromIndex;
+        long lastWordMask = WORD_MASK >>> -toIndex;
+        if (startWordIndex == endWordIndex) {
+            caret(startWordIndex, firstWordMask & lastWordMask);
+        } else {
+            caret(startWordIndex, firstWordMask);
+            for (int i = startWordIndex + 1; i < endWordIndex; i++)
+                caret(i, WORD_MASK);
+            caret(endWordIndex, lastWordMask);
+        }
+    }
+
+    @Override
+    public int nextSetBit(int fromIndex) {
+        return nextSetBit(fromIndex, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Scans the words of each chunk in turn, skipping zero words.
+     */
+    @Override
+    public int nextSetBit(int fromIndex, int toIndex) {
+        throwExceptionIfClosed();
+
+        int u = wordIndex(fromIndex);
+        final int wordsInUse = getWordsInUse();
+        if (u >= wordsInUse)
+            return -1;
+        // the last word which can hold a bit before toIndex
+        final int last = (int) Math.min(wordsInUse - 1L, toIndex / BITS_PER_WORD);
+        long mask = WORD_MASK << fromIndex;
+        while (u <= last) {
+            final long offset = offsetOf(u);
+            final BytesStore<?, ?> store = storeOf(offset);
+            final long chunkEnd = (offset | (chunkBytes - 1)) + 1;
+            final int end = (int) Math.min(last, u + (chunkEnd - offset) / 8 - 1);
+            long off = offset & (chunkBytes - 1);
+            for (; u <= end; u++, off += 8) {
+                final long word = store.readVolatileLong(off) & mask;
+                if (word != 0)
+                    return Math.toIntExact(u * BITS_PER_WORD + Long.numberOfTrailingZeros(word));
+                mask = WORD_MASK;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int nextClearBit(int fromIndex) {
+        throwExceptionIfClosed();
+
+        int u = wordIndex(fromIndex);
+        final int wordsInUse = getWordsInUse();
+        if (u >= wordsInUse)
+            return fromIndex;
+
+        long word = ~readWord(u) & (WORD_MASK << fromIndex);
+
+        while (true) {
+            if (word != 0)
+                return Math.toIntExact(u * BITS_PER_WORD + Long.numberOfTrailingZeros(word));
+            if (++u == wordsInUse)
+                return (int) Math.min(Integer.MAX_VALUE, wordsInUse * BITS_PER_WORD);
+            word = ~readWord(u);
+        }
+    }
+
+    @Override
+    public int cardinality() {
+        throwExceptionIfClosed();
+
+        long sum = 0;
+        for (int i = 0, wordsInUse = getWordsInUse(); i < wordsInUse; i++)
+            sum += Long.bitCount(readWord(i));
+        return Math.toIntExact(sum);
+    }
+
+    @Override
+    public boolean intersects(ChronicleBitSet set) {
+        throwExceptionIfClosed();
+
+        for (int i = Math.min(getWordsInUse(), set.getWordsInUse()) - 1; i >= 0; i--)
+            if ((readWord(i) & set.getWord(i)) != 0)
+                return true;
+        return false;
+    }
+
+    @Override
+    public void and(ChronicleBitSet set) {
+        throwExceptionIfClosed();
+
+        if (this == set)
+            return;
+
+        OS.memory().loadFence();
+        int wordsInUse = getWordsInUse();
+        final int wordsInUse2 = set.getWordsInUse();
+        while (wordsInUse > wordsInUse2)
+            writeWord(--wordsInUse, 0L);
+
+        for (int i = 0; i < wordsInUse; i++)
+            and(i, set.getWord(i));
+    }
+
+    @Override
+    public void or(ChronicleBitSet set) {
+        throwExceptionIfClosed();
+
+        if (this == set)
+            return;
+
+        final int wordsInUse2 = set.getWordsInUse();
+        if (wordsInUse2 == 0)
+            return;
+        expandTo(wordsInUse2 - 1);
+
+        OS.memory().loadFence();
+        for (int i = 0; i < wordsInUse2; i++)
+            or(i, set.getWord(i));
+    }
+
+    @Override
+    public void xor(ChronicleBitSet set) {
+        throwExceptionIfClosed();
+
+        final int wordsInUse2 = set.getWordsInUse();
+        if (wordsInUse2 == 0)
+            return;
+        expandTo(wordsInUse2 - 1);
+
+        OS.memory().loadFence();
+        for (int i = 0; i < wordsInUse2; i++)
+            caret(i, set.getWord(i));
+    }
+
+    @Override
+    public void andNot(ChronicleBitSet set) {
+        throwExceptionIfClosed();
+
+        OS.memory().loadFence();
+        for (int i = Math.min(getWordsInUse(), set.getWordsInUse()) - 1; i >= 0; i--)
+            and(i, ~set.getWord(i));
+    }
+
+    @Override
+    public void copyFrom(ChronicleBitSet bitSet) {
+        throwExceptionIfClosed();
+
+        OS.memory().loadFence();
+        final int wordsInUse = bitSet.getWordsInUse();
+        for (int i = getWordsInUse() - 1; i >= wordsInUse; i--)
+            writeWord(i, 0L);
+        for (int i = 0; i < wordsInUse; i++)
+            writeWord(i, bitSet.getWord(i));
+        header.writeOrderedLong(USED_OFFSET, wordsInUse);
+    }
+
+    @Override
+    public void writeMarshallable(@NotNull WireOut wire) {
+        wire.write("file").text(file.getPath())
+                .write("chunkBytes").int32(chunkBytes);
+    }
+
+    @Override
+    public void readMarshallable(@NotNull WireIn wire) throws IORuntimeException, InvalidMarshallableException {
+        if (channel != null)
+            throw new IllegalStateException("Already open " + file);
+        file = new File(wire.read("file").text());
+        chunkBytes = wire.read("chunkBytes").int32(DEFAULT_CHUNK_BYTES);
+        chunks = NO_CHUNKS;
+        open();
+    }
+
+    /**
+     * Returns the hash code value for this bit set. The hash code depends only on which bits are set within this {@code ChronicleBitSet}.
+     */
+    @Override
+    public int hashCode() {
+        long h = 1234;
+        for (int i = getWordsInUse(); --i >= 0; )
+            h ^= readWord(i) * (i + 1);
+
+        return (int) ((h >> 32) ^ h);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        throwExceptionIfClosed();
+
+        if (!(obj instanceof ChronicleBitSet))
+            return false;
+        if (this == obj)
+            return true;
+
+        ChronicleBitSet set = (ChronicleBitSet) obj;
+
+        OS.memory().loadFence();
+        for (int i = 0, max = Math.max(getWordsInUse(), set.getWordsInUse()); i < max; i++)
+            if (getWord(i) != set.getWord(i))
+                return false;
+
+        return true;
+    }
+
+    /**
+     * Returns a string representation of this bit set. For every index for which this {@code ChronicleBitSet} contains a bit in the set state, the decimal
+     * representation of that index is included in the result, in the usual mathematical notation for a set of integers.
+     */
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder();
+        b.append('{');
+        for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+            if (b.length() > 1)
+                b.append(", ");
+            b.append(i);
+            if (i == Integer.MAX_VALUE)
+                break;
+        }
+        return b.append('}').toString();
+    }
+
+    static final class Chunk {
+        final MappedByteBuffer buffer;
+        final BytesStore<?, ?> store;
+
+        Chunk(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+            this.store = BytesStore.wrap(buffer);
+        }
+
+        void close() {
+            store.releaseLast();
+            // release the mapping now rather than when it is garbage collected
+            IOTools.clean(buffer);
+        }
+    }
+}
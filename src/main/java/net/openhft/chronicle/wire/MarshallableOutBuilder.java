@@ -18,6 +18,7 @@
 
 package net.openhft.chronicle.wire;
 
+import net.openhft.chronicle.wire.internal.BatchingHTTPMarshallableOut;
 import net.openhft.chronicle.wire.internal.FileMarshallableOut;
 import net.openhft.chronicle.wire.internal.HTTPMarshallableOut;
 
@@ -27,6 +28,9 @@ import java.util.function.Supplier;
 public class MarshallableOutBuilder implements Supplier<MarshallableOut> {
     private final URL url;
     private WireType wireType;
+    private int batchBytes;
+    private long batchMillis;
+    private int maxInFlight;
 
     public MarshallableOutBuilder(URL url) {
         this.url = url;
@@ -41,11 +45,13 @@ public class MarshallableOutBuilder implements Supplier<MarshallableOut> {
                 if (wireType != null && wireType != WireType.YAML_ONLY)
                     throw new IllegalArgumentException("Unsupported wireType; " + wireType);
                 // URL file protocol doesn't support writing...
-                return new FileMarshallableOut(this, wireTypeOr(WireType.YAML_ONLY));
+                return FileMarshallableOut.create(this, wireTypeOr(WireType.YAML_ONLY));
             case "http":
             case "https":
                 if (wireType != null && wireType != WireType.JSON_ONLY)
                     throw new IllegalArgumentException("Unsupported wireType; " + wireType);
+                if (batchBytes > 0 || batchMillis > 0 || maxInFlight > 0)
+                    return new BatchingHTTPMarshallableOut(this, wireTypeOr(WireType.JSON_ONLY));
                 return new HTTPMarshallableOut(this, wireTypeOr(WireType.JSON_ONLY));
             default:
                 throw new UnsupportedOperationException("Writing to " + url.getProtocol() + " is  not implemented");
@@ -64,4 +70,52 @@ public class MarshallableOutBuilder implements Supplier<MarshallableOut> {
         this.wireType = wireType;
         return this;
     }
+
+    public int batchBytes() {
+        return batchBytes;
+    }
+
+    /**
+     * For http, post documents in batches of at least this many bytes, from a background thread.
+     * The MarshallableOut is Closeable and should be closed.
+     *
+     * @param batchBytes the size at which to send a batch, 0 for no limit
+     * @return this
+     */
+    public MarshallableOutBuilder batchBytes(int batchBytes) {
+        this.batchBytes = batchBytes;
+        return this;
+    }
+
+    public long batchMillis() {
+        return batchMillis;
+    }
+
+    /**
+     * For http, post the documents written every this many milliseconds, from a background thread.
+     * The MarshallableOut is Closeable and should be closed.
+     *
+     * @param batchMillis the longest time to wait before sending a batch, 0 to only send by size
+     * @return this
+     */
+    public MarshallableOutBuilder batchMillis(long batchMillis) {
+        this.batchMillis = batchMillis;
+        return this;
+    }
+
+    public int maxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * For http, the number of batches which can wait to be sent before writing blocks.
+     * The MarshallableOut is Closeable and should be closed.
+     *
+     * @param maxInFlight number of batches which can be queued
+     * @return this
+     */
+    public MarshallableOutBuilder maxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+        return this;
+    }
 }
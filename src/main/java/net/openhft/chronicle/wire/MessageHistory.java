@@ -129,4 +129,11 @@ public interface MessageHistory extends Marshallable {
      * {@link Marshallable#writeMarshallable(net.openhft.chronicle.wire.WireOut)}
      */
     boolean isDirty();
+
+    /**
+     * Copies any part of this {@code MessageHistory} which is still read from the message it came from,
+     * so it can be kept after that message.
+     */
+    default void detach() {
+    }
 }
@@ -42,6 +42,11 @@ public class VanillaMessageHistory extends SelfDescribingMarshallable implements
     public static final int MAX_LENGTH = 2 + MESSAGE_HISTORY_LENGTH * 8 * 4;
     private static final ThreadLocal<MessageHistory> THREAD_LOCAL =
             ThreadLocal.withInitial(() -> {
+                if (VanillaMessageHistory.HISTORY_FLYWEIGHT) {
+                    @NotNull FlyweightMessageHistory fmh = new FlyweightMessageHistory();
+                    fmh.addSourceDetails(true);
+                    return fmh;
+                }
                 @NotNull VanillaMessageHistory veh = new VanillaMessageHistory();
                 veh.addSourceDetails(true);
                 return veh;
@@ -49,6 +54,7 @@ public class VanillaMessageHistory extends SelfDescribingMarshallable implements
     private static final boolean HISTORY_AS_BYTES = Jvm.getBoolean("history.as.bytes");
     private static final boolean HISTORY_WALL_CLOCK = Jvm.getBoolean("history.wall.clock");
     private static final boolean HISTORY_AS_METHOD_ID = Jvm.getBoolean("history.as.method_id");
+    private static final boolean HISTORY_FLYWEIGHT = Jvm.getBoolean("history.flyweight");
     private boolean useBytesMarshallable = HISTORY_AS_BYTES;
     private boolean historyWallClock = HISTORY_WALL_CLOCK;
     private boolean historyMethodId = HISTORY_AS_METHOD_ID;
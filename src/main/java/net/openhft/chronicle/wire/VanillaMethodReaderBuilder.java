@@ -28,6 +28,7 @@ import org.jetbrains.annotations.Nullable;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 
@@ -132,7 +133,15 @@ public class VanillaMethodReaderBuilder implements MethodReaderBuilder {
 
                 return instanceForGeneratedClass(generatedClass, impls);
             } catch (ClassNotFoundException e) {
-                Class<?> clazz = classCache.computeIfAbsent(fullClassName, name -> generateMethodReader.createClass());
+                Class<?> clazz = classCache.get(fullClassName);
+                if (clazz == null) {
+                    // not generated in computeIfAbsent as compiling can take a while, threads generating the same
+                    // class wait for one compilation in Wires.loadFromJava
+                    clazz = generateMethodReader.createClass();
+                    final Class<?> prev = clazz == null ? null : classCache.putIfAbsent(fullClassName, clazz);
+                    if (prev != null)
+                        clazz = prev;
+                }
                 if (clazz != null && clazz != COMPILE_FAILED) {
                     return instanceForGeneratedClass(clazz, impls);
                 }
@@ -172,6 +181,16 @@ public class VanillaMethodReaderBuilder implements MethodReaderBuilder {
         return this;
     }
 
+    /**
+     * As {@link #build(Object...)} on the threads generated classes are compiled on,
+     * so several method readers can be built at once rather than one compilation after another.
+     *
+     * @return the method reader once it has been built
+     */
+    public CompletableFuture<MethodReader> buildAsync(Object... impls) {
+        return Wires.generateAsync(() -> build(impls));
+    }
+
     @NotNull
     public MethodReader build(Object... impls) {
         if (this.defaultParselet == null)
@@ -31,6 +31,7 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
@@ -170,6 +171,38 @@ public class VanillaMethodWriterBuilder<T> implements Builder<T>, MethodWriterBu
 
     }
 
+    /**
+     * @return the name of the class generated, which is used if it is on the class path already
+     */
+    @NotNull
+    String fullClassName() {
+        return packageName + "." + getClassName();
+    }
+
+    /**
+     * @return the source of the class generated, e.g. to compile it at build time
+     */
+    @NotNull
+    String sourceCode() {
+        return GenerateMethodWriter.sourceCode(fullClassName(),
+                interfaces,
+                wireType,
+                genericEvent,
+                metaData,
+                true,
+                updateInterceptor != null, verboseTypes);
+    }
+
+    /**
+     * As {@link #get()} on the threads generated classes are compiled on,
+     * so several method writers can be built at once rather than one compilation after another.
+     *
+     * @return the method writer once it has been built
+     */
+    public CompletableFuture<T> getAsync() {
+        return Wires.generateAsync(this::get);
+    }
+
     @NotNull
     @Override
     public T get() {
@@ -200,15 +233,18 @@ public class VanillaMethodWriterBuilder<T> implements Builder<T>, MethodWriterBu
 
     @Nullable
     private T createInstance() {
-        String fullClassName = packageName + "." + getClassName();
+        String fullClassName = fullClassName();
         try {
             try {
                 return (T) newInstance(Class.forName(fullClassName));
             } catch (ClassNotFoundException e) {
-                Class clazz;
-                // only one thread at a time so two threads don't try to generate the same class.
-                synchronized (classCache) {
-                    clazz = classCache.computeIfAbsent(fullClassName, this::newClass);
+                Class clazz = classCache.get(fullClassName);
+                if (clazz == null) {
+                    // threads generating the same class wait for one compilation in Wires.loadFromJava
+                    clazz = newClass(fullClassName);
+                    final Class prev = clazz == null ? null : classCache.putIfAbsent(fullClassName, clazz);
+                    if (prev != null)
+                        clazz = prev;
                 }
                 if (clazz != null && clazz != COMPILE_FAILED) {
                     return (T) newInstance(clazz);
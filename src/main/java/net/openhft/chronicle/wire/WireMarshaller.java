@@ -47,10 +47,13 @@ import static net.openhft.chronicle.core.UnsafeMemory.*;
 public class WireMarshaller<T> {
     private static final Class[] UNEXPECTED_FIELDS_PARAMETER_TYPES = {Object.class, ValueIn.class};
     private static final FieldAccess[] NO_FIELDS = {};
+    private static final boolean GENERATE_MARSHALLERS = Jvm.getBoolean("wire.generateMarshallers");
     private static Method isRecord;
     @NotNull
     final FieldAccess[] fields;
     final TreeMap<CharSequence, FieldAccess> fieldMap = new TreeMap<>(WireMarshaller::compare);
+    // hashed lookup by field name for fields which are read out of order.
+    final CharSequenceObjectMap<FieldAccess> fieldIndex;
     private final boolean isLeaf;
     @Nullable
     private final T defaultValue;
@@ -79,8 +82,12 @@ public class WireMarshaller<T> {
         this.fields = fields;
         this.isLeaf = isLeaf;
         this.defaultValue = defaultValue;
+        fieldIndex = new CharSequenceObjectMap<>(fields.length * 3);
         for (FieldAccess field : fields) {
             fieldMap.put(field.key.name(), field);
+            // names are matched ignoring case, as matchesFieldName does
+            fieldIndex.put(field.key.name().toString(), field);
+            fieldIndex.put(field.key.name().toString().toLowerCase(), field);
         }
     }
 
@@ -106,9 +113,28 @@ public class WireMarshaller<T> {
                 .filter(WireMarshaller::leafable)
                 .collect(Collectors.toList());
         boolean isLeaf = collect.isEmpty();
-        return overridesUnexpectedFields(tClass)
-                ? new WireMarshallerForUnexpectedFields<>(fields, isLeaf, defaultObject)
-                : new WireMarshaller<>(fields, isLeaf, defaultObject);
+        if (overridesUnexpectedFields(tClass))
+            return new WireMarshallerForUnexpectedFields<>(fields, isLeaf, defaultObject);
+        final WireMarshaller<T> wm = new WireMarshaller<>(fields, isLeaf, defaultObject);
+        return GENERATE_MARSHALLERS && fields.length > 0 ? GenerateWireMarshaller.generate(tClass, wm) : wm;
+    }
+
+    /**
+     * Returns a marshaller which writes and reads the fields with a class generated for this DTO, rather than a
+     * {@link FieldAccess} per field. The fields must all be booleans, ints, longs, floats, doubles, Strings or enums which are not private or final,
+     * otherwise this is the same as {@link #of(Class)}.
+     * <p>
+     * <code>-Dwire.generateMarshallers=true</code> uses these for all DTOs.
+     *
+     * @param tClass of the DTO
+     * @return a marshaller for this class
+     */
+    @NotNull
+    public static <T> WireMarshaller<T> ofGenerated(@NotNull Class<T> tClass) {
+        final WireMarshaller<T> wm = of(tClass);
+        return wm.getClass() == WireMarshaller.class && wm.fields.length > 0
+                ? GenerateWireMarshaller.generate(tClass, wm)
+                : wm;
     }
 
     protected static boolean leafable(FieldAccess c) {
@@ -329,6 +355,31 @@ public class WireMarshaller<T> {
         }
     }
 
+    /**
+     * Writes only the fields of the provided object which differ from <code>previous</code>. Each field written is
+     * then copied into <code>previous</code> so it reflects what the reader has seen.
+     * Fields not written are expected to be retained by the reader, see {@link DeltaWire}
+     *
+     * @param t        Object whose changed field values are to be written.
+     * @param out      Output destination where the field values are written to.
+     * @param previous The values last written for this object, updated as fields are written.
+     * @return the number of fields written.
+     * @throws InvalidMarshallableException If there's an error during marshalling.
+     */
+    public int writeMarshallableDelta(T t, @NotNull WireOut out, @NotNull T previous) throws InvalidMarshallableException {
+        ValidatableUtil.validate(t);
+        int count = 0;
+        try {
+            for (@NotNull FieldAccess field : fields) {
+                if (field.writeDelta(t, out, previous))
+                    count++;
+            }
+        } catch (IllegalAccessException e) {
+            throw new AssertionError(e);
+        }
+        return count;
+    }
+
     /**
      * @see #readMarshallable(Object, WireIn, boolean)
      * @deprecated To be removed in x.26
@@ -397,7 +448,9 @@ public class WireMarshaller<T> {
     }
 
     /**
-     * Reads and populates the DTO based on the input's order.
+     * Reads and populates the DTO based on the input's order. Each field in the input is read once, fields in the
+     * same order as the DTO are matched directly, and any others are looked up via a hashed index by name, ignoring
+     * case, or by field number.
      *
      * @param t         Target object to populate with read values.
      * @param in        Input source from which values are read.
@@ -420,18 +473,20 @@ public class WireMarshaller<T> {
                     field.readValue(t, defaultValue, in.getValueIn(), overwrite);
 
                 } else {
-                    // If not, copy default values
-                    for (; i < fields.length; i++) {
-                        FieldAccess field2 = fields[i];
-                        field2.setDefaultValue(defaultValue, t);
+                    // If not, copy default values for the fields not read so far
+                    if (overwrite) {
+                        for (; i < fields.length; i++) {
+                            FieldAccess field2 = fields[i];
+                            field2.setDefaultValue(defaultValue, t);
+                        }
                     }
 
                     if (vin == null || sb.length() <= 0)
                         return;
 
-                    // Read the next set of values if there are any left
+                    // Read the remaining fields in input order
                     do {
-                        FieldAccess fieldAccess = fieldMap.get(sb);
+                        FieldAccess fieldAccess = fieldFor(sb);
                         if (fieldAccess == null)
                             vin.skipValue();
                         else
@@ -439,6 +494,7 @@ public class WireMarshaller<T> {
 
                         vin = in.read(sb);
                     } while (in.hasMore());
+                    return;
                 }
             }
         } catch (IllegalAccessException e) {
@@ -446,6 +502,46 @@ public class WireMarshaller<T> {
         }
     }
 
+    /**
+     * Looks up a field by name ignoring case, or by its {@link WireKey#code()} if the name is a field number.
+     *
+     * @param sb the name read, which is not changed
+     * @return the field, or null if there isn't one
+     */
+    @Nullable
+    FieldAccess fieldFor(StringBuilder sb) {
+        FieldAccess field = fieldIndex.get(sb);
+        if (field == null)
+            field = fieldIndex.getIgnoreCase(sb);
+        if (field != null)
+            return field;
+        final long code = fieldNumber(sb);
+        if (code == Long.MIN_VALUE)
+            return null;
+        for (FieldAccess fa : fields) {
+            if (fa.key.code() == code)
+                return fa;
+        }
+        return null;
+    }
+
+    /**
+     * @return the field number, or Long.MIN_VALUE if the name is not a number of up to 10 digits
+     */
+    private static long fieldNumber(CharSequence sb) {
+        final int start = sb.length() > 1 && sb.charAt(0) == '-' ? 1 : 0;
+        if (sb.length() <= start || sb.length() - start > 10)
+            return Long.MIN_VALUE;
+        long code = 0;
+        for (int i = start; i < sb.length(); i++) {
+            final char ch = sb.charAt(i);
+            if (ch < '0' || ch > '9')
+                return Long.MIN_VALUE;
+            code = code * 10 + (ch - '0');
+        }
+        return start == 0 ? code : -code;
+    }
+
     public boolean matchesFieldName(StringBuilder sb, FieldAccess field) {
         return sb.length() == 0 || StringUtils.equalsCaseIgnore(field.field.getName(), sb);
     }
@@ -941,6 +1037,39 @@ public class WireMarshaller<T> {
                 copy(o, previous);
         }
 
+        /**
+         * Writes the value of the field only if it is not equal to the value in <code>previous</code>,
+         * then retains a copy of the value written in <code>previous</code>.
+         *
+         * @param o        Object from which the field value is fetched.
+         * @param out      Output destination where the value is written to.
+         * @param previous Object holding the last value written.
+         * @return true if the field was written.
+         * @throws IllegalAccessException       If there's an access violation when fetching the field value.
+         * @throws InvalidMarshallableException If there's an error during marshalling.
+         */
+        boolean writeDelta(Object o, @NotNull WireOut out, Object previous) throws IllegalAccessException, InvalidMarshallableException {
+            if (isEqual(o, previous))
+                return false;
+
+            ValueOut write = out.write(field.getName());
+            getValue(o, write, previous);
+            copyForDelta(o, previous);
+            return true;
+        }
+
+        /**
+         * Copies the value of a field so that later changes to <code>from</code> are not visible in <code>to</code>.
+         * By default, this is the same as {@link #copy(Object, Object)}
+         *
+         * @param from Source object.
+         * @param to   Destination object.
+         * @throws IllegalAccessException If unable to access the field.
+         */
+        protected void copyForDelta(Object from, Object to) throws IllegalAccessException, InvalidMarshallableException {
+            copy(from, to);
+        }
+
         /**
          * Check if the values of a field in two objects are the same.
          *
@@ -1184,6 +1313,21 @@ public class WireMarshaller<T> {
         public void getAsBytes(Object o, @NotNull Bytes<?> bytes) throws IllegalAccessException {
             bytes.writeUtf8(String.valueOf(field.get(o)));
         }
+
+        @Override
+        protected void copyForDelta(Object from, Object to) throws IllegalAccessException, InvalidMarshallableException {
+            Object v = field.get(from);
+            if (!(v instanceof Marshallable) || ObjectUtils.isImmutable(v.getClass()) != ObjectUtils.Immutability.NO) {
+                copy(from, to);
+                return;
+            }
+            // a mutable value is copied rather than shared so changes to it can be detected.
+            Object existing = field.get(to);
+            if (existing != null && existing != v && existing.getClass() == v.getClass())
+                Wires.copyTo(v, existing);
+            else
+                field.set(to, Wires.deepCopy((Marshallable) v));
+        }
     }
 
     static class ResettableFieldAccess extends ObjectFieldAccess {
@@ -1416,6 +1560,19 @@ public class WireMarshaller<T> {
             field.set(o, arr2);
         }
 
+        @Override
+        protected void copyForDelta(Object from, Object to) throws IllegalAccessException {
+            Object arr = field.get(from);
+            if (arr == null) {
+                field.set(to, null);
+                return;
+            }
+            int length = Array.getLength(arr);
+            Object arr2 = Array.newInstance(componentType, length);
+            System.arraycopy(arr, 0, arr2, 0, length);
+            field.set(to, arr2);
+        }
+
         @Override
         public void getAsBytes(Object o, Bytes<?> bytes) {
             throw new UnsupportedOperationException();
@@ -1477,6 +1634,12 @@ public class WireMarshaller<T> {
                 field.set(o, arr2);
         }
 
+        @Override
+        protected void copyForDelta(Object from, Object to) throws IllegalAccessException {
+            byte[] arr = (byte[]) field.get(from);
+            field.set(to, arr == null ? null : arr.clone());
+        }
+
         @Override
         public void getAsBytes(Object o, Bytes<?> bytes) {
             throw new UnsupportedOperationException();
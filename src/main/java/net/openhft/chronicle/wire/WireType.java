@@ -191,10 +191,16 @@ public enum WireType implements Function<Bytes<?>, Wire>, LicenceCheck {
             return fromHexString(cs);
         }
     },
+    /**
+     * Writes only the fields which changed since a typed Marshallable was last written, see {@link DeltaWire}.
+     * If the Chronicle-Wire-Enterprise DeltaWire is on the class path, it is used instead.
+     */
     DELTA_BINARY {
         @NotNull
         @Override
         public Wire apply(Bytes<?> bytes) {
+            if (!IS_DELTA_AVAILABLE)
+                return new DeltaWire(bytes);
 
             try {
                 @NotNull
@@ -203,31 +209,11 @@ public enum WireType implements Function<Bytes<?>, Wire>, LicenceCheck {
                 return declaredConstructor.newInstance(bytes);
 
             } catch (Exception e) {
-                licenceCheck();
-
                 // this should never happen
                 throw new AssertionError(e);
             }
         }
 
-        @Override
-        public void licenceCheck() {
-            if (isAvailable())
-                return;
-
-            @NotNull final IllegalStateException licence = new IllegalStateException("A Chronicle-Wire-" +
-                    "Enterprise licence is required to run this code because you are using " +
-                    "DELTA_BINARY which is a licence product. " +
-                    "Please contact sales@chronicle.software");
-            Jvm.error().on(WireType.class, licence);
-            throw licence;
-        }
-
-        @Override
-        public boolean isAvailable() {
-            return IS_DELTA_AVAILABLE;
-        }
-
         @NotNull
         @Override
         public String asString(Object marshallable) {
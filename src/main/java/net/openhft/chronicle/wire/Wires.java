@@ -32,6 +32,8 @@ import net.openhft.chronicle.core.scoped.ScopedResource;
 import net.openhft.chronicle.core.scoped.ScopedResourcePool;
 import net.openhft.chronicle.core.threads.ThreadLocalHelper;
 import net.openhft.chronicle.core.util.*;
+import net.openhft.chronicle.threads.NamedThreadFactory;
+import net.openhft.chronicle.wire.internal.GeneratedClassCache;
 import net.openhft.chronicle.wire.internal.StringConsumerMarshallableOut;
 import net.openhft.compiler.CachedCompiler;
 import org.jetbrains.annotations.NotNull;
@@ -52,7 +54,16 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.time.*;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.function.Function;
 
 import static java.util.Arrays.asList;
@@ -111,7 +122,16 @@ public enum Wires {
     public static boolean GENERATE_TUPLES = Jvm.getBoolean("wire.generate.tuples");
     static volatile boolean warnedUntypedBytesOnce = false;
     static ThreadLocal<StringBuilder> sb = ThreadLocal.withInitial(StringBuilder::new);
-    private static CachedCompiler CACHED_COMPILER = null;
+    private static final int COMPILER_THREADS = Math.max(1, Jvm.getInteger("wire.compiler.threads",
+            Math.min(4, Runtime.getRuntime().availableProcessors() / 2)));
+    // a compiler is used by one thread at a time, as it compiles one class at a time
+    private static final Semaphore COMPILER_PERMITS = new Semaphore(COMPILER_THREADS);
+    private static final Queue<CachedCompiler> IDLE_COMPILERS = new ConcurrentLinkedQueue<>();
+    // the directory each compiler writes its classes to when they are cached
+    private static final Map<CachedCompiler, File> STAGING_DIRS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Map.Entry<ClassLoader, String>, CompletableFuture<Class>> LOADING = new ConcurrentHashMap<>();
+    private static final String CLASS_CACHE_DIR = Jvm.getProperty("wire.classCache.dir");
+    private static final GeneratedClassCache CLASS_CACHE = newClassCache();
 
     static {
         Jvm.addToClassPath(Wires.class);
@@ -122,6 +142,18 @@ public enum Wires {
         WireInternal.addAliases();
     }
 
+    @Nullable
+    private static GeneratedClassCache newClassCache() {
+        if (CLASS_CACHE_DIR == null || CLASS_CACHE_DIR.isEmpty())
+            return null;
+        try {
+            return new GeneratedClassCache(new File(CLASS_CACHE_DIR), Jvm.getProperty("compiler.options"));
+        } catch (IllegalArgumentException e) {
+            Jvm.warn().on(Wires.class, "Not caching generated classes", e);
+            return null;
+        }
+    }
+
     // force static initialise
     public static void init() {
         // Do nothing here
@@ -562,6 +594,8 @@ public enum Wires {
     }
 
     public static boolean isEquals(@NotNull Object o1, @NotNull Object o2) {
+        materialiseAll(o1);
+        materialiseAll(o2);
         return o1.getClass() == o2.getClass() && WireMarshaller.WIRE_MARSHALLER_CL.get(o1.getClass()).isEqual(o1, o2);
     }
 
@@ -584,26 +618,36 @@ public enum Wires {
 
     @Nullable
     public static <T> T getField(@NotNull Object o, String name, Class<T> tClass) throws NoSuchFieldException {
+        materialiseAll(o);
         WireMarshaller wm = WireMarshaller.WIRE_MARSHALLER_CL.get(o.getClass());
         Object value = wm.getField(o, name);
         return ObjectUtils.convertTo(tClass, value);
     }
 
     public static long getLongField(@NotNull Object o, String name) throws NoSuchFieldException {
+        materialiseAll(o);
         WireMarshaller wm = WireMarshaller.WIRE_MARSHALLER_CL.get(o.getClass());
         return wm.getLongField(o, name);
     }
 
     public static void setField(@NotNull Object o, String name, Object value) throws NoSuchFieldException {
+        materialiseAll(o);
         WireMarshaller wm = WireMarshaller.WIRE_MARSHALLER_CL.get(o.getClass());
         wm.setField(o, name, value);
     }
 
     public static void setLongField(@NotNull Object o, String name, long value) throws NoSuchFieldException {
+        materialiseAll(o);
         WireMarshaller wm = WireMarshaller.WIRE_MARSHALLER_CL.get(o.getClass());
         wm.setLongField(o, name, value);
     }
 
+    // so the fields of a LazyMarshallable not read yet aren't seen as their defaults, or overwritten by them later
+    private static void materialiseAll(Object o) {
+        if (o instanceof LazyMarshallable)
+            ((LazyMarshallable) o).materialiseAll();
+    }
+
     public static void reset(@NotNull Object o) {
         WireMarshaller wm = WireMarshaller.WIRE_MARSHALLER_CL.get(o.getClass());
         wm.reset(o);
@@ -844,34 +888,117 @@ public enum Wires {
         return wire;
     }
 
-    static synchronized Class loadFromJava(ClassLoader classLoader, String className, String code) throws ClassNotFoundException {
-        if (CACHED_COMPILER == null) {
-            final String target = OS.getTarget();
-            File sourceDir = null;
-            File classDir = null;
+    /**
+     * Compiles and loads a generated class, or returns it if the class loader has it already.
+     * <p>
+     * Up to <code>wire.compiler.threads</code> classes are compiled at once, each by its own compiler,
+     * and concurrent calls for the same class wait for the one compilation.
+     */
+    static Class loadFromJava(ClassLoader classLoader, String className, String code) throws ClassNotFoundException {
+        final Map.Entry<ClassLoader, String> key = new AbstractMap.SimpleImmutableEntry<>(classLoader, className);
+        final CompletableFuture<Class> future = new CompletableFuture<>();
+        final CompletableFuture<Class> loading = LOADING.putIfAbsent(key, future);
+        if (loading != null)
+            return join(loading);
+        try {
+            final Class aClass = loadFromJava0(classLoader, className, code);
+            future.complete(aClass);
+            return aClass;
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+            throw t;
+        } finally {
+            LOADING.remove(key, future);
+        }
+    }
 
-            if (new File(target).exists() && DUMP_CODE_TO_TARGET) {
-                sourceDir = new File(target, "generated-test-sources");
-                classDir = new File(target, "test-classes");
+    /**
+     * Calls a generator of classes, e.g. building a method reader or writer, on a pool of
+     * <code>wire.compiler.threads</code> threads, so the caller can generate several classes at once.
+     */
+    static <T> CompletableFuture<T> generateAsync(Callable<T> generator) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        CompilerPool.EXECUTOR.execute(() -> {
+            try {
+                future.complete(generator.call());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
             }
+        });
+        return future;
+    }
 
-            String compilerOptions = Jvm.getProperty("compiler.options");
+    private static Class join(CompletableFuture<Class> future) throws ClassNotFoundException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Jvm.rethrow(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ClassNotFoundException)
+                throw (ClassNotFoundException) e.getCause();
+            throw Jvm.rethrow(e.getCause());
+        }
+    }
 
-            if (compilerOptions == null || compilerOptions.trim().isEmpty()) {
-                CACHED_COMPILER = new CachedCompiler(sourceDir, classDir);
-            } else {
-                CACHED_COMPILER = new CachedCompiler(sourceDir, classDir, asList(compilerOptions.split("\\s")));
-            }
+    private static Class loadFromJava0(ClassLoader classLoader, String className, String code) throws ClassNotFoundException {
+        try {
+            // compiled by another compiler already
+            return classLoader.loadClass(className);
+        } catch (ClassNotFoundException ignored) {
+            // compile it
+        }
+        String cacheKey = null;
+        if (CLASS_CACHE != null) {
+            // the source includes the interfaces and wire type it was generated for
+            cacheKey = CLASS_CACHE.key(className, code);
+            final Class<?> cached = CLASS_CACHE.load(classLoader, className, cacheKey);
+            if (cached != null)
+                return cached;
         }
+        COMPILER_PERMITS.acquireUninterruptibly();
+        CachedCompiler compiler = IDLE_COMPILERS.poll();
         try {
-            return CACHED_COMPILER.loadFromJava(classLoader, className, code);
+            if (compiler == null)
+                compiler = newCachedCompiler();
+            final Class aClass = compiler.loadFromJava(classLoader, className, code);
+            final File stagingDir = STAGING_DIRS.get(compiler);
+            if (stagingDir != null)
+                CLASS_CACHE.store(stagingDir, className, cacheKey);
+            IDLE_COMPILERS.add(compiler);
+            return aClass;
         } catch (Throwable t) {
-            Closeable.closeQuietly(CACHED_COMPILER);
-            CACHED_COMPILER = null;
+            if (compiler != null)
+                STAGING_DIRS.remove(compiler);
+            Closeable.closeQuietly(compiler);
             throw t;
+        } finally {
+            COMPILER_PERMITS.release();
         }
     }
 
+    static CachedCompiler newCachedCompiler() {
+        final String target = OS.getTarget();
+        File sourceDir = null;
+        File classDir = null;
+
+        if (new File(target).exists() && DUMP_CODE_TO_TARGET) {
+            sourceDir = new File(target, "generated-test-sources");
+            classDir = new File(target, "test-classes");
+        }
+        if (CLASS_CACHE != null)
+            classDir = CLASS_CACHE.newStagingDir();
+
+        String compilerOptions = Jvm.getProperty("compiler.options");
+
+        final CachedCompiler compiler = compilerOptions == null || compilerOptions.trim().isEmpty()
+                ? new CachedCompiler(sourceDir, classDir)
+                : new CachedCompiler(sourceDir, classDir, asList(compilerOptions.split("\\s")));
+        if (CLASS_CACHE != null)
+            STAGING_DIRS.put(compiler, classDir);
+        return compiler;
+    }
+
     enum SerializeEnum implements Function<Class, SerializationStrategy> {
         INSTANCE;
 
@@ -1187,6 +1314,15 @@ public enum Wires {
         }
     }
 
+    // created on first use
+    static final class CompilerPool {
+        static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(COMPILER_THREADS,
+                new NamedThreadFactory("wire-compiler", true));
+
+        private CompilerPool() {
+        }
+    }
+
     static class FieldInfoPair {
         static final FieldInfoPair EMPTY = new FieldInfoPair(Collections.emptyList(), Collections.emptyMap());
 
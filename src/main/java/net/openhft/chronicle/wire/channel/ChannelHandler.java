@@ -49,6 +49,22 @@ public interface ChannelHandler extends ChannelHeader {
      */
     void run(ChronicleContext context, ChronicleChannel channel) throws ClosedIORuntimeException, InvalidMarshallableException;
 
+    /**
+     * Provides an EventPoller to handle the channel when there might be messages to read, instead of calling
+     * {@link #run(ChronicleContext, ChronicleChannel)} on a thread for the life of the channel.
+     * This allows a gateway to drive many channels from a small number of event loop threads.
+     * <p>
+     * The EventPoller must not block, and should return false when there is nothing more to read.
+     * Default implementation returns null, meaning this handler only supports running on its own thread.
+     *
+     * @param context the ChronicleContext within which actions will be executed
+     * @param channel the ChronicleChannel to be polled
+     * @return an EventPoller for the channel, or null if not supported
+     */
+    default EventPoller eventPoller(ChronicleContext context, ChronicleChannel channel) {
+        return null;
+    }
+
     /**
      * Determines whether the ChronicleChannel should be closed when the run method ends.
      * If false, the channel will continue to be open after the run method ends, e.g., a subscribe-only channel.
@@ -42,6 +42,10 @@ public class ChronicleChannelCfg<C extends ChronicleChannelCfg<C>> extends SelfD
     private boolean initiator;
     private boolean buffered;
     private PauserMode pauser = PauserMode.yielding;
+    private boolean virtualThreads;
+    private int maxBatchBytes = Integer.getInteger("channel.maxBatchBytes", 256 << 10);
+    private long lingerNanos = Long.getLong("channel.lingerNanos", 0L);
+    private int ringBufferBytes = Integer.getInteger("channel.ringBufferBytes", 0);
 
     @Deprecated(/* to be removed in x.27  - use net.openhft.chronicle.wire.channel.ChronicleChannelCfg.hostports instead */)
     private String hostname;
@@ -177,6 +181,91 @@ public class ChronicleChannelCfg<C extends ChronicleChannelCfg<C>> extends SelfD
         return (C) this;
     }
 
+    /**
+     * Returns whether handlers and background writers for accepted connections run on virtual threads.
+     *
+     * @return the virtualThreads flag
+     */
+    public boolean virtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Sets whether the handlers and background writers for accepted connections run on virtual threads,
+     * rather than a platform thread each. This is ignored if the JVM doesn't support virtual threads, i.e. before Java 21.
+     *
+     * @param virtualThreads if true, use virtual threads where supported
+     * @return this configuration instance for chaining method calls
+     */
+    public C virtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return (C) this;
+    }
+
+    /**
+     * Returns the number of bytes a buffered channel waits for before writing, if lingering.
+     *
+     * @return the maxBatchBytes
+     */
+    public int maxBatchBytes() {
+        return maxBatchBytes;
+    }
+
+    /**
+     * Sets the number of bytes of messages after which a buffered channel writes them without waiting
+     * for the rest of the {@link #lingerNanos(long)}.
+     *
+     * @param maxBatchBytes the number of bytes
+     * @return this configuration instance for chaining method calls
+     */
+    public C maxBatchBytes(int maxBatchBytes) {
+        this.maxBatchBytes = maxBatchBytes;
+        return (C) this;
+    }
+
+    /**
+     * Returns how long a buffered channel waits for more messages before writing.
+     *
+     * @return the linger time in nanoseconds
+     */
+    public long lingerNanos() {
+        return lingerNanos;
+    }
+
+    /**
+     * Sets how long a buffered channel waits after the first unwritten message for more messages, so they can be
+     * written together with fewer system calls. A value of 0, the default, writes messages as soon as possible.
+     *
+     * @param lingerNanos the linger time in nanoseconds
+     * @return this configuration instance for chaining method calls
+     */
+    public C lingerNanos(long lingerNanos) {
+        this.lingerNanos = lingerNanos;
+        return (C) this;
+    }
+
+    /**
+     * Returns the size of the ring buffer a buffered channel passes messages to its writer through, or 0 if double buffered.
+     *
+     * @return the ringBufferBytes
+     */
+    public int ringBufferBytes() {
+        return ringBufferBytes;
+    }
+
+    /**
+     * Sets the size of an off-heap ring buffer which a buffered channel uses to pass messages to its writer thread.
+     * Threads writing to the channel don't lock each other out, which suits many writers, but each message must fit in
+     * a quarter of the ring. A value of 0, the default, uses a pair of buffers which writers take turns to lock.
+     *
+     * @param ringBufferBytes the size of the ring in bytes, rounded up to a power of two, or 0
+     * @return this configuration instance for chaining method calls
+     */
+    public C ringBufferBytes(int ringBufferBytes) {
+        this.ringBufferBytes = ringBufferBytes;
+        return (C) this;
+    }
+
     /**
      * Returns the PauserMode.
      *
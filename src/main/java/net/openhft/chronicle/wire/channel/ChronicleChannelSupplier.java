@@ -18,12 +18,15 @@
 
 package net.openhft.chronicle.wire.channel;
 
+import net.openhft.chronicle.wire.channel.impl.ChronicleChannelUtils;
+
+import java.io.File;
 import java.util.function.Supplier;
 
 /**
  * The ChronicleChannelSupplier class is a specialized version of ChronicleChannelCfg,
  * also implementing the Supplier interface to provide ChronicleChannel instances
- * based on a specified protocol. The protocols currently supported are 'tcp' and 'internal'.
+ * based on a specified protocol. The protocols currently supported are 'tcp', 'shm' and 'internal'.
  *
  * @see java.util.function.Supplier
  */
@@ -48,7 +51,7 @@ public class ChronicleChannelSupplier extends ChronicleChannelCfg<ChronicleChann
      * Depending on the specified protocol, it instantiates a new ChronicleChannel,
      * registers it with the context, and returns the newly created ChronicleChannel instance.
      *
-     * @return a new instance of ChronicleChannel. The type of ChronicleChannel (TCP or internal)
+     * @return a new instance of ChronicleChannel. The type of ChronicleChannel (TCP, shared memory or internal)
      * depends on the protocol set on this supplier.
      * @throws IllegalArgumentException if the protocol is unsupported
      */
@@ -69,6 +72,10 @@ public class ChronicleChannelSupplier extends ChronicleChannelCfg<ChronicleChann
                 // Create a new TCP ChronicleChannel.
                 channel = ChronicleChannel.newChannel(context.socketRegistry(), this, handler,context.closeCallback());
                 break;
+            case "shm":
+                // Create a new shared memory ChronicleChannel, buffering isn't needed as writes don't block.
+                channel = ChronicleChannelUtils.newShmChannel(new File(context.url().getPath()), this, handler, context.closeCallback());
+                break;
             case "internal":
                 // Create a new internal ChronicleChannel.
                 channel = handler.asInternalChannel(context, this);
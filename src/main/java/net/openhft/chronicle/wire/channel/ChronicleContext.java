@@ -83,6 +83,7 @@ public class ChronicleContext extends SimpleCloseable {
     private transient SocketRegistry socketRegistry;
     private boolean buffered;
     private boolean useAffinity;
+    private boolean virtualThreads;
     private ChronicleGatewayMain gateway;
     private SystemContext systemContext;
     private boolean privateSocketRegistry;
@@ -122,9 +123,11 @@ public class ChronicleContext extends SimpleCloseable {
     /**
      * Parses a URL from a string, initializing any custom handlers as necessary.
      *
-     * <p>This method supports "internal:" and "tcp:" URL schemas in addition to the standard schemas.
+     * <p>This method supports "internal:", "tcp:" and "shm:" URL schemas in addition to the standard schemas.
      * If a URL starts with "internal:", a new Handler object is used as the URLStreamHandler.
      * If a URL starts with "tcp:", a new tcp.Handler object is used as the URLStreamHandler.
+     * If a URL starts with "shm:", a new shm.Handler object is used as the URLStreamHandler,
+     * and the path is the directory shared by the processes, e.g. "shm:/dev/shm/gateway".
      * For other URL schemas, no custom URLStreamHandler is used.</p>
      *
      * @param spec the string to parse as a URL.
@@ -137,6 +140,8 @@ public class ChronicleContext extends SimpleCloseable {
                 return new URL(null, spec, new Handler());
             if (spec.startsWith("tcp:"))
                 return new URL(null, spec, new net.openhft.chronicle.wire.channel.impl.tcp.Handler());
+            if (spec.startsWith("shm:"))
+                return new URL(null, spec, new net.openhft.chronicle.wire.channel.impl.shm.Handler());
             return new URL(spec);
         } catch (MalformedURLException e) {
             throw new IORuntimeException(e);
@@ -235,7 +240,8 @@ public class ChronicleContext extends SimpleCloseable {
         gateway = new ChronicleGatewayMain(url, socketRegistry, systemContext());
         gateway.name(name())
                 .buffered(buffered())
-                .useAffinity(useAffinity());
+                .useAffinity(useAffinity())
+                .virtualThreads(virtualThreads());
         try {
             // Add the gateway to the set of closeable resources
             addCloseable(gateway);
@@ -300,6 +306,28 @@ public class ChronicleContext extends SimpleCloseable {
         return this;
     }
 
+    /**
+     * Indicates whether each connection's handler runs on a virtual thread, if supported.
+     *
+     * @return true if virtual threads should be used, false otherwise.
+     */
+    public boolean virtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Sets whether each accepted connection's handler runs on a virtual thread instead of a platform thread.
+     * This allows many blocking request/response handlers without a platform thread each.
+     * It is ignored if the JVM doesn't support virtual threads, i.e. before Java 21.
+     *
+     * @param virtualThreads a boolean representing the preference for virtual threads.
+     * @return this instance of ChronicleContext for method chaining.
+     */
+    public ChronicleContext virtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
     /**
      * Retrieves the SocketRegistry associated with this context.
      *
@@ -22,18 +22,20 @@ import net.openhft.chronicle.core.Jvm;
 import net.openhft.chronicle.core.io.Closeable;
 import net.openhft.chronicle.core.io.ClosedIORuntimeException;
 import net.openhft.chronicle.core.io.InvalidMarshallableException;
-import net.openhft.chronicle.threads.NamedThreadFactory;
 import net.openhft.chronicle.threads.PauserMode;
 import net.openhft.chronicle.wire.Comment;
 import net.openhft.chronicle.wire.Marshallable;
 import net.openhft.chronicle.wire.channel.impl.*;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
@@ -50,13 +52,21 @@ public class ChronicleGatewayMain extends ChronicleContext implements Closeable,
     private static final PauserMode PAUSER_MODE = PauserMode.valueOf(
             System.getProperty("pauserMode", PauserMode.balanced.name()));
     private static final boolean USE_AFFINITY = Jvm.getBoolean("useAffinity");
+    private static final int SELECTOR_THREADS = Integer.getInteger("selectorThreads", 0);
+    private static final boolean VIRTUAL_THREADS = Jvm.getBoolean("virtualThreads");
+    private static final long ACCEPT_POLL_MS = 1;
+    private static final long ORPHAN_CHECK_MS = 1000;
     transient ServerSocketChannel ssc;
     transient Thread thread;
     @Comment("PauserMode to use in buffered channels")
     PauserMode pauserMode = PauserMode.balanced;
     @Comment("Default buffering configuration if not set by the Handler")
     private boolean buffered = false;
+    @Comment("Number of event loop threads for Handlers which provide an EventPoller, 0 for a thread per connection")
+    private int selectorThreads = 0;
     private ExecutorService service;
+    private transient SelectorEventLoop[] eventLoops;
+    private transient int nextEventLoop;
 
     /**
      * Constructs a new ChronicleGatewayMain instance with a specific URL.
@@ -103,8 +113,10 @@ public class ChronicleGatewayMain extends ChronicleContext implements Closeable,
             ChronicleGatewayMain chronicleGatewayMain =
                     supplier.apply("tcp://localhost:" + PORT)
                             .pauserMode(PAUSER_MODE)
-                            .buffered(Jvm.getBoolean("buffered"));
+                            .buffered(Jvm.getBoolean("buffered"))
+                            .selectorThreads(SELECTOR_THREADS);
             chronicleGatewayMain.useAffinity(USE_AFFINITY);
+            chronicleGatewayMain.virtualThreads(VIRTUAL_THREADS);
             chronicleGatewayMain.pauserMode = PAUSER_MODE;
             main = chronicleGatewayMain;
         } else {
@@ -142,6 +154,30 @@ public class ChronicleGatewayMain extends ChronicleContext implements Closeable,
         return this;
     }
 
+    /**
+     * @return the number of event loop threads used to drive channels, or 0 for a thread per connection.
+     */
+    public int selectorThreads() {
+        return selectorThreads;
+    }
+
+    /**
+     * Sets the number of event loop threads which drive the channels whose handler provides an
+     * {@link ChannelHandler#eventPoller(ChronicleContext, ChronicleChannel) EventPoller}.
+     * Each connection is still accepted and its header exchanged on a pooled thread, which waits up to the
+     * connection timeout for the header, after which it is handed to an event loop, freeing the thread.
+     * Handlers which don't provide an EventPoller are run on a thread per connection.
+     *
+     * @param selectorThreads number of threads, 0 to run every handler on a thread per connection.
+     * @return this
+     */
+    public ChronicleGatewayMain selectorThreads(int selectorThreads) {
+        if (selectorThreads < 0)
+            throw new IllegalArgumentException("selectorThreads must be positive or 0, was " + selectorThreads);
+        this.selectorThreads = selectorThreads;
+        return this;
+    }
+
     /**
      * Starts the gateway, binding the server socket channel and starting the acceptor thread if not already running.
      *
@@ -159,8 +195,12 @@ public class ChronicleGatewayMain extends ChronicleContext implements Closeable,
         return this;
     }
 
+    private boolean sharedMemory() {
+        return "shm".equals(url().getProtocol());
+    }
+
     private void bindSSC() throws IOException {
-        if (ssc == null) {
+        if (ssc == null && !sharedMemory()) {
             ssc = socketRegistry().acquireServerSocketChannel(url());
         }
     }
@@ -171,11 +211,16 @@ public class ChronicleGatewayMain extends ChronicleContext implements Closeable,
     @Override
     public void run() {
         // Jvm.startup().on(getClass(), "Starting  " + this);
-        service = Executors.newCachedThreadPool(new NamedThreadFactory("connections"));
         Throwable thrown = null;
         try {
+            ChronicleChannelCfg channelCfg = new ChronicleChannelCfg().port(url().getPort()).pauserMode(pauserMode).buffered(buffered).virtualThreads(virtualThreads());
+            service = ChronicleChannelUtils.newThreadPerTaskExecutor("connections", channelCfg.virtualThreads());
+            if (sharedMemory()) {
+                acceptSharedMemory(channelCfg);
+                return;
+            }
             bindSSC();
-            ChronicleChannelCfg channelCfg = new ChronicleChannelCfg().port(url().getPort()).pauserMode(pauserMode).buffered(buffered);
+            startEventLoops();
             while (!isClosed()) {
                 final SocketChannel sc = ssc.accept();
                 sc.socket().setTcpNoDelay(true);
@@ -195,6 +240,62 @@ public class ChronicleGatewayMain extends ChronicleContext implements Closeable,
         }
     }
 
+    /**
+     * Polls the directory of the url for files created by {@link ShmChronicleChannel} initiators.
+     * Another gateway polling the same directory may accept some of the connections.
+     * Files left by processes which have died are removed every {@link #ORPHAN_CHECK_MS}.
+     */
+    private void acceptSharedMemory(ChronicleChannelCfg channelCfg) {
+        final File dir = new File(url().getPath());
+        dir.mkdirs();
+        final Set<String> seen = new HashSet<>();
+        long nextOrphanCheckMS = 0;
+        while (!isClosed()) {
+            final long now = System.currentTimeMillis();
+            if (now >= nextOrphanCheckMS) {
+                ShmChronicleChannel.removeOrphans(dir);
+                nextOrphanCheckMS = now + ORPHAN_CHECK_MS;
+            }
+            final String[] names = dir.list((d, name) -> name.endsWith(ShmChronicleChannel.SUFFIX));
+            boolean accepted = false;
+            if (names != null) {
+                for (String name : names) {
+                    if (seen.contains(name))
+                        continue;
+                    final ShmChronicleChannel channel = ShmChronicleChannel.accept(new File(dir, name), systemContext(), channelCfg, this::replaceInHeader, this::replaceOutHeader);
+                    // tried again next time, e.g. if it couldn't be mapped yet
+                    if (channel == null)
+                        continue;
+                    seen.add(name);
+                    channel.closeCallback(closeCallback());
+                    service.submit(() -> handle(channel));
+                    accepted = true;
+                }
+                // forget files which have been deleted
+                seen.retainAll(Arrays.asList(names));
+            }
+            if (!accepted)
+                Jvm.pause(ACCEPT_POLL_MS);
+        }
+    }
+
+    private synchronized void startEventLoops() throws IOException {
+        if (eventLoops != null || selectorThreads <= 0)
+            return;
+        final SelectorEventLoop[] loops = new SelectorEventLoop[selectorThreads];
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new SelectorEventLoop("event-loop-" + i, useAffinity());
+            addCloseable(loops[i]);
+        }
+        eventLoops = loops;
+    }
+
+    private synchronized SelectorEventLoop nextEventLoop() {
+        final SelectorEventLoop eventLoop = eventLoops[nextEventLoop];
+        nextEventLoop = (nextEventLoop + 1) % eventLoops.length;
+        return eventLoop;
+    }
+
     /**
      * Allows replacing of the inbound channel header.
      * By default, it retains the given header without making any changes.
@@ -247,7 +348,7 @@ public class ChronicleGatewayMain extends ChronicleContext implements Closeable,
      *
      * @param channel the channel representing the incoming connection
      */
-    void handle(TCPChronicleChannel channel) {
+    void handle(InternalChronicleChannel channel) {
         // Indicate whether the channel should be closed when done handling
         boolean close = true;
         ChronicleChannel channel2 = null;
@@ -274,11 +375,23 @@ public class ChronicleGatewayMain extends ChronicleContext implements Closeable,
                 return;
             }
 
-            // Instantiate the secondary channel based on whether buffering is enabled
-            channel2 = buffered
-                    ? new BufferedChronicleChannel(channel, pauserMode.get())
+            // Instantiate the secondary channel based on whether buffering is enabled, shared memory writes don't block
+            final TCPChronicleChannel tcpChannel = channel instanceof TCPChronicleChannel ? (TCPChronicleChannel) channel : null;
+            channel2 = buffered && tcpChannel != null
+                    ? new BufferedChronicleChannel(tcpChannel, pauserMode.get())
                     : channel;
 
+            // Hand the channel to an event loop if the handler supports it
+            if (eventLoops != null && tcpChannel != null) {
+                final EventPoller eventPoller = bh.eventPoller(this, channel2);
+                if (eventPoller != null) {
+                    Jvm.debug().on(ChronicleGatewayMain.class, "Polling " + channel2);
+                    nextEventLoop().register(tcpChannel, channel2, eventPoller);
+                    close = false;
+                    return;
+                }
+            }
+
             Jvm.debug().on(ChronicleGatewayMain.class, "Running " + channel2);
 
             // Run the channel handler
@@ -329,9 +442,9 @@ public class ChronicleGatewayMain extends ChronicleContext implements Closeable,
     /**
      * Returns the port number on which the gateway is listening.
      *
-     * @return the port number
+     * @return the port number, or -1 if it isn't listening on a port e.g. for shared memory
      */
     public int port() {
-        return ssc.socket().getLocalPort();
+        return ssc == null ? -1 : ssc.socket().getLocalPort();
     }
 }
@@ -27,6 +27,7 @@ import net.openhft.chronicle.wire.channel.AbstractHandler;
 import net.openhft.chronicle.wire.channel.ChronicleChannel;
 import net.openhft.chronicle.wire.channel.ChronicleChannelCfg;
 import net.openhft.chronicle.wire.channel.ChronicleContext;
+import net.openhft.chronicle.wire.channel.EventPoller;
 import net.openhft.chronicle.wire.channel.echo.internal.EchoChannel;
 
 /**
@@ -72,6 +73,19 @@ public class EchoHandler extends AbstractHandler<EchoHandler> {
         }
     }
 
+    /**
+     * Returns an EventPoller which echoes back one message each time it is polled, so this handler can be
+     * driven by an event loop.
+     *
+     * @param context the ChronicleContext in which this handler operates
+     * @param channel the ChronicleChannel from which to read the data
+     * @return an EventPoller echoing messages on the channel
+     */
+    @Override
+    public EventPoller eventPoller(ChronicleContext context, ChronicleChannel channel) {
+        return new EchoPoller();
+    }
+
     /**
      * Returns an {@link EchoChannel} as the internal channel for this handler.
      *
@@ -83,4 +97,30 @@ public class EchoHandler extends AbstractHandler<EchoHandler> {
     public ChronicleChannel asInternalChannel(ChronicleContext context, ChronicleChannelCfg channelCfg) {
         return new EchoChannel(channelCfg);
     }
+
+    static final class EchoPoller implements EventPoller {
+        private boolean closed;
+
+        @Override
+        public boolean onPoll(ChronicleChannel channel) {
+            try (DocumentContext dc = channel.readingDocument()) {
+                if (!dc.isPresent())
+                    return false;
+                try (DocumentContext dc2 = channel.writingDocument(dc.isMetaData())) {
+                    dc.wire().copyTo(dc2.wire());
+                }
+                return true;
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+    }
 }
@@ -23,10 +23,12 @@ import net.openhft.chronicle.core.Jvm;
 import net.openhft.chronicle.core.io.ClosedIllegalStateException;
 import net.openhft.chronicle.threads.NamedThreadFactory;
 import net.openhft.chronicle.threads.Pauser;
+import net.openhft.chronicle.threads.PauserMode;
 import net.openhft.chronicle.wire.DocumentContext;
 import net.openhft.chronicle.wire.UnrecoverableTimeoutException;
 import net.openhft.chronicle.wire.Wire;
 import net.openhft.chronicle.wire.WireOut;
+import net.openhft.chronicle.wire.channel.ChronicleChannelCfg;
 import net.openhft.chronicle.wire.channel.EventPoller;
 
 import java.util.concurrent.ExecutorService;
@@ -39,23 +41,44 @@ import static net.openhft.chronicle.wire.channel.impl.TCPChronicleChannel.valida
 public class BufferedChronicleChannel extends DelegateChronicleChannel {
     private static final boolean ALLOW_AFFINITY = Jvm.getBoolean("useAffinity", true);
     private final Pauser pauser;
-    private final WireExchanger exchanger = new WireExchanger();
+    private final MessageExchanger exchanger;
     private final ExecutorService bgWriter;
+    private final int maxBatchBytes;
+    private final long lingerNanos;
     private volatile EventPoller eventPoller;
 
     public BufferedChronicleChannel(TCPChronicleChannel channel, Pauser pauser) {
         super(channel);
         this.pauser = pauser;
+        this.maxBatchBytes = channel.connectionCfg().maxBatchBytes();
+        this.lingerNanos = channel.connectionCfg().lingerNanos();
+        final int ringBufferBytes = channel.connectionCfg().ringBufferBytes();
+        final PauserMode pauserMode = channel.channelCfg().pauserMode();
+        this.exchanger = ringBufferBytes > 0
+                ? new WireRingExchanger(ringBufferBytes, pauserMode == null ? PauserMode.balanced : pauserMode)
+                : new WireExchanger();
+        // messages written directly to the channel, e.g. testMessage, are written by the bgWriter
+        channel.deferFlush(true);
 
         String desc = channel.connectionCfg().initiator() ? "init" : "accp";
         final String writer = desc + "-writer";
-        final ThreadFactory factory = ALLOW_AFFINITY && pauser.isBusy()
-                ? new AffinityThreadFactory(writer, true)
-                : new NamedThreadFactory(writer, true);
+        final ThreadFactory factory = writerThreadFactory(channel.connectionCfg(), pauser, writer);
         bgWriter = Executors.newSingleThreadExecutor(factory);
         bgWriter.submit(this::bgWrite);
     }
 
+    private static ThreadFactory writerThreadFactory(ChronicleChannelCfg<?> channelCfg, Pauser pauser, String writer) {
+        if (ALLOW_AFFINITY && pauser.isBusy())
+            return new AffinityThreadFactory(writer, true);
+        // a busy writer would occupy a carrier thread
+        if (channelCfg.virtualThreads() && !pauser.isBusy()) {
+            final ThreadFactory factory = ChronicleChannelUtils.virtualThreadFactory(writer);
+            if (factory != null)
+                return factory;
+        }
+        return new NamedThreadFactory(writer, true);
+    }
+
     @Override
     public EventPoller eventPoller() {
         return eventPoller;
@@ -72,13 +95,26 @@ public class BufferedChronicleChannel extends DelegateChronicleChannel {
     private void bgWrite() {
         try {
             final TCPChronicleChannel channel = (TCPChronicleChannel) this.channel;
+            long lingerStart = Long.MIN_VALUE;
             while (!isClosing()) {
                 channel.checkConnected();
+                if (lingerNanos > 0 && exchanger.isDirty() && exchanger.producerBytes() < maxBatchBytes) {
+                    final long now = System.nanoTime();
+                    if (lingerStart == Long.MIN_VALUE)
+                        lingerStart = now;
+                    if (now - lingerStart < lingerNanos) {
+                        Jvm.nanoPause();
+                        continue;
+                    }
+                }
+                lingerStart = Long.MIN_VALUE;
                 final Wire wire = exchanger.acquireConsumer();
                 if (wire.bytes().isEmpty()) {
                     final EventPoller eventPoller = this.eventPoller();
-                    final boolean idle = eventPoller == null || !eventPoller.onPoll(this);
+                    boolean idle = eventPoller == null || !eventPoller.onPoll(this);
                     exchanger.releaseConsumer();
+                    if (channel.gatherFlush(wire))
+                        idle = false;
                     if (idle)
                         pauser.pause();
                     continue;
@@ -86,7 +122,7 @@ public class BufferedChronicleChannel extends DelegateChronicleChannel {
                 assert validateHeader(wire.bytes().peekVolatileInt());
                 // System.out.println("Writing - " + Wires.fromSizePrefixedBlobs(wire));
                 pauser.reset();
-                channel.flushOut(wire);
+                channel.gatherFlush(wire);
                 exchanger.releaseConsumer();
             }
         } catch (Throwable t) {
@@ -5,13 +5,19 @@ import net.openhft.chronicle.core.Jvm;
 import net.openhft.chronicle.core.io.Closeable;
 import net.openhft.chronicle.core.io.IORuntimeException;
 import net.openhft.chronicle.core.io.InvalidMarshallableException;
+import net.openhft.chronicle.threads.NamedThreadFactory;
 import net.openhft.chronicle.threads.Pauser;
 import net.openhft.chronicle.threads.PauserMode;
 import net.openhft.chronicle.wire.channel.*;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
+import java.lang.reflect.Method;
 import java.net.URL;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 
@@ -52,6 +58,48 @@ public final class ChronicleChannelUtils {
                 : simpleConnection;
     }
 
+    /**
+     * Creates a channel to an acceptor on the same host, through memory-mapped files in a shared directory.
+     * A {@link RedirectHeader} in reply is followed to the first location which accepts, which may be a TCP url.
+     *
+     * @param directory     shared with the acceptor
+     * @param channelCfg    the configuration of the channel
+     * @param headerOut     the header sent to the acceptor
+     * @param closeCallback called when the channel is closed, or null
+     * @return the channel
+     */
+    public static ChronicleChannel newShmChannel(File directory,
+                                                 ChronicleChannelCfg<?> channelCfg,
+                                                 ChannelHeader headerOut,
+                                                 @Nullable Consumer<ChronicleChannel> closeCallback) throws InvalidMarshallableException {
+        ShmChronicleChannel channel = new ShmChronicleChannel(channelCfg, headerOut, directory);
+
+        if (closeCallback != null)
+            channel.closeCallback(closeCallback);
+
+        final ChannelHeader marshallable = channel.headerIn();
+        Jvm.debug().on(ChronicleChannel.class, "Client got " + marshallable);
+        if (marshallable instanceof RedirectHeader) {
+            Closeable.closeQuietly(channel);
+            RedirectHeader rh = (RedirectHeader) marshallable;
+            for (String location : rh.locations()) {
+                try {
+                    URL url = ChronicleContext.urlFor(location);
+                    if ("shm".equals(url.getProtocol()))
+                        return newShmChannel(new File(url.getPath()), channelCfg, headerOut, closeCallback);
+                    channelCfg.hostname(url.getHost());
+                    channelCfg.port(url.getPort());
+                    return newChannel(null, channelCfg, headerOut, closeCallback);
+
+                } catch (IORuntimeException e) {
+                    Jvm.debug().on(ChronicleChannel.class, e);
+                }
+            }
+            throw new IORuntimeException("No urls available " + rh);
+        }
+        return channel;
+    }
+
     @Deprecated(/* To be removed in x.27 */)
     public static ChronicleChannel newChannel(SocketRegistry socketRegistry, ChronicleChannelCfg channelCfg, ChannelHeader headerOut) throws InvalidMarshallableException {
         return newChannel(socketRegistry, channelCfg, headerOut, null);
@@ -100,4 +148,45 @@ public final class ChronicleChannelUtils {
         };
     }
 
+    /**
+     * Creates a ThreadFactory for virtual threads. This uses reflection as it is compiled for Java 8.
+     *
+     * @param name prefix for the names of the threads
+     * @return a ThreadFactory, or null if virtual threads are not supported
+     */
+    @Nullable
+    public static ThreadFactory virtualThreadFactory(String name) {
+        try {
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name + "-", 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (Exception | LinkageError e) {
+            // not available, or a preview feature not enabled
+            return null;
+        }
+    }
+
+    /**
+     * Creates an ExecutorService which starts a thread per task, using virtual threads if requested and supported,
+     * otherwise a cached pool of platform threads.
+     *
+     * @param name           prefix for the names of the threads
+     * @param virtualThreads whether to use virtual threads if supported
+     * @return the ExecutorService
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String name, boolean virtualThreads) {
+        final ThreadFactory factory = virtualThreads ? virtualThreadFactory(name) : null;
+        if (factory != null) {
+            try {
+                final Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+                return (ExecutorService) newThreadPerTaskExecutor.invoke(null, factory);
+            } catch (Exception e) {
+                Jvm.warn().on(ChronicleChannelUtils.class, "Unable to use virtual threads", e);
+            }
+        } else if (virtualThreads) {
+            Jvm.warn().on(ChronicleChannelUtils.class, "Virtual threads are not supported by this JVM, using platform threads");
+        }
+        return Executors.newCachedThreadPool(new NamedThreadFactory(name));
+    }
 }
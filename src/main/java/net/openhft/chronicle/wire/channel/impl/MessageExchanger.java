@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire.channel.impl;
+
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.wire.MarshallableOut;
+import net.openhft.chronicle.wire.Wire;
+
+/**
+ * Passes messages from any number of producer threads to a single consumer thread,
+ * which writes them to a {@link TCPChronicleChannel}.
+ */
+public interface MessageExchanger extends MarshallableOut, Closeable {
+
+    /**
+     * @return a Wire to write complete documents to, which must be released with {@link #releaseProducer()}
+     */
+    Wire acquireProducer();
+
+    /**
+     * Makes the documents written since {@link #acquireProducer()} available to the consumer.
+     */
+    void releaseProducer();
+
+    /**
+     * Called by the single consumer.
+     *
+     * @return a ByteBuffer backed Wire containing the messages available, which may be empty
+     */
+    Wire acquireConsumer();
+
+    /**
+     * Called by the consumer once it has written the messages.
+     */
+    void releaseConsumer();
+
+    /**
+     * @return whether there are messages waiting for the consumer
+     */
+    boolean isDirty();
+
+    /**
+     * @return the approximate number of bytes waiting for the consumer
+     */
+    long producerBytes();
+}
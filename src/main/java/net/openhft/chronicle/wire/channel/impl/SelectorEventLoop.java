@@ -0,0 +1,256 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire.channel.impl;
+
+import net.openhft.affinity.AffinityThreadFactory;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.io.AbstractCloseable;
+import net.openhft.chronicle.core.io.ClosedIORuntimeException;
+import net.openhft.chronicle.threads.NamedThreadFactory;
+import net.openhft.chronicle.wire.channel.ChronicleChannel;
+import net.openhft.chronicle.wire.channel.EventPoller;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+
+import static net.openhft.chronicle.core.io.Closeable.closeQuietly;
+
+/**
+ * Drives many non-blocking {@link TCPChronicleChannel}s from one thread using a {@link Selector}.
+ * <p>
+ * Each registered channel has an {@link EventPoller} which is called when the socket is readable,
+ * or while it reports it did some work, so a channel costs a selection key rather than a thread.
+ * To be fair to other channels, a poller is called at most {@link #MAX_POLLS} times before the other
+ * channels are selected. The poller should not block. Bytes a socket can't accept are kept by its channel
+ * and written when the socket is writable, so a slow reader doesn't delay the other channels on the same loop.
+ * Once tcp.maxPendingBytes are kept for a channel, writing to it waits for its socket, so a reader which
+ * has stopped holds up the loop rather than using unlimited memory.
+ */
+public class SelectorEventLoop extends AbstractCloseable {
+    static final int MAX_POLLS = Integer.getInteger("eventLoop.maxPolls", 16);
+    private static final long SELECT_TIMEOUT_MS = 100;
+    private final Selector selector;
+    private final Queue<Registration> toRegister = new ConcurrentLinkedQueue<>();
+    private final Queue<Registration> toWrite = new ConcurrentLinkedQueue<>();
+    private final List<Registration> busy = new ArrayList<>();
+    private final List<Registration> stillBusy = new ArrayList<>();
+    private final Thread thread;
+
+    /**
+     * @param name        of the thread
+     * @param useAffinity whether to bind the thread to an isolated CPU if one is available
+     * @throws IOException if the selector couldn't be opened
+     */
+    public SelectorEventLoop(String name, boolean useAffinity) throws IOException {
+        // register is called by other threads
+        singleThreadedCheckDisabled(true);
+        selector = Selector.open();
+        final ThreadFactory factory = useAffinity
+                ? new AffinityThreadFactory(name, true)
+                : new NamedThreadFactory(name, true);
+        thread = factory.newThread(this::run);
+        thread.start();
+    }
+
+    /**
+     * Adds a channel to this loop. The channel will be closed when the loop is closed,
+     * the poller throws an exception, or the connection is closed.
+     *
+     * @param tcpChannel the connection to select on
+     * @param channel    the channel to pass to the poller, either the connection or one wrapping it
+     * @param poller     to call when there could be messages to read
+     */
+    public void register(TCPChronicleChannel tcpChannel, ChronicleChannel channel, EventPoller poller) {
+        throwExceptionIfClosed();
+        toRegister.add(new Registration(tcpChannel, channel, poller));
+        selector.wakeup();
+    }
+
+    private void run() {
+        try {
+            while (!isClosing()) {
+                if (busy.isEmpty())
+                    selector.select(SELECT_TIMEOUT_MS);
+                else
+                    selector.selectNow();
+                registerPending();
+                registerWrites();
+                pollBusy();
+                pollSelected();
+            }
+        } catch (Throwable t) {
+            if (!isClosing())
+                Jvm.warn().on(getClass(), "Event loop died", t);
+        } finally {
+            closeQuietly(this);
+        }
+    }
+
+    private void registerPending() {
+        for (Registration r; (r = toRegister.poll()) != null; ) {
+            try {
+                r.tcpChannel.socketChannel().configureBlocking(false);
+                r.key = r.tcpChannel.socketChannel().register(selector, SelectionKey.OP_READ, r);
+                r.tcpChannel.writeLater(() -> writeLater(r));
+                // there may be messages read while the connection was being set up
+                r.busy = true;
+                busy.add(r);
+            } catch (IOException e) {
+                Jvm.warn().on(getClass(), "Unable to register " + r.channel, e);
+                r.close();
+            }
+        }
+    }
+
+    /**
+     * Selects a channel for writing once its socket is writable. This is called by the thread writing to the channel.
+     */
+    private void writeLater(Registration r) {
+        if (Thread.currentThread() == thread) {
+            addWriteInterest(r);
+        } else {
+            toWrite.add(r);
+            selector.wakeup();
+        }
+    }
+
+    private void registerWrites() {
+        for (Registration r; (r = toWrite.poll()) != null; )
+            addWriteInterest(r);
+    }
+
+    private static void addWriteInterest(Registration r) {
+        if (r.key.isValid())
+            r.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+    }
+
+    private void pollBusy() {
+        if (busy.isEmpty())
+            return;
+        for (Registration r : busy) {
+            // a channel which is also selected is polled here and again below
+            r.busy = poll(r);
+            if (r.busy)
+                stillBusy.add(r);
+        }
+        busy.clear();
+        busy.addAll(stillBusy);
+        stillBusy.clear();
+    }
+
+    private void pollSelected() {
+        final Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+        while (iterator.hasNext()) {
+            final SelectionKey key = iterator.next();
+            iterator.remove();
+            final Registration r = (Registration) key.attachment();
+            if (key.isValid() && key.isWritable() && flushPending(r) && key.isValid())
+                key.interestOps(SelectionKey.OP_READ);
+            if (key.isValid() && key.isReadable() && poll(r) && !r.busy) {
+                r.busy = true;
+                busy.add(r);
+            }
+        }
+    }
+
+    /**
+     * @return whether the poller should be called again without waiting for more data
+     */
+    private boolean poll(Registration r) {
+        try {
+            for (int i = 0; i < MAX_POLLS; i++) {
+                if (r.channel.isClosing()) {
+                    r.close();
+                    return false;
+                }
+                if (!r.poller.onPoll(r.channel))
+                    return false;
+            }
+            return true;
+
+        } catch (Throwable t) {
+            closeOnError(r, t);
+            return false;
+        }
+    }
+
+    /**
+     * @return whether all the bytes kept by the channel have been written
+     */
+    private boolean flushPending(Registration r) {
+        try {
+            return r.tcpChannel.flushPending();
+
+        } catch (Throwable t) {
+            closeOnError(r, t);
+            return false;
+        }
+    }
+
+    private void closeOnError(Registration r, Throwable t) {
+        if (!isClosing() && !r.tcpChannel.isClosing())
+            if (t instanceof ClosedIORuntimeException)
+                Jvm.warn().on(getClass(), t.toString());
+            else
+                Jvm.warn().on(getClass(), "Closing " + r.channel, t);
+        r.close();
+    }
+
+    @Override
+    protected void performClose() {
+        selector.wakeup();
+        if (Thread.currentThread() != thread) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (SelectionKey key : selector.keys())
+            ((Registration) key.attachment()).close();
+        for (Registration r; (r = toRegister.poll()) != null; )
+            r.close();
+        toWrite.clear();
+        closeQuietly(selector);
+    }
+
+    static final class Registration {
+        final TCPChronicleChannel tcpChannel;
+        final ChronicleChannel channel;
+        final EventPoller poller;
+        SelectionKey key;
+        boolean busy;
+
+        Registration(TCPChronicleChannel tcpChannel, ChronicleChannel channel, EventPoller poller) {
+            this.tcpChannel = tcpChannel;
+            this.channel = channel;
+            this.poller = poller;
+        }
+
+        void close() {
+            closeQuietly(poller, channel, tcpChannel);
+        }
+    }
+}
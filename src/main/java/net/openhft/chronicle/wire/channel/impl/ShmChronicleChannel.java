@@ -0,0 +1,591 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire.channel.impl;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.BytesStore;
+import net.openhft.chronicle.bytes.MappedBytes;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.Maths;
+import net.openhft.chronicle.core.io.*;
+import net.openhft.chronicle.threads.PauserMode;
+import net.openhft.chronicle.wire.*;
+import net.openhft.chronicle.wire.channel.*;
+import net.openhft.chronicle.wire.converter.NanoTime;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A ChronicleChannel between processes on the same host, through a memory-mapped file in a shared directory.
+ * <p>
+ * The initiator creates a file with a pair of {@link ShmPipe}s, one in each direction, writes its {@link ChannelHeader}
+ * and renames the file to end with {@link #SUFFIX} so an acceptor polling the directory can claim it.
+ * The acceptor replies with an {@link OkHeader}, a {@link RedirectHeader} or the handler's response header
+ * as a {@link TCPChronicleChannel} does. After that, messages are copied through the pipes without system calls.
+ * The file is deleted once either side closes.
+ * <p>
+ * Each side records its process id in the file header, so if the other process dies without closing, a side waiting
+ * for it is closed rather than waiting forever. Files left by processes which have died are removed by
+ * {@link #removeOrphans(File)}.
+ */
+public class ShmChronicleChannel extends AbstractCloseable implements InternalChronicleChannel {
+    public static final String SUFFIX = ".shm";
+    // tune for message sizes up to this
+    static final int CAPACITY = Integer.getInteger("shm.capacity", 1 << 20); // 1 MB
+    private static final String HEADER = "header";
+    private static final int MAGIC = 0x314d4853; // SHM1
+    private static final int MAGIC_OFFSET = 0;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int ACCEPTED_OFFSET = 16;
+    private static final int INITIATOR_CLOSED_OFFSET = 20;
+    private static final int ACCEPTOR_CLOSED_OFFSET = 24;
+    private static final int INITIATOR_PID_OFFSET = 28;
+    static final int ACCEPTOR_PID_OFFSET = 32;
+    private static final int FILE_HEADER = 128;
+    private static final AtomicLong COUNTER = new AtomicLong();
+    // how often to check the other process is alive while waiting for it
+    private static final long PEER_CHECK_MS = 100;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ChronicleChannelCfg<?> channelCfg;
+    private final Wire in = createBuffer();
+    private final Wire out = createBuffer();
+    private final DocumentContextHolder dch = new ShmDocumentContextHolder();
+    private final Function<ChannelHeader, ChannelHeader> replaceInHeader;
+    private final Function<ChannelHeader, ChannelHeader> replaceOutHeader;
+    private final MappedBytes mappedBytes;
+    private final BytesStore<?, ?> store;
+    private final ShmPipe readPipe;
+    private final ShmPipe writePipe;
+    private final long capacity;
+    private File file;
+    private SystemContext systemContext;
+    private ChannelHeader headerIn;
+    private ChannelHeader headerInToUse;
+    private ChannelHeader headerOut;
+    private long lastTestMessage;
+    private boolean endOfData = false;
+    private boolean unsentTestMessage = false;
+    private Consumer<ChronicleChannel> closeCallback;
+    private long nextPeerCheckMS;
+
+    /**
+     * Initiator constructor, waits up to the connection timeout for an acceptor to reply to the header.
+     *
+     * @param channelCfg the configuration of the channel
+     * @param headerOut  the header sent to the acceptor
+     * @param directory  shared with the acceptor
+     */
+    public ShmChronicleChannel(ChronicleChannelCfg<?> channelCfg,
+                               ChannelHeader headerOut,
+                               File directory) throws InvalidMarshallableException {
+        this.channelCfg = requireNonNull(channelCfg);
+        this.headerOut = requireNonNull(headerOut);
+        this.replaceInHeader = null;
+        this.replaceOutHeader = null;
+        assert channelCfg.initiator();
+
+        directory.mkdirs();
+        final String name = Jvm.getProcessId() + "-" + COUNTER.incrementAndGet();
+        final File tmp = new File(directory, name + ".tmp");
+        this.capacity = Maths.nextPower2(CAPACITY, 4 << 10);
+        this.file = tmp;
+        // closes on failure so the buffers are released, and the file removed
+        try {
+            try {
+                mappedBytes = MappedBytes.singleMappedBytes(tmp, fileSize(capacity));
+            } catch (IOException e) {
+                throw new IORuntimeException(e);
+            }
+            store = mappedBytes.bytesStore();
+            writePipe = new ShmPipe(store, FILE_HEADER, capacity);
+            readPipe = new ShmPipe(store, FILE_HEADER + ShmPipe.size(capacity), capacity);
+            store.writeLong(CAPACITY_OFFSET, capacity);
+            store.writeInt(INITIATOR_PID_OFFSET, Jvm.getProcessId());
+            writeHeader();
+            store.writeOrderedInt(MAGIC_OFFSET, MAGIC);
+            // an acceptor only looks at complete files
+            final File shm = new File(directory, name + SUFFIX);
+            if (!tmp.renameTo(shm))
+                throw new IORuntimeException("Unable to rename " + tmp + " to " + shm);
+            this.file = shm;
+            readHeader((long) (channelCfg.connectionTimeoutSecs() * 1e9));
+        } catch (Throwable t) {
+            close();
+            throw t;
+        }
+    }
+
+    private ShmChronicleChannel(SystemContext systemContext,
+                                ChronicleChannelCfg<?> channelCfg,
+                                File file,
+                                MappedBytes mappedBytes,
+                                Function<ChannelHeader, ChannelHeader> replaceInHeader,
+                                Function<ChannelHeader, ChannelHeader> replaceOutHeader) {
+        this.systemContext = systemContext;
+        this.channelCfg = requireNonNull(channelCfg);
+        this.file = file;
+        this.mappedBytes = mappedBytes;
+        this.replaceInHeader = requireNonNull(replaceInHeader);
+        this.replaceOutHeader = requireNonNull(replaceOutHeader);
+        store = mappedBytes.bytesStore();
+        capacity = store.readLong(CAPACITY_OFFSET);
+        readPipe = new ShmPipe(store, FILE_HEADER, capacity);
+        writePipe = new ShmPipe(store, FILE_HEADER + ShmPipe.size(capacity), capacity);
+        store.writeOrderedInt(ACCEPTOR_PID_OFFSET, Jvm.getProcessId());
+        assert !channelCfg.initiator();
+    }
+
+    /**
+     * Acceptor factory, claiming a file created by an initiator.
+     *
+     * @param file             created by an initiator
+     * @param systemContext    of the acceptor
+     * @param channelCfg       the configuration of the channel
+     * @param replaceInHeader  to replace the header read
+     * @param replaceOutHeader to determine the reply
+     * @return the channel, or null if the file is incomplete or has been claimed by another acceptor
+     */
+    @Nullable
+    public static ShmChronicleChannel accept(File file,
+                                             SystemContext systemContext,
+                                             ChronicleChannelCfg<?> channelCfg,
+                                             Function<ChannelHeader, ChannelHeader> replaceInHeader,
+                                             Function<ChannelHeader, ChannelHeader> replaceOutHeader) {
+        final long length = file.length();
+        if (length < FILE_HEADER)
+            return null;
+        final MappedBytes mappedBytes;
+        try {
+            mappedBytes = MappedBytes.singleMappedBytes(file, length);
+        } catch (IOException e) {
+            // the initiator has gone
+            Jvm.debug().on(ShmChronicleChannel.class, "Unable to map " + file + " " + e);
+            return null;
+        }
+        final BytesStore<?, ?> store = mappedBytes.bytesStore();
+        if (store.readVolatileInt(MAGIC_OFFSET) != MAGIC
+                || !isAlive(store.readInt(INITIATOR_PID_OFFSET))
+                || !store.compareAndSwapInt(ACCEPTED_OFFSET, 0, 1)) {
+            mappedBytes.releaseLast();
+            return null;
+        }
+        return new ShmChronicleChannel(systemContext, channelCfg, file, mappedBytes, replaceInHeader, replaceOutHeader);
+    }
+
+    /**
+     * Deletes files in the directory left by processes which died without closing their channel,
+     * i.e. files still being created, or not accepted, by an initiator which has died, and files of connections where
+     * both processes have died. A process which is alive deletes the file itself once it finds the other has died.
+     *
+     * @param directory shared by the processes
+     */
+    public static void removeOrphans(File directory) {
+        final File[] files = directory.listFiles((d, name) -> name.endsWith(SUFFIX) || name.endsWith(".tmp"));
+        if (files == null)
+            return;
+        for (File file : files) {
+            final String name = file.getName();
+            final int dash = name.indexOf('-');
+            final int initiatorPid;
+            try {
+                initiatorPid = dash > 0 ? Integer.parseInt(name.substring(0, dash)) : 0;
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            if (initiatorPid == 0 || isAlive(initiatorPid))
+                continue;
+            if (name.endsWith(SUFFIX)) {
+                final int acceptorPid = acceptorPid(file);
+                if (acceptorPid != 0 && isAlive(acceptorPid))
+                    continue;
+            }
+            if (file.delete())
+                Jvm.debug().on(ShmChronicleChannel.class, "Removed " + file + " left by process " + initiatorPid);
+        }
+    }
+
+    /**
+     * @return the process id of the acceptor of the file, or 0 if it hasn't been accepted or can't be read
+     */
+    private static int acceptorPid(File file) {
+        try (FileChannel fc = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final ByteBuffer header = ByteBuffer.allocate(4).order(ByteOrder.nativeOrder());
+            while (header.hasRemaining())
+                if (fc.read(header, ACCEPTOR_PID_OFFSET + header.position()) < 0)
+                    return 0;
+            return header.getInt(0);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * @return true unless pid is that of a process which isn't running. 0 is a process not yet known.
+     */
+    private static boolean isAlive(int pid) {
+        return pid == 0 || Jvm.isProcessAlive(pid);
+    }
+
+    static long fileSize(long capacity) {
+        return FILE_HEADER + 2 * ShmPipe.size(capacity);
+    }
+
+    private static Wire createBuffer() {
+        final Bytes<?> bytes = Bytes.allocateElasticDirect(CAPACITY);
+        IOTools.unmonitor(bytes);
+        bytes.singleThreadedCheckDisabled(true);
+        return WireType.BINARY_LIGHT.apply(bytes);
+    }
+
+    @Override
+    public ChronicleChannelCfg channelCfg() {
+        return channelCfg;
+    }
+
+    /**
+     * @return the file shared with the other side
+     */
+    public File file() {
+        return file;
+    }
+
+    /**
+     * @return whether the other side has closed, or its process has died
+     */
+    private boolean peerClosed() {
+        final boolean initiator = channelCfg.initiator();
+        if (store.readVolatileInt(initiator ? ACCEPTOR_CLOSED_OFFSET : INITIATOR_CLOSED_OFFSET) != 0)
+            return true;
+        // this is called while waiting, so check the process at most every PEER_CHECK_MS
+        final long now = System.currentTimeMillis();
+        if (now < nextPeerCheckMS)
+            return false;
+        nextPeerCheckMS = now + PEER_CHECK_MS;
+        return !isAlive(store.readVolatileInt(initiator ? ACCEPTOR_PID_OFFSET : INITIATOR_PID_OFFSET));
+    }
+
+    void flush() {
+        final Bytes<?> bytes = out.bytes();
+        for (int attempt = 0; bytes.readRemaining() > 0; ) {
+            if (writePipe.write(bytes) > 0) {
+                attempt = 0;
+                continue;
+            }
+            // the ring is full
+            if (peerClosed() || isClosing())
+                throw new ClosedIORuntimeException("Closed");
+            TCPChronicleChannel.waitForSocket(attempt++);
+        }
+        out.clear();
+    }
+
+    @Override
+    public DocumentContext readingDocument() throws ClosedIORuntimeException {
+        if (unsentTestMessage && out.writingIsComplete())
+            testMessage(lastTestMessage);
+
+        final DocumentContext dc = readingDocument0();
+        if (dc.isMetaData()) {
+            final Wire wire = dc.wire();
+            long pos = wire.bytes().readPosition();
+            final String event = wire.readEvent(String.class);
+            if ("testMessage".equals(event)) {
+                final long testMessage = wire.getValueIn().readLong(NanoTime.INSTANCE);
+                unsentTestMessage = testMessage > lastTestMessage;
+                lastTestMessage = testMessage;
+            }
+            wire.bytes().readPosition(pos);
+        }
+        return dc;
+    }
+
+    private DocumentContext readingDocument0() {
+        throwExceptionIfClosed();
+        if (headerOut == null)
+            acceptorRespondToHeader();
+        final Bytes<?> bytes = in.bytes();
+        if (bytes.readRemaining() == 0)
+            bytes.clear();
+        final DocumentContext dc = in.readingDocument();
+        if (dc.isPresent())
+            return dc;
+        // return an isPresent = false on an empty buffer once.
+        if (bytes.isEmpty() && endOfData) {
+            endOfData = false;
+            return dc;
+        }
+        if (bytes.readPosition() * 2 > Math.max(CAPACITY / 2, bytes.readLimit()))
+            bytes.compact();
+        // wait for a message unless busy waiting, as a blocking socket would
+        for (int attempt = 0; readPipe.read(bytes, CAPACITY) == 0; ) {
+            if (peerClosed() && readPipe.isEmpty()) {
+                close();
+                throw new ClosedIORuntimeException("Closed");
+            }
+            if (channelCfg.pauserMode() == PauserMode.busy)
+                return dc;
+            if (isClosing() || Thread.currentThread().isInterrupted())
+                throw new ClosedIORuntimeException("Closed");
+            TCPChronicleChannel.waitForSocket(attempt++);
+        }
+        endOfData = true;
+        return in.readingDocument();
+    }
+
+    private void acceptorRespondToHeader() throws InvalidMarshallableException {
+        lock.lock();
+        try {
+            if (headerOut != null)
+                return;
+            readHeader((long) (channelCfg.connectionTimeoutSecs() * 1e9));
+            headerInToUse = replaceInHeader.apply(headerIn);
+            final ChannelHeader replyHeader = replaceOutHeader.apply(headerInToUse);
+            ChannelHeader header;
+            if (replyHeader == null) {
+                if (headerIn instanceof ChannelHandler) // it's a ChannelHeader
+                    header = ((ChannelHandler) headerIn).responseHeader(null);
+                else // reject the connection
+                    //noinspection unchecked
+                    header = new RedirectHeader(Collections.EMPTY_LIST);
+            } else { // return the header
+                header = replyHeader;
+            }
+            if (systemContext != null)
+                header.systemContext(systemContext);
+            headerOut = header;
+            writeHeader();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void writeHeader() throws InvalidMarshallableException {
+        lock.lock();
+        try {
+            try (DocumentContext dc = out.writingDocument(true)) {
+                dc.wire().write(HEADER).object(headerOut);
+            }
+            flush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void readHeader(long timeoutNS) throws InvalidMarshallableException {
+        final long end = System.nanoTime() + timeoutNS;
+        for (int attempt = 0; ; ) {
+            final Bytes<?> bytes = in.bytes();
+            try (DocumentContext dc = in.readingDocument()) {
+                if (dc.isPresent()) {
+                    final String s = dc.wire().readEvent(String.class);
+                    if (!HEADER.equals(s))
+                        Jvm.warn().on(getClass(), "Unexpected first message type " + s);
+                    headerIn = dc.wire().getValueIn().object(ChannelHeader.class);
+                    return;
+                }
+            }
+            if (readPipe.read(bytes, CAPACITY) > 0)
+                continue;
+            if (isClosing() || peerClosed())
+                throw new ClosedIORuntimeException("Closed");
+            if (System.nanoTime() > end)
+                throw new IORuntimeException("No reply to the header in " + file);
+            TCPChronicleChannel.waitForSocket(attempt++);
+        }
+    }
+
+    @Override
+    public ChannelHeader headerOut() {
+        if (headerOut == null)
+            acceptorRespondToHeader();
+        return headerOut;
+    }
+
+    @Override
+    public ChannelHeader headerIn() {
+        if (headerIn == null)
+            acceptorRespondToHeader();
+        return headerIn;
+    }
+
+    @Override
+    public ChannelHeader headerInToUse() {
+        if (headerInToUse == null)
+            acceptorRespondToHeader();
+        return headerInToUse;
+    }
+
+    @Override
+    public DocumentContext writingDocument(boolean metaData) throws UnrecoverableTimeoutException {
+        throwExceptionIfClosed();
+        lock.lock();
+        final DocumentContext dc = out.writingDocument(metaData);
+        dch.documentContext(dc);
+        return dch;
+    }
+
+    @Override
+    public DocumentContext acquireWritingDocument(boolean metaData) throws UnrecoverableTimeoutException {
+        throwExceptionIfClosed();
+        lock.lock();
+        final DocumentContext dc = out.acquireWritingDocument(metaData);
+        dch.documentContext(dc);
+        return dch;
+    }
+
+    @Override
+    public void testMessage(long now) {
+        try {
+            try (DocumentContext dc = writingDocument(true)) {
+                dc.wire().write("testMessage").writeLong(NanoTime.INSTANCE, now);
+            }
+        } catch (Exception e) {
+            if (isClosing()) {
+                Jvm.debug().on(getClass(), "Ignoring testMessage exception as it is closing " + e);
+                return;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public long lastTestMessage() {
+        return lastTestMessage;
+    }
+
+    @Override
+    public boolean supportsEventPoller() {
+        return false;
+    }
+
+    @Override
+    public EventPoller eventPoller() {
+        return null;
+    }
+
+    @Override
+    public ChronicleChannel eventPoller(EventPoller eventPoller) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Wire acquireProducer() {
+        lock.lock();
+        return out;
+    }
+
+    @Override
+    public void releaseProducer() {
+        try {
+            flush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int bufferSize() {
+        return (int) Math.min(Integer.MAX_VALUE, capacity * 2);
+    }
+
+    @Override
+    public boolean recordHistory() {
+        if (headerOut instanceof ChannelHandler
+                && ((ChannelHandler) headerOut).recordHistory())
+            return true;
+        return headerInToUse instanceof ChannelHandler
+                && ((ChannelHandler) headerInToUse).recordHistory();
+    }
+
+    public void closeCallback(Consumer<ChronicleChannel> closeCallback) {
+        this.closeCallback = closeCallback;
+    }
+
+    @Override
+    protected void performClose() {
+        try {
+            Consumer<ChronicleChannel> c = closeCallback;
+            if (c != null)
+                c.accept(this);
+        } catch (Exception e) {
+            Jvm.warn().on(getClass(), e);
+        }
+        // null if the initiator failed to map the file
+        if (mappedBytes != null) {
+            store.writeOrderedInt(channelCfg.initiator() ? INITIATOR_CLOSED_OFFSET : ACCEPTOR_CLOSED_OFFSET, 1);
+            mappedBytes.releaseLast();
+        }
+        in.bytes().releaseLast();
+        out.bytes().releaseLast();
+        // the other side can still use its mapping
+        if (file.exists() && !file.delete())
+            Jvm.debug().on(getClass(), "Unable to delete " + file);
+    }
+
+    private class ShmDocumentContextHolder extends DocumentContextHolder implements WriteDocumentContext {
+        private boolean chainedElement;
+
+        @Override
+        public void close() {
+            try {
+                super.close();
+                if (!chainedElement)
+                    try {
+                        flush();
+                    } catch (ClosedIORuntimeException ignored) {
+                        // ignored
+                    }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void start(boolean metaData) {
+
+        }
+
+        @Override
+        public boolean chainedElement() {
+            return chainedElement;
+        }
+
+        @Override
+        public void chainedElement(boolean chainedElement) {
+            this.chainedElement = chainedElement;
+            final DocumentContext dc = documentContext();
+            if (dc instanceof WriteDocumentContext)
+                ((WriteDocumentContext) dc).chainedElement(chainedElement);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire.channel.impl;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.BytesStore;
+import net.openhft.chronicle.core.Maths;
+
+/**
+ * A stream of bytes from one thread to another, possibly in another process, through a ring in shared memory.
+ * <p>
+ * The region starts with the total number of bytes written and the total number of bytes read, on separate cache
+ * lines, followed by the ring itself. Each count is only updated by one side, after copying the data,
+ * so no locking is needed.
+ */
+final class ShmPipe {
+    private static final int WRITE_POSITION = 0;
+    private static final int READ_POSITION = 64;
+    private static final int DATA = 128;
+
+    private final BytesStore<?, ?> store;
+    private final long base;
+    private final long capacity;
+    private final long mask;
+
+    ShmPipe(BytesStore<?, ?> store, long base, long capacity) {
+        assert Maths.isPowerOf2(capacity);
+        this.store = store;
+        this.base = base;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @param capacity of the ring
+     * @return the size of the region needed for a ring of this capacity
+     */
+    static long size(long capacity) {
+        return DATA + capacity;
+    }
+
+    /**
+     * Copies as many bytes as there is room for.
+     *
+     * @param from to copy the readable bytes from, which are consumed
+     * @return the number of bytes copied, 0 if the ring is full
+     */
+    long write(Bytes<?> from) {
+        final long write = store.readLong(base + WRITE_POSITION);
+        final long read = store.readVolatileLong(base + READ_POSITION);
+        final long length = Math.min(capacity - (write - read), from.readRemaining());
+        if (length <= 0)
+            return 0;
+        final long offset = write & mask;
+        final long first = Math.min(length, capacity - offset);
+        store.write(base + DATA + offset, from, from.readPosition(), first);
+        if (length > first)
+            store.write(base + DATA, from, from.readPosition() + first, length - first);
+        from.readSkip(length);
+        store.writeOrderedLong(base + WRITE_POSITION, write + length);
+        return length;
+    }
+
+    /**
+     * Copies as many bytes as are available, up to a limit.
+     *
+     * @param to        to append the bytes to
+     * @param maxLength the maximum number of bytes to copy
+     * @return the number of bytes copied, 0 if the ring is empty
+     */
+    long read(Bytes<?> to, long maxLength) {
+        final long read = store.readLong(base + READ_POSITION);
+        final long write = store.readVolatileLong(base + WRITE_POSITION);
+        final long length = Math.min(write - read, maxLength);
+        if (length <= 0)
+            return 0;
+        final long offset = read & mask;
+        final long first = Math.min(length, capacity - offset);
+        to.write(store, base + DATA + offset, first);
+        if (length > first)
+            to.write(store, base + DATA, length - first);
+        store.writeOrderedLong(base + READ_POSITION, read + length);
+        return length;
+    }
+
+    /**
+     * @return whether all the bytes written have been read
+     */
+    boolean isEmpty() {
+        return store.readVolatileLong(base + WRITE_POSITION) == store.readVolatileLong(base + READ_POSITION);
+    }
+}
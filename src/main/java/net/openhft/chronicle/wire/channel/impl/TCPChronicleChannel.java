@@ -34,6 +34,7 @@ import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
 import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -45,14 +46,21 @@ import static net.openhft.chronicle.core.io.ClosedIORuntimeException.newIORuntim
 public class TCPChronicleChannel extends AbstractCloseable implements InternalChronicleChannel {
     // tune for message sizes up to this
     static final int CAPACITY = Integer.getInteger("tcp.capacity", 2 << 20); // 2 MB
+    // bytes kept for a socket which is full before the writer waits for it
+    static final int MAX_PENDING_BYTES = Integer.getInteger("tcp.maxPendingBytes", CAPACITY * 4);
     private static final String HEADER = "header";
     private static final ChannelHeader NO_HEADER = Mocker.ignored(ChannelHeader.class);
     private static final boolean DUMP_YAML = Jvm.getBoolean("dumpYaml");
+    private static final int SPIN_ATTEMPTS = 100;
+    private static final long MAX_PARK_NS = 1_000_000;
     private final ReentrantLock lock = new ReentrantLock();
+    // not synchronized as a virtual thread blocked on I/O in a synchronized method pins its carrier
+    private final ReentrantLock connectLock = new ReentrantLock();
     private final ChronicleChannelCfg channelCfg;
     private final Wire in = createBuffer();
     private final Wire out = createBuffer();
     private final DocumentContextHolder dch = new ConnectionDocumentContextHolder();
+    private final ByteBuffer[] gather = new ByteBuffer[2];
 
     private final Function<ChannelHeader, ChannelHeader> replaceInHeader;
     private final Function<ChannelHeader, ChannelHeader> replaceOutHeader;
@@ -67,6 +75,10 @@ public class TCPChronicleChannel extends AbstractCloseable implements InternalCh
     private boolean privateSocketRegistry;
     private boolean endOfData = false;
     private boolean unsentTestMessage = false;
+    private boolean deferFlush = false;
+    // when set, called rather than waiting for the socket, after leaving the unsent bytes in out
+    private volatile Runnable writeLater;
+    private boolean writePending = false;
     private int bufferSize = CAPACITY * 2;
     private Consumer<ChronicleChannel> closeCallback;
 
@@ -138,11 +150,14 @@ public class TCPChronicleChannel extends AbstractCloseable implements InternalCh
         @SuppressWarnings("unchecked") final Bytes<ByteBuffer> bytes = (Bytes) out.bytes();
         if (out.bytes().writeRemaining() <= 0)
             return;
+        // the socket is still full, these bytes are sent after those already waiting, unless there are too many
+        if (writePending && bytes.readRemaining() < MAX_PENDING_BYTES)
+            return;
         ByteBuffer bb = bytes.underlyingObject();
         assert bb != null;
         ((Buffer)bb).position(Math.toIntExact(bytes.readPosition()));
         bb.limit(Math.toIntExact(bytes.readLimit()));
-        while (bb.remaining() > 0) {
+        for (int attempt = 0; bb.remaining() > 0; ) {
             int len;
             try {
                 len = sc.write(bb);
@@ -154,10 +169,163 @@ public class TCPChronicleChannel extends AbstractCloseable implements InternalCh
             }
             if (len < 0)
                 throw new ClosedIORuntimeException("Closed");
+            // the socket buffer is full
+            if (len == 0) {
+                // once too many bytes are waiting, the writer waits for the socket, as the peer isn't keeping up
+                if (writeLater != null && bb.remaining() < MAX_PENDING_BYTES) {
+                    bytes.readPosition(bb.position());
+                    writeLater();
+                    return;
+                }
+                waitForSocket(attempt++);
+            } else {
+                attempt = 0;
+            }
         }
         out.clear();
     }
 
+    /**
+     * Writes any messages written to this channel directly, e.g. a testMessage, followed by those in the wire
+     * with one gathering write, so they are sent with one system call if the socket buffer has room.
+     *
+     * @param wire containing more messages to write, which is cleared once written
+     * @return true if anything was written
+     */
+    boolean gatherFlush(Wire wire) {
+        lock.lock();
+        try {
+            // the socket is still full, these bytes are sent after those already waiting
+            if (writePending) {
+                if (wire.bytes().isEmpty())
+                    return false;
+                keepUnsent(wire, wire.bytes().readPosition());
+                if (out.bytes().readRemaining() >= MAX_PENDING_BYTES)
+                    flushOut(out);
+                return true;
+            }
+            int count = addToGather(out, 0);
+            final int outCount = count;
+            count = addToGather(wire, count);
+            if (count == 0)
+                return false;
+            for (int attempt = 0; gather[count - 1].remaining() > 0; ) {
+                long len;
+                try {
+                    len = sc.write(gather, 0, count);
+                } catch (IOException e) {
+                    Thread.yield();
+                    if (isClosing())
+                        return false;
+                    throw newIORuntimeException(e);
+                }
+                if (len < 0)
+                    throw new ClosedIORuntimeException("Closed");
+                // the socket buffer is full
+                if (len == 0) {
+                    if (writeLater != null && gather[count - 1].remaining() < MAX_PENDING_BYTES) {
+                        if (outCount > 0)
+                            out.bytes().readPosition(gather[0].position());
+                        if (count > outCount)
+                            keepUnsent(wire, gather[outCount].position());
+                        writeLater();
+                        return true;
+                    }
+                    waitForSocket(attempt++);
+                } else {
+                    attempt = 0;
+                }
+            }
+            if (outCount > 0)
+                out.clear();
+            if (count > outCount)
+                wire.clear();
+            return true;
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int addToGather(Wire wire, int count) {
+        @SuppressWarnings("unchecked") final Bytes<ByteBuffer> bytes = (Bytes) wire.bytes();
+        if (bytes.readRemaining() <= 0)
+            return count;
+        ByteBuffer bb = bytes.underlyingObject();
+        assert bb != null;
+        ((Buffer) bb).position(Math.toIntExact(bytes.readPosition()));
+        bb.limit(Math.toIntExact(bytes.readLimit()));
+        gather[count] = bb;
+        return count + 1;
+    }
+
+    /**
+     * Copies the bytes of a wire not yet sent to the end of out, to be sent when the socket is writable.
+     */
+    private void keepUnsent(Wire wire, long position) {
+        final Bytes<?> bytes = wire.bytes();
+        out.bytes().write(bytes, position, bytes.readLimit() - position);
+        wire.clear();
+    }
+
+    private void writeLater() {
+        final Bytes<?> bytes = out.bytes();
+        if (bytes.readPosition() >= CAPACITY)
+            bytes.compact();
+        writePending = true;
+        writeLater.run();
+    }
+
+    /**
+     * Sets the channel to keep bytes the socket couldn't accept rather than wait for it, e.g. when it is driven by a
+     * {@link SelectorEventLoop} which calls {@link #flushPending()} once the socket is writable. Once tcp.maxPendingBytes
+     * are kept, the writer waits for the socket, so a peer which isn't reading can't use unlimited memory.
+     *
+     * @param writeLater called when there are bytes to write once the socket is writable, or null to wait for the socket.
+     */
+    void writeLater(Runnable writeLater) {
+        this.writeLater = writeLater;
+    }
+
+    /**
+     * Writes the bytes kept when the socket was full, and any written since.
+     *
+     * @return true if all the bytes were written, false if the socket is full again
+     */
+    boolean flushPending() {
+        lock.lock();
+        try {
+            writePending = false;
+            flushOut(out);
+            return !writePending;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets whether messages written directly to this channel are left for {@link #gatherFlush(Wire)}
+     * rather than written as each message is closed.
+     *
+     * @param deferFlush true if another thread will call gatherFlush.
+     */
+    void deferFlush(boolean deferFlush) {
+        this.deferFlush = deferFlush;
+    }
+
+    /**
+     * Waits for a non-blocking socket which isn't ready, busy waiting briefly and then parking for longer each attempt.
+     * Parking rather than yielding allows a virtual thread to release its carrier thread.
+     *
+     * @param attempt the number of times this has been called without progress
+     */
+    static void waitForSocket(int attempt) {
+        if (attempt < SPIN_ATTEMPTS)
+            Jvm.nanoPause();
+        else
+            LockSupport.parkNanos(Math.min(MAX_PARK_NS, 1000L << Math.min(20, (attempt - SPIN_ATTEMPTS) / 10)));
+    }
+
     private Wire createBuffer() {
         final Bytes<ByteBuffer> bytes = Bytes.elasticByteBuffer(CAPACITY);
         IOTools.unmonitor(bytes);
@@ -235,10 +403,19 @@ public class TCPChronicleChannel extends AbstractCloseable implements InternalCh
         return in.readingDocument();
     }
 
-    synchronized void checkConnected() throws InvalidMarshallableException {
+    void checkConnected() throws InvalidMarshallableException {
+        connectLock.lock();
+        try {
+            checkConnected0();
+        } finally {
+            connectLock.unlock();
+        }
+    }
+
+    private void checkConnected0() throws InvalidMarshallableException {
         if (sc != null && sc.isOpen()) {
             if (headerOut == null) {
-                acceptorRespondToHeader();
+                acceptorRespondToHeader0();
             }
             return;
         }
@@ -269,7 +446,7 @@ public class TCPChronicleChannel extends AbstractCloseable implements InternalCh
                             sc = socketRegistry.createSocketChannel(hp.hostname(), hp.port());
                             configureSocket();
                             writeHeader();
-                            readHeader();
+                            readHeader(Long.MAX_VALUE);
                             success = true;
                             break Outer;
 
@@ -303,6 +480,10 @@ public class TCPChronicleChannel extends AbstractCloseable implements InternalCh
                 socket.getSendBufferSize();
     }
 
+    SocketChannel socketChannel() {
+        return sc;
+    }
+
     public void closeCallback(Consumer<ChronicleChannel> closeCallback) {
         this.closeCallback = closeCallback;
     }
@@ -321,9 +502,29 @@ public class TCPChronicleChannel extends AbstractCloseable implements InternalCh
             Closeable.closeQuietly(socketRegistry);
     }
 
-    synchronized void acceptorRespondToHeader() throws InvalidMarshallableException {
+    void acceptorRespondToHeader() throws InvalidMarshallableException {
+        connectLock.lock();
+        try {
+            acceptorRespondToHeader0();
+        } finally {
+            connectLock.unlock();
+        }
+    }
+
+    private void acceptorRespondToHeader0() throws InvalidMarshallableException {
         headerOut = NO_HEADER;
-        readHeader();
+        // this is called on a pooled thread, which isn't held by a peer which connects but doesn't send a header,
+        // so the header is read without blocking, for up to the connection timeout
+        final boolean blocking = sc.isBlocking();
+        try {
+            if (blocking)
+                sc.configureBlocking(false);
+            readHeader(System.nanoTime() + (long) (channelCfg.connectionTimeoutSecs() * 1e9));
+            if (blocking)
+                sc.configureBlocking(true);
+        } catch (IOException e) {
+            throw newIORuntimeException(e);
+        }
         headerInToUse = replaceInHeader.apply(headerIn);
         final ChannelHeader replyHeader = replaceOutHeader.apply(headerInToUse);
         if (replyHeader == null) {
@@ -344,6 +545,15 @@ public class TCPChronicleChannel extends AbstractCloseable implements InternalCh
         try (DocumentContext dc = writingDocument(true)) {
             dc.wire().write(HEADER).object(headerOut);
         }
+        // the header is needed before a reply can be read, even if flushing is deferred
+        if (deferFlush) {
+            lock.lock();
+            try {
+                flush();
+            } finally {
+                lock.unlock();
+            }
+        }
         out.bytes().singleThreadedCheckReset();
     }
 
@@ -369,11 +579,16 @@ public class TCPChronicleChannel extends AbstractCloseable implements InternalCh
         return headerInToUse;
     }
 
-    private void readHeader() throws InvalidMarshallableException {
-        while (!Thread.currentThread().isInterrupted()) {
+    /**
+     * @param end the System.nanoTime() by which the header must be read
+     */
+    private void readHeader(long end) throws InvalidMarshallableException {
+        for (int attempt = 0; !Thread.currentThread().isInterrupted(); ) {
             try (DocumentContext dc = readingDocument()) {
                 if (!dc.isPresent()) {
-                    Thread.yield();
+                    if (System.nanoTime() > end)
+                        throw new IORuntimeException("No header received within " + channelCfg.connectionTimeoutSecs() + " seconds");
+                    waitForSocket(attempt++);
                     continue;
                 }
                 final String s = dc.wire().readEvent(String.class);
@@ -477,7 +692,7 @@ public class TCPChronicleChannel extends AbstractCloseable implements InternalCh
         @Override
         public void close() {
             super.close();
-            if (!chainedElement)
+            if (!chainedElement && !deferFlush)
                 try {
                     flush();
                 } catch (ClosedIORuntimeException ignored) {
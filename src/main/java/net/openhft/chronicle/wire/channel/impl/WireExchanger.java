@@ -27,7 +27,7 @@ import org.jetbrains.annotations.NotNull;
 
 import static net.openhft.chronicle.core.UnsafeMemory.MEMORY;
 
-public class WireExchanger extends SimpleCloseable implements MarshallableOut {
+public class WireExchanger extends SimpleCloseable implements MessageExchanger {
     static final int USED_MASK = 0x001;
     static final int FREE = 0x000, LOCKED = 0x010, DIRTY = 0x100;
     static final int FREE0 = 0x000, LOCKED0 = 0x010, DIRTY0 = 0x100;
@@ -71,6 +71,7 @@ public class WireExchanger extends SimpleCloseable implements MarshallableOut {
         wire1.bytes().releaseLast();
     }
 
+    @Override
     public Wire acquireProducer() {
         {
             int val = lock();
@@ -103,6 +104,7 @@ public class WireExchanger extends SimpleCloseable implements MarshallableOut {
         }
     }
 
+    @Override
     public void releaseProducer() {
         final int val2 = DIRTY | (value & USED_MASK);
         MEMORY.writeOrderedInt(this, valueOffset, val2);
@@ -112,6 +114,20 @@ public class WireExchanger extends SimpleCloseable implements MarshallableOut {
         return writeTo == 0 ? wire0 : wire1;
     }
 
+    @Override
+    public boolean isDirty() {
+        return (value & DIRTY) != 0;
+    }
+
+    /**
+     * Reads the number of bytes written by producers without locking, so it is only an estimate.
+     */
+    @Override
+    public long producerBytes() {
+        return wireAt(value & USED_MASK).bytes().writePosition();
+    }
+
+    @Override
     public Wire acquireConsumer() {
         if ((value & DIRTY) == 0)
             return EMPTY_WIRE;
@@ -142,6 +158,7 @@ public class WireExchanger extends SimpleCloseable implements MarshallableOut {
         }
     }
 
+    @Override
     public void releaseConsumer() {
         // may be needed in the future
     }
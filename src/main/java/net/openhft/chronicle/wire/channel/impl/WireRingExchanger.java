@@ -0,0 +1,389 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire.channel.impl;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.BytesStore;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.Maths;
+import net.openhft.chronicle.core.io.ClosedIllegalStateException;
+import net.openhft.chronicle.core.io.SimpleCloseable;
+import net.openhft.chronicle.threads.Pauser;
+import net.openhft.chronicle.threads.PauserMode;
+import net.openhft.chronicle.wire.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * A {@link MessageExchanger} where producers don't lock each other out, passing messages through a fixed size
+ * off-heap ring.
+ * <p>
+ * As the size of a document isn't known until it is complete, a producer claims a slot of a quarter of the ring with
+ * a single atomic add to the tail and writes its documents straight into it. When released, the unused end of the
+ * slot is marked to be skipped and the documents are published by writing their length in front of them, so
+ * documents written between acquiring and releasing a producer must fit in a slot. The consumer copies published messages in order
+ * into its own buffer until it reaches one not yet published, and zeroes the space before making it available to
+ * producers again. Only the start of a record or a region to skip is written to in the rest of a slot, so only that
+ * needs zeroing.
+ * <p>
+ * A producer waits with a {@link Pauser} of the {@link PauserMode} given if the ring is full, and throws if it is
+ * closed or the consumer doesn't make room in time. A thread's producer is released once the thread has ended.
+ */
+public class WireRingExchanger extends SimpleCloseable implements MessageExchanger {
+    static final int HEADER = 4;
+    static final long MAX_CAPACITY = 1L << 30;
+    private static final long TIMEOUT_MS = 10_000;
+    private static final AtomicLongFieldUpdater<WireRingExchanger> TAIL =
+            AtomicLongFieldUpdater.newUpdater(WireRingExchanger.class, "tail");
+
+    private final BytesStore<?, Void> ring;
+    private final long capacity;
+    private final long mask;
+    private final long slotSize;
+    private final PauserMode pauserMode;
+    private final Wire consumer;
+    private final Queue<Producer> allProducers = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Producer> producers = ThreadLocal.withInitial(this::newProducer);
+    // producers holding a slot, the ring is only released once there are none
+    private final AtomicInteger publishing = new AtomicInteger();
+    private final AtomicBoolean released = new AtomicBoolean();
+    // between acquireConsumer and releaseConsumer
+    private volatile boolean consuming;
+    private volatile long tail;
+    private volatile long head;
+
+    /**
+     * @param capacity of the ring in bytes, rounded up to a power of two
+     */
+    @NotNull
+    public WireRingExchanger(long capacity) {
+        this(capacity, PauserMode.balanced);
+    }
+
+    /**
+     * @param capacity   of the ring in bytes, rounded up to a power of two
+     * @param pauserMode for producers waiting for room in the ring
+     */
+    @NotNull
+    public WireRingExchanger(long capacity, @NotNull PauserMode pauserMode) {
+        if (capacity > MAX_CAPACITY)
+            throw new IllegalArgumentException("capacity " + capacity + " is larger than " + MAX_CAPACITY);
+        this.capacity = Maths.nextPower2(capacity, 4 << 10);
+        this.mask = this.capacity - 1;
+        this.slotSize = this.capacity / 4;
+        this.pauserMode = pauserMode;
+        ring = BytesStore.nativeStoreWithFixedCapacity(this.capacity);
+        ring.zeroOut(0, this.capacity);
+        final Bytes<ByteBuffer> bytes = Bytes.elasticByteBuffer(TCPChronicleChannel.CAPACITY);
+        bytes.singleThreadedCheckDisabled(true);
+        consumer = WireType.BINARY_LIGHT.apply(bytes);
+    }
+
+    private Producer newProducer() {
+        // a producer is only used by its own thread, so those of threads which have ended can be released
+        for (Producer producer : allProducers) {
+            if (!producer.thread.isAlive() && allProducers.remove(producer))
+                producer.release();
+        }
+        final Producer producer = new Producer();
+        allProducers.add(producer);
+        return producer;
+    }
+
+    /**
+     * Waits for producers to release their slots, and releases the ring once the consumer isn't using it, so memory
+     * isn't freed while another thread is accessing it.
+     */
+    @Override
+    protected void performClose() {
+        super.performClose();
+        // producers check for close while they wait
+        final long end = System.currentTimeMillis() + TIMEOUT_MS;
+        while (publishing.get() > 0) {
+            if (System.currentTimeMillis() > end) {
+                Jvm.warn().on(getClass(), "Producers still publishing, the ring is released by the last one");
+                return;
+            }
+            Jvm.nanoPause();
+        }
+        producers.remove();
+        if (!consuming)
+            releaseRing();
+        // otherwise the consumer releases it
+    }
+
+    private void releaseRing() {
+        if (released.compareAndSet(false, true)) {
+            // the producers' views of the ring go first
+            for (Producer producer; (producer = allProducers.poll()) != null; )
+                producer.release();
+            ring.releaseLast();
+            consumer.bytes().releaseLast();
+        }
+    }
+
+    private Producer producer() {
+        if (isClosing()) {
+            producers.remove();
+            throw new ClosedIllegalStateException(getClass().getName() + " closed for " + Thread.currentThread().getName());
+        }
+        return producers.get();
+    }
+
+    @Override
+    public Wire acquireProducer() {
+        final Producer producer = producer();
+        if (producer.slot < 0)
+            claim(producer);
+        return producer.wire;
+    }
+
+    @Override
+    public void releaseProducer() {
+        final Producer producer = producer();
+        if (producer.slot >= 0)
+            publish(producer);
+    }
+
+    private void claim(Producer producer) {
+        publishing.incrementAndGet();
+        boolean claimed = false;
+        try {
+            // the ring is released once there are no producers publishing after it is closed
+            throwExceptionIfClosed();
+            final long timeout = System.currentTimeMillis() + TIMEOUT_MS;
+            // wait for room before claiming, as a claim can't be given back
+            while (tail + slotSize - head > capacity)
+                pause(producer, timeout);
+
+            // slots are a quarter of the ring, so one never wraps
+            final long pos = TAIL.getAndAdd(this, slotSize);
+            // another producer can claim space first, after this one checked there was room
+            while (pos + slotSize - head > capacity) {
+                if (System.currentTimeMillis() > timeout && !isClosing()) {
+                    // nothing claimed after this could be read, so the ring can't be used
+                    Jvm.warn().on(getClass(), "Timed out waiting for the consumer, closing");
+                    claimed = true;
+                    endPublishing();
+                    close();
+                    throw new IllegalStateException("Timed out waiting for room in the ring");
+                }
+                pause(producer, Long.MAX_VALUE);
+            }
+            producer.claimed(pos & mask);
+            claimed = true;
+        } finally {
+            producer.pauser.reset();
+            if (!claimed)
+                endPublishing();
+        }
+    }
+
+    private void pause(Producer producer, long timeout) {
+        if (isClosing())
+            throw new ClosedIllegalStateException(getClass().getName() + " closed while publishing");
+        if (System.currentTimeMillis() > timeout)
+            throw new IllegalStateException("Timed out waiting for room in the ring");
+        producer.pauser.pause();
+    }
+
+    private void publish(Producer producer) {
+        final long offset = producer.slot;
+        producer.slot = -1;
+        try {
+            final long length = producer.bytes.writePosition() - (offset + HEADER);
+            final long size = length == 0 ? 0 : align(HEADER + length);
+            // the unused end of the slot is skipped, which is written before the record is published
+            if (size < slotSize)
+                ring.writeOrderedInt(offset + size, (int) -(slotSize - size));
+            if (size > 0)
+                ring.writeOrderedInt(offset, (int) length);
+        } finally {
+            endPublishing();
+        }
+    }
+
+    private void endPublishing() {
+        // performClose leaves the ring to be released by the last producer if it timed out waiting
+        if (publishing.decrementAndGet() == 0 && isClosing() && !consuming)
+            releaseRing();
+    }
+
+    // for testing
+    int producerCount() {
+        return allProducers.size();
+    }
+
+    static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    @Override
+    public boolean isDirty() {
+        consuming = true;
+        try {
+            return !isClosing() && ring.readVolatileInt(head & mask) != 0;
+        } finally {
+            endConsuming();
+        }
+    }
+
+    @Override
+    public long producerBytes() {
+        return tail - head;
+    }
+
+    @Override
+    public Wire acquireConsumer() {
+        consuming = true;
+        if (isClosing()) {
+            endConsuming();
+            throw new ClosedIllegalStateException(getClass().getName() + " closed");
+        }
+        final Bytes<?> bytes = consumer.bytes();
+        // assume one consumer
+        long pos = head;
+        for (int header; (header = ring.readVolatileInt(pos & mask)) != 0; ) {
+            final long offset = pos & mask;
+            final long size;
+            if (header < 0) {
+                size = -header;
+                // only the header of a region to skip is written
+                ring.zeroOut(offset, offset + HEADER);
+            } else {
+                bytes.write(ring, offset + HEADER, header);
+                size = align(HEADER + header);
+                // producers only write a header where the ring is zero
+                ring.zeroOut(offset, offset + size);
+            }
+            pos += size;
+            head = pos;
+            if (bytes.writePosition() >= TCPChronicleChannel.CAPACITY)
+                break;
+        }
+        return consumer;
+    }
+
+    @Override
+    public void releaseConsumer() {
+        if (!released.get())
+            consumer.clear();
+        endConsuming();
+    }
+
+    private void endConsuming() {
+        consuming = false;
+        // performClose leaves the ring to be released here if it was in use
+        if (isClosing() && publishing.get() == 0)
+            releaseRing();
+    }
+
+    @Override
+    public DocumentContext writingDocument(boolean metaData) {
+        final Producer producer = producer();
+        producer.start(metaData);
+        return producer;
+    }
+
+    @Override
+    public DocumentContext acquireWritingDocument(boolean metaData) {
+        final Producer producer = producer();
+        return producer.documentContext() != null
+                && producer.isOpen()
+                && producer.chainedElement()
+                ? producer
+                : writingDocument(metaData);
+    }
+
+    final class Producer extends DocumentContextHolder implements WriteDocumentContext {
+        final Thread thread = Thread.currentThread();
+        final Pauser pauser = pauserMode.get();
+        // a view of the ring, limited to the slot claimed
+        final Bytes<Void> bytes = ring.bytesForWrite();
+        final Wire wire = WireType.BINARY_LIGHT.apply(bytes);
+        // the offset of the slot claimed, or -1
+        long slot = -1;
+
+        Producer() {
+            // released by the thread closing the exchanger or a later producer
+            bytes.singleThreadedCheckDisabled(true);
+        }
+
+        void claimed(long offset) {
+            slot = offset;
+            bytes.clear();
+            bytes.writePosition(offset + HEADER);
+            bytes.readPosition(offset + HEADER);
+            bytes.writeLimit(offset + slotSize);
+        }
+
+        void release() {
+            if (slot >= 0) {
+                // the thread ended part way through a document, which is skipped
+                ring.zeroOut(slot + HEADER, slot + slotSize);
+                bytes.writePosition(slot + HEADER);
+                publish(this);
+            }
+            bytes.releaseLast();
+        }
+
+        @Override
+        public void start(boolean metaData) {
+            if (slot < 0)
+                claim(this);
+            documentContext(wire.writingDocument(metaData));
+        }
+
+        @Override
+        public boolean chainedElement() {
+            return documentContext().chainedElement();
+        }
+
+        @Override
+        public void chainedElement(boolean chainedElement) {
+            documentContext().chainedElement(chainedElement);
+        }
+
+        @Override
+        public WriteDocumentContext documentContext() {
+            return (WriteDocumentContext) super.documentContext();
+        }
+
+        @Override
+        public void close() {
+            final WriteDocumentContext dc = documentContext();
+            final long written = bytes.writePosition();
+            dc.close();
+            // anything rolled back is zeroed, as only the start of a record may be written in the rest of a slot
+            if (bytes.writePosition() < written)
+                ring.zeroOut(bytes.writePosition(), written);
+            if (!dc.isNotComplete()) {
+                documentContext(null);
+                if (slot >= 0)
+                    publish(this);
+            }
+        }
+    }
+}
@@ -169,6 +169,53 @@ public interface DocumentExtractor<T> {
         @NotNull <I> Builder<E> withMethod(@NotNull final Class<I> interfaceType,
                                            @NotNull final BiConsumer<? super I, ? super E> methodReference);
 
+        /**
+         * Specifies that only the field with the provided {@code fieldName} shall be read from elements of type E,
+         * skipping the other fields, rather than deserialising the whole element.
+         * <p>
+         * The position of the field is remembered and checked first for the next element, so for binary wires
+         * where the fields before it are of a fixed size, it is read without scanning the element.
+         * Any {@link #withMethod(Class, BiConsumer)} and {@link #withThreadConfinedReuse()} settings apply.
+         *
+         * @param fieldName name of the field to read (non-null)
+         * @return a FieldBuilder for the field
+         */
+        @NotNull
+        FieldBuilder withField(@NotNull String fieldName);
+    }
+
+    /**
+     * Builds DocumentExtractor objects that read a single field of an element.
+     */
+    interface FieldBuilder {
+
+        /**
+         * Creates and returns a new ToLongDocumentExtractor that reads the field as a {@code long},
+         * or {@link Long#MIN_VALUE} if the field is not present.
+         *
+         * @return a new ToLongDocumentExtractor
+         */
+        @NotNull
+        ToLongDocumentExtractor buildLong();
+
+        /**
+         * Creates and returns a new ToDoubleDocumentExtractor that reads the field as a {@code double},
+         * or {@link Double#NaN} if the field is not present.
+         *
+         * @return a new ToDoubleDocumentExtractor
+         */
+        @NotNull
+        ToDoubleDocumentExtractor buildDouble();
+
+        /**
+         * Creates and returns a new DocumentExtractor that reads the field as an object of the provided
+         * {@code fieldType}, or {@code null} if the field is not present.
+         *
+         * @param fieldType type of the field (non-null)
+         * @param <F>       field type
+         * @return a new DocumentExtractor
+         */
+        @NotNull <F> DocumentExtractor<F> build(@NotNull Class<F> fieldType);
     }
 
     /**
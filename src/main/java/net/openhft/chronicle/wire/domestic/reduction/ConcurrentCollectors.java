@@ -18,13 +18,19 @@
 
 package net.openhft.chronicle.wire.domestic.reduction;
 
+import net.openhft.chronicle.core.Maths;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.LongBinaryOperator;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -35,6 +41,9 @@ import static net.openhft.chronicle.core.util.ObjectUtils.requireNonNull;
 
 public final class ConcurrentCollectors {
 
+    // enough stripes that threads rarely share one, like LongAdder
+    private static final int STRIPES = (int) Math.min(64, Maths.nextPower2(Runtime.getRuntime().availableProcessors() * 2L, 2));
+
     // Suppresses default constructor, ensuring non-instantiability.
     private ConcurrentCollectors() {
     }
@@ -204,6 +213,278 @@ public final class ConcurrentCollectors {
         );
     }
 
+    /**
+     * Returns a concurrent {@code Collector} that reduces the input elements into a
+     * new {@code List}, like {@link #toConcurrentList()}, but with a list per stripe of threads
+     * so concurrent threads rarely contend for the same lock.
+     *
+     * <p>This is an {@link java.util.stream.Collector.Characteristics#UNORDERED unordered}
+     * Collector. The stripes are concatenated on each call of the finisher.
+     *
+     * @param <T> the type of the input elements
+     * @return a {@code Collector} which collects all the input elements into a
+     * {@code List}
+     */
+    @NotNull
+    public static <T>
+    Collector<T, ?, List<T>> toStripedList() {
+        return Collector.of(
+                () -> new Stripes<List<T>>(i -> new ArrayList<>()),
+                (Stripes<List<T>> stripes, T t) -> {
+                    final List<T> list = stripes.stripe();
+                    synchronized (list) {
+                        list.add(t);
+                    }
+                },
+                (left, right) -> {
+                    for (int i = 0; i < STRIPES; i++) {
+                        final List<T> from = right.stripe(i);
+                        final List<T> to = left.stripe(i);
+                        synchronized (from) {
+                            synchronized (to) {
+                                to.addAll(from);
+                            }
+                        }
+                    }
+                    return left;
+                },
+                stripes -> {
+                    final List<T> result = new ArrayList<>();
+                    for (int i = 0; i < STRIPES; i++) {
+                        final List<T> list = stripes.stripe(i);
+                        synchronized (list) {
+                            result.addAll(list);
+                        }
+                    }
+                    return result;
+                },
+                Collector.Characteristics.CONCURRENT,
+                Collector.Characteristics.UNORDERED
+        );
+    }
+
+    /**
+     * Returns a concurrent {@code Collector} that reduces the input elements into a
+     * new {@code Set}, like {@link #toConcurrentSet()}, but with a set per stripe of threads
+     * so concurrent threads rarely contend for the same lock.
+     *
+     * <p>This is an {@link java.util.stream.Collector.Characteristics#UNORDERED unordered}
+     * Collector. The stripes are merged on each call of the finisher.
+     *
+     * @param <T> the type of the input elements
+     * @return a {@code Collector} which collects all the input elements into a
+     * {@code Set}
+     */
+    @NotNull
+    public static <T>
+    Collector<T, ?, Set<T>> toStripedSet() {
+        return Collector.of(
+                () -> new Stripes<Set<T>>(i -> new HashSet<>()),
+                (Stripes<Set<T>> stripes, T t) -> {
+                    final Set<T> set = stripes.stripe();
+                    synchronized (set) {
+                        set.add(t);
+                    }
+                },
+                (left, right) -> {
+                    for (int i = 0; i < STRIPES; i++) {
+                        final Set<T> from = right.stripe(i);
+                        final Set<T> to = left.stripe(i);
+                        synchronized (from) {
+                            synchronized (to) {
+                                to.addAll(from);
+                            }
+                        }
+                    }
+                    return left;
+                },
+                stripes -> {
+                    final Set<T> result = new HashSet<>();
+                    for (int i = 0; i < STRIPES; i++) {
+                        final Set<T> set = stripes.stripe(i);
+                        synchronized (set) {
+                            result.addAll(set);
+                        }
+                    }
+                    return result;
+                },
+                Collector.Characteristics.CONCURRENT,
+                Collector.Characteristics.UNORDERED
+        );
+    }
+
+    /**
+     * Returns a concurrent {@code Collector} like {@link #reducingConcurrent(Object, BinaryOperator)},
+     * but which reduces into a value per stripe of threads, so concurrent threads rarely contend
+     * for the same cache line. The stripes are reduced on each call of the finisher.
+     *
+     * <p>As the elements are reduced in no particular order, {@code op} must be commutative
+     * as well as associative, and {@code identity} must be an identity for it.
+     *
+     * @param <T>      element type for the input and output of the reduction
+     * @param identity the identity value for the reduction (also, the value
+     *                 that is returned when there are no input elements)
+     * @param op       a {@code BinaryOperator<T>} used to reduce the input elements
+     * @return a {@code Collector} which implements the reduction operation
+     */
+    @NotNull
+    public static <T>
+    Collector<T, ?, T> reducingStriped(final T identity,
+                                       @NotNull final BinaryOperator<T> op) {
+        return reducingStriped(identity, Function.identity(), op);
+    }
+
+    /**
+     * Returns a concurrent {@code Collector} like {@link #reducingConcurrent(BinaryOperator)},
+     * but which reduces into a value per stripe of threads, so concurrent threads rarely contend
+     * for the same cache line. The stripes are reduced on each call of the finisher.
+     *
+     * <p>As the elements are reduced in no particular order, {@code op} must be commutative
+     * as well as associative.
+     *
+     * @param <T> element type for the input and output of the reduction
+     * @param op  a {@code BinaryOperator<T>} used to reduce the input elements
+     * @return a {@code Collector} which implements the reduction operation
+     */
+    @NotNull
+    public static <T>
+    Collector<T, ?, Optional<T>> reducingStriped(@NotNull final BinaryOperator<T> op) {
+        requireNonNull(op);
+
+        final BinaryOperator<T> internalAccumulator = (a, b) -> {
+            if (a == null) {
+                return b;
+            }
+            if (b == null) {
+                return a;
+            }
+            return op.apply(a, b);
+        };
+
+        return collectingAndThen(
+                reducingStriped(null, Function.<T>identity(), internalAccumulator),
+                Optional::ofNullable);
+    }
+
+    /**
+     * Returns a concurrent {@code Collector} like {@link #reducingConcurrent(Object, Function, BinaryOperator)},
+     * but which reduces into a value per stripe of threads, so concurrent threads rarely contend
+     * for the same cache line. The stripes are reduced on each call of the finisher.
+     *
+     * <p>As the elements are reduced in no particular order, {@code op} must be commutative
+     * as well as associative, and {@code identity} must be an identity for it.
+     *
+     * @param <T>      the type of the input elements
+     * @param <R>      the type of the mapped values
+     * @param identity the identity value for the reduction (also, the value
+     *                 that is returned when there are no input elements)
+     * @param mapper   a mapping function to apply to each input value
+     * @param op       a {@code BinaryOperator<U>} used to reduce the mapped values
+     * @return a {@code Collector} implementing the map-reduce operation
+     */
+    @NotNull
+    public static <T, R>
+    Collector<T, ?, R> reducingStriped(@Nullable R identity,
+                                       @NotNull final Function<? super T, ? extends R> mapper,
+                                       @NotNull final BinaryOperator<R> op) {
+        requireNonNull(mapper);
+        requireNonNull(op);
+
+        return Collector.of(
+                () -> new Stripes<AtomicReference<R>>(i -> new PaddedReference<>(identity)),
+                (Stripes<AtomicReference<R>> stripes, T t) -> stripes.stripe().accumulateAndGet(mapper.apply(t), op),
+                (left, right) -> {
+                    for (int i = 0; i < STRIPES; i++)
+                        left.stripe(i).accumulateAndGet(right.stripe(i).get(), op);
+                    return left;
+                },
+                stripes -> {
+                    R result = identity;
+                    for (int i = 0; i < STRIPES; i++)
+                        result = op.apply(result, stripes.stripe(i).get());
+                    return result;
+                },
+                Collector.Characteristics.CONCURRENT,
+                Collector.Characteristics.UNORDERED
+        );
+    }
+
+    /**
+     * Returns a concurrent {@code Collector} that produces the sum of a long-valued
+     * function applied to the input elements, using a {@link LongAdder}.
+     *
+     * @param <T>    the type of the input elements
+     * @param mapper a function extracting the property to be summed
+     * @return a {@code Collector} that produces the sum of a derived property
+     * @see Collectors#summingLong(ToLongFunction)
+     */
+    @NotNull
+    public static <T>
+    Collector<T, ?, Long> summingLongConcurrent(@NotNull final ToLongFunction<? super T> mapper) {
+        requireNonNull(mapper);
+
+        return Collector.of(
+                LongAdder::new,
+                (LongAdder adder, T t) -> adder.add(mapper.applyAsLong(t)),
+                (left, right) -> {
+                    left.add(right.sum());
+                    return left;
+                },
+                LongAdder::sum,
+                Collector.Characteristics.CONCURRENT,
+                Collector.Characteristics.UNORDERED
+        );
+    }
+
+    /**
+     * Returns a concurrent {@code Collector} that produces the minimum of a long-valued
+     * function applied to the input elements, using a {@link LongAccumulator}.
+     *
+     * @param <T>    the type of the input elements
+     * @param mapper a function extracting the property to be compared
+     * @return a {@code Collector} that produces the minimum, or empty if there were no input elements
+     */
+    @NotNull
+    public static <T>
+    Collector<T, ?, OptionalLong> minLongConcurrent(@NotNull final ToLongFunction<? super T> mapper) {
+        return accumulatingLong(mapper, Math::min, Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns a concurrent {@code Collector} that produces the maximum of a long-valued
+     * function applied to the input elements, using a {@link LongAccumulator}.
+     *
+     * @param <T>    the type of the input elements
+     * @param mapper a function extracting the property to be compared
+     * @return a {@code Collector} that produces the maximum, or empty if there were no input elements
+     */
+    @NotNull
+    public static <T>
+    Collector<T, ?, OptionalLong> maxLongConcurrent(@NotNull final ToLongFunction<? super T> mapper) {
+        return accumulatingLong(mapper, Math::max, Long.MIN_VALUE);
+    }
+
+    @NotNull
+    private static <T>
+    Collector<T, ?, OptionalLong> accumulatingLong(@NotNull final ToLongFunction<? super T> mapper,
+                                                  @NotNull final LongBinaryOperator op,
+                                                  final long identity) {
+        requireNonNull(mapper);
+
+        return Collector.of(
+                () -> new SeenLongAccumulator(op, identity),
+                (SeenLongAccumulator acc, T t) -> acc.accumulate(mapper.applyAsLong(t)),
+                (left, right) -> {
+                    if (right.seen)
+                        left.accumulate(right.get());
+                    return left;
+                },
+                acc -> acc.seen ? OptionalLong.of(acc.get()) : OptionalLong.empty(),
+                Collector.Characteristics.CONCURRENT,
+                Collector.Characteristics.UNORDERED
+        );
+    }
+
     /**
      * Returns a merger that will replace an existing value with the latest value.
      *
@@ -236,4 +517,57 @@ public final class ConcurrentCollectors {
         };
     }
 
+    /**
+     * A value per stripe of threads, chosen by thread id.
+     */
+    private static final class Stripes<C> {
+        private final Object[] stripes = new Object[STRIPES];
+
+        Stripes(@NotNull final IntFunction<C> factory) {
+            for (int i = 0; i < STRIPES; i++)
+                stripes[i] = factory.apply(i);
+        }
+
+        @SuppressWarnings("unchecked")
+        C stripe() {
+            final long id = Thread.currentThread().getId();
+            // spread sequential ids over the stripes
+            return (C) stripes[(int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & (STRIPES - 1)];
+        }
+
+        @SuppressWarnings("unchecked")
+        C stripe(int i) {
+            return (C) stripes[i];
+        }
+    }
+
+    /**
+     * Padded so stripes allocated together don't share a cache line.
+     */
+    @SuppressWarnings("unused")
+    private static final class PaddedReference<T> extends AtomicReference<T> {
+        private static final long serialVersionUID = 0L;
+        long p0, p1, p2, p3, p4, p5, p6, p7;
+
+        PaddedReference(T initialValue) {
+            super(initialValue);
+        }
+    }
+
+    private static final class SeenLongAccumulator extends LongAccumulator {
+        private static final long serialVersionUID = 0L;
+        volatile boolean seen;
+
+        SeenLongAccumulator(@NotNull final LongBinaryOperator op, final long identity) {
+            super(op, identity);
+        }
+
+        @Override
+        public void accumulate(long x) {
+            super.accumulate(x);
+            // only written once, so threads don't contend on it after the first element
+            if (!seen)
+                seen = true;
+        }
+    }
 }
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire.domestic.reduction;
+
+import net.openhft.chronicle.wire.internal.reduction.LongKeyIndex;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * The count, sum, min, max, weighted mean and weighted variance of double values per long key, held in primitive arrays.
+ * Keys are typically text encoded with a {@link net.openhft.chronicle.wire.LongConverter}.
+ * <p>
+ * With a price as the value and a quantity as the weight, the {@link #mean(long)} is the VWAP per key.
+ * <p>
+ * Adding a value for a known key doesn't allocate. This is thread-safe.
+ *
+ * @see Reductions#keyedDouble
+ */
+public final class KeyedDoubleStatistics {
+    private final LongKeyIndex index = new LongKeyIndex();
+    private long[] count = new long[index.capacity()];
+    private double[] sum = new double[index.capacity()];
+    private double[] min = new double[index.capacity()];
+    private double[] max = new double[index.capacity()];
+    private double[] weight = new double[index.capacity()];
+    private double[] mean = new double[index.capacity()];
+    // weighted sum of squared differences from the mean
+    private double[] m2 = new double[index.capacity()];
+
+    /**
+     * Adds a value with a weight of 1 for a key.
+     *
+     * @param key   of the value
+     * @param value to add
+     */
+    public void accept(long key, double value) {
+        accept(key, value, 1);
+    }
+
+    /**
+     * Adds a weighted value for a key. Values with a weight which is not positive are counted,
+     * but don't change the mean or variance.
+     *
+     * @param key    of the value
+     * @param value  to add
+     * @param weight of the value
+     */
+    public synchronized void accept(long key, double value, double weight) {
+        final int slot = index.acquireSlot(key);
+        if (index.capacity() > count.length)
+            grow(index.capacity());
+        if (++count[slot] == 1) {
+            min[slot] = max[slot] = value;
+        } else {
+            if (value < min[slot]) min[slot] = value;
+            if (value > max[slot]) max[slot] = value;
+        }
+        sum[slot] += value;
+        if (!(weight > 0))
+            return;
+        final double totalWeight = this.weight[slot] += weight;
+        final double delta = value - mean[slot];
+        mean[slot] += delta * weight / totalWeight;
+        m2[slot] += weight * delta * (value - mean[slot]);
+    }
+
+    private void grow(int capacity) {
+        count = Arrays.copyOf(count, capacity);
+        sum = Arrays.copyOf(sum, capacity);
+        min = Arrays.copyOf(min, capacity);
+        max = Arrays.copyOf(max, capacity);
+        weight = Arrays.copyOf(weight, capacity);
+        mean = Arrays.copyOf(mean, capacity);
+        m2 = Arrays.copyOf(m2, capacity);
+    }
+
+    /**
+     * @return the number of keys
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public synchronized boolean containsKey(long key) {
+        return index.slotOf(key) >= 0;
+    }
+
+    /**
+     * Calls the consumer with each key in the order they were first seen, holding the lock.
+     *
+     * @param keyConsumer to call
+     */
+    public synchronized void forEachKey(LongConsumer keyConsumer) {
+        for (int i = 0; i < index.size(); i++)
+            keyConsumer.accept(index.keyAt(i));
+    }
+
+    /**
+     * @param key to look up
+     * @return the number of values for the key, or 0 if none
+     */
+    public synchronized long count(long key) {
+        final int slot = index.slotOf(key);
+        return slot < 0 ? 0 : count[slot];
+    }
+
+    /**
+     * @param key to look up
+     * @return the unweighted sum of the values for the key, or 0 if none
+     */
+    public synchronized double sum(long key) {
+        final int slot = index.slotOf(key);
+        return slot < 0 ? 0 : sum[slot];
+    }
+
+    /**
+     * @param key to look up
+     * @return the lowest value for the key, or NaN if none
+     */
+    public synchronized double min(long key) {
+        final int slot = index.slotOf(key);
+        return slot < 0 ? Double.NaN : min[slot];
+    }
+
+    /**
+     * @param key to look up
+     * @return the highest value for the key, or NaN if none
+     */
+    public synchronized double max(long key) {
+        final int slot = index.slotOf(key);
+        return slot < 0 ? Double.NaN : max[slot];
+    }
+
+    /**
+     * @param key to look up
+     * @return the sum of the weights for the key, or 0 if none
+     */
+    public synchronized double totalWeight(long key) {
+        final int slot = index.slotOf(key);
+        return slot < 0 ? 0 : weight[slot];
+    }
+
+    /**
+     * @param key to look up
+     * @return the weighted mean of the values for the key, or NaN if none
+     */
+    public synchronized double mean(long key) {
+        final int slot = index.slotOf(key);
+        return slot < 0 || weight[slot] <= 0 ? Double.NaN : mean[slot];
+    }
+
+    /**
+     * @param key to look up
+     * @return the weighted population variance of the values for the key, or NaN if none
+     */
+    public synchronized double variance(long key) {
+        final int slot = index.slotOf(key);
+        return slot < 0 || weight[slot] <= 0 ? Double.NaN : m2[slot] / weight[slot];
+    }
+
+    @Override
+    public synchronized String toString() {
+        final StringBuilder sb = new StringBuilder("KeyedDoubleStatistics{");
+        for (int i = 0; i < index.size(); i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(index.keyAt(i)).append("={count=").append(count[i])
+                    .append(", sum=").append(sum[i])
+                    .append(", min=").append(min[i])
+                    .append(", max=").append(max[i])
+                    .append(", mean=").append(mean[i]).append('}');
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -18,20 +18,20 @@
 
 package net.openhft.chronicle.wire.domestic.reduction;
 
+import net.openhft.chronicle.wire.LongConverter;
 import net.openhft.chronicle.wire.SelfDescribingMarshallable;
 import net.openhft.chronicle.wire.Wire;
+import net.openhft.chronicle.wire.domestic.extractor.DocumentExtractor;
 import net.openhft.chronicle.wire.domestic.extractor.ToDoubleDocumentExtractor;
 import net.openhft.chronicle.wire.domestic.extractor.ToLongDocumentExtractor;
+import net.openhft.chronicle.wire.internal.reduction.ReductionUtil;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.concurrent.atomic.DoubleAccumulator;
 import java.util.concurrent.atomic.LongAccumulator;
 import java.util.concurrent.atomic.LongAdder;
-import java.util.function.DoubleBinaryOperator;
-import java.util.function.DoubleSupplier;
-import java.util.function.LongBinaryOperator;
-import java.util.function.LongSupplier;
+import java.util.function.*;
 
 import static net.openhft.chronicle.core.util.ObjectUtils.requireNonNull;
 
@@ -114,6 +114,144 @@ public final class Reductions {
                 );
     }
 
+    // Keyed Reductions
+
+    /**
+     * Creates and returns a new Reduction that will extract elements using the provided {@code extractor}
+     * and maintain the count, sum, min, max, mean and variance of a long value per long key.
+     * <p>
+     * Once a key has been seen, the returned Reduction does not create any internal objects.
+     * The {@code extractor} should reuse its elements, see {@link DocumentExtractor.Builder#withReusing(Supplier)}.
+     *
+     * @param extractor     to apply on each document (non-null)
+     * @param keyFunction   to apply on each element to obtain the key (non-null)
+     * @param valueFunction to apply on each element to obtain the value (non-null)
+     * @param <E>           element type
+     * @return a new Reduction maintaining long statistics per key
+     * @throws NullPointerException if any objects provided are {@code null}.
+     */
+    public static <E> Reduction<KeyedLongStatistics> keyedLong(@NotNull final DocumentExtractor<E> extractor,
+                                                              @NotNull final ToLongFunction<? super E> keyFunction,
+                                                              @NotNull final ToLongFunction<? super E> valueFunction) {
+        return new ReductionUtil.KeyedLongReduction<>(extractor, keyFunction, valueFunction);
+    }
+
+    /**
+     * Creates and returns a new Reduction that will extract elements using the provided {@code extractor}
+     * and maintain the count, sum, min, max, mean and variance of a double value per long key.
+     * <p>
+     * Once a key has been seen, the returned Reduction does not create any internal objects.
+     * The {@code extractor} should reuse its elements, see {@link DocumentExtractor.Builder#withReusing(Supplier)}.
+     *
+     * @param extractor     to apply on each document (non-null)
+     * @param keyFunction   to apply on each element to obtain the key (non-null)
+     * @param valueFunction to apply on each element to obtain the value (non-null)
+     * @param <E>           element type
+     * @return a new Reduction maintaining double statistics per key
+     * @throws NullPointerException if any objects provided are {@code null}.
+     */
+    public static <E> Reduction<KeyedDoubleStatistics> keyedDouble(@NotNull final DocumentExtractor<E> extractor,
+                                                                  @NotNull final ToLongFunction<? super E> keyFunction,
+                                                                  @NotNull final ToDoubleFunction<? super E> valueFunction) {
+        return keyedDouble(extractor, keyFunction, valueFunction, e -> 1);
+    }
+
+    /**
+     * Creates and returns a new Reduction that will extract elements using the provided {@code extractor}
+     * and maintain the count, sum, min, max, weighted mean and weighted variance of a double value per long key.
+     * e.g. the VWAP per symbol with the price as the value and the quantity as the weight.
+     * <p>
+     * Once a key has been seen, the returned Reduction does not create any internal objects.
+     * The {@code extractor} should reuse its elements, see {@link DocumentExtractor.Builder#withReusing(Supplier)}.
+     *
+     * @param extractor      to apply on each document (non-null)
+     * @param keyFunction    to apply on each element to obtain the key (non-null)
+     * @param valueFunction  to apply on each element to obtain the value (non-null)
+     * @param weightFunction to apply on each element to obtain the weight of the value (non-null)
+     * @param <E>            element type
+     * @return a new Reduction maintaining double statistics per key
+     * @throws NullPointerException if any objects provided are {@code null}.
+     */
+    public static <E> Reduction<KeyedDoubleStatistics> keyedDouble(@NotNull final DocumentExtractor<E> extractor,
+                                                                  @NotNull final ToLongFunction<? super E> keyFunction,
+                                                                  @NotNull final ToDoubleFunction<? super E> valueFunction,
+                                                                  @NotNull final ToDoubleFunction<? super E> weightFunction) {
+        return new ReductionUtil.KeyedDoubleReduction<>(extractor, keyFunction, valueFunction, weightFunction);
+    }
+
+    /**
+     * Creates and returns a function which encodes a text key of an element as a long with the provided
+     * {@code converter}, for use with {@link #keyedLong} and {@link #keyedDouble}.
+     * The key is parsed without creating objects if the {@code keyFunction} does not create one.
+     *
+     * @param converter   to parse the key with (non-null)
+     * @param keyFunction to apply on each element to obtain the text of the key (non-null)
+     * @param <E>         element type
+     * @return a function to obtain the encoded key
+     * @throws NullPointerException if any objects provided are {@code null}.
+     */
+    public static <E> ToLongFunction<E> encodedKey(@NotNull final LongConverter converter,
+                                                   @NotNull final Function<? super E, ? extends CharSequence> keyFunction) {
+        requireNonNull(converter);
+        requireNonNull(keyFunction);
+        return e -> converter.parse(keyFunction.apply(e));
+    }
+
+    // Windowed Reductions
+
+    /**
+     * Creates and returns a new Reduction that will extract elements using the provided {@code extractor}
+     * and maintain the statistics of a double value in consecutive, non-overlapping windows of {@code windowNanos}.
+     * The window moves with the time of the elements, typically a {@link net.openhft.chronicle.wire.converter.NanoTime} field.
+     * <p>
+     * The returned Reduction does not create any internal objects.
+     * The {@code extractor} should reuse its elements, see {@link DocumentExtractor.Builder#withReusing(Supplier)}.
+     *
+     * @param extractor     to apply on each document (non-null)
+     * @param timeFunction  to apply on each element to obtain its time in nanoseconds (non-null)
+     * @param valueFunction to apply on each element to obtain the value (non-null)
+     * @param windowNanos   the length of each window
+     * @param <E>           element type
+     * @return a new Reduction maintaining statistics for the latest window
+     * @throws NullPointerException     if any objects provided are {@code null}.
+     * @throws IllegalArgumentException if {@code windowNanos} is not positive
+     */
+    public static <E> Reduction<WindowedStatistics> tumblingWindow(@NotNull final DocumentExtractor<E> extractor,
+                                                                  @NotNull final ToLongFunction<? super E> timeFunction,
+                                                                  @NotNull final ToDoubleFunction<? super E> valueFunction,
+                                                                  final long windowNanos) {
+        return new ReductionUtil.WindowedReduction<>(extractor, timeFunction, valueFunction, windowNanos, 1);
+    }
+
+    /**
+     * Creates and returns a new Reduction that will extract elements using the provided {@code extractor}
+     * and maintain the statistics of a double value in a window of {@code windowNanos} which moves forward
+     * {@code slideNanos} at a time. The window moves with the time of the elements,
+     * typically a {@link net.openhft.chronicle.wire.converter.NanoTime} field.
+     * <p>
+     * The returned Reduction does not create any internal objects.
+     * The {@code extractor} should reuse its elements, see {@link DocumentExtractor.Builder#withReusing(Supplier)}.
+     *
+     * @param extractor     to apply on each document (non-null)
+     * @param timeFunction  to apply on each element to obtain its time in nanoseconds (non-null)
+     * @param valueFunction to apply on each element to obtain the value (non-null)
+     * @param windowNanos   the length of the window
+     * @param slideNanos    the step the window moves by, which must divide {@code windowNanos}
+     * @param <E>           element type
+     * @return a new Reduction maintaining statistics for the latest window
+     * @throws NullPointerException     if any objects provided are {@code null}.
+     * @throws IllegalArgumentException if {@code slideNanos} is not positive or doesn't divide {@code windowNanos}
+     */
+    public static <E> Reduction<WindowedStatistics> slidingWindow(@NotNull final DocumentExtractor<E> extractor,
+                                                                 @NotNull final ToLongFunction<? super E> timeFunction,
+                                                                 @NotNull final ToDoubleFunction<? super E> valueFunction,
+                                                                 final long windowNanos,
+                                                                 final long slideNanos) {
+        if (slideNanos <= 0 || windowNanos % slideNanos != 0 || windowNanos / slideNanos > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("slideNanos: " + slideNanos + " must divide windowNanos: " + windowNanos);
+        return new ReductionUtil.WindowedReduction<>(extractor, timeFunction, valueFunction, windowNanos, (int) (windowNanos / slideNanos));
+    }
+
     /**
      * A Reduction class that counts the number of excerpts that have been processed.
      * <p>
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire.domestic.reduction;
+
+/**
+ * The count, sum, min, max, mean and variance of double values in a time window, which moves forward with the
+ * timestamps of the values rather than the clock, typically taken from a {@link net.openhft.chronicle.wire.converter.NanoTime} field.
+ * <p>
+ * The window is divided into buckets held in a ring. A value later than the window moves it forward,
+ * clearing the buckets it leaves behind, and a value earlier than the window is counted by {@link #late()} and ignored.
+ * With one bucket this is a tumbling window, otherwise a sliding window which moves a bucket at a time.
+ * A tumbling window starts again empty as each window starts, so the window just finished is kept as {@link #previous()}.
+ * <p>
+ * Adding a value doesn't allocate. This is thread-safe.
+ *
+ * @see Reductions#tumblingWindow
+ * @see Reductions#slidingWindow
+ */
+public final class WindowedStatistics {
+    private final long bucketNanos;
+    private final int buckets;
+    private final long[] count;
+    private final double[] sum;
+    private final double[] min;
+    private final double[] max;
+    private final double[] mean;
+    // sum of squared differences from the mean
+    private final double[] m2;
+    // the window as it was before it last moved, or null for that window
+    private final WindowedStatistics previous;
+    private long lastBucket = Long.MIN_VALUE;
+    private long late;
+
+    /**
+     * @param windowNanos the length of the window
+     * @param buckets     the number of steps the window moves by, which must divide the length
+     */
+    public WindowedStatistics(long windowNanos, int buckets) {
+        this(windowNanos, buckets, true);
+    }
+
+    private WindowedStatistics(long windowNanos, int buckets, boolean keepPrevious) {
+        if (buckets < 1 || windowNanos < buckets || windowNanos % buckets != 0)
+            throw new IllegalArgumentException("windowNanos: " + windowNanos + " must be a positive multiple of buckets: " + buckets);
+        this.bucketNanos = windowNanos / buckets;
+        this.buckets = buckets;
+        count = new long[buckets];
+        sum = new double[buckets];
+        min = new double[buckets];
+        max = new double[buckets];
+        mean = new double[buckets];
+        m2 = new double[buckets];
+        previous = keepPrevious ? new WindowedStatistics(windowNanos, buckets, false) : null;
+    }
+
+    /**
+     * Adds a value at a time.
+     *
+     * @param timeNanos of the value
+     * @param value     to add
+     */
+    public synchronized void accept(long timeNanos, double value) {
+        final long bucket = Math.floorDiv(timeNanos, bucketNanos);
+        if (lastBucket == Long.MIN_VALUE) {
+            lastBucket = bucket;
+        } else if (bucket > lastBucket) {
+            if (previous != null)
+                previous.copyOf(this);
+            final long clear = Math.min(bucket - lastBucket, buckets);
+            for (long b = bucket - clear + 1; b <= bucket; b++)
+                clear((int) Math.floorMod(b, (long) buckets));
+            lastBucket = bucket;
+        } else if (bucket <= lastBucket - buckets) {
+            late++;
+            return;
+        }
+        final int i = (int) Math.floorMod(bucket, (long) buckets);
+        final long n = ++count[i];
+        if (n == 1) {
+            min[i] = max[i] = value;
+        } else {
+            if (value < min[i]) min[i] = value;
+            if (value > max[i]) max[i] = value;
+        }
+        sum[i] += value;
+        final double delta = value - mean[i];
+        mean[i] += delta / n;
+        m2[i] += delta * (value - mean[i]);
+    }
+
+    // called holding the lock on from, which is always taken first
+    private synchronized void copyOf(WindowedStatistics from) {
+        System.arraycopy(from.count, 0, count, 0, buckets);
+        System.arraycopy(from.sum, 0, sum, 0, buckets);
+        System.arraycopy(from.min, 0, min, 0, buckets);
+        System.arraycopy(from.max, 0, max, 0, buckets);
+        System.arraycopy(from.mean, 0, mean, 0, buckets);
+        System.arraycopy(from.m2, 0, m2, 0, buckets);
+        lastBucket = from.lastBucket;
+    }
+
+    private void clear(int i) {
+        count[i] = 0;
+        sum[i] = 0;
+        mean[i] = 0;
+        m2[i] = 0;
+    }
+
+    /**
+     * @return the start time of the window, inclusive, or Long.MIN_VALUE if no value has been added
+     */
+    public synchronized long windowStart() {
+        return lastBucket == Long.MIN_VALUE ? Long.MIN_VALUE : (lastBucket - buckets + 1) * bucketNanos;
+    }
+
+    /**
+     * @return the end time of the window, exclusive, or Long.MIN_VALUE if no value has been added
+     */
+    public synchronized long windowEnd() {
+        return lastBucket == Long.MIN_VALUE ? Long.MIN_VALUE : (lastBucket + 1) * bucketNanos;
+    }
+
+    /**
+     * The window as it was just before it last moved forward, e.g. the last complete window of a tumbling window.
+     * This is the same object each time, updated in place as the window moves, and is empty until it first moves.
+     * Its {@link #late()} is always 0.
+     *
+     * @return the statistics of the window before it last moved, or null if this is such a copy
+     */
+    public WindowedStatistics previous() {
+        return previous;
+    }
+
+    /**
+     * @return the number of values ignored as they were before the window
+     */
+    public synchronized long late() {
+        return late;
+    }
+
+    /**
+     * @return the number of values in the window
+     */
+    public synchronized long count() {
+        long n = 0;
+        for (int i = 0; i < buckets; i++)
+            n += count[i];
+        return n;
+    }
+
+    /**
+     * @return the sum of the values in the window, or 0 if none
+     */
+    public synchronized double sum() {
+        double s = 0;
+        for (int i = 0; i < buckets; i++)
+            s += sum[i];
+        return s;
+    }
+
+    /**
+     * @return the lowest value in the window, or NaN if none
+     */
+    public synchronized double min() {
+        double m = Double.NaN;
+        for (int i = 0; i < buckets; i++)
+            if (count[i] > 0 && !(min[i] >= m))
+                m = min[i];
+        return m;
+    }
+
+    /**
+     * @return the highest value in the window, or NaN if none
+     */
+    public synchronized double max() {
+        double m = Double.NaN;
+        for (int i = 0; i < buckets; i++)
+            if (count[i] > 0 && !(max[i] <= m))
+                m = max[i];
+        return m;
+    }
+
+    /**
+     * @return the mean of the values in the window, or NaN if none
+     */
+    public synchronized double mean() {
+        long n = 0;
+        double mean = 0;
+        for (int i = 0; i < buckets; i++) {
+            if (count[i] == 0)
+                continue;
+            n += count[i];
+            mean += (this.mean[i] - mean) * count[i] / n;
+        }
+        return n == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * @return the population variance of the values in the window, or NaN if none
+     */
+    public synchronized double variance() {
+        long n = 0;
+        double mean = 0;
+        double m2 = 0;
+        for (int i = 0; i < buckets; i++) {
+            final long nb = count[i];
+            if (nb == 0)
+                continue;
+            // combine the buckets' moments
+            final long na = n;
+            n += nb;
+            final double delta = this.mean[i] - mean;
+            mean += delta * nb / n;
+            m2 += this.m2[i] + delta * delta * na * nb / n;
+        }
+        return n == 0 ? Double.NaN : m2 / n;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "WindowedStatistics{" +
+                "windowStart=" + windowStart() +
+                ", windowEnd=" + windowEnd() +
+                ", count=" + count() +
+                ", min=" + min() +
+                ", max=" + max() +
+                ", mean=" + mean() +
+                ", late=" + late +
+                '}';
+    }
+}
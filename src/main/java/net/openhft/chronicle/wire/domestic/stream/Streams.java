@@ -18,6 +18,8 @@
 
 package net.openhft.chronicle.wire.domestic.stream;
 
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.wire.IndexedMarshallableIn;
 import net.openhft.chronicle.wire.MarshallableIn;
 import net.openhft.chronicle.wire.domestic.extractor.DocumentExtractor;
 import net.openhft.chronicle.wire.domestic.extractor.ToDoubleDocumentExtractor;
@@ -28,6 +30,7 @@ import org.jetbrains.annotations.NotNull;
 import java.util.Iterator;
 import java.util.PrimitiveIterator;
 import java.util.Spliterator;
+import java.util.stream.BaseStream;
 import java.util.stream.DoubleStream;
 import java.util.stream.LongStream;
 import java.util.stream.Stream;
@@ -43,6 +46,11 @@ import static net.openhft.chronicle.core.util.ObjectUtils.requireNonNull;
  * <p>
  * Generally, these objects will create underlying objects and should not be used in JVMs running
  * deterministic low-latency code. Instead, they are suitable for convenient <em>off-line analysis of queue content</em>.
+ * <p>
+ * If the {@code documentProvider} is an {@link IndexedMarshallableIn}, the Spliterators split the range of indexes
+ * in half, each part read by its own reader, so a parallel stream reads on many threads. The provider itself
+ * is not read from. A reader is closed once its part has been read. If a stream stops early, e.g. with
+ * {@code findFirst()} or {@code limit(n)}, closing the stream closes the readers still open.
  */
 public final class Streams {
 
@@ -72,7 +80,8 @@ public final class Streams {
                                    @NotNull final DocumentExtractor<T> extractor) {
         requireNonNull(documentProvider);
         requireNonNull(extractor);
-        return StreamSupport.stream(spliterator(documentProvider, extractor), false);
+        final Spliterator<T> spliterator = spliterator(documentProvider, extractor);
+        return closeOnClose(StreamSupport.stream(spliterator, false), spliterator);
     }
 
     /**
@@ -96,7 +105,8 @@ public final class Streams {
                                     @NotNull final ToLongDocumentExtractor extractor) {
         requireNonNull(documentProvider);
         requireNonNull(extractor);
-        return StreamSupport.longStream(spliteratorOfLong(documentProvider, extractor), false);
+        final Spliterator.OfLong spliterator = spliteratorOfLong(documentProvider, extractor);
+        return closeOnClose(StreamSupport.longStream(spliterator, false), spliterator);
     }
 
     /**
@@ -120,7 +130,14 @@ public final class Streams {
                                         @NotNull final ToDoubleDocumentExtractor extractor) {
         requireNonNull(documentProvider);
         requireNonNull(extractor);
-        return StreamSupport.doubleStream(spliteratorOfDouble(documentProvider, extractor), false);
+        final Spliterator.OfDouble spliterator = spliteratorOfDouble(documentProvider, extractor);
+        return closeOnClose(StreamSupport.doubleStream(spliterator, false), spliterator);
+    }
+
+    private static <S extends BaseStream<?, S>> S closeOnClose(S stream, Spliterator<?> spliterator) {
+        return spliterator instanceof AutoCloseable
+                ? stream.onClose(() -> Closeable.closeQuietly(spliterator))
+                : stream;
     }
 
     /**
@@ -130,7 +147,8 @@ public final class Streams {
      * <p>
      * The Spliterator does not contain any {@code null} elements.
      * <p>
-     * The Spliterator implements {@code trySplit} to permit limited parallelism.
+     * The Spliterator implements {@code trySplit} to permit limited parallelism, or splits the range of indexes
+     * of an {@link IndexedMarshallableIn}.
      * <p>
      * Tailers are handled in a thread-safe way and if a Spliterator splits are anticipated, thread
      * safety checks must be turned off using the {@code ExcerptTailer#disableThreadSafetyCheck(boolean)} method or
@@ -147,6 +165,8 @@ public final class Streams {
                                                  @NotNull final DocumentExtractor<T> extractor) {
         requireNonNull(documentProvider);
         requireNonNull(extractor);
+        if (documentProvider instanceof IndexedMarshallableIn)
+            return new StreamsUtil.IndexedSpliterator<>((IndexedMarshallableIn) documentProvider, extractor);
         return new StreamsUtil.VanillaSpliterator<>(iterator(documentProvider, extractor));
     }
 
@@ -157,7 +177,8 @@ public final class Streams {
      * <p>
      * The Spliterator does not contain any {@link Long#MIN_VALUE} elements.
      * <p>
-     * The Spliterator implements {@code trySplit} to permit limited parallelism.
+     * The Spliterator implements {@code trySplit} to permit limited parallelism, or splits the range of indexes
+     * of an {@link IndexedMarshallableIn}.
      * <p>
      * Tailers are handled in a thread-safe way and if a Spliterator splits are anticipated, thread
      * safety checks must be turned off using the {@code ExcerptTailer#disableThreadSafetyCheck(boolean)} method or
@@ -173,6 +194,8 @@ public final class Streams {
                                                        @NotNull final ToLongDocumentExtractor extractor) {
         requireNonNull(documentProvider);
         requireNonNull(extractor);
+        if (documentProvider instanceof IndexedMarshallableIn)
+            return new StreamsUtil.IndexedSpliteratorOfLong((IndexedMarshallableIn) documentProvider, extractor);
         return new StreamsUtil.VanillaSpliteratorOfLong(iteratorOfLong(documentProvider, extractor));
     }
 
@@ -183,7 +206,8 @@ public final class Streams {
      * <p>
      * The Spliterator does not contain any {@link Double#NaN} elements.
      * <p>
-     * The Spliterator implements {@code trySplit} to permit limited parallelism.
+     * The Spliterator implements {@code trySplit} to permit limited parallelism, or splits the range of indexes
+     * of an {@link IndexedMarshallableIn}.
      * <p>
      * Tailers are handled in a thread-safe way and if a Spliterator splits are anticipated, thread
      * safety checks must be turned off using the {@code ExcerptTailer#disableThreadSafetyCheck(boolean)} method or
@@ -199,6 +223,8 @@ public final class Streams {
                                                            @NotNull final ToDoubleDocumentExtractor extractor) {
         requireNonNull(documentProvider);
         requireNonNull(extractor);
+        if (documentProvider instanceof IndexedMarshallableIn)
+            return new StreamsUtil.IndexedSpliteratorOfDouble((IndexedMarshallableIn) documentProvider, extractor);
         return new StreamsUtil.VanillaSpliteratorOfDouble(iteratorOfDouble(documentProvider, extractor));
     }
 
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire.internal;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.io.AbstractCloseable;
+import net.openhft.chronicle.core.io.IORuntimeException;
+import net.openhft.chronicle.threads.NamedThreadFactory;
+import net.openhft.chronicle.wire.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static net.openhft.chronicle.bytes.Bytes.allocateElasticOnHeap;
+
+/**
+ * Posts documents to a URL in batches from a background thread, so the writer doesn't wait for a response.
+ * <p>
+ * Documents are collected until there are at least {@link MarshallableOutBuilder#batchBytes(int)} of them, or
+ * every {@link MarshallableOutBuilder#batchMillis(long)}, and posted as one request with a document per line.
+ * With neither, each document is posted on its own.
+ * Requests are sent in order over a keep-alive connection, and the writer blocks once
+ * {@link MarshallableOutBuilder#maxInFlight(int)} batches are waiting to be sent.
+ * <p>
+ * A failed request is reported by the next call to write or to close, and its documents are dropped.
+ * If the sender stops, a writer waiting for a free batch reports why.
+ * This must be closed to send the last batch.
+ */
+public class BatchingHTTPMarshallableOut extends AbstractCloseable implements MarshallableOut {
+    private static final int TIMEOUT_MS = 10_000;
+    private static final long IDLE_POLL_MS = 100;
+    private static final int DEFAULT_MAX_IN_FLIGHT = 16;
+    private final URL url;
+    private final Wire wire;
+    private final int batchBytes;
+    private final long batchMillis;
+    // empty buffers, which bound the batches in flight
+    private final BlockingQueue<Bytes<byte[]>> free;
+    private final BlockingQueue<Bytes<byte[]>> toSend;
+    private final Thread sender;
+    // the batch being added to, owned by the thread which takes it
+    private Bytes<byte[]> pending;
+    private volatile IORuntimeException failure;
+    private final DocumentContextHolder dcHolder = new DocumentContextHolder() {
+        @Override
+        public void close() {
+            if (chainedElement())
+                return;
+            super.close();
+            if (wire.bytes().isEmpty())
+                return;
+            endWire();
+            commit(wire.bytes());
+            wire.clear();
+        }
+    };
+
+    public BatchingHTTPMarshallableOut(MarshallableOutBuilder builder, WireType wireType) {
+        // the sender takes the pending batch
+        singleThreadedCheckDisabled(true);
+        this.url = builder.url();
+        this.batchBytes = builder.batchBytes();
+        this.batchMillis = builder.batchMillis();
+
+        if (wireType == WireType.JSON)
+            this.wire = new JSONWire(allocateElasticOnHeap()).useTypes(true).trimFirstCurly(true).useTextDocuments();
+        else
+            this.wire = wireType.apply(allocateElasticOnHeap());
+
+        final int maxInFlight = builder.maxInFlight() > 0 ? builder.maxInFlight() : DEFAULT_MAX_IN_FLIGHT;
+        free = new ArrayBlockingQueue<>(maxInFlight + 1);
+        toSend = new ArrayBlockingQueue<>(maxInFlight + 1);
+        for (int i = 0; i <= maxInFlight; i++)
+            free.add(allocateElasticOnHeap());
+        sender = new NamedThreadFactory("http-sender~" + url.getHost(), true).newThread(this::run);
+        sender.start();
+    }
+
+    void endWire() {
+        if (!wire.isBinary()) {
+            final Bytes<?> bytes = wire.bytes();
+            if (bytes.peekUnsignedByte(bytes.writePosition() - 1) >= ' ')
+                bytes.append('\n');
+        }
+    }
+
+    private void commit(Bytes<?> document) {
+        Bytes<byte[]> batch = takePending();
+        try {
+            while (batch == null) {
+                batch = free.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (batch == null && !sender.isAlive()) {
+                    throwFailure();
+                    throw new IORuntimeException("The sender for " + url + " has stopped");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IORuntimeException(e);
+        }
+        batch.write(document);
+        if (batchBytes > 0 ? batch.readRemaining() >= batchBytes : batchMillis <= 0)
+            toSend.add(batch);
+        else
+            putPending(batch);
+    }
+
+    private synchronized Bytes<byte[]> takePending() {
+        final Bytes<byte[]> batch = pending;
+        pending = null;
+        return batch;
+    }
+
+    private synchronized void putPending(Bytes<byte[]> batch) {
+        pending = batch;
+    }
+
+    private void run() {
+        try {
+            final long pollMS = batchMillis > 0 ? Math.min(batchMillis, IDLE_POLL_MS) : IDLE_POLL_MS;
+            long nextBatchMS = System.currentTimeMillis() + batchMillis;
+            while (true) {
+                Bytes<byte[]> batch = toSend.poll(pollMS, TimeUnit.MILLISECONDS);
+                if (batch != null) {
+                    send(batch);
+                    continue;
+                }
+                final boolean closing = isClosing();
+                if (!closing && (batchMillis <= 0 || System.currentTimeMillis() < nextBatchMS))
+                    continue;
+                nextBatchMS = System.currentTimeMillis() + batchMillis;
+                // batches queued before the pending one was taken are sent first
+                batch = takePending();
+                for (Bytes<byte[]> queued; (queued = toSend.poll()) != null; )
+                    send(queued);
+                if (batch != null)
+                    send(batch);
+                else if (closing)
+                    break;
+            }
+        } catch (InterruptedException e) {
+            Jvm.warn().on(getClass(), "Interrupted, unsent documents were dropped for " + url);
+        } catch (Throwable t) {
+            // the writer sees the sender has stopped and reports this
+            failed(t);
+        }
+    }
+
+    private void send(Bytes<byte[]> batch) {
+        try {
+            if (!batch.isEmpty())
+                post(batch);
+        } catch (Throwable t) {
+            failed(t);
+        } finally {
+            batch.clear();
+            free.add(batch);
+        }
+    }
+
+    private void failed(Throwable t) {
+        if (failure == null)
+            failure = t instanceof IORuntimeException ? (IORuntimeException) t : new IORuntimeException(t);
+    }
+
+    private void post(Bytes<byte[]> batch) throws IOException {
+        final HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        conn.setDoOutput(true);
+        conn.setConnectTimeout(TIMEOUT_MS);
+        conn.setReadTimeout(TIMEOUT_MS);
+        conn.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+        conn.setRequestMethod("POST");
+        final int length = (int) batch.readRemaining();
+        conn.setFixedLengthStreamingMode(length);
+        try (final OutputStream out = conn.getOutputStream()) {
+            out.write(batch.underlyingObject(), (int) batch.readPosition(), length);
+        }
+
+        final int responseCode = conn.getResponseCode();
+        // read the whole response so the connection can be reused
+        drain(responseCode < 400 ? conn.getInputStream() : conn.getErrorStream());
+        if (responseCode < 200 || responseCode >= 300)
+            throw new IORuntimeException("ResponseCode: " + responseCode);
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        if (in == null)
+            return;
+        try (InputStream is = in) {
+            final byte[] buffer = new byte[512];
+            while (is.read(buffer) >= 0) {
+                // discard
+            }
+        }
+    }
+
+    private void throwFailure() {
+        final IORuntimeException e = failure;
+        if (e != null) {
+            failure = null;
+            throw e;
+        }
+    }
+
+    @Override
+    protected void performClose() {
+        try {
+            sender.join(TIMEOUT_MS * 2L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (sender.isAlive()) {
+            sender.interrupt();
+            Jvm.warn().on(getClass(), "Timed out sending the last documents to " + url);
+        }
+        throwFailure();
+    }
+
+    @Override
+    public DocumentContext writingDocument(boolean metaData) throws UnrecoverableTimeoutException {
+        throwExceptionIfClosed();
+        throwFailure();
+        dcHolder.documentContext(wire.writingDocument(metaData));
+        return dcHolder;
+    }
+
+    @Override
+    public DocumentContext acquireWritingDocument(boolean metaData) throws UnrecoverableTimeoutException {
+        throwExceptionIfClosed();
+        throwFailure();
+        dcHolder.documentContext(wire.acquireWritingDocument(metaData));
+        return dcHolder;
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire.internal;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.io.AbstractCloseable;
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.core.io.IORuntimeException;
+import net.openhft.chronicle.core.io.IOTools;
+import net.openhft.chronicle.threads.NamedThreadFactory;
+import net.openhft.chronicle.threads.Threads;
+import net.openhft.chronicle.wire.*;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends documents to a file through a {@link FileChannel} which is kept open until this is closed.
+ * <p>
+ * Completed documents are collected and written together once there are at least <code>batchBytes</code>
+ * of them, and every <code>batchMillis</code>. With neither, each document is written as it completes. With <code>mappedBytes</code> the file is extended and mapped that many bytes at a time,
+ * and trimmed to what was written on close. If it wasn't closed, the zeros after the last document are removed when it is
+ * opened again.
+ * With <code>force=true</code> each write is forced to the storage device.
+ * <p>
+ * e.g. <code>file:///var/log/audit.yaml?append=true&amp;batchBytes=65536&amp;batchMillis=10</code>
+ */
+public class FileChannelMarshallableOut extends AbstractCloseable implements MarshallableOut {
+    private final URL url;
+    private final FileMarshallableOut.FMOOptions options;
+    private final FileChannel channel;
+    private final Wire wire;
+    // completed documents not yet written, guarded by this
+    private final Bytes<byte[]> pending = Bytes.allocateElasticOnHeap();
+    private final ScheduledExecutorService flusher;
+    private MappedByteBuffer mapped;
+    private long position;
+    private final DocumentContextHolder dcHolder = new DocumentContextHolder() {
+        @Override
+        public void close() {
+            if (chainedElement())
+                return;
+            super.close();
+            if (wire.bytes().isEmpty())
+                return;
+            commit(wire.bytes());
+            wire.clear();
+        }
+    };
+
+    public FileChannelMarshallableOut(MarshallableOutBuilder builder, WireType wireType, FileMarshallableOut.FMOOptions options) {
+        // the flusher thread writes as well
+        singleThreadedCheckDisabled(true);
+        this.url = builder.url();
+        this.options = options;
+        try {
+            if (options.mappedBytes > 0)
+                channel = FileChannel.open(Paths.get(url.getPath()), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            else
+                channel = FileChannel.open(Paths.get(url.getPath()), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            // a mapped file which wasn't closed ends with zeros
+            position = dataLength(channel, wireType.isText());
+            if (position < channel.size())
+                channel.truncate(position);
+        } catch (IOException ioe) {
+            throw new IORuntimeException(ioe);
+        }
+        this.wire = wireType.apply(Bytes.allocateElasticOnHeap());
+        if (options.batchMillis > 0) {
+            flusher = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("file-flusher", true));
+            flusher.scheduleAtFixedRate(this::flushQuietly, options.batchMillis, options.batchMillis, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    /**
+     * @param text whether the documents are text, which has no zero bytes, otherwise each document has a length header
+     * @return the length of the documents in the file, excluding any zeros after them
+     */
+    static long dataLength(FileChannel channel, boolean text) throws IOException {
+        final long size = channel.size();
+        if (text) {
+            final ByteBuffer bb = ByteBuffer.allocate(64 << 10);
+            for (long end = size; end > 0; ) {
+                final long start = Math.max(0, end - bb.capacity());
+                ((Buffer) bb).clear();
+                bb.limit((int) (end - start));
+                readFully(channel, bb, start);
+                for (int i = (int) (end - start) - 1; i >= 0; i--)
+                    if (bb.get(i) != 0)
+                        return start + i + 1;
+                end = start;
+            }
+            return 0;
+        }
+        final ByteBuffer header = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        long position = 0;
+        while (position + 4 <= size) {
+            ((Buffer) header).clear();
+            readFully(channel, header, position);
+            final int length = Wires.lengthOf(header.getInt(0));
+            if (length == 0 || position + 4 + length > size)
+                break;
+            position += 4 + length;
+        }
+        return position;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer bb, long position) throws IOException {
+        while (bb.hasRemaining())
+            if (channel.read(bb, position + bb.position()) < 0)
+                throw new IOException("Unexpected end of file at " + (position + bb.position()));
+    }
+
+    private synchronized void commit(Bytes<?> document) {
+        throwExceptionIfClosed();
+        pending.write(document);
+        if (pending.readRemaining() >= options.batchBytes && (options.batchBytes > 0 || flusher == null))
+            flush0();
+    }
+
+    /**
+     * Writes any documents collected so far.
+     */
+    public synchronized void flush() {
+        throwExceptionIfClosed();
+        flush0();
+    }
+
+    private synchronized void flushQuietly() {
+        try {
+            if (!isClosing())
+                flush0();
+        } catch (Exception e) {
+            Jvm.warn().on(getClass(), "Unable to write to " + url, e);
+        }
+    }
+
+    private void flush0() {
+        if (pending.isEmpty())
+            return;
+        try {
+            if (options.mappedBytes > 0)
+                writeMapped();
+            else
+                writeChannel();
+        } catch (IOException ioe) {
+            throw new IORuntimeException(ioe);
+        }
+        pending.clear();
+    }
+
+    private void writeChannel() throws IOException {
+        final ByteBuffer bb = ByteBuffer.wrap(pending.underlyingObject(), (int) pending.readPosition(), (int) pending.readRemaining());
+        while (bb.hasRemaining())
+            channel.write(bb);
+        if (options.force)
+            channel.force(false);
+    }
+
+    private void writeMapped() throws IOException {
+        final byte[] bytes = pending.underlyingObject();
+        int offset = (int) pending.readPosition();
+        int length = (int) pending.readRemaining();
+        while (length > 0) {
+            if (mapped == null || !mapped.hasRemaining()) {
+                unmap();
+                // extends the file as needed
+                mapped = channel.map(FileChannel.MapMode.READ_WRITE, position, options.mappedBytes);
+            }
+            final int len = Math.min(length, mapped.remaining());
+            mapped.put(bytes, offset, len);
+            offset += len;
+            length -= len;
+            position += len;
+        }
+        if (options.force)
+            mapped.force();
+    }
+
+    private void unmap() {
+        if (mapped == null)
+            return;
+        if (options.force)
+            mapped.force();
+        // release the mapping now rather than when it is garbage collected
+        IOTools.clean(mapped);
+        mapped = null;
+    }
+
+    @Override
+    protected void performClose() {
+        if (flusher != null)
+            Threads.shutdown(flusher);
+        try {
+            synchronized (this) {
+                flush0();
+                if (mapped != null) {
+                    unmap();
+                    // remove the unwritten end of the last mapping
+                    channel.truncate(position);
+                }
+            }
+        } catch (IOException ioe) {
+            throw new IORuntimeException(ioe);
+        } finally {
+            Closeable.closeQuietly(channel);
+        }
+    }
+
+    @Override
+    public DocumentContext writingDocument(boolean metaData) throws UnrecoverableTimeoutException {
+        throwExceptionIfClosed();
+        dcHolder.documentContext(wire.writingDocument(metaData));
+        return dcHolder;
+    }
+
+    @Override
+    public DocumentContext acquireWritingDocument(boolean metaData) throws UnrecoverableTimeoutException {
+        throwExceptionIfClosed();
+        dcHolder.documentContext(wire.acquireWritingDocument(metaData));
+        return dcHolder;
+    }
+
+    @Override
+    public void rollbackIfNotComplete() {
+        DocumentContext dc = dcHolder.documentContext();
+        if (dc != null)
+            dc.rollbackIfNotComplete();
+    }
+}
@@ -64,12 +64,35 @@ public class FileMarshallableOut implements MarshallableOut {
     public FileMarshallableOut(MarshallableOutBuilder builder, WireType wireType) throws InvalidMarshallableException {
         this.url = builder.url();
         assert url.getProtocol().equals("file");
+        readOptions(url, options);
+        this.wire = wireType.apply(Bytes.allocateElasticOnHeap());
+    }
+
+    /**
+     * Keeps the file open if the query asks to append and keepOpen, batchBytes, batchMillis or mappedBytes is set,
+     * otherwise the file is opened for each document.
+     *
+     * @param builder  with the file url
+     * @param wireType of the file
+     * @return a MarshallableOut to write to the file, which should be closed if it is Closeable
+     */
+    public static MarshallableOut create(MarshallableOutBuilder builder, WireType wireType) throws InvalidMarshallableException {
+        final FMOOptions options = new FMOOptions();
+        readOptions(builder.url(), options);
+        if (options.keepOpen || options.batchBytes > 0 || options.batchMillis > 0 || options.mappedBytes > 0) {
+            if (!options.append)
+                throw new IllegalArgumentException("The file is only kept open with append=true");
+            return new FileChannelMarshallableOut(builder, wireType, options);
+        }
+        return new FileMarshallableOut(builder, wireType);
+    }
+
+    private static void readOptions(URL url, FMOOptions options) {
         final String query = url.getQuery();
         if (query != null) {
             QueryWire queryWire = new QueryWire(Bytes.from(query));
             options.readMarshallable(queryWire);
         }
-        this.wire = wireType.apply(Bytes.allocateElasticOnHeap());
     }
 
     @Override
@@ -93,5 +116,11 @@ public class FileMarshallableOut implements MarshallableOut {
 
     static class FMOOptions extends SelfDescribingMarshallable {
         boolean append;
+        // options for FileChannelMarshallableOut
+        boolean keepOpen;
+        int batchBytes;
+        long batchMillis;
+        int mappedBytes;
+        boolean force;
     }
 }
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire.internal;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.compiler.CompilerUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A directory of the classes compiled from generated source, named by a hash of the source, so a restarted process can
+ * define them again without compiling them.
+ * <p>
+ * Each compiler writes its classes to its own staging directory in one for this process, and
+ * {@link #store(File, String, String)} moves those of one class into an entry which is renamed into place, so compilers
+ * and processes can share the directory.
+ * The hash includes the Java version, the compiler options and the versions of the Chronicle libraries the classes use,
+ * so a JVM doesn't load classes compiled for another.
+ * <p>
+ * As the classes are defined in any JVM using the directory, anyone who can write to it could run code in those JVMs.
+ * The directory must be owned by the user running the JVM and not writable by the group or others, and is created that
+ * way if it doesn't exist. The entries and their class files are checked in the same way before they are loaded. Only
+ * the owner is checked on a file system without POSIX permissions, e.g. on Windows, where the directory's ACL should
+ * only allow the user to write to it.
+ * <p>
+ * The staging directories are removed on exit, and those left by processes which have died are removed on start.
+ */
+public final class GeneratedClassCache {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final String STAGING = "staging-";
+    private static final String TMP = ".tmp-";
+    private static final AtomicLong COUNTER = new AtomicLong();
+    private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rwx------");
+    private static final Set<PosixFilePermission> OWNER_READ_WRITE = PosixFilePermissions.fromString("rw-------");
+    private final File dir;
+    private final File staging;
+    private final String salt;
+    private final boolean posix;
+    private final UserPrincipal user;
+
+    /**
+     * @param dir             to keep the classes in, which is created if it doesn't exist
+     * @param compilerOptions the options the classes are compiled with, or null
+     * @throws IllegalArgumentException if the directory isn't private to this user or can't be created
+     */
+    public GeneratedClassCache(@NotNull File dir, @Nullable String compilerOptions) {
+        this.dir = dir;
+        final Path path = dir.toPath();
+        this.posix = path.getFileSystem().supportedFileAttributeViews().contains("posix");
+        try {
+            this.user = path.getFileSystem().getUserPrincipalLookupService()
+                    .lookupPrincipalByName(System.getProperty("user.name"));
+            if (!dir.isDirectory())
+                createPrivateDirectory(path);
+            if (!isPrivate(path))
+                throw new IllegalArgumentException(dir + " must be owned by " + user.getName()
+                        + " and not writable by the group or others, as classes are loaded from it");
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to use " + dir + " for classes", e);
+        }
+        this.staging = new File(dir, STAGING + Jvm.getProcessId());
+        // generated code calls these libraries, which can change without the source changing
+        this.salt = System.getProperty("java.specification.version") + '\n'
+                + compilerOptions + '\n'
+                + versionOf(GeneratedClassCache.class) + '\n'
+                + versionOf(Bytes.class) + '\n'
+                + versionOf(Jvm.class) + '\n';
+        removeDeadStaging(dir);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> deleteQuietly(staging), "remove-" + staging.getName()));
+    }
+
+    /**
+     * @return the implementation version of the library with this class, and the size and time of its jar or,
+     * in a directory, the class file, as a SNAPSHOT or a build can change without changing the version
+     */
+    static String versionOf(Class<?> aClass) {
+        final Package aPackage = aClass.getPackage();
+        final String version = aPackage == null ? null : aPackage.getImplementationVersion();
+        if (version != null && !version.endsWith("SNAPSHOT"))
+            return version;
+        final CodeSource codeSource = aClass.getProtectionDomain().getCodeSource();
+        if (codeSource == null || codeSource.getLocation() == null)
+            return String.valueOf(version);
+        try {
+            File file = new File(codeSource.getLocation().toURI());
+            if (file.isDirectory())
+                file = new File(file, aClass.getName().replace('.', File.separatorChar) + ".class");
+            return version + " " + file.length() + " " + file.lastModified();
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return version + " " + codeSource.getLocation();
+        }
+    }
+
+    private void createPrivateDirectory(Path path) throws IOException {
+        if (posix)
+            Files.createDirectories(path, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+        else
+            Files.createDirectories(path);
+    }
+
+    /**
+     * @return whether the file is owned by this user and, where there are POSIX permissions, not writable by others
+     */
+    boolean isPrivate(Path path) throws IOException {
+        if (!user.equals(Files.getOwner(path)))
+            return false;
+        if (!posix)
+            return true;
+        final Set<PosixFilePermission> permissions =
+                Files.getFileAttributeView(path, PosixFileAttributeView.class).readAttributes().permissions();
+        return !permissions.contains(PosixFilePermission.GROUP_WRITE)
+                && !permissions.contains(PosixFilePermission.OTHERS_WRITE);
+    }
+
+    /**
+     * Removes the staging and temporary directories of processes which died before removing them.
+     */
+    private static void removeDeadStaging(File dir) {
+        final File[] files = dir.listFiles((d, name) -> name.startsWith(STAGING) || name.contains(TMP));
+        if (files == null)
+            return;
+        for (File file : files) {
+            final String name = file.getName();
+            final String pid = name.startsWith(STAGING)
+                    ? name.substring(STAGING.length())
+                    : name.substring(name.lastIndexOf(TMP) + TMP.length());
+            try {
+                // a tmp directory has a counter after the pid
+                final int dash = pid.indexOf('-');
+                if (!Jvm.isProcessAlive(Integer.parseInt(dash < 0 ? pid : pid.substring(0, dash))))
+                    deleteQuietly(file);
+            } catch (NumberFormatException ignored) {
+                // not one of ours
+            }
+        }
+    }
+
+    /**
+     * @return a new directory for a compiler to write its classes to
+     */
+    public File newStagingDir() {
+        return new File(staging, Long.toString(COUNTER.incrementAndGet()));
+    }
+
+    /**
+     * @return the key for a class generated from this source
+     */
+    public String key(@NotNull String className, @NotNull String code) {
+        try {
+            final MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update(salt.getBytes(StandardCharsets.UTF_8));
+            md.update(className.getBytes(StandardCharsets.UTF_8));
+            md.update((byte) '\n');
+            md.update(code.getBytes(StandardCharsets.UTF_8));
+            final byte[] digest = md.digest();
+            final StringBuilder sb = new StringBuilder(32);
+            // 128 bits is plenty to identify the source
+            for (int i = 0; i < 16; i++)
+                sb.append(HEX[(digest[i] >> 4) & 0xF]).append(HEX[digest[i] & 0xF]);
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private File entry(String className, String key) {
+        return new File(dir, className + '-' + key);
+    }
+
+    /**
+     * Defines the class, and any nested classes, from the cache.
+     *
+     * @return the class, or null if it isn't in the cache or can't be read
+     * @throws AssertionError with a LinkageError cause if the class loader has the class already, as for the compiler
+     */
+    @Nullable
+    public Class<?> load(ClassLoader classLoader, @NotNull String className, @NotNull String key) {
+        final File entry = entry(className, key);
+        final File[] files = entry.listFiles((d, name) -> name.endsWith(".class"));
+        if (files == null || files.length == 0)
+            return null;
+        final byte[][] bytes = new byte[files.length][];
+        try {
+            if (!isPrivate(entry.toPath())) {
+                Jvm.warn().on(GeneratedClassCache.class, entry + " is writable by others, compiling " + className);
+                return null;
+            }
+            for (int i = 0; i < files.length; i++) {
+                final Path path = files[i].toPath();
+                if (!isPrivate(path)) {
+                    Jvm.warn().on(GeneratedClassCache.class, path + " is writable by others, compiling " + className);
+                    return null;
+                }
+                bytes[i] = Files.readAllBytes(path);
+            }
+        } catch (IOException e) {
+            Jvm.warn().on(GeneratedClassCache.class, "Unable to read " + entry + ", compiling " + className, e);
+            return null;
+        }
+        // the main class first, in case a nested class extends it
+        final String mainFile = className + ".class";
+        for (int i = 1; i < files.length; i++) {
+            if (files[i].getName().equals(mainFile)) {
+                final File f = files[0];
+                files[0] = files[i];
+                files[i] = f;
+                final byte[] b = bytes[0];
+                bytes[0] = bytes[i];
+                bytes[i] = b;
+            }
+        }
+        Class<?> result = null;
+        try {
+            for (int i = 0; i < files.length; i++) {
+                final String fileName = files[i].getName();
+                final String name = fileName.substring(0, fileName.length() - ".class".length());
+                final Class<?> aClass = CompilerUtils.defineClass(classLoader, name, bytes[i]);
+                if (name.equals(className))
+                    result = aClass;
+            }
+        } catch (AssertionError e) {
+            if (!(e.getCause() instanceof ClassFormatError))
+                throw e;
+            Jvm.warn().on(GeneratedClassCache.class, "Removing corrupt " + entry + ", compiling " + className, e);
+            deleteQuietly(entry);
+            return null;
+        }
+        return result;
+    }
+
+    /**
+     * Moves the classes just compiled for className from a staging directory into the cache.
+     *
+     * @param stagingDir the compiler wrote the classes to, from {@link #newStagingDir()}
+     */
+    public void store(@NotNull File stagingDir, @NotNull String className, @NotNull String key) {
+        final int lastDot = className.lastIndexOf('.');
+        final String packageName = lastDot < 0 ? "" : className.substring(0, lastDot + 1);
+        final String simpleName = className.substring(lastDot + 1);
+        final File packageDir = new File(stagingDir, packageName.replace('.', File.separatorChar));
+        final File[] files = packageDir.listFiles((d, name) -> name.endsWith(".class")
+                && (name.equals(simpleName + ".class") || name.startsWith(simpleName + '$')));
+        if (files == null || files.length == 0)
+            return;
+
+        final File entry = entry(className, key);
+        // unique as class loaders can compile the same class at once
+        final File tmp = new File(dir, entry.getName() + TMP + Jvm.getProcessId() + '-' + COUNTER.incrementAndGet());
+        try {
+            createPrivateDirectory(tmp.toPath());
+            for (File file : files) {
+                final Path target = new File(tmp, packageName + file.getName()).toPath();
+                Files.move(file.toPath(), target, StandardCopyOption.REPLACE_EXISTING);
+                // the compiler writes them as the umask allows
+                if (posix)
+                    Files.setPosixFilePermissions(target, OWNER_READ_WRITE);
+            }
+            if (!entry.exists())
+                Files.move(tmp.toPath(), entry.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // another process may have added it first
+            if (!entry.isDirectory())
+                Jvm.warn().on(GeneratedClassCache.class, "Unable to cache " + className + " in " + dir, e);
+        } finally {
+            deleteQuietly(tmp);
+        }
+    }
+
+    private static void deleteQuietly(File file) {
+        final File[] files = file.listFiles();
+        if (files != null)
+            for (File f : files)
+                deleteQuietly(f);
+        file.delete();
+    }
+}
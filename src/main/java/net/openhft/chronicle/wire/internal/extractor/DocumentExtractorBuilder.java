@@ -20,6 +20,8 @@ package net.openhft.chronicle.wire.internal.extractor;
 
 import net.openhft.chronicle.core.util.ThreadConfinementAsserter;
 import net.openhft.chronicle.wire.domestic.extractor.DocumentExtractor;
+import net.openhft.chronicle.wire.domestic.extractor.ToDoubleDocumentExtractor;
+import net.openhft.chronicle.wire.domestic.extractor.ToLongDocumentExtractor;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.function.BiConsumer;
@@ -62,6 +64,13 @@ public final class DocumentExtractorBuilder<E> implements DocumentExtractor.Buil
         return this;
     }
 
+    @NotNull
+    @Override
+    public DocumentExtractor.FieldBuilder withField(@NotNull final String fieldName) {
+        requireNonNull(fieldName);
+        return new FieldBuilder(fieldName);
+    }
+
     @NotNull
     @Override
     public DocumentExtractor<E> build() {
@@ -127,6 +136,39 @@ public final class DocumentExtractorBuilder<E> implements DocumentExtractor.Buil
         }
     }
 
+    private final class FieldBuilder implements DocumentExtractor.FieldBuilder {
+
+        private final String fieldName;
+
+        FieldBuilder(@NotNull final String fieldName) {
+            this.fieldName = fieldName;
+        }
+
+        @NotNull
+        @Override
+        public ToLongDocumentExtractor buildLong() {
+            return DocumentExtractorUtil.ofLongField(elementType, eventName(), fieldName, threadConfinedReuse);
+        }
+
+        @NotNull
+        @Override
+        public ToDoubleDocumentExtractor buildDouble() {
+            return DocumentExtractorUtil.ofDoubleField(elementType, eventName(), fieldName, threadConfinedReuse);
+        }
+
+        @NotNull
+        @Override
+        public <F> DocumentExtractor<F> build(@NotNull final Class<F> fieldType) {
+            return DocumentExtractorUtil.ofField(elementType, eventName(), fieldName, requireNonNull(fieldType), threadConfinedReuse);
+        }
+
+        private String eventName() {
+            return methodRef == null
+                    ? null
+                    : DocumentExtractorUtil.methodOf(methodRef.interfaceType(), methodRef.methodReference()).name();
+        }
+    }
+
     private static final class MethodRef<I, E> {
 
         final Class<I> interfaceType;
@@ -20,7 +20,10 @@ package net.openhft.chronicle.wire.internal.extractor;
 
 import net.openhft.chronicle.bytes.Bytes;
 import net.openhft.chronicle.core.util.StringUtils;
+import net.openhft.chronicle.wire.Wire;
 import net.openhft.chronicle.wire.domestic.extractor.DocumentExtractor;
+import net.openhft.chronicle.wire.domestic.extractor.ToDoubleDocumentExtractor;
+import net.openhft.chronicle.wire.domestic.extractor.ToLongDocumentExtractor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -48,24 +51,11 @@ public final class DocumentExtractorUtil {
         return (wire, index) -> {
             wire.startEvent();
             try {
-                final Bytes<?> bytes = wire.bytes();
-                while (bytes.readRemaining() > 0) {
-                    if (wire.isEndEvent()) {
-                        break;
-                    }
-                    final long start = bytes.readPosition();
-
-                    wire.readEventName(eventName);
-                    if (StringUtils.isEqual(expectedEventName, eventName)) {
-                        final E using = supplier.get();
-                        return wire
-                                .getValueIn()
-                                .object(using, elementType);
-                    }
-                    wire.consumePadding();
-                    if (bytes.readPosition() == start) {
-                        break;
-                    }
+                if (seekEvent(wire, expectedEventName, eventName)) {
+                    final E using = supplier.get();
+                    return wire
+                            .getValueIn()
+                            .object(using, elementType);
                 }
             } finally {
                 wire.endEvent();
@@ -76,6 +66,73 @@ public final class DocumentExtractorUtil {
 
     }
 
+    /**
+     * Reads event names until the expected one is found.
+     *
+     * @return true if the expected event was found and its value is next, false otherwise
+     */
+    static boolean seekEvent(@NotNull final Wire wire,
+                             @NotNull final String expectedEventName,
+                             @NotNull final StringBuilder eventName) {
+        final Bytes<?> bytes = wire.bytes();
+        while (bytes.readRemaining() > 0) {
+            if (wire.isEndEvent()) {
+                break;
+            }
+            final long start = bytes.readPosition();
+
+            wire.readEventName(eventName);
+            if (StringUtils.isEqual(expectedEventName, eventName)) {
+                return true;
+            }
+            wire.consumePadding();
+            if (bytes.readPosition() == start) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    public static ToLongDocumentExtractor ofLongField(@NotNull final Class<?> elementType,
+                                                      @Nullable final String eventName,
+                                                      @NotNull final String fieldName,
+                                                      final boolean threadConfined) {
+        final Supplier<FieldReader> readers = fieldReaders(elementType, eventName, fieldName, long.class, threadConfined);
+        return (wire, index) -> readers.get().readLong(wire);
+    }
+
+    public static ToDoubleDocumentExtractor ofDoubleField(@NotNull final Class<?> elementType,
+                                                          @Nullable final String eventName,
+                                                          @NotNull final String fieldName,
+                                                          final boolean threadConfined) {
+        final Supplier<FieldReader> readers = fieldReaders(elementType, eventName, fieldName, double.class, threadConfined);
+        return (wire, index) -> readers.get().readDouble(wire);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <F> DocumentExtractor<F> ofField(@NotNull final Class<?> elementType,
+                                                   @Nullable final String eventName,
+                                                   @NotNull final String fieldName,
+                                                   @NotNull final Class<F> fieldType,
+                                                   final boolean threadConfined) {
+        final Supplier<FieldReader> readers = fieldReaders(elementType, eventName, fieldName, fieldType, threadConfined);
+        return (wire, index) -> (F) readers.get().readObject(wire);
+    }
+
+    private static Supplier<FieldReader> fieldReaders(@NotNull final Class<?> elementType,
+                                                      @Nullable final String eventName,
+                                                      @NotNull final String fieldName,
+                                                      @NotNull final Class<?> fieldType,
+                                                      final boolean threadConfined) {
+        requireNonNull(elementType);
+        requireNonNull(fieldName);
+        requireNonNull(fieldType);
+        final Supplier<FieldReader> supplier = () -> new FieldReader(elementType, eventName, fieldName, fieldType);
+        return threadConfined
+                ? new DocumentExtractorBuilder.ThreadConfinedSupplier<>(supplier)
+                : new DocumentExtractorBuilder.ThreadLocalSupplier<>(supplier);
+    }
+
     public static <I, M>
     MethodNameAndMessageType<M> methodOf(@NotNull final Class<I> type,
                                          @NotNull final BiConsumer<? super I, ? super M> methodReference) {
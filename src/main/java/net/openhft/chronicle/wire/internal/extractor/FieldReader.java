@@ -0,0 +1,216 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire.internal.extractor;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.util.StringUtils;
+import net.openhft.chronicle.wire.BinaryWire;
+import net.openhft.chronicle.wire.ReadMarshallable;
+import net.openhft.chronicle.wire.ValueIn;
+import net.openhft.chronicle.wire.Wire;
+import net.openhft.chronicle.wire.WireIn;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+import static net.openhft.chronicle.wire.BinaryWireCode.*;
+
+/**
+ * Reads one field of a marshallable value, skipping the others without deserialising the object.
+ * If an event name is given, the value of that event is read, as written by a method writer.
+ * <p>
+ * When the fields before it in a binary wire have a fixed width, as is typical of binary DTOs, the offset of the field
+ * is remembered with the codes of the fields before it. If the next value has the same codes at the same offsets,
+ * the field is read at that offset without scanning.
+ * <p>
+ * This holds the value read so is not thread-safe.
+ */
+final class FieldReader implements ReadMarshallable {
+    private final Class<?> elementType;
+    @Nullable
+    private final String eventName;
+    private final String fieldName;
+    private final StringBuilder name = new StringBuilder();
+    private final Class<?> fieldType;
+    // the offset of the field when the fields before it have a fixed width, and the offsets and codes of those
+    private long offset = -1;
+    private int fieldCount;
+    private long[] fieldOffsets = new long[8];
+    private int[] fieldCodes = new int[16];
+    private boolean found;
+    private long longValue;
+    private double doubleValue;
+    private Object objectValue;
+
+    FieldReader(@NotNull Class<?> elementType, @Nullable String eventName, @NotNull String fieldName, @NotNull Class<?> fieldType) {
+        this.elementType = elementType;
+        this.eventName = eventName;
+        this.fieldName = fieldName;
+        this.fieldType = fieldType;
+    }
+
+    long readLong(@NotNull Wire wire) {
+        return read(wire) ? longValue : Long.MIN_VALUE;
+    }
+
+    double readDouble(@NotNull Wire wire) {
+        return read(wire) ? doubleValue : Double.NaN;
+    }
+
+    Object readObject(@NotNull Wire wire) {
+        if (!read(wire))
+            return null;
+        final Object o = objectValue;
+        objectValue = null;
+        return o;
+    }
+
+    private boolean read(@NotNull Wire wire) {
+        found = false;
+        if (eventName == null)
+            return readValue(wire);
+        wire.startEvent();
+        try {
+            return DocumentExtractorUtil.seekEvent(wire, eventName, name) && readValue(wire);
+        } finally {
+            wire.endEvent();
+        }
+    }
+
+    private boolean readValue(@NotNull Wire wire) {
+        final ValueIn in = wire.getValueIn();
+        final Class<?> type = in.typePrefix();
+        if (type != null && !elementType.isAssignableFrom(type)) {
+            in.skipValue();
+            return false;
+        }
+        in.marshallable(this);
+        return found;
+    }
+
+    @Override
+    public void readMarshallable(@NotNull WireIn wire) {
+        final Bytes<?> bytes = wire.bytes();
+        final long start = bytes.readPosition();
+        if (offset >= 0 && sameLayout(bytes, start)) {
+            bytes.readPosition(start + offset);
+            wire.readEventName(name);
+            if (StringUtils.isEqual(fieldName, name)) {
+                readFieldValue(wire.getValueIn());
+                return;
+            }
+            bytes.readPosition(start);
+        }
+        // only a binary wire's fields can have a fixed width
+        boolean fixed = wire instanceof BinaryWire;
+        int count = 0;
+        while (bytes.readRemaining() > 0) {
+            final long position = bytes.readPosition();
+            final int nameCode = bytes.peekUnsignedByte();
+            final ValueIn in = wire.readEventName(name);
+            if (StringUtils.isEqual(fieldName, name)) {
+                offset = fixed ? position - start : -1;
+                fieldCount = count;
+                readFieldValue(in);
+                return;
+            }
+            final long valuePosition = bytes.readPosition();
+            final int valueCode = bytes.peekUnsignedByte();
+            in.skipValue();
+            final long end = bytes.readPosition();
+            wire.consumePadding();
+            if (end == position)
+                break;
+            if (fixed) {
+                fixed = nameCode >= FIELD_NAME0 && nameCode <= FIELD_NAME31
+                        && valuePosition == position + 1 + (nameCode - FIELD_NAME0)
+                        && isFixedWidth(valueCode)
+                        && bytes.readPosition() == end;
+                if (fixed)
+                    addField(count++, position - start, nameCode, valueCode);
+            }
+        }
+    }
+
+    /**
+     * @return whether the fields before the one cached have the same name and value codes at the same offsets,
+     * so the cached offset is the start of a field of this marshallable and not within a nested one.
+     */
+    private boolean sameLayout(Bytes<?> bytes, long start) {
+        if (start + offset >= bytes.readLimit())
+            return false;
+        for (int i = 0; i < fieldCount; i++) {
+            final long position = start + fieldOffsets[i];
+            final int nameCode = fieldCodes[i * 2];
+            if (bytes.peekUnsignedByte(position) != nameCode
+                    || bytes.peekUnsignedByte(position + 1 + (nameCode - FIELD_NAME0)) != fieldCodes[i * 2 + 1])
+                return false;
+        }
+        return true;
+    }
+
+    private void addField(int index, long fieldOffset, int nameCode, int valueCode) {
+        if (index == fieldOffsets.length) {
+            fieldOffsets = Arrays.copyOf(fieldOffsets, index * 2);
+            fieldCodes = Arrays.copyOf(fieldCodes, index * 4);
+        }
+        fieldOffsets[index] = fieldOffset;
+        fieldCodes[index * 2] = nameCode;
+        fieldCodes[index * 2 + 1] = valueCode;
+    }
+
+    /**
+     * @return whether the length of a value is given by its code alone
+     */
+    static boolean isFixedWidth(int code) {
+        if (code < 0x80 || (code >= STRING_0 && code <= STRING_31))
+            return true;
+        switch (code) {
+            case FLOAT32:
+            case FLOAT64:
+            case UUID:
+            case UINT8:
+            case UINT16:
+            case UINT32:
+            case INT8:
+            case INT16:
+            case INT32:
+            case INT64:
+            case SET_LOW_INT8:
+            case SET_LOW_INT16:
+            case FALSE:
+            case TRUE:
+            case NULL:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void readFieldValue(ValueIn in) {
+        if (fieldType == long.class)
+            longValue = in.int64();
+        else if (fieldType == double.class)
+            doubleValue = in.float64();
+        else
+            objectValue = in.object(fieldType);
+        found = true;
+    }
+}
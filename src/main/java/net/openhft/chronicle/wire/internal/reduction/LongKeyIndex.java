@@ -0,0 +1,123 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire.internal.reduction;
+
+import net.openhft.chronicle.core.Maths;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressed index of long keys to dense slots 0 .. size-1, so per key values can be held in primitive
+ * arrays indexed by slot. Keys are never removed, and nothing is allocated except when the capacity doubles.
+ * <p>
+ * This is not thread-safe.
+ */
+public final class LongKeyIndex {
+    private static final int MIN_CAPACITY = 16;
+
+    // the slot + 1 for each hash position, 0 if empty. At most half full.
+    private int[] table;
+    private long[] keys;
+    private int size;
+
+    public LongKeyIndex() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongKeyIndex(int capacity) {
+        final int cap = Maths.nextPower2(capacity, MIN_CAPACITY);
+        table = new int[cap * 2];
+        keys = new long[cap];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of keys which can be held before the slot arrays need to grow
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    public long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * @param key to look up
+     * @return the slot for the key, or -1 if it has not been added
+     */
+    public int slotOf(long key) {
+        final int mask = table.length - 1;
+        for (int h = hash(key) & mask; ; h = (h + 1) & mask) {
+            final int entry = table[h];
+            if (entry == 0)
+                return -1;
+            if (keys[entry - 1] == key)
+                return entry - 1;
+        }
+    }
+
+    /**
+     * Returns the slot for a key, adding it if needed. The caller should check whether {@link #capacity()} has grown.
+     *
+     * @param key to look up or add
+     * @return the slot for the key
+     */
+    public int acquireSlot(long key) {
+        int mask = table.length - 1;
+        int h = hash(key) & mask;
+        for (; ; h = (h + 1) & mask) {
+            final int entry = table[h];
+            if (entry == 0)
+                break;
+            if (keys[entry - 1] == key)
+                return entry - 1;
+        }
+        if (size == keys.length) {
+            grow();
+            mask = table.length - 1;
+            for (h = hash(key) & mask; table[h] != 0; h = (h + 1) & mask) {
+                // find a free position
+            }
+        }
+        final int slot = size++;
+        keys[slot] = key;
+        table[h] = slot + 1;
+        return slot;
+    }
+
+    private void grow() {
+        keys = Arrays.copyOf(keys, keys.length * 2);
+        table = new int[keys.length * 2];
+        final int mask = table.length - 1;
+        for (int slot = 0; slot < size; slot++) {
+            int h = hash(keys[slot]) & mask;
+            while (table[h] != 0)
+                h = (h + 1) & mask;
+            table[h] = slot + 1;
+        }
+    }
+
+    private static int hash(long key) {
+        return (int) Maths.agitate(key);
+    }
+}
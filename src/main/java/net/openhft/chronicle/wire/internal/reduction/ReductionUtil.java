@@ -28,7 +28,10 @@ import net.openhft.chronicle.wire.Wire;
 import net.openhft.chronicle.wire.domestic.extractor.DocumentExtractor;
 import net.openhft.chronicle.wire.domestic.extractor.ToDoubleDocumentExtractor;
 import net.openhft.chronicle.wire.domestic.extractor.ToLongDocumentExtractor;
+import net.openhft.chronicle.wire.domestic.reduction.KeyedDoubleStatistics;
+import net.openhft.chronicle.wire.domestic.reduction.KeyedLongStatistics;
 import net.openhft.chronicle.wire.domestic.reduction.Reduction;
+import net.openhft.chronicle.wire.domestic.reduction.WindowedStatistics;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.function.*;
@@ -180,6 +183,101 @@ public final class ReductionUtil {
         }
     }
 
+    public static final class KeyedLongReduction<E> implements Reduction<KeyedLongStatistics> {
+        private final DocumentExtractor<E> extractor;
+        private final ToLongFunction<? super E> keyFunction;
+        private final ToLongFunction<? super E> valueFunction;
+        private final KeyedLongStatistics statistics = new KeyedLongStatistics();
+
+        public KeyedLongReduction(@NotNull final DocumentExtractor<E> extractor,
+                                  @NotNull final ToLongFunction<? super E> keyFunction,
+                                  @NotNull final ToLongFunction<? super E> valueFunction) {
+            this.extractor = requireNonNull(extractor);
+            this.keyFunction = requireNonNull(keyFunction);
+            this.valueFunction = requireNonNull(valueFunction);
+        }
+
+        @Override
+        public void onExcerpt(@NotNull Wire wire, long index) throws InvalidMarshallableException {
+            final E element = extractor.extract(wire, index);
+            if (element != null) {
+                statistics.accept(keyFunction.applyAsLong(element), valueFunction.applyAsLong(element));
+            }
+        }
+
+        @NotNull
+        @Override
+        public KeyedLongStatistics reduction() {
+            return statistics;
+        }
+    }
+
+    public static final class KeyedDoubleReduction<E> implements Reduction<KeyedDoubleStatistics> {
+        private final DocumentExtractor<E> extractor;
+        private final ToLongFunction<? super E> keyFunction;
+        private final ToDoubleFunction<? super E> valueFunction;
+        private final ToDoubleFunction<? super E> weightFunction;
+        private final KeyedDoubleStatistics statistics = new KeyedDoubleStatistics();
+
+        public KeyedDoubleReduction(@NotNull final DocumentExtractor<E> extractor,
+                                    @NotNull final ToLongFunction<? super E> keyFunction,
+                                    @NotNull final ToDoubleFunction<? super E> valueFunction,
+                                    @NotNull final ToDoubleFunction<? super E> weightFunction) {
+            this.extractor = requireNonNull(extractor);
+            this.keyFunction = requireNonNull(keyFunction);
+            this.valueFunction = requireNonNull(valueFunction);
+            this.weightFunction = requireNonNull(weightFunction);
+        }
+
+        @Override
+        public void onExcerpt(@NotNull Wire wire, long index) throws InvalidMarshallableException {
+            final E element = extractor.extract(wire, index);
+            if (element != null) {
+                statistics.accept(keyFunction.applyAsLong(element),
+                        valueFunction.applyAsDouble(element),
+                        weightFunction.applyAsDouble(element));
+            }
+        }
+
+        @NotNull
+        @Override
+        public KeyedDoubleStatistics reduction() {
+            return statistics;
+        }
+    }
+
+    public static final class WindowedReduction<E> implements Reduction<WindowedStatistics> {
+        private final DocumentExtractor<E> extractor;
+        private final ToLongFunction<? super E> timeFunction;
+        private final ToDoubleFunction<? super E> valueFunction;
+        private final WindowedStatistics statistics;
+
+        public WindowedReduction(@NotNull final DocumentExtractor<E> extractor,
+                                 @NotNull final ToLongFunction<? super E> timeFunction,
+                                 @NotNull final ToDoubleFunction<? super E> valueFunction,
+                                 final long windowNanos,
+                                 final int buckets) {
+            this.extractor = requireNonNull(extractor);
+            this.timeFunction = requireNonNull(timeFunction);
+            this.valueFunction = requireNonNull(valueFunction);
+            this.statistics = new WindowedStatistics(windowNanos, buckets);
+        }
+
+        @Override
+        public void onExcerpt(@NotNull Wire wire, long index) throws InvalidMarshallableException {
+            final E element = extractor.extract(wire, index);
+            if (element != null) {
+                statistics.accept(timeFunction.applyAsLong(element), valueFunction.applyAsDouble(element));
+            }
+        }
+
+        @NotNull
+        @Override
+        public WindowedStatistics reduction() {
+            return statistics;
+        }
+    }
+
     // Reduction Builders
 
     public static final class VanillaReductionBuilder<E> implements Reduction.ReductionBuilder<E> {
@@ -18,7 +18,9 @@
 
 package net.openhft.chronicle.wire.internal.stream;
 
+import net.openhft.chronicle.core.io.Closeable;
 import net.openhft.chronicle.wire.DocumentContext;
+import net.openhft.chronicle.wire.IndexedMarshallableIn;
 import net.openhft.chronicle.wire.MarshallableIn;
 import net.openhft.chronicle.wire.Wire;
 import net.openhft.chronicle.wire.domestic.extractor.DocumentExtractor;
@@ -27,6 +29,7 @@ import net.openhft.chronicle.wire.domestic.extractor.ToLongDocumentExtractor;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.DoubleConsumer;
@@ -205,6 +208,214 @@ public final class StreamsUtil {
         }
     }
 
+    /**
+     * Reads the documents in a range of indexes, splitting by halving the range, with a reader for each split.
+     * A reader is closed when its range has been read, and {@link #close()} closes those of a stream which stopped early.
+     */
+    abstract static class AbstractIndexedSpliterator<S extends AbstractIndexedSpliterator<S>> implements AutoCloseable {
+        protected final IndexedMarshallableIn source;
+        protected final long toIndex;
+        private long fromIndex;
+        private IndexedMarshallableIn reader;
+        // the readers open in this spliterator and those split from it
+        private Set<IndexedMarshallableIn> readers = ConcurrentHashMap.newKeySet();
+
+        protected AbstractIndexedSpliterator(@NotNull final IndexedMarshallableIn source,
+                                             final long fromIndex,
+                                             final long toIndex) {
+            this.source = requireNonNull(source);
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+        }
+
+        /**
+         * Reads documents until the extractor produces a value or the range is exhausted.
+         *
+         * @param extractor returns true if it passed a value on
+         * @return true if a value was passed on
+         */
+        protected boolean advance(@NotNull final IndexedExtractor extractor) {
+            if (reader == null) {
+                if (fromIndex >= toIndex)
+                    return false;
+                reader = source.reader(fromIndex);
+                readers.add(reader);
+            }
+            while (reader.index() < toIndex) {
+                try (final DocumentContext dc = reader.readingDocument()) {
+                    final Wire wire = dc.wire();
+                    if (!dc.isPresent() || wire == null)
+                        break;
+                    if (extractor.extract(wire, dc.index()))
+                        return true;
+                }
+            }
+            fromIndex = toIndex;
+            readers.remove(reader);
+            Closeable.closeQuietly(reader);
+            reader = null;
+            return false;
+        }
+
+        @SuppressWarnings("unchecked")
+        public S trySplit() {
+            final long start = reader == null ? fromIndex : reader.index();
+            final long mid = source.midIndex(start, toIndex);
+            if (mid <= start || mid >= toIndex)
+                return null;
+            // the prefix carries on with any reader already positioned at the start
+            final S prefix = newSpliterator(start, mid);
+            ((AbstractIndexedSpliterator<S>) prefix).reader = reader;
+            ((AbstractIndexedSpliterator<S>) prefix).readers = readers;
+            reader = null;
+            fromIndex = mid;
+            return prefix;
+        }
+
+        @NotNull
+        protected abstract S newSpliterator(long fromIndex, long toIndex);
+
+        public long estimateSize() {
+            return Math.max(0, toIndex - (reader == null ? fromIndex : reader.index()));
+        }
+
+        public int characteristics() {
+            return Spliterator.ORDERED;
+        }
+
+        /**
+         * Closes the readers still open in this spliterator and those split from it, e.g. when a stream stops early.
+         */
+        @Override
+        public void close() {
+            for (IndexedMarshallableIn r : readers)
+                Closeable.closeQuietly(r);
+            readers.clear();
+            reader = null;
+        }
+    }
+
+    @FunctionalInterface
+    interface IndexedExtractor {
+        boolean extract(@NotNull Wire wire, long index);
+    }
+
+    public static final class IndexedSpliterator<T>
+            extends AbstractIndexedSpliterator<IndexedSpliterator<T>>
+            implements Spliterator<T> {
+
+        private final DocumentExtractor<T> extractor;
+
+        public IndexedSpliterator(@NotNull final IndexedMarshallableIn source,
+                                  @NotNull final DocumentExtractor<T> extractor) {
+            this(source, extractor, source.index(), source.endIndex());
+        }
+
+        private IndexedSpliterator(@NotNull final IndexedMarshallableIn source,
+                                   @NotNull final DocumentExtractor<T> extractor,
+                                   final long fromIndex,
+                                   final long toIndex) {
+            super(source, fromIndex, toIndex);
+            this.extractor = requireNonNull(extractor);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            return advance((wire, index) -> {
+                final T t = extractor.extract(wire, index);
+                if (t == null)
+                    return false;
+                action.accept(t);
+                return true;
+            });
+        }
+
+        @NotNull
+        @Override
+        protected IndexedSpliterator<T> newSpliterator(long fromIndex, long toIndex) {
+            return new IndexedSpliterator<>(source, extractor, fromIndex, toIndex);
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED + NONNULL;
+        }
+    }
+
+    public static final class IndexedSpliteratorOfLong
+            extends AbstractIndexedSpliterator<IndexedSpliteratorOfLong>
+            implements Spliterator.OfLong {
+
+        private final ToLongDocumentExtractor extractor;
+
+        public IndexedSpliteratorOfLong(@NotNull final IndexedMarshallableIn source,
+                                        @NotNull final ToLongDocumentExtractor extractor) {
+            this(source, extractor, source.index(), source.endIndex());
+        }
+
+        private IndexedSpliteratorOfLong(@NotNull final IndexedMarshallableIn source,
+                                         @NotNull final ToLongDocumentExtractor extractor,
+                                         final long fromIndex,
+                                         final long toIndex) {
+            super(source, fromIndex, toIndex);
+            this.extractor = requireNonNull(extractor);
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            return advance((wire, index) -> {
+                final long value = extractor.extractAsLong(wire, index);
+                if (value == Long.MIN_VALUE)
+                    return false;
+                action.accept(value);
+                return true;
+            });
+        }
+
+        @NotNull
+        @Override
+        protected IndexedSpliteratorOfLong newSpliterator(long fromIndex, long toIndex) {
+            return new IndexedSpliteratorOfLong(source, extractor, fromIndex, toIndex);
+        }
+    }
+
+    public static final class IndexedSpliteratorOfDouble
+            extends AbstractIndexedSpliterator<IndexedSpliteratorOfDouble>
+            implements Spliterator.OfDouble {
+
+        private final ToDoubleDocumentExtractor extractor;
+
+        public IndexedSpliteratorOfDouble(@NotNull final IndexedMarshallableIn source,
+                                          @NotNull final ToDoubleDocumentExtractor extractor) {
+            this(source, extractor, source.index(), source.endIndex());
+        }
+
+        private IndexedSpliteratorOfDouble(@NotNull final IndexedMarshallableIn source,
+                                           @NotNull final ToDoubleDocumentExtractor extractor,
+                                           final long fromIndex,
+                                           final long toIndex) {
+            super(source, fromIndex, toIndex);
+            this.extractor = requireNonNull(extractor);
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            return advance((wire, index) -> {
+                final double value = extractor.extractAsDouble(wire, index);
+                if (Double.isNaN(value))
+                    return false;
+                action.accept(value);
+                return true;
+            });
+        }
+
+        @NotNull
+        @Override
+        protected IndexedSpliteratorOfDouble newSpliterator(long fromIndex, long toIndex) {
+            return new IndexedSpliteratorOfDouble(source, extractor, fromIndex, toIndex);
+        }
+    }
+
     public static final class ExcerptIterator<T> implements Iterator<T> {
 
         private final MarshallableIn tailer;
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire.internal.stream;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.BytesStore;
+import net.openhft.chronicle.bytes.BytesUtil;
+import net.openhft.chronicle.wire.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Reads the documents of a binary wire by index, where the index is the position of the document's header.
+ * <p>
+ * The positions of the documents are found once, by skipping from header to header, and shared by the readers.
+ * Each reader has its own view of the bytes, which is released on close.
+ */
+public final class WireIndexedMarshallableIn implements IndexedMarshallableIn, AutoCloseable {
+    private final BytesStore<?, ?> store;
+    private final WireType wireType;
+    // the position of each document, and the end of the last one
+    private final long[] positions;
+    private final Wire wire;
+
+    public WireIndexedMarshallableIn(@NotNull Wire wire) {
+        if (!wire.isBinary())
+            throw new IllegalArgumentException("Only binary wires can be indexed");
+        this.store = wire.bytes().bytesStore();
+        this.wireType = WireType.valueOf(wire);
+        this.positions = positions(wire);
+        this.wire = wireFrom(positions[0]);
+    }
+
+    private WireIndexedMarshallableIn(WireIndexedMarshallableIn source, long fromIndex) {
+        this.store = source.store;
+        this.wireType = source.wireType;
+        this.positions = source.positions;
+        this.wire = wireFrom(fromIndex);
+    }
+
+    private static long[] positions(Wire wire) {
+        final Bytes<?> bytes = wire.bytes();
+        final long end = bytes.readLimit();
+        long[] positions = new long[16];
+        int count = 0;
+        long pos = bytes.readPosition();
+        while (pos + 4 <= end) {
+            final int header = bytes.readInt(pos);
+            if (header == 0 || !Wires.isReady(header))
+                break;
+            final long next = pos + 4 + Wires.lengthOf(header);
+            if (next > end)
+                break;
+            if (count == positions.length - 1)
+                positions = Arrays.copyOf(positions, positions.length * 2);
+            positions[count++] = pos;
+            pos = next;
+            if (wire.usePadding())
+                pos += BytesUtil.padOffset(pos);
+        }
+        positions[count++] = Math.min(pos, end);
+        return Arrays.copyOf(positions, count);
+    }
+
+    private Wire wireFrom(long fromIndex) {
+        final Bytes<?> bytes = store.bytesForRead();
+        bytes.readLimit(endIndex());
+        bytes.readPosition(fromIndex);
+        return wireType.apply(bytes);
+    }
+
+    @Override
+    public DocumentContext readingDocument() {
+        return wire.readingDocument();
+    }
+
+    @Override
+    public long index() {
+        return wire.bytes().readPosition();
+    }
+
+    @Override
+    public long endIndex() {
+        return positions[positions.length - 1];
+    }
+
+    @Override
+    public long midIndex(long fromIndex, long toIndex) {
+        final long mid = fromIndex + (toIndex - fromIndex) / 2;
+        int i = Arrays.binarySearch(positions, mid);
+        if (i < 0)
+            i = -i - 1;
+        // the first document at or after the middle
+        final long index = positions[Math.min(i, positions.length - 1)];
+        return index > fromIndex && index < toIndex ? index : fromIndex;
+    }
+
+    @NotNull
+    @Override
+    public IndexedMarshallableIn reader(long fromIndex) {
+        return new WireIndexedMarshallableIn(this, fromIndex);
+    }
+
+    @Override
+    public void close() {
+        wire.bytes().releaseLast();
+    }
+}
@@ -1,5 +1,6 @@
 package net.openhft.chronicle.wire;
 
+import net.openhft.chronicle.bytes.Bytes;
 import net.openhft.chronicle.core.util.NanoSampler;
 import net.openhft.chronicle.jlbh.JLBH;
 import net.openhft.chronicle.jlbh.JLBHOptions;
@@ -20,13 +21,16 @@ public class AbstractTimestampLongConverterJLBHBenchmark implements JLBHTask {
     private final LongConverter converterWithTimeZone = new MilliTimestampLongConverter("Australia/Melbourne");
     private final LongConverter converterUTC = new MilliTimestampLongConverter("UTC");
     private final StringBuilder sb = new StringBuilder();
+    private final Bytes<?> bytes = Bytes.allocateElasticOnHeap(64);
     private JLBH jlbh;
     private NanoSampler parseTZnoSuffix;
     private NanoSampler parseTZsuffix;
     private NanoSampler appendTZ;
+    private NanoSampler appendBytesTZ;
     private NanoSampler parseUTCnoSuffix;
     private NanoSampler parseUTCsuffix;
     private NanoSampler appendUTC;
+    private NanoSampler appendBytesUTC;
 
     public static void main(String[] args) {
         new AbstractTimestampLongConverterJLBHBenchmark().run();
@@ -50,9 +54,11 @@ public class AbstractTimestampLongConverterJLBHBenchmark implements JLBHTask {
         parseTZnoSuffix = jlbh.addProbe("parseTZnoSuffix");
         parseTZsuffix = jlbh.addProbe("parseTZsuffix");
         appendTZ = jlbh.addProbe("appendTZ");
+        appendBytesTZ = jlbh.addProbe("appendBytesTZ");
         parseUTCnoSuffix = jlbh.addProbe("parseUTCnoSuffix");
         parseUTCsuffix = jlbh.addProbe("parseUTCsuffix");
         appendUTC = jlbh.addProbe("appendUTC");
+        appendBytesUTC = jlbh.addProbe("appendBytesUTC");
     }
 
     @Override
@@ -60,12 +66,12 @@ public class AbstractTimestampLongConverterJLBHBenchmark implements JLBHTask {
         /*
             Converter with timezone
          */
-        runTests(converterWithTimeZone, appendTZ, parseTZnoSuffix, parseTZsuffix);
+        runTests(converterWithTimeZone, appendTZ, appendBytesTZ, parseTZnoSuffix, parseTZsuffix);
 
         /*
             Converter in UTC (no suffix)
          */
-        runTests(converterUTC, appendUTC, parseUTCnoSuffix, parseUTCsuffix);
+        runTests(converterUTC, appendUTC, appendBytesUTC, parseUTCnoSuffix, parseUTCsuffix);
 
         jlbh.sampleNanos(System.nanoTime() - startTimeNS);
     }
@@ -75,13 +81,19 @@ public class AbstractTimestampLongConverterJLBHBenchmark implements JLBHTask {
         TeamCityHelper.teamCityStatsLastRun("LongConverterPerf", jlbh, ITERATIONS, System.out);
     }
 
-    private void runTests(LongConverter converter, NanoSampler appendSampler, NanoSampler parseNoSuffixSampler, NanoSampler parseSuffixSampler) {
+    private void runTests(LongConverter converter, NanoSampler appendSampler, NanoSampler appendBytesSampler, NanoSampler parseNoSuffixSampler, NanoSampler parseSuffixSampler) {
         // append
         long testStartTime = System.nanoTime();
         sb.setLength(0);
         converter.append(sb, TIMESTAMP_MILLIS);
         appendSampler.sampleNanos(System.nanoTime() - testStartTime);
 
+        // append to Bytes
+        testStartTime = System.nanoTime();
+        bytes.clear();
+        converter.append(bytes, TIMESTAMP_MILLIS);
+        appendBytesSampler.sampleNanos(System.nanoTime() - testStartTime);
+
         // parse (no suffix)
         testStartTime = System.nanoTime();
         converter.parse(TIMESTAMP_STRING_NO_SUFFIX);
@@ -17,10 +17,20 @@
  */
 package net.openhft.chronicle.wire;
 
+import net.openhft.chronicle.core.OS;
 import org.jetbrains.annotations.NotNull;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 import static org.junit.Assert.*;
 
 public class CSVWireTest extends WireTestCommon {
@@ -94,4 +104,48 @@ public class CSVWireTest extends WireTestCommon {
         wire.readEventName(row);
         assertFalse(wire.hasMore());
     }
+
+    @Test
+    public void streamFromFile() throws IOException {
+        final File file = new File(OS.getTarget(), "CSVWireTest-" + System.nanoTime() + ".csv");
+        final StringBuilder csv = new StringBuilder("Symbol,Company,Price\n");
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            // quoted line breaks and commas mustn't be split on
+            final String company = i % 3 == 0 ? "Company\n" + i : i % 3 == 1 ? "Co, " + i : "Co " + i;
+            csv.append("S").append(i).append(",\"").append(company).append("\",").append(i / 4.0).append('\n');
+            expected.add("S" + i + "|" + company + "|" + i / 4.0);
+        }
+        Files.write(file.toPath(), csv.toString().getBytes(StandardCharsets.ISO_8859_1));
+        try {
+            // chunks much smaller than the file
+            try (Stream<CSVRow> rows = CSVWire.streamFromFile(file.getPath(), CSVRow.class, true, 64)) {
+                assertEquals(expected, rows.map(CSVRow::toString).collect(Collectors.toList()));
+            }
+            try (Stream<CSVRow> rows = CSVWire.streamFromFile(file.getPath(), CSVRow.class, false)) {
+                assertEquals(expected.stream().sorted().collect(Collectors.toList()),
+                        rows.map(CSVRow::toString).sorted().collect(Collectors.toList()));
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    static class CSVRow implements Marshallable {
+        String symbol;
+        String company;
+        double price;
+
+        @Override
+        public void readMarshallable(@NotNull WireIn wire) {
+            symbol = wire.read("symbol").text();
+            company = wire.read("company").text();
+            price = wire.read("price").float64();
+        }
+
+        @Override
+        public String toString() {
+            return symbol + "|" + company + "|" + price;
+        }
+    }
 }
@@ -21,6 +21,7 @@ package net.openhft.chronicle.wire;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class CharSequenceObjectMapTest extends WireTestCommon {
     @Test
@@ -33,4 +34,42 @@ public class CharSequenceObjectMapTest extends WireTestCommon {
             assertEquals("" + i, map.get("" + i));
         }
     }
+
+    @Test
+    public void getWithStringBuilder() {
+        CharSequenceObjectMap<Integer> map = new CharSequenceObjectMap<>(64);
+        for (int i = 0; i < 40; i++)
+            map.put("field" + i, i);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            sb.setLength(0);
+            sb.append("field").append(i);
+            assertEquals(i, (int) map.get(sb));
+        }
+        assertNull(map.get("field40"));
+        assertNull(map.get(""));
+    }
+
+    @Test
+    public void getWhenFull() {
+        CharSequenceObjectMap<String> map = new CharSequenceObjectMap<>(16);
+        for (int i = 0; i < 16; i++)
+            map.put("k" + i, "v" + i);
+        for (int i = 0; i < 16; i++)
+            assertEquals("v" + i, map.get("k" + i));
+        assertNull(map.get("k16"));
+    }
+
+    @Test
+    public void getIgnoreCase() {
+        CharSequenceObjectMap<Integer> map = new CharSequenceObjectMap<>(16);
+        map.put("price", 1);
+        map.put("qty", 2);
+        StringBuilder sb = new StringBuilder("Price");
+        assertNull(map.get(sb));
+        assertEquals(1, (int) map.getIgnoreCase(sb));
+        assertEquals("Price", sb.toString());
+        assertEquals(2, (int) map.getIgnoreCase("QTY"));
+        assertNull(map.getIgnoreCase("side"));
+    }
 }
@@ -88,6 +88,7 @@ public class ChronicleBitSetTest extends WireTestCommon {
         return Arrays.asList(new Object[][]{
                 {LongArrayValueBitSet.class},
                 {LongValueBitSet.class},
+                {MappedBitSet.class},
         });
     }
 
@@ -1167,6 +1168,8 @@ public class ChronicleBitSetTest extends WireTestCommon {
 
     @NotNull
     private ChronicleBitSet createBitSet(Wire w, long size) {
+        if (clazz == MappedBitSet.class)
+            return new MappedBitSet(IOTools.createTempFile("ChronicleBitSetTest"), MappedBitSet.MIN_CHUNK_BYTES);
         try {
             return (ChronicleBitSet) clazz.getConstructor(long.class, Wire.class).newInstance(size, w);
         } catch (Throwable t) {
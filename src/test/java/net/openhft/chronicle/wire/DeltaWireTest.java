@@ -0,0 +1,219 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.Bytes;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DeltaWireTest extends WireTestCommon {
+
+    @Test
+    public void deltaWireType() {
+        Wire wire = WireType.DELTA_BINARY.apply(Bytes.allocateElasticOnHeap());
+        assertTrue(wire instanceof DeltaWire);
+        assertEquals(WireType.DELTA_BINARY, WireType.valueOf(wire));
+    }
+
+    @Test
+    public void onlyChangedFieldsAreWritten() {
+        Wire out = new DeltaWire(Bytes.allocateElasticOnHeap());
+        Wire in = new DeltaWire(Bytes.allocateElasticOnHeap());
+
+        Quote quote = new Quote("EURUSD", 1.1010, 1.1012, 1_000_000, 2_000_000);
+        out.write("quote").object(quote);
+        long full = out.bytes().readRemaining();
+        Quote q0 = read(out, in, new Quote());
+        assertEquals(quote, q0);
+
+        quote.ask = 1.1013;
+        out.write("quote").object(quote);
+        long delta = out.bytes().readRemaining();
+        assertTrue("full: " + full + ", delta: " + delta, delta * 2 < full);
+        Quote q1 = read(out, in, new Quote());
+        assertEquals(quote, q1);
+
+        // nothing changed
+        out.write("quote").object(quote);
+        Quote q2 = read(out, in, new Quote());
+        assertEquals(quote, q2);
+
+        quote.bidQty = 0;
+        quote.askQty = 3_000_000;
+        quote.tags.add("firm");
+        out.write("quote").object(quote);
+        Quote q3 = read(out, in, new Quote());
+        assertEquals(quote, q3);
+    }
+
+    @Test
+    public void mutatedNestedValuesAreDetected() {
+        Wire out = new DeltaWire(Bytes.allocateElasticOnHeap());
+        Wire in = new DeltaWire(Bytes.allocateElasticOnHeap());
+
+        Quote quote = new Quote("GBPUSD", 1.25, 1.26, 1, 2);
+        quote.source = new Source("LP1", 1);
+        out.write("quote").object(quote);
+        assertEquals(quote, read(out, in, new Quote()));
+
+        quote.source.priority = 2;
+        out.write("quote").object(quote);
+        assertEquals(quote, read(out, in, new Quote()));
+    }
+
+    @Test
+    public void keyedValuesAreTrackedPerKey() {
+        Wire out = new DeltaWire(Bytes.allocateElasticOnHeap());
+        Wire in = new DeltaWire(Bytes.allocateElasticOnHeap());
+
+        Quote eur = new Quote("EURUSD", 1.1010, 1.1012, 1_000_000, 2_000_000);
+        Quote gbp = new Quote("GBPUSD", 1.2510, 1.2512, 3_000_000, 4_000_000);
+        for (int i = 0; i < 5; i++) {
+            eur.bid += 0.0001;
+            gbp.ask += 0.0001;
+            out.write("quote").object(eur);
+            assertEquals(eur, read(out, in, new Quote()));
+            out.write("quote").object(gbp);
+            if (i > 0)
+                assertTrue(out.bytes().readRemaining() < 40);
+            assertEquals(gbp, read(out, in, new Quote()));
+        }
+    }
+
+    @Test
+    public void typedMarshallableReturnsRetainedInstance() {
+        Wire wire = new DeltaWire(Bytes.allocateElasticOnHeap());
+
+        Quote quote = new Quote("EURUSD", 1.1010, 1.1012, 1_000_000, 2_000_000);
+        wire.getValueOut().typedMarshallable(quote);
+        Quote q0 = wire.getValueIn().typedMarshallable();
+        assertEquals(quote, q0);
+
+        quote.bid = 1.1011;
+        wire.getValueOut().typedMarshallable(quote);
+        Quote q1 = wire.getValueIn().typedMarshallable();
+        assertSame(q0, q1);
+        assertEquals(quote, q1);
+    }
+
+    @Test
+    public void resetSendsInFull() {
+        Wire wire = new DeltaWire(Bytes.allocateElasticOnHeap());
+
+        Quote quote = new Quote("EURUSD", 1.1010, 1.1012, 1_000_000, 2_000_000);
+        wire.getValueOut().typedMarshallable(quote);
+        long full = wire.bytes().readRemaining();
+        assertEquals(quote, wire.getValueIn().typedMarshallable());
+
+        wire.reset();
+        wire.getValueOut().typedMarshallable(quote);
+        assertEquals(full, wire.bytes().readRemaining());
+        assertEquals(quote, wire.getValueIn().typedMarshallable());
+    }
+
+    @Test
+    public void rolledBackValuesAreWrittenInFull() {
+        Wire out = new DeltaWire(Bytes.allocateElasticOnHeap());
+        Wire in = new DeltaWire(Bytes.allocateElasticOnHeap());
+
+        Quote quote = new Quote("EURUSD", 1.1010, 1.1012, 1_000_000, 2_000_000);
+        try (DocumentContext dc = out.writingDocument()) {
+            dc.wire().write("quote").object(quote);
+        }
+        assertEquals(quote, readDocument(out, in));
+
+        // the reader never sees this change
+        quote.ask = 1.1013;
+        try (DocumentContext dc = out.writingDocument()) {
+            dc.wire().write("quote").object(quote);
+            dc.rollbackOnClose();
+        }
+        assertTrue(out.bytes().isEmpty());
+
+        quote.bid = 1.1011;
+        try (DocumentContext dc = out.writingDocument()) {
+            dc.wire().write("quote").object(quote);
+        }
+        assertEquals(quote, readDocument(out, in));
+
+        quote.askQty = 3_000_000;
+        DocumentContext dc0 = out.writingDocument();
+        dc0.wire().write("quote").object(quote);
+        // e.g. after an exception
+        out.rollbackIfNotComplete();
+        assertTrue(out.bytes().isEmpty());
+
+        quote.bidQty = 0;
+        try (DocumentContext dc = out.writingDocument()) {
+            dc.wire().write("quote").object(quote);
+        }
+        assertEquals(quote, readDocument(out, in));
+    }
+
+    private static Quote readDocument(Wire out, Wire in) {
+        in.bytes().clear();
+        in.bytes().write(out.bytes());
+        out.clear();
+        try (DocumentContext dc = in.readingDocument()) {
+            assertTrue(dc.isPresent());
+            return dc.wire().read("quote").object(Quote.class);
+        }
+    }
+
+    private static Quote read(Wire out, Wire in, Quote using) {
+        in.bytes().clear();
+        in.bytes().write(out.bytes());
+        out.clear();
+        Quote quote = in.read("quote").object(using, Quote.class);
+        assertEquals(0, in.bytes().readRemaining());
+        return quote;
+    }
+
+    static class Source extends SelfDescribingMarshallable {
+        String name;
+        int priority;
+
+        Source(String name, int priority) {
+            this.name = name;
+            this.priority = priority;
+        }
+    }
+
+    static class Quote extends SelfDescribingMarshallable implements KeyedMarshallable {
+        String symbol;
+        double bid, ask;
+        long bidQty, askQty;
+        Source source;
+        List<String> tags = new ArrayList<>();
+
+        Quote() {
+        }
+
+        Quote(String symbol, double bid, double ask, long bidQty, long askQty) {
+            this.symbol = symbol;
+            this.bid = bid;
+            this.ask = ask;
+            this.bidQty = bidQty;
+            this.askQty = askQty;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.io.IORuntimeException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FlatBinaryMarshallableTest extends WireTestCommon {
+
+    static Order createOrder() {
+        Order order = new Order();
+        order.id = 12345678901L;
+        order.price = 101.25;
+        order.quantity = 300;
+        order.filled = true;
+        order.symbol = "EURUSD";
+        order.side = Side.SELL;
+        order.trader = new Party("Alice", 7);
+        order.tags = new ArrayList<>(Arrays.asList("fx", null, "spot"));
+        order.parties = new ArrayList<>(Arrays.asList(new Party("Bob", 1), new Party("Carol", 2)));
+        return order;
+    }
+
+    @Test
+    public void bytesRoundTrip() {
+        Order order = createOrder();
+        Bytes<?> bytes = Bytes.allocateElasticOnHeap();
+        order.writeMarshallable(bytes);
+        assertEquals(bytes.readRemaining(), bytes.readInt(0));
+
+        Order order2 = new Order();
+        order2.readMarshallable(bytes);
+        assertEquals(order, order2);
+        assertEquals(0, bytes.readRemaining());
+    }
+
+    @Test
+    public void binaryWireRoundTrip() {
+        Wire wire = WireType.BINARY_LIGHT.apply(Bytes.allocateElasticOnHeap());
+        Order order = createOrder();
+        try (DocumentContext dc = wire.writingDocument()) {
+            dc.wire().getValueOut().object(order);
+        }
+        Order empty = new Order();
+        try (DocumentContext dc = wire.writingDocument()) {
+            dc.wire().getValueOut().object(empty);
+        }
+        try (DocumentContext dc = wire.readingDocument()) {
+            assertEquals(order, dc.wire().getValueIn().object(Order.class));
+        }
+        try (DocumentContext dc = wire.readingDocument()) {
+            assertEquals(empty, dc.wire().getValueIn().object(Order.class));
+        }
+    }
+
+    @Test
+    public void textWireIsSelfDescribing() {
+        Order order = createOrder();
+        String yaml = order.toString();
+        assertTrue(yaml, yaml.contains("symbol: EURUSD"));
+        assertEquals(order, Marshallable.fromString(yaml));
+    }
+
+    @Test
+    public void viewInPlace() {
+        Wire wire = WireType.BINARY_LIGHT.apply(Bytes.allocateElasticOnHeap());
+        try (DocumentContext dc = wire.writingDocument()) {
+            dc.wire().getValueOut().object(createOrder());
+        }
+
+        FlatLayout<Order> layout = FlatLayout.of(Order.class);
+        FlatLayout.Field tags = layout.field("tags");
+        FlatLayout.Field parties = layout.field("parties");
+        FlatView view = new FlatView();
+        FlatView party = new FlatView();
+        StringBuilder sb = new StringBuilder();
+        try (DocumentContext dc = wire.readingDocument()) {
+            view.wrap(Order.class, dc.wire());
+            assertEquals(12345678901L, view.getLong("id"));
+            assertEquals(101.25, view.getDouble("price"), 0);
+            assertEquals(300, view.getInt("quantity"));
+            assertTrue(view.getBoolean("filled"));
+            assertTrue(view.readText("symbol", sb));
+            assertEquals("EURUSD", sb.toString());
+            sb.setLength(0);
+            assertTrue(view.readText("side", sb));
+            assertEquals("SELL", sb.toString());
+
+            assertNotNull(view.nested("trader", party));
+            sb.setLength(0);
+            assertTrue(party.readText("name", sb));
+            assertEquals("Alice", sb.toString());
+            assertEquals(7, party.getInt("id"));
+
+            assertEquals(3, view.size(tags));
+            sb.setLength(0);
+            assertTrue(view.readText(tags, 2, sb));
+            assertEquals("spot", sb.toString());
+            assertFalse(view.readText(tags, 1, sb));
+
+            assertEquals(2, view.size(parties));
+            assertEquals(2, view.element(parties, 1, party).getInt("id"));
+        }
+    }
+
+    @Test
+    public void nullFields() {
+        Bytes<?> bytes = Bytes.allocateElasticOnHeap();
+        new Order().writeMarshallable(bytes);
+        assertEquals(FlatLayout.of(Order.class).fixedLength(), bytes.readRemaining());
+
+        FlatView view = new FlatView().wrap(FlatLayout.of(Order.class), bytes, 0);
+        assertFalse(view.readText("symbol", new StringBuilder()));
+        assertNull(view.nested("trader", new FlatView()));
+        assertEquals(-1, view.size("tags"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongKind() {
+        Bytes<?> bytes = Bytes.allocateElasticOnHeap();
+        createOrder().writeMarshallable(bytes);
+        new FlatView().wrap(FlatLayout.of(Order.class), bytes, 0).getLong("price");
+    }
+
+    @Test(expected = IORuntimeException.class)
+    public void wrongLayout() {
+        Bytes<?> bytes = Bytes.allocateElasticOnHeap();
+        new Party("Dave", 3).writeMarshallable(bytes);
+        new Order().readMarshallable(bytes);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonFinalNestedIsRejected() {
+        FlatLayout.of(Desk.class);
+    }
+
+    enum Side {
+        BUY, SELL
+    }
+
+    static final class Party extends FlatBinaryMarshallable {
+        String name;
+        int id;
+
+        Party() {
+        }
+
+        Party(String name, int id) {
+            this.name = name;
+            this.id = id;
+        }
+    }
+
+    static class Order extends FlatBinaryMarshallable {
+        long id;
+        double price;
+        int quantity;
+        boolean filled;
+        String symbol;
+        Side side;
+        Party trader;
+        List<String> tags;
+        List<Party> parties;
+    }
+
+    static class Desk extends FlatBinaryMarshallable {
+        Order lastOrder;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.Bytes;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FlyweightMessageHistoryTest extends WireTestCommon {
+    private static FlyweightMessageHistory history() {
+        FlyweightMessageHistory fmh = new FlyweightMessageHistory();
+        fmh.addSource(1, 128);
+        fmh.addSource(2, 0x200000001L);
+        fmh.addTiming(12121212);
+        return fmh;
+    }
+
+    private static void assertHistory(MessageHistory mh) {
+        assertEquals(2, mh.sources());
+        assertEquals(1, mh.sourceId(0));
+        assertEquals(128, mh.sourceIndex(0));
+        assertEquals(2, mh.lastSourceId());
+        assertEquals(0x200000001L, mh.lastSourceIndex());
+        // one timing is added on write
+        assertEquals(2, mh.timings());
+        assertEquals(12121212, mh.timing(0));
+        assertTrue(mh.sourceIdsEndsWith(new int[]{1, 2}));
+    }
+
+    @Test
+    public void binaryRoundTrip() {
+        Wire wire = WireType.BINARY_LIGHT.apply(Bytes.allocateElasticOnHeap());
+        wire.write("history").marshallable(history());
+
+        FlyweightMessageHistory fmh = new FlyweightMessageHistory();
+        wire.read("history").marshallable(fmh);
+        assertHistory(fmh);
+    }
+
+    @Test
+    public void textRoundTrip() {
+        Wire wire = WireType.YAML_ONLY.apply(Bytes.allocateElasticOnHeap());
+        wire.write("history").marshallable(history());
+        assertTrue(wire.toString(), wire.toString().contains("0x80"));
+
+        FlyweightMessageHistory fmh = new FlyweightMessageHistory();
+        wire.read("history").marshallable(fmh);
+        assertHistory(fmh);
+    }
+
+    @Test
+    public void readByVanilla() {
+        Wire wire = WireType.BINARY_LIGHT.apply(Bytes.allocateElasticOnHeap());
+        wire.write("history").marshallable(history());
+
+        VanillaMessageHistory vmh = new VanillaMessageHistory();
+        wire.read("history").marshallable(vmh);
+        assertHistory(vmh);
+    }
+
+    @Test
+    public void readFromVanilla() {
+        VanillaMessageHistory vmh = new VanillaMessageHistory();
+        vmh.useBytesMarshallable(true);
+        vmh.addSource(1, 128);
+        vmh.addSource(2, 0x200000001L);
+        vmh.addTiming(12121212);
+        Wire wire = WireType.BINARY_LIGHT.apply(Bytes.allocateElasticOnHeap());
+        wire.write("history").marshallable(vmh);
+
+        FlyweightMessageHistory fmh = new FlyweightMessageHistory();
+        wire.read("history").marshallable(fmh);
+        assertHistory(fmh);
+    }
+
+    @Test
+    public void appendInPlace() {
+        FlyweightMessageHistory fmh = new FlyweightMessageHistory();
+        assertFalse(fmh.isDirty());
+        fmh.reset(3, 33);
+        assertEquals(1, fmh.sources());
+        assertEquals(1, fmh.timings());
+        fmh.addSource(4, 44);
+        assertTrue(fmh.isDirty());
+        assertEquals(4, fmh.lastSourceId());
+        assertEquals(44, fmh.lastSourceIndex());
+
+        FlyweightMessageHistory copy = fmh.deepCopy();
+        assertEquals(fmh, copy);
+        assertEquals(fmh.hashCode(), copy.hashCode());
+        copy.addTiming(1);
+        assertNotEquals(fmh, copy);
+
+        for (int i = 2; i < VanillaMessageHistory.MESSAGE_HISTORY_LENGTH; i++)
+            fmh.addSource(i, i);
+        assertThrows(IllegalStateException.class, () -> fmh.addSource(-1, -1));
+
+        fmh.reset();
+        assertEquals(-1, fmh.lastSourceId());
+        assertEquals(0, fmh.timings());
+    }
+
+    @Test
+    public void viewedUntilDetached() {
+        Wire wire = WireType.BINARY_LIGHT.apply(Bytes.allocateElasticOnHeap());
+        wire.write("history").marshallable(history());
+
+        FlyweightMessageHistory fmh = new FlyweightMessageHistory();
+        wire.read("history").marshallable(fmh);
+        fmh.addSource(3, 333);
+        fmh.addTiming(34343434);
+
+        // the sources and timings read, then those added
+        Wire wire2 = WireType.BINARY_LIGHT.apply(Bytes.allocateElasticOnHeap());
+        wire2.write("history").marshallable(fmh);
+        VanillaMessageHistory vmh = new VanillaMessageHistory();
+        wire2.read("history").marshallable(vmh);
+        assertEquals(3, vmh.sources());
+        assertEquals(0x200000001L, vmh.sourceIndex(1));
+        assertEquals(333, vmh.sourceIndex(2));
+        assertEquals(12121212, vmh.timing(0));
+        assertEquals(34343434, vmh.timing(2));
+
+        fmh.detach();
+        wire.bytes().zeroOut(0, wire.bytes().writePosition());
+        assertEquals(1, fmh.sourceId(0));
+        assertEquals(128, fmh.sourceIndex(0));
+        assertEquals(3, fmh.lastSourceId());
+        assertEquals(3, fmh.timings());
+        assertEquals(12121212, fmh.timing(0));
+        assertEquals(34343434, fmh.timing(2));
+    }
+}
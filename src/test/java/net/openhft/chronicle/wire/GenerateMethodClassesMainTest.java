@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.MethodReader;
+import net.openhft.chronicle.core.io.IOTools;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GenerateMethodClassesMainTest extends WireTestCommon {
+
+    @Test
+    public void generatesTheClassesTheBuildersLookFor() throws Exception {
+        File dir = IOTools.createTempFile("generated-sources");
+        List<Path> paths = GenerateMethodClassesMain.main0(dir.getPath(),
+                "--writer=" + Greeter.class.getName(),
+                "--reader=" + GreeterImpl.class.getName());
+        assertEquals(2, paths.size());
+
+        Wire wire = WireType.BINARY_LIGHT.apply(Bytes.allocateElasticOnHeap());
+        VanillaMethodWriterBuilder<Greeter> builder = (VanillaMethodWriterBuilder<Greeter>) wire.methodWriterBuilder(Greeter.class);
+        String writerName = builder.fullClassName();
+        assertEquals(dir.toPath().resolve(writerName.replace('.', '/') + ".java"), paths.get(0));
+        String writerSource = new String(Files.readAllBytes(paths.get(0)), StandardCharsets.UTF_8);
+        assertTrue(writerSource, writerSource.contains("public final class " + writerName.substring(writerName.lastIndexOf('.') + 1) + " implements"));
+
+        // compile the generated source as the build would, then the builders use it
+        Class<?> writerClass = Wires.loadFromJava(getClass().getClassLoader(), writerName, writerSource);
+        Greeter greeter = builder.build();
+        assertSame(writerClass, greeter.getClass());
+
+        GenerateMethodReader gmr = new GenerateMethodReader(null, null, null, new GreeterImpl(new StringBuilder()));
+        String readerName = gmr.packageName() + "." + gmr.generatedClassName();
+        assertEquals(dir.toPath().resolve(readerName.replace('.', '/') + ".java"), paths.get(1));
+        String readerSource = new String(Files.readAllBytes(paths.get(1)), StandardCharsets.UTF_8);
+        Class<?> readerClass = Wires.loadFromJava(getClass().getClassLoader(), readerName, readerSource);
+
+        greeter.hello("world");
+        StringBuilder sb = new StringBuilder();
+        MethodReader reader = wire.methodReader(new GreeterImpl(sb));
+        assertSame(readerClass, reader.getClass());
+        assertTrue(reader.readOne());
+        assertEquals("hello world", sb.toString());
+        wire.bytes().releaseLast();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void writerNeedsAnInterface() throws Exception {
+        GenerateMethodClassesMain.main0(IOTools.createTempFile("generated-sources").getPath(),
+                "--writer=" + GreeterImpl.class.getName());
+    }
+
+    interface Greeter {
+        void hello(String name);
+    }
+
+    static class GreeterImpl implements Greeter {
+        private final StringBuilder sb;
+
+        GreeterImpl(StringBuilder sb) {
+            this.sb = sb;
+        }
+
+        @Override
+        public void hello(String name) {
+            sb.append("hello ").append(name);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.Bytes;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GeneratedWireMarshallerTest extends WireTestCommon {
+
+    private static GWMDto newDto() {
+        GWMDto dto = new GWMDto();
+        dto.flag = true;
+        dto.count = 12;
+        dto.id = 1234567890123L;
+        dto.ratio = 0.25f;
+        dto.price = 1.5;
+        dto.name = "hello";
+        dto.side = GWMSide.SELL;
+        return dto;
+    }
+
+    @Test
+    public void generatesForSupportedFields() {
+        WireMarshaller<GWMDto> wm = WireMarshaller.ofGenerated(GWMDto.class);
+        assertTrue(wm instanceof GeneratedWireMarshaller);
+    }
+
+    @Test
+    public void fieldsForUnsupportedFields() {
+        assertEquals(WireMarshaller.class, WireMarshaller.ofGenerated(GWMPrivate.class).getClass());
+        assertEquals(WireMarshaller.class, WireMarshaller.ofGenerated(GWMNested.class).getClass());
+    }
+
+    @Test
+    public void writesAsTheFields() {
+        for (WireType wireType : new WireType[]{WireType.YAML_ONLY, WireType.BINARY_LIGHT}) {
+            GWMDto dto = newDto();
+            Wire expected = wireType.apply(Bytes.allocateElasticOnHeap());
+            WireMarshaller.of(GWMDto.class).writeMarshallable(dto, expected);
+            Wire actual = wireType.apply(Bytes.allocateElasticOnHeap());
+            WireMarshaller.ofGenerated(GWMDto.class).writeMarshallable(dto, actual);
+            assertEquals(wireType.toString(), expected.bytes().toHexString(), actual.bytes().toHexString());
+        }
+    }
+
+    @Test
+    public void roundTrip() {
+        WireMarshaller<GWMDto> wm = WireMarshaller.ofGenerated(GWMDto.class);
+        // TEXT is read in DTO order by the generated class, the others in input order
+        for (WireType wireType : new WireType[]{WireType.TEXT, WireType.YAML_ONLY, WireType.BINARY_LIGHT}) {
+            GWMDto dto = newDto();
+            Wire wire = wireType.apply(Bytes.allocateElasticOnHeap());
+            wm.writeMarshallable(dto, wire);
+            GWMDto dto2 = new GWMDto();
+            wm.readMarshallable(dto2, wire, true);
+            assertEquals(dto, dto2);
+        }
+    }
+
+    @Test
+    public void missingFieldsTakeTheDefault() {
+        Wire wire = WireType.YAML_ONLY.apply(Bytes.from("price: 2.5\nname: world\n"));
+        GWMDto dto = newDto();
+        WireMarshaller.ofGenerated(GWMDto.class).readMarshallable(dto, wire, true);
+        GWMDto expected = new GWMDto();
+        expected.price = 2.5;
+        expected.name = "world";
+        assertEquals(expected, dto);
+    }
+
+    @Test
+    public void readsInInputOrderWhereHinted() {
+        Wire wire = WireType.BINARY_LIGHT.apply(Bytes.allocateElasticOnHeap());
+        wire.write("side").object(GWMSide.class, GWMSide.SELL)
+                .write("name").text("world")
+                .write("count").int32(3);
+        assertTrue(wire.hintReadInputOrder());
+        GWMDto dto = new GWMDto();
+        WireMarshaller.ofGenerated(GWMDto.class).readMarshallable(dto, wire, true);
+        GWMDto expected = new GWMDto();
+        expected.side = GWMSide.SELL;
+        expected.name = "world";
+        expected.count = 3;
+        assertEquals(expected, dto);
+        assertEquals(0, wire.bytes().readRemaining());
+    }
+
+    enum GWMSide {
+        BUY, SELL
+    }
+
+    static class GWMDto extends SelfDescribingMarshallable {
+        boolean flag;
+        int count = 7;
+        long id;
+        float ratio;
+        double price;
+        String name;
+        GWMSide side = GWMSide.BUY;
+    }
+
+    static class GWMPrivate extends SelfDescribingMarshallable {
+        private int count;
+    }
+
+    static class GWMNested extends SelfDescribingMarshallable {
+        GWMDto dto;
+    }
+}
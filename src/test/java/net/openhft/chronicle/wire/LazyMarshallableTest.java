@@ -0,0 +1,219 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.pool.ClassAliasPool;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class LazyMarshallableTest extends WireTestCommon {
+
+    static Trade createTrade() {
+        Trade trade = new Trade();
+        trade.id(101);
+        trade.symbol("EURUSD");
+        trade.legs(new ArrayList<>(Arrays.asList(new Leg("near", 1.1), new Leg("far", 1.2))));
+        Map<String, String> notes = new LinkedHashMap<>();
+        notes.put("desk", "fx");
+        trade.notes(notes);
+        return trade;
+    }
+
+    private static Wire write(Marshallable... ms) {
+        Wire wire = WireType.BINARY_LIGHT.apply(Bytes.allocateElasticOnHeap());
+        for (Marshallable m : ms)
+            wire.getValueOut().object(m);
+        return wire;
+    }
+
+    @Test
+    public void readsOnAccess() {
+        Trade expected = createTrade();
+        Wire wire = write(expected);
+        Trade trade = wire.getValueIn().object(Trade.class);
+        assertFalse(trade.isMaterialised("symbol"));
+        assertFalse(trade.isMaterialised("legs"));
+
+        assertEquals("EURUSD", trade.symbol());
+        assertTrue(trade.isMaterialised("symbol"));
+        assertFalse(trade.isMaterialised("legs"));
+
+        assertEquals(expected.legs(), trade.legs());
+        assertEquals(101, trade.id());
+        assertFalse(trade.isMaterialised("notes"));
+
+        assertEquals(expected, trade);
+        assertTrue(trade.isMaterialised("notes"));
+    }
+
+    @Test
+    public void missingFieldsAreReset() {
+        Trade partial = new Trade();
+        partial.id(202);
+        Wire wire = write(createTrade(), partial);
+
+        Trade trade = new Trade();
+        wire.getValueIn().object(trade, Trade.class);
+        assertEquals("EURUSD", trade.symbol());
+        wire.getValueIn().object(trade, Trade.class);
+        assertNull(trade.symbol());
+        assertEquals(202, trade.id());
+        assertEquals(partial, trade);
+    }
+
+    @Test
+    public void copyAndWrite() {
+        Trade expected = createTrade();
+        Trade trade = write(expected).getValueIn().object(Trade.class);
+        Trade copy = trade.deepCopy();
+        assertEquals(expected, copy);
+        assertEquals(expected.hashCode(), trade.hashCode());
+        assertEquals(expected.toString(), trade.toString());
+
+        Trade trade2 = write(expected).getValueIn().object(Trade.class);
+        Trade trade3 = write(trade2).getValueIn().object(Trade.class);
+        assertEquals(expected, trade3);
+    }
+
+    @Test
+    public void resetDropsUnread() {
+        Trade trade = write(createTrade()).getValueIn().object(Trade.class);
+        trade.reset();
+        assertTrue(trade.isMaterialised("legs"));
+        assertEquals(new Trade(), trade);
+    }
+
+    @Test
+    public void textIsEager() {
+        Trade expected = createTrade();
+        Trade trade = Marshallable.fromString(expected.toString());
+        assertTrue(trade.isMaterialised("legs"));
+        assertEquals(expected, trade);
+    }
+
+    @Test
+    public void fieldLessIsEager() {
+        Trade expected = createTrade();
+        Wire wire = WireType.FIELDLESS_BINARY.apply(Bytes.allocateElasticOnHeap());
+        wire.getValueOut().object(expected);
+        Trade trade = wire.getValueIn().object(Trade.class);
+        assertTrue(trade.isMaterialised("legs"));
+        assertEquals(expected, trade);
+    }
+
+    @Test
+    public void namesIgnoreCase() {
+        Wire wire = write();
+        wire.getValueOut().typedMarshallable(ClassAliasPool.CLASS_ALIASES.nameFor(Trade.class), (WriteMarshallable) w -> w
+                .write("ID").int64(303)
+                .write("Symbol").text("GBPUSD"));
+        Trade trade = wire.getValueIn().object(Trade.class);
+        assertFalse(trade.isMaterialised("symbol"));
+        assertEquals("GBPUSD", trade.symbol());
+        assertEquals(303, trade.id());
+    }
+
+    @Test
+    public void reflectionMaterialises() throws NoSuchFieldException {
+        Trade trade = write(createTrade()).getValueIn().object(Trade.class);
+        assertEquals("EURUSD", Wires.getField(trade, "symbol", String.class));
+        assertTrue(trade.isMaterialised("legs"));
+
+        Trade trade2 = write(createTrade()).getValueIn().object(Trade.class);
+        Wires.setLongField(trade2, "id", 5);
+        // the fields not read yet aren't replaced later
+        assertEquals(5, trade2.id());
+        assertEquals("EURUSD", trade2.symbol());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownField() {
+        Trade trade = write(createTrade()).getValueIn().object(Trade.class);
+        trade.materialise("price");
+    }
+
+    static class Leg extends SelfDescribingMarshallable {
+        String tenor;
+        double rate;
+
+        Leg(String tenor, double rate) {
+            this.tenor = tenor;
+            this.rate = rate;
+        }
+    }
+
+    static class Trade extends LazyMarshallable {
+        private long id;
+        private String symbol;
+        private List<Leg> legs;
+        private Map<String, String> notes;
+
+        public long id() {
+            materialise("id");
+            return id;
+        }
+
+        public Trade id(long id) {
+            materialise("id");
+            this.id = id;
+            return this;
+        }
+
+        public String symbol() {
+            materialise("symbol");
+            return symbol;
+        }
+
+        public Trade symbol(String symbol) {
+            materialise("symbol");
+            this.symbol = symbol;
+            return this;
+        }
+
+        public List<Leg> legs() {
+            materialise("legs");
+            return legs;
+        }
+
+        public Trade legs(List<Leg> legs) {
+            materialise("legs");
+            this.legs = legs;
+            return this;
+        }
+
+        public Map<String, String> notes() {
+            materialise("notes");
+            return notes;
+        }
+
+        public Trade notes(Map<String, String> notes) {
+            materialise("notes");
+            this.notes = notes;
+            return this;
+        }
+    }
+}
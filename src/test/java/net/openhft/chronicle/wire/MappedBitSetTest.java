@@ -0,0 +1,141 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.core.io.IORuntimeException;
+import net.openhft.chronicle.core.io.IOTools;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class MappedBitSetTest extends WireTestCommon {
+
+    @Test
+    public void persistsAcrossReopen() {
+        File file = IOTools.createTempFile("persistsAcrossReopen");
+        try (MappedBitSet bitSet = new MappedBitSet(file, MappedBitSet.MIN_CHUNK_BYTES)) {
+            bitSet.set(1);
+            bitSet.set(100_000);
+            bitSet.flush();
+        }
+        try (MappedBitSet bitSet = new MappedBitSet(file)) {
+            assertTrue(bitSet.get(1));
+            assertTrue(bitSet.get(100_000));
+            assertEquals(2, bitSet.cardinality());
+            assertEquals(100_001, bitSet.length());
+            assertEquals("{1, 100000}", bitSet.toString());
+        }
+    }
+
+    @Test
+    public void growsByChunk() {
+        try (MappedBitSet bitSet = new MappedBitSet(IOTools.createTempFile("growsByChunk"), MappedBitSet.MIN_CHUNK_BYTES)) {
+            assertTrue(bitSet.size() < 40_000);
+            // spans many 4 KiB chunks
+            for (int i = 7; i < 2_000_000; i += 32_749)
+                bitSet.set(i);
+            assertTrue(bitSet.size() >= 2_000_000);
+
+            int count = 0;
+            for (int i = bitSet.nextSetBit(0); i >= 0; i = bitSet.nextSetBit(i + 1)) {
+                assertEquals(7, i % 32_749);
+                count++;
+            }
+            assertEquals(bitSet.cardinality(), count);
+            assertEquals(-1, bitSet.nextSetBit(7 + 1, 32_749 - 1));
+        }
+    }
+
+    @Test
+    public void getAndSet() {
+        try (MappedBitSet bitSet = new MappedBitSet(IOTools.createTempFile("getAndSet"), MappedBitSet.MIN_CHUNK_BYTES)) {
+            assertFalse(bitSet.getAndSet(12345));
+            assertTrue(bitSet.getAndSet(12345));
+            bitSet.clear(12345);
+            assertFalse(bitSet.getAndSet(12345));
+        }
+    }
+
+    @Test
+    public void concurrentSetIsLockFree() throws Exception {
+        final int threads = 4;
+        final int bits = 1 << 18;
+        AtomicInteger firsts = new AtomicInteger();
+        ExecutorService es = Executors.newFixedThreadPool(threads);
+        try (MappedBitSet bitSet = new MappedBitSet(IOTools.createTempFile("concurrentSet"), MappedBitSet.MIN_CHUNK_BYTES)) {
+            Future<?>[] futures = new Future[threads];
+            for (int t = 0; t < threads; t++) {
+                futures[t] = es.submit(() -> {
+                    // every thread sets every bit, only one sees it first
+                    for (int i = 0; i < bits; i++)
+                        if (!bitSet.getAndSet(i))
+                            firsts.incrementAndGet();
+                });
+            }
+            for (Future<?> future : futures)
+                future.get();
+            assertEquals(bits, firsts.get());
+            assertEquals(bits, bitSet.cardinality());
+            assertEquals(bits, bitSet.nextClearBit(0));
+        } finally {
+            es.shutdownNow();
+        }
+    }
+
+    @Test
+    public void marshallable() {
+        File file = IOTools.createTempFile("marshallable");
+        try (MappedBitSet bitSet = new MappedBitSet(file, MappedBitSet.MIN_CHUNK_BYTES)) {
+            bitSet.set(42);
+            String yaml = WireType.TEXT.asString(bitSet);
+            assertTrue(yaml, yaml.contains("chunkBytes: 4096"));
+            try (MappedBitSet copy = WireType.TEXT.fromString(yaml)) {
+                assertEquals(file, copy.file());
+                assertTrue(copy.get(42));
+                assertEquals(bitSet, copy);
+            }
+        }
+    }
+
+    @Test(expected = IORuntimeException.class)
+    public void notABitSet() throws IOException {
+        File file = IOTools.createTempFile("notABitSet");
+        try (FileOutputStream fos = new FileOutputStream(file)) {
+            fos.write("Not a bit set".getBytes());
+        }
+        new MappedBitSet(file).close();
+    }
+
+    @Test(expected = IORuntimeException.class)
+    public void zeroFilledFileIsNotABitSet() throws IOException {
+        File file = IOTools.createTempFile("zeroFilledFileIsNotABitSet");
+        try (FileOutputStream fos = new FileOutputStream(file)) {
+            fos.write(new byte[64]);
+        }
+        new MappedBitSet(file).close();
+    }
+}
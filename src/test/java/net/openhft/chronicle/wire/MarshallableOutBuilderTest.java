@@ -25,6 +25,7 @@ import net.openhft.chronicle.bytes.Bytes;
 import net.openhft.chronicle.bytes.BytesUtil;
 import net.openhft.chronicle.core.Jvm;
 import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.core.io.Closeable;
 import net.openhft.chronicle.jlbh.JLBH;
 import net.openhft.chronicle.jlbh.JLBHOptions;
 import net.openhft.chronicle.jlbh.JLBHTask;
@@ -37,12 +38,20 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.InetSocketAddress;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class MarshallableOutBuilderTest extends net.openhft.chronicle.wire.WireTestCommon {
 
@@ -76,6 +85,85 @@ public class MarshallableOutBuilderTest extends net.openhft.chronicle.wire.WireT
         file("", expected);
     }
 
+    @Test
+    public void fileKeepOpen() throws IOException {
+        fileKeptOpen("?append=true&keepOpen=true");
+    }
+
+    @Test
+    public void fileGroupCommit() throws IOException {
+        fileKeptOpen("?append=true&batchBytes=4096&batchMillis=1000");
+    }
+
+    @Test
+    public void fileMapped() throws IOException {
+        // smaller than the messages written to check they span mappings
+        fileKeptOpen("?append=true&mappedBytes=16&force=true");
+    }
+
+    @Test
+    public void fileMappedNotClosed() throws IOException {
+        fileNotClosed(null);
+    }
+
+    @Test
+    public void fileMappedNotClosedBinary() throws IOException {
+        fileNotClosed(WireType.BINARY);
+    }
+
+    private void fileNotClosed(WireType wireType) throws IOException {
+        final File file = new File(OS.getTarget(), "tmp-" + System.nanoTime());
+        final URL url = new URL("file://" + file.getAbsolutePath() + "?append=true&mappedBytes=16");
+        byte[] messages = null;
+        for (int i = 0; i < 2; i++) {
+            final MarshallableOut out = MarshallableOut.builder(url).wireType(wireType).get();
+            try {
+                writeMessages(out);
+            } finally {
+                Closeable.closeQuietly(out);
+            }
+            if (i == 0) {
+                messages = Files.readAllBytes(file.toPath());
+                // the end of a mapping which wasn't trimmed
+                Files.write(file.toPath(), new byte[100], StandardOpenOption.APPEND);
+            }
+        }
+        final byte[] twice = Arrays.copyOf(messages, messages.length * 2);
+        System.arraycopy(messages, 0, twice, messages.length, messages.length);
+        assertArrayEquals(twice, Files.readAllBytes(file.toPath()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fileKeepOpenNotAppend() throws IOException {
+        final File file = new File(OS.getTarget(), "tmp-" + System.nanoTime());
+        MarshallableOut.builder(new URL("file://" + file.getAbsolutePath() + "?keepOpen=true")).get();
+    }
+
+    private void fileKeptOpen(String query) throws IOException {
+        final String messages = "" +
+                "mid: mid\n" +
+                "next: 1\n" +
+                "echo: echo-1\n" +
+                "...\n" +
+                "mid2: mid2\n" +
+                "next2: word\n" +
+                "echo: echo-2\n" +
+                "...\n";
+        final File file = new File(OS.getTarget(), "tmp-" + System.nanoTime());
+        final URL url = new URL("file://" + file.getAbsolutePath() + query);
+        for (int i = 1; i <= 2; i++) {
+            final MarshallableOut out = MarshallableOut.builder(url).get();
+            assertTrue(out instanceof Closeable);
+            try {
+                writeMessages(out);
+            } finally {
+                Closeable.closeQuietly(out);
+            }
+            final Bytes<?> bytes = BytesUtil.readFile(file.getAbsolutePath());
+            assertEquals(i == 1 ? messages : messages + messages, bytes.toString());
+        }
+    }
+
     public void file(String query, String expected) throws IOException {
         final File file = new File(OS.getTarget(), "tmp-" + System.nanoTime());
         final URL url = new URL("file://" + file.getAbsolutePath() + query);
@@ -91,7 +179,10 @@ public class MarshallableOutBuilderTest extends net.openhft.chronicle.wire.WireT
     }
 
     private void writeMessages(URL url, WireType wireType) {
-        final MarshallableOut out = MarshallableOut.builder(url).wireType(wireType).get();
+        writeMessages(MarshallableOut.builder(url).wireType(wireType).get());
+    }
+
+    private void writeMessages(MarshallableOut out) {
         ITop top = out.methodWriter(ITop.class);
         top.mid("mid")
                 .next(1)
@@ -124,6 +215,51 @@ public class MarshallableOutBuilderTest extends net.openhft.chronicle.wire.WireT
         }
     }
 
+    @Test
+    public void httpBatched() throws IOException, InterruptedException {
+        InetSocketAddress address = new InetSocketAddress(0);
+        HttpServer server = HttpServer.create(address, 0);
+        int port = server.getAddress().getPort();
+        BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+        Set<Integer> clientPorts = Collections.synchronizedSet(new HashSet<>());
+        server.createContext("/echo", xchg -> {
+            clientPorts.add(xchg.getRemoteAddress().getPort());
+            new Handler(queue).handle(xchg);
+        });
+        server.start();
+        try {
+            final URL url = new URL("http://localhost:" + port + "/echo");
+            // both messages fit in one batch, sent on close
+            final MarshallableOut out = MarshallableOut.builder(url).batchBytes(1 << 16).batchMillis(60_000).get();
+            writeMessages(out);
+            assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+            Closeable.closeQuietly(out);
+            assertEquals(
+                    "{\"mid\":\"mid\",\"next\":1,\"echo\":\"echo-1\"}\n" +
+                            "{\"mid2\":\"mid2\",\"next2\":\"word\",\"echo\":\"echo-2\"}\n",
+                    queue.poll(1, TimeUnit.SECONDS));
+            assertNull(queue.poll(1, TimeUnit.MILLISECONDS));
+
+            // many batches over one connection
+            final MarshallableOut out2 = MarshallableOut.builder(url).batchBytes(256).maxInFlight(2).get();
+            Timed timed = out2.methodWriter(Timed.class);
+            for (int i = 0; i < 1000; i++)
+                timed.time(i);
+            Closeable.closeQuietly(out2);
+            StringBuilder sb = new StringBuilder();
+            for (String s; (s = queue.poll(100, TimeUnit.MILLISECONDS)) != null; )
+                sb.append(s);
+            String[] lines = sb.toString().split("\n");
+            assertEquals(1000, lines.length);
+            for (int i = 0; i < 1000; i++)
+                assertEquals("{\"time\":" + i + "}", lines[i]);
+            // the first out and out2 each used one connection
+            assertTrue(clientPorts.toString(), clientPorts.size() <= 2);
+        } finally {
+            server.stop(1);
+        }
+    }
+
     @Ignore("test was added to work with queue-web-gateway, so work in progress")
     @Test
     public void http2() throws IOException, InterruptedException {
@@ -187,7 +323,8 @@ public class MarshallableOutBuilderTest extends net.openhft.chronicle.wire.WireT
                 queue.add(bytes.toHexString());
             else
                 queue.add(bytes.toString());
-            xchg.sendResponseHeaders(202, 0);
+            xchg.sendResponseHeaders(202, -1);
+            xchg.close();
         }
     }
 
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.MethodReader;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MethodReaderEventNameHashTest extends WireTestCommon {
+
+    @Test
+    public void binary() {
+        doTest(WireType.BINARY_LIGHT.apply(Bytes.allocateElasticOnHeap()));
+    }
+
+    @Test
+    public void yaml() {
+        doTest(WireType.YAML_ONLY.apply(Bytes.allocateElasticOnHeap()));
+    }
+
+    @Test
+    public void text() {
+        doTest(WireType.TEXT.apply(Bytes.allocateElasticOnHeap()));
+    }
+
+    private void doTest(Wire wire) {
+        // "Aa" and "BB" have the same hash code
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+
+        final Colliding writer = wire.methodWriter(Colliding.class);
+        writer.Aa("one");
+        writer.BB("two");
+        writer.aMethodNameLongerThanThirtyOneCharacters("three");
+        try (DocumentContext dc = wire.writingDocument()) {
+            // a short field name as well as an event name
+            dc.wire().write("BB").text("four");
+        }
+        try (DocumentContext dc = wire.writingDocument()) {
+            dc.wire().write("Ab").text("five");
+        }
+
+        final List<String> calls = new ArrayList<>();
+        final MethodReader reader = wire.methodReaderBuilder()
+                .defaultParselet((s, in) -> {
+                    // the name can be kept
+                    assertTrue(s instanceof String);
+                    calls.add("unknown " + s + " " + in.text());
+                })
+                .build(new Colliding() {
+                    @Override
+                    public void Aa(String s) {
+                        calls.add("Aa " + s);
+                    }
+
+                    @Override
+                    public void BB(String s) {
+                        calls.add("BB " + s);
+                    }
+
+                    @Override
+                    public void aMethodNameLongerThanThirtyOneCharacters(String s) {
+                        calls.add("long " + s);
+                    }
+                });
+        assertFalse("check we are using generated code", reader instanceof VanillaMethodReader);
+
+        for (int i = 0; i < 5; i++)
+            assertTrue(reader.readOne());
+        assertFalse(reader.readOne());
+        assertEquals("[Aa one, BB two, long three, BB four, unknown Ab five]", calls.toString());
+    }
+
+    @Test
+    public void nonAsciiBinary() {
+        doTestNonAscii(WireType.BINARY_LIGHT.apply(Bytes.allocateElasticOnHeap()));
+    }
+
+    @Test
+    public void nonAsciiYaml() {
+        doTestNonAscii(WireType.YAML_ONLY.apply(Bytes.allocateElasticOnHeap()));
+    }
+
+    private void doTestNonAscii(Wire wire) {
+        final NonAscii writer = wire.methodWriter(NonAscii.class);
+        writer.caf\u00e9("one");
+        writer.plain("two");
+        try (DocumentContext dc = wire.writingDocument()) {
+            dc.wire().write("cafe").text("three");
+        }
+
+        final List<String> calls = new ArrayList<>();
+        final MethodReader reader = wire.methodReaderBuilder()
+                .defaultParselet((s, in) -> {
+                    // the name can be kept
+                    assertTrue(s instanceof String);
+                    calls.add("unknown " + s + " " + in.text());
+                })
+                .build(new NonAscii() {
+                    @Override
+                    public void caf\u00e9(String s) {
+                        calls.add("caf\u00e9 " + s);
+                    }
+
+                    @Override
+                    public void plain(String s) {
+                        calls.add("plain " + s);
+                    }
+                });
+        assertFalse("check we are using generated code", reader instanceof VanillaMethodReader);
+
+        for (int i = 0; i < 3; i++)
+            assertTrue(reader.readOne());
+        assertFalse(reader.readOne());
+        assertEquals("[caf\u00e9 one, plain two, unknown cafe three]", calls.toString());
+    }
+
+    interface NonAscii {
+        void caf\u00e9(String s);
+
+        void plain(String s);
+    }
+
+    interface Colliding {
+        void Aa(String s);
+
+        void BB(String s);
+
+        void aMethodNameLongerThanThirtyOneCharacters(String s);
+    }
+}
@@ -18,6 +18,7 @@
 
 package net.openhft.chronicle.wire;
 
+import net.openhft.chronicle.bytes.Bytes;
 import org.junit.Test;
 
 import static net.openhft.chronicle.wire.MilliTimestampLongConverter.INSTANCE;
@@ -95,4 +96,44 @@ public class MilliTimestampLongConverterTest extends WireTestCommon {
         assertEquals(longConverter.asString(longConverter.parse(timestampString)), timestampString);
         assertEquals(longConverter.parse(longConverter.asString(timestamp)), timestamp);
     }
+
+    @Test
+    public void daysWithAChangeOfOffset() {
+        final MilliTimestampLongConverter converter = new MilliTimestampLongConverter("Australia/Melbourne");
+        // the day is cached from a time after the change first
+        assertEquals("2023-10-01T12:00:00.5+11:00", converter.asString(1696122000500L));
+        assertEquals("2023-10-01T03:00:00+11:00", converter.asString(1696089600000L));
+        assertEquals("2023-10-01T01:59:59.999+10:00", converter.asString(1696089599999L));
+        assertEquals(1696122000500L, converter.parse("2023-10-01T12:00:00.5+11:00"));
+        assertEquals(1696089599999L, converter.parse("2023-10-01T01:59:59.999"));
+
+        assertEquals("2023-04-02T02:30:00.25+10:00", converter.asString(1680366600250L));
+        assertEquals("2023-04-02T02:30:00.25+11:00", converter.asString(1680363000250L));
+    }
+
+    @Test
+    public void appendToBytes() {
+        final Bytes<?> bytes = Bytes.allocateElasticOnHeap();
+        new MilliTimestampLongConverter("Australia/Melbourne").append(bytes, TIMESTAMP);
+        assertEquals(TIMESTAMP_STRING_MELBOURNE, bytes.toString());
+        bytes.clear();
+        new MilliTimestampLongConverter("UTC").append(bytes, TIMESTAMP);
+        assertEquals(TIMESTAMP_STRING_UTC_NO_SUFFIX, bytes.toString());
+    }
+
+    @Test
+    public void zeroAndNegativeAreWrittenAsNumbers() {
+        final MilliTimestampLongConverter converter = new MilliTimestampLongConverter("UTC");
+        final StringBuilder sb = new StringBuilder();
+        final Bytes<?> bytes = Bytes.allocateElasticOnHeap();
+        for (long value : new long[]{0, -1, -TIMESTAMP}) {
+            sb.setLength(0);
+            converter.append(sb, value);
+            assertEquals(Long.toString(value), sb.toString());
+            bytes.clear();
+            converter.append(bytes, value);
+            assertEquals(Long.toString(value), bytes.toString());
+        }
+        assertEquals("0", converter.asString(0));
+    }
 }
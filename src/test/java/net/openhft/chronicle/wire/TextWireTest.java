@@ -206,14 +206,8 @@ public class TextWireTest extends WireTestCommon {
         WireType.TEXT.licenceCheck();
         assertTrue(WireType.TEXT.isAvailable());
 
-        try {
-            expectException("A Chronicle-Wire-Enterprise licence is required to run this code because you are using DELTA_BINARY which is a licence product");
-            WireType.DELTA_BINARY.licenceCheck();
-            fail();
-        } catch (IllegalStateException expected) {
-            // expected
-        }
-        assertFalse(WireType.DELTA_BINARY.isAvailable());
+        WireType.DELTA_BINARY.licenceCheck();
+        assertTrue(WireType.DELTA_BINARY.isAvailable());
     }
 
     @Test
@@ -4,11 +4,14 @@
 
 package net.openhft.chronicle.wire;
 
+import net.openhft.chronicle.bytes.Bytes;
 import net.openhft.chronicle.bytes.HexDumpBytes;
 import net.openhft.chronicle.core.pool.ClassAliasPool;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class WireMarshallerTest extends WireTestCommon {
 
@@ -37,4 +40,99 @@ public class WireMarshallerTest extends WireTestCommon {
                 "   a7 2b 20 d2 5c 8a 97 05 00                      # 1573995402108971\n", bytes.toHexString());
         bytes.releaseLast();
     }
+
+    @Test
+    public void readsBinaryFieldsInInputOrder() {
+        Wire wire = new BinaryWire(Bytes.allocateElasticOnHeap());
+        // fields in reverse order, with an unknown field and a missing field
+        wire.write("wide").marshallable(w -> w
+                .write("f").int32(6)
+                .write("e").text("five")
+                .write("unknown").float64(1.5)
+                .write("d").int64(4)
+                .write("b").int32(2)
+                .write("a").text("one"));
+
+        WMWide wide = new WMWide();
+        wide.c = 33;
+        WireMarshaller<WMWide> wm = WireMarshaller.WIRE_MARSHALLER_CL.get(WMWide.class);
+        wire.read("wide").marshallable(w -> wm.readMarshallableInputOrder(wide, w, true));
+        assertEquals("one", wide.a);
+        assertEquals(2, wide.b);
+        assertEquals(0, wide.c);
+        assertEquals(4L, wide.d);
+        assertEquals("five", wide.e);
+        assertEquals(6, wide.f);
+    }
+
+    @Test
+    public void inputOrderRetainsMissingFieldsWhenNotOverwriting() {
+        Wire wire = new BinaryWire(Bytes.allocateElasticOnHeap());
+        wire.write("wide").marshallable(w -> w
+                .write("e").text("five")
+                .write("a").text("one"));
+
+        WMWide wide = new WMWide();
+        wide.b = 22;
+        wide.f = 66;
+        WireMarshaller<WMWide> wm = WireMarshaller.WIRE_MARSHALLER_CL.get(WMWide.class);
+        wire.read("wide").marshallable(w -> wm.readMarshallableInputOrder(wide, w, false));
+        assertEquals("one", wide.a);
+        assertEquals(22, wide.b);
+        assertEquals("five", wide.e);
+        assertEquals(66, wide.f);
+    }
+
+    @Test
+    public void inputOrderIgnoresCaseOutOfOrder() {
+        Wire wire = new BinaryWire(Bytes.allocateElasticOnHeap());
+        wire.write("wide").marshallable(w -> w
+                .write("a").text("one")
+                .write("F").int32(6)
+                .write("B").int32(2));
+
+        WMWide wide = new WMWide();
+        WireMarshaller<WMWide> wm = WireMarshaller.WIRE_MARSHALLER_CL.get(WMWide.class);
+        wire.read("wide").marshallable(w -> wm.readMarshallableInputOrder(wide, w, true));
+        assertEquals("one", wide.a);
+        assertEquals(2, wide.b);
+        assertEquals(6, wide.f);
+    }
+
+    @Test
+    public void inputOrderMatchesFieldNumbers() {
+        Bytes<?> bytes = Bytes.allocateElasticOnHeap();
+        WMWide written = new WMWide();
+        written.a = "one";
+        written.d = 4;
+        written.f = 6;
+        new BinaryWire(bytes, false, true, false, Integer.MAX_VALUE, "binary", false)
+                .write("wide").marshallable(written);
+
+        Wire wire = new BinaryWire(bytes);
+        assertTrue(wire.hintReadInputOrder());
+        WMWide wide = new WMWide();
+        WireMarshaller<WMWide> wm = WireMarshaller.WIRE_MARSHALLER_CL.get(WMWide.class);
+        wire.read("wide").marshallable(w -> wm.readMarshallableInputOrder(wide, w, true));
+        assertEquals(written, wide);
+    }
+
+    @Test
+    public void fieldForLeavesTheNameUnchanged() {
+        WireMarshaller<WMWide> wm = WireMarshaller.WIRE_MARSHALLER_CL.get(WMWide.class);
+        StringBuilder sb = new StringBuilder("F");
+        assertEquals("f", wm.fieldFor(sb).field.getName());
+        assertEquals("F", sb.toString());
+        assertNull(wm.fieldFor(new StringBuilder("g")));
+        assertNull(wm.fieldFor(new StringBuilder("12345678901")));
+    }
+
+    static class WMWide extends SelfDescribingMarshallable {
+        String a;
+        int b;
+        int c;
+        long d;
+        String e;
+        int f;
+    }
 }
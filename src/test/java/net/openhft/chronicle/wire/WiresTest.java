@@ -20,6 +20,7 @@ package net.openhft.chronicle.wire;
 
 import net.openhft.chronicle.bytes.Bytes;
 import net.openhft.chronicle.bytes.BytesMarshallable;
+import net.openhft.chronicle.bytes.MethodReader;
 import net.openhft.chronicle.core.Jvm;
 import net.openhft.chronicle.core.io.InvalidMarshallableException;
 import net.openhft.chronicle.core.io.Validatable;
@@ -31,9 +32,12 @@ import org.junit.Test;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
-import java.lang.reflect.Field;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
 
 import static java.util.Arrays.asList;
 import static net.openhft.chronicle.wire.WireType.TEXT;
@@ -54,11 +58,7 @@ public class WiresTest extends WireTestCommon {
 
     @Test
     public void defaultCompilerOptions() throws Exception {
-        Field compiler = Jvm.getField(Wires.class, "CACHED_COMPILER");
-        compiler.set(null, null);
-        Wires.loadFromJava(this.getClass().getClassLoader(), this.getClass().getName(), "");
-        assertNotNull(compiler.get(null));
-        List<String> options = Jvm.getValue(compiler.get(null), "options");
+        List<String> options = Jvm.getValue(Wires.newCachedCompiler(), "options");
 
         assertTrue(options.containsAll(asList("-g", "-nowarn")));
         assertEquals(2, options.size());
@@ -66,12 +66,8 @@ public class WiresTest extends WireTestCommon {
 
     @Test
     public void customCompilerOptions() throws Exception {
-        Field compiler = Jvm.getField(Wires.class, "CACHED_COMPILER");
-        compiler.set(null, null);
         System.setProperty("compiler.options", "-g -parameters");
-        Wires.loadFromJava(this.getClass().getClassLoader(), this.getClass().getName(), "");
-        assertNotNull(compiler.get(null));
-        List<String> options = Jvm.getValue(compiler.get(null), "options");
+        List<String> options = Jvm.getValue(Wires.newCachedCompiler(), "options");
 
         assertTrue(options.containsAll(asList("-g", "-parameters")));
         assertEquals(2, options.size());
@@ -79,6 +75,53 @@ public class WiresTest extends WireTestCommon {
         System.clearProperty("compiler.options");
     }
 
+    @Test
+    public void generateAsync() throws Exception {
+        ClassLoader classLoader = getClass().getClassLoader();
+        List<CompletableFuture<Class>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            String name = "WiresTestGenerated" + i;
+            String code = "package net.openhft.chronicle.wire;\n" +
+                    "public class " + name + " implements java.util.function.IntSupplier {\n" +
+                    "    public int getAsInt() { return " + i + "; }\n" +
+                    "}\n";
+            futures.add(Wires.generateAsync(() -> Wires.loadFromJava(classLoader, "net.openhft.chronicle.wire." + name, code)));
+            // the same class again while it's compiling
+            futures.add(Wires.generateAsync(() -> Wires.loadFromJava(classLoader, "net.openhft.chronicle.wire." + name, code)));
+        }
+        for (int i = 0; i < 8; i++) {
+            Class aClass = futures.get(i * 2).get(1, TimeUnit.MINUTES);
+            assertSame(aClass, futures.get(i * 2 + 1).get(1, TimeUnit.MINUTES));
+            assertEquals(i, ((IntSupplier) aClass.getDeclaredConstructor().newInstance()).getAsInt());
+        }
+    }
+
+    @Test
+    public void buildAsync() throws Exception {
+        Wire wire = WireType.BINARY.apply(Bytes.allocateElasticOnHeap());
+        CompletableFuture<AsyncSays> says = ((VanillaMethodWriterBuilder<AsyncSays>) wire.methodWriterBuilder(AsyncSays.class)).getAsync();
+        CompletableFuture<AsyncCounts> counts = ((VanillaMethodWriterBuilder<AsyncCounts>) wire.methodWriterBuilder(AsyncCounts.class)).getAsync();
+        says.get(1, TimeUnit.MINUTES).say("hello");
+        counts.get(1, TimeUnit.MINUTES).count(2);
+
+        List<String> read = new ArrayList<>();
+        MethodReader reader = wire.methodReaderBuilder()
+                .buildAsync((AsyncSays) read::add, (AsyncCounts) i -> read.add("count " + i))
+                .get(1, TimeUnit.MINUTES);
+        assertTrue(reader.readOne());
+        assertTrue(reader.readOne());
+        assertFalse(reader.readOne());
+        assertEquals(asList("hello", "count 2"), read);
+    }
+
+    interface AsyncSays {
+        void say(String text);
+    }
+
+    interface AsyncCounts {
+        void count(int count);
+    }
+
     @Test
     public void textWireNumberTest() {
         Assert.assertTrue(Double.isNaN(TEXT.apply(Bytes.from("NaN")).getValueIn().float64()));
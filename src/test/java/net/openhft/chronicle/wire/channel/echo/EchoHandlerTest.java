@@ -101,6 +101,57 @@ public class EchoHandlerTest extends WireTestCommon {
         }
     }
 
+    @Test
+    public void clientBufferedLinger() {
+        ignoreException("Closed");
+        String url = "tcp://:0";
+        try (ChronicleContext context = ChronicleContext.newContext(url).name("target/server")) {
+            ChronicleChannel channel = context.newChannelSupplier(new EchoHandler().buffered(false))
+                    .buffered(true)
+                    .lingerNanos(200_000)
+                    .maxBatchBytes(1 << 10)
+                    .get();
+            Says says = channel.methodWriter(Says.class);
+            for (int i = 0; i < 100; i++)
+                says.say("Hello " + i);
+
+            StringBuilder eventType = new StringBuilder();
+            for (int i = 0; i < 100; i++) {
+                String text = channel.readOne(eventType, String.class);
+                assertEquals("say: Hello " + i, eventType + ": " + text);
+            }
+
+            // a testMessage is written by the background writer
+            final long now = SystemTimeProvider.CLOCK.currentTimeNanos();
+            channel.testMessage(now);
+            while (channel.lastTestMessage() < now)
+                try (DocumentContext dc = channel.readingDocument()) {
+                    assertFalse(dc.isPresent() && dc.isData());
+                }
+        }
+    }
+
+    @Test
+    public void clientBufferedRing() {
+        ignoreException("Closed");
+        String url = "tcp://:0";
+        try (ChronicleContext context = ChronicleContext.newContext(url).name("target/server")) {
+            ChronicleChannel channel = context.newChannelSupplier(new EchoHandler().buffered(false))
+                    .buffered(true)
+                    .ringBufferBytes(64 << 10)
+                    .get();
+            Says says = channel.methodWriter(Says.class);
+            for (int i = 0; i < 100; i++)
+                says.say("Hello " + i);
+
+            StringBuilder eventType = new StringBuilder();
+            for (int i = 0; i < 100; i++) {
+                String text = channel.readOne(eventType, String.class);
+                assertEquals("say: Hello " + i, eventType + ": " + text);
+            }
+        }
+    }
+
     @Test
     public void gateway() throws IOException {
         ignoreException("ClosedIORuntimeException");
@@ -126,6 +177,50 @@ public class EchoHandlerTest extends WireTestCommon {
         }
     }
 
+    @Test
+    public void gatewayEventLoop() throws IOException {
+        ignoreException("ClosedIORuntimeException");
+        String url0 = "tcp://localhost:65341";
+        try (ChronicleGatewayMain gateway0 = new ChronicleGatewayMain(url0).selectorThreads(2)) {
+            gateway0.name("target/zero");
+            gateway0.start();
+
+            try (ChronicleContext context = ChronicleContext.newContext(url0).name("target/client")) {
+                // more channels than event loop threads
+                for (int i = 0; i < 4; i++)
+                    doTest(context, new EchoHandler().buffered(false));
+            }
+        }
+    }
+
+    @Test
+    public void sharedMemory() throws IOException {
+        IOTools.deleteDirWithFiles("target/shm");
+        String url = "shm:target/shm";
+        try (ChronicleGatewayMain gateway0 = new ChronicleGatewayMain(url)) {
+            gateway0.start();
+
+            try (ChronicleContext context = ChronicleContext.newContext(url)) {
+                for (int i = 0; i < 2; i++)
+                    doTest(context, new EchoHandler().buffered(false));
+            }
+        }
+    }
+
+    @Test
+    public void serverVirtualThreads() {
+        // falls back to platform threads before Java 21
+        ignoreException("Virtual threads are not supported");
+        IOTools.deleteDirWithFiles("target/server");
+        String url = "tcp://:0";
+        try (ChronicleContext context = ChronicleContext.newContext(url)
+                .name("target/server")
+                .virtualThreads(true)) {
+            for (int i = 0; i < 4; i++)
+                doTest(context, new EchoHandler().buffered(i % 2 == 0));
+        }
+    }
+
     @Ignore
     @Test
     public void redirectedServer() throws IOException {
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire.channel.impl;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.core.io.IOTools;
+import net.openhft.chronicle.wire.WireTestCommon;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class ShmChronicleChannelTest extends WireTestCommon {
+    // above the largest pid on Linux
+    private static final int DEAD_PID = 999_999_999;
+
+    @Test
+    public void removeOrphans() throws IOException {
+        assumeTrue(OS.isLinux());
+        final File dir = new File(OS.getTarget(), "shm-" + System.nanoTime());
+        assertTrue(dir.mkdirs());
+        try {
+            final int pid = Jvm.getProcessId();
+            final File deadTmp = file(dir, DEAD_PID + "-1.tmp", 0);
+            final File deadNotAccepted = file(dir, DEAD_PID + "-2" + ShmChronicleChannel.SUFFIX, 0);
+            final File bothDead = file(dir, DEAD_PID + "-3" + ShmChronicleChannel.SUFFIX, DEAD_PID);
+            final File acceptorAlive = file(dir, DEAD_PID + "-4" + ShmChronicleChannel.SUFFIX, pid);
+            final File initiatorAlive = file(dir, pid + "-5" + ShmChronicleChannel.SUFFIX, 0);
+            final File creating = file(dir, pid + "-6.tmp", 0);
+
+            ShmChronicleChannel.removeOrphans(dir);
+
+            assertFalse(deadTmp.exists());
+            assertFalse(deadNotAccepted.exists());
+            assertFalse(bothDead.exists());
+            assertTrue(acceptorAlive.exists());
+            assertTrue(initiatorAlive.exists());
+            assertTrue(creating.exists());
+            assertEquals(3, dir.list().length);
+        } finally {
+            IOTools.deleteDirWithFiles(dir);
+        }
+    }
+
+    private static File file(File dir, String name, int acceptorPid) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(128).order(ByteOrder.nativeOrder());
+        header.putInt(ShmChronicleChannel.ACCEPTOR_PID_OFFSET, acceptorPid);
+        final File file = new File(dir, name);
+        Files.write(file.toPath(), header.array());
+        return file;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire.channel.impl;
+
+import net.openhft.chronicle.wire.DocumentContext;
+import net.openhft.chronicle.wire.Wire;
+import net.openhft.chronicle.wire.WireTestCommon;
+import org.junit.Test;
+
+import java.nio.BufferOverflowException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class WireRingExchangerTest extends WireTestCommon {
+    private static final int PRODUCERS = 4;
+    private static final int MESSAGES = 20_000;
+
+    @Test
+    public void singleThreaded() {
+        try (WireRingExchanger exchanger = new WireRingExchanger(4 << 10)) {
+            assertFalse(exchanger.isDirty());
+            assertTrue(exchanger.acquireConsumer().bytes().isEmpty());
+            exchanger.releaseConsumer();
+
+            try (DocumentContext dc = exchanger.writingDocument()) {
+                dc.wire().write("say").text("hello");
+            }
+            try (DocumentContext dc = exchanger.writingDocument(true)) {
+                dc.wire().write("meta").int32(1);
+            }
+            assertTrue(exchanger.isDirty());
+            assertTrue(exchanger.producerBytes() > 0);
+
+            final Wire wire = exchanger.acquireConsumer();
+            try (DocumentContext dc = wire.readingDocument()) {
+                assertTrue(dc.isData());
+                assertEquals("hello", dc.wire().read("say").text());
+            }
+            try (DocumentContext dc = wire.readingDocument()) {
+                assertTrue(dc.isMetaData());
+                assertEquals(1, dc.wire().read("meta").int32());
+            }
+            exchanger.releaseConsumer();
+            assertFalse(exchanger.isDirty());
+            assertEquals(0, exchanger.producerBytes());
+        }
+    }
+
+    @Test
+    public void multipleProducers() throws Exception {
+        // small enough for producers to wait for the consumer and to wrap many times
+        try (WireRingExchanger exchanger = new WireRingExchanger(4 << 10)) {
+            final ExecutorService service = Executors.newFixedThreadPool(PRODUCERS);
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int p = 0; p < PRODUCERS; p++) {
+                final int producer = p;
+                futures.add(service.submit(() -> {
+                    for (int i = 0; i < MESSAGES; i++)
+                        try (DocumentContext dc = exchanger.writingDocument()) {
+                            dc.wire().write("p").int32(producer)
+                                    .write("i").int32(i)
+                                    // vary the length so different amounts of each slot are skipped
+                                    .write("pad").text("xxxxxxxxxxxxxxxxxxxxxxxxxxxxxxx".substring(i % 31));
+                        }
+                }));
+            }
+
+            final int[] next = new int[PRODUCERS];
+            int count = 0;
+            final long end = System.currentTimeMillis() + 30_000;
+            while (count < PRODUCERS * MESSAGES) {
+                assertTrue("timed out after " + count, System.currentTimeMillis() < end);
+                final Wire wire = exchanger.acquireConsumer();
+                while (true) {
+                    try (DocumentContext dc = wire.readingDocument()) {
+                        if (!dc.isPresent())
+                            break;
+                        final int p = dc.wire().read("p").int32();
+                        final int i = dc.wire().read("i").int32();
+                        // messages from each producer are in order
+                        assertEquals(next[p]++, i);
+                        count++;
+                    }
+                }
+                exchanger.releaseConsumer();
+            }
+            for (Future<?> future : futures)
+                future.get();
+            service.shutdown();
+            assertTrue(service.awaitTermination(1, TimeUnit.SECONDS));
+            assertFalse(exchanger.isDirty());
+        }
+    }
+
+    @Test
+    public void closeWhileProducing() throws Exception {
+        final WireRingExchanger exchanger = new WireRingExchanger(4 << 10);
+        final ExecutorService service = Executors.newFixedThreadPool(PRODUCERS);
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            futures.add(service.submit(() -> {
+                try {
+                    while (true)
+                        try (DocumentContext dc = exchanger.writingDocument()) {
+                            dc.wire().write("say").text("hello");
+                        }
+                } catch (IllegalStateException expected) {
+                    // closed
+                }
+            }));
+        }
+        final long end = System.currentTimeMillis() + 100;
+        while (System.currentTimeMillis() < end) {
+            exchanger.acquireConsumer();
+            exchanger.releaseConsumer();
+        }
+        // producers are likely to be waiting for the full ring
+        exchanger.close();
+        for (Future<?> future : futures)
+            future.get(5, TimeUnit.SECONDS);
+        service.shutdown();
+        assertTrue(service.awaitTermination(1, TimeUnit.SECONDS));
+        assertFalse(exchanger.isDirty());
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void tooLarge() {
+        try (WireRingExchanger exchanger = new WireRingExchanger(4 << 10)) {
+            try (DocumentContext dc = exchanger.writingDocument()) {
+                dc.wire().write("big").bytes(new byte[8 << 10]);
+            }
+        }
+    }
+
+    @Test
+    public void producersOfEndedThreadsAreReleased() throws InterruptedException {
+        try (WireRingExchanger exchanger = new WireRingExchanger(4 << 10)) {
+            for (int t = 0; t < 10; t++) {
+                final Thread thread = new Thread(() -> {
+                    try (DocumentContext dc = exchanger.writingDocument()) {
+                        dc.wire().write("say").text("hello");
+                    }
+                });
+                thread.start();
+                thread.join();
+                exchanger.acquireConsumer();
+                exchanger.releaseConsumer();
+            }
+            try (DocumentContext dc = exchanger.writingDocument()) {
+                dc.wire().write("say").text("hello");
+            }
+            // only this thread's producer is left
+            assertEquals(1, exchanger.producerCount());
+        }
+    }
+}
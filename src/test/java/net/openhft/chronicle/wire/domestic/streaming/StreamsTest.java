@@ -18,14 +18,18 @@
 
 package net.openhft.chronicle.wire.domestic.streaming;
 
-import net.openhft.chronicle.wire.MarshallableIn;
-import net.openhft.chronicle.wire.Wire;
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.wire.*;
 import net.openhft.chronicle.wire.domestic.stream.Streams;
 import org.junit.jupiter.api.Test;
 
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toList;
@@ -64,4 +68,46 @@ class StreamsTest extends net.openhft.chronicle.wire.WireTestCommon {
         assertFalse(iterator.hasNext());
     }
 
+    @Test
+    void indexedParallel() {
+        final int count = 10_000;
+        final Wire wire = WireType.BINARY_LIGHT.apply(Bytes.allocateElasticOnHeap());
+        for (int i = 0; i < count; i++)
+            try (DocumentContext dc = wire.writingDocument()) {
+                dc.wire().write("value").int64(i);
+            }
+        final IndexedMarshallableIn in = IndexedMarshallableIn.of(wire);
+        try {
+            final Spliterator<Long> spliterator = Streams.spliterator(in, (w, index) -> w.read("value").int64());
+            assertNotNull(spliterator.trySplit());
+
+            final List<Long> values = Streams.of(in, (w, index) -> w.read("value").int64())
+                    .parallel()
+                    .collect(toList());
+            assertEquals(LongStream.range(0, count).boxed().collect(Collectors.toList()), values);
+
+            final long sum = Streams.ofLong(in, (w, index) -> w.read("value").int64())
+                    .parallel()
+                    .sum();
+            assertEquals(count * (count - 1L) / 2, sum);
+
+            final double dsum = Streams.ofDouble(in, (w, index) -> w.read("value").float64())
+                    .parallel()
+                    .sum();
+            assertEquals(count * (count - 1.0) / 2, dsum);
+
+            // the readers of a stream which stops early are closed with the stream
+            try (Stream<Long> stream = Streams.of(in, (w, index) -> w.read("value").int64()).parallel()) {
+                assertTrue(stream.anyMatch(v -> v == count / 2));
+            }
+            try (LongStream stream = Streams.ofLong(in, (w, index) -> w.read("value").int64())) {
+                assertEquals(10, stream.limit(10).count());
+            }
+
+            // the wire itself is not consumed
+            assertEquals(count, Streams.of(wire, (w, index) -> w.read("value").int64()).count());
+        } finally {
+            Closeable.closeQuietly(in);
+        }
+    }
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire.domestic.streaming.reduction;
+
+import net.openhft.chronicle.wire.WireTestCommon;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static net.openhft.chronicle.wire.domestic.reduction.ConcurrentCollectors.*;
+import static org.junit.Assert.assertEquals;
+
+public class ConcurrentCollectorsTest extends WireTestCommon {
+    private static final int COUNT = 100_000;
+
+    private static Stream<Long> values() {
+        return LongStream.range(0, COUNT).boxed().parallel();
+    }
+
+    @Test
+    public void stripedList() {
+        final List<Long> list = values().collect(toStripedList());
+        Collections.sort(list);
+        assertEquals(values().collect(Collectors.toList()), list);
+    }
+
+    @Test
+    public void stripedSet() {
+        final Set<Long> set = values().map(l -> l % 1000).collect(toStripedSet());
+        assertEquals(values().map(l -> l % 1000).collect(Collectors.toSet()), set);
+    }
+
+    @Test
+    public void reducingStriped() {
+        final long expected = COUNT * (COUNT - 1L) / 2;
+        assertEquals(expected, (long) values().collect(reducingStriped(0L, Long::sum)));
+        assertEquals(Optional.of(expected), values().collect(reducingStriped(Long::sum)));
+        assertEquals(Optional.empty(), Stream.<Long>empty().collect(reducingStriped(Long::sum)));
+        assertEquals(2 * expected, (long) values().collect(reducingStriped(0L, l -> 2 * l, Long::sum)));
+    }
+
+    @Test
+    public void primitives() {
+        assertEquals(COUNT * (COUNT - 1L) / 2, (long) values().collect(summingLongConcurrent(Long::longValue)));
+        assertEquals(OptionalLong.of(0), values().collect(minLongConcurrent(Long::longValue)));
+        assertEquals(OptionalLong.of(COUNT - 1), values().collect(maxLongConcurrent(Long::longValue)));
+        assertEquals(OptionalLong.empty(), Stream.<Long>empty().collect(maxLongConcurrent(Long::longValue)));
+    }
+}
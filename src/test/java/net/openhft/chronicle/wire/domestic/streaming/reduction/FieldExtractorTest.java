@@ -0,0 +1,181 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire.domestic.streaming.reduction;
+
+import net.openhft.chronicle.wire.DocumentContext;
+import net.openhft.chronicle.wire.SelfDescribingMarshallable;
+import net.openhft.chronicle.wire.Wire;
+import net.openhft.chronicle.wire.WireTestCommon;
+import net.openhft.chronicle.wire.domestic.extractor.DocumentExtractor;
+import net.openhft.chronicle.wire.domestic.extractor.ToDoubleDocumentExtractor;
+import net.openhft.chronicle.wire.domestic.extractor.ToLongDocumentExtractor;
+import net.openhft.chronicle.wire.domestic.streaming.CreateUtil;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class FieldExtractorTest extends WireTestCommon {
+
+    @Test
+    public void doubleField() {
+        Wire wire = CreateUtil.create();
+        write(wire, new MarketData("MSFT", 10, 11, 9));
+        write(wire, new MarketData("AAPL", 200, 220, 180));
+        write(wire, new Note("not market data", 1));
+
+        ToDoubleDocumentExtractor high = DocumentExtractor.builder(MarketData.class)
+                .withField("high")
+                .buildDouble();
+
+        assertEquals("[11.0, 220.0, NaN]", readAll(wire, high).toString());
+    }
+
+    @Test
+    public void fieldAfterVariableLengthField() {
+        Wire wire = CreateUtil.create();
+        write(wire, new Note("short", 1));
+        write(wire, new Note("a much longer text which moves the next field", 2));
+        write(wire, new Note("", 3));
+
+        ToLongDocumentExtractor id = DocumentExtractor.builder(Note.class)
+                .withField("id")
+                .buildLong();
+
+        List<Long> ids = new ArrayList<>();
+        try (DocumentContext dc = wire.readingDocument()) {
+            ids.add(id.extractAsLong(dc.wire(), dc.index()));
+        }
+        try (DocumentContext dc = wire.readingDocument()) {
+            ids.add(id.extractAsLong(dc.wire(), dc.index()));
+        }
+        try (DocumentContext dc = wire.readingDocument()) {
+            ids.add(id.extractAsLong(dc.wire(), dc.index()));
+        }
+        assertEquals("[1, 2, 3]", ids.toString());
+    }
+
+    @Test
+    public void fieldWithTheSameNameInANestedValue() {
+        Wire wire = CreateUtil.create();
+        // the longer text moves the nested id to where the outer id was in the first message
+        write(wire, new Outer("ab", 10, 1));
+        write(wire, new Outer("abcdef", 20, 2));
+        write(wire, new Outer("ab", 30, 3));
+
+        ToLongDocumentExtractor id = DocumentExtractor.builder(Outer.class)
+                .withField("id")
+                .buildLong();
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+            try (DocumentContext dc = wire.readingDocument()) {
+                ids.add(id.extractAsLong(dc.wire(), dc.index()));
+            }
+        assertEquals("[1, 2, 3]", ids.toString());
+    }
+
+    @Test
+    public void objectField() {
+        Wire wire = CreateUtil.create();
+        write(wire, new Note("hello", 1));
+
+        DocumentExtractor<String> text = DocumentExtractor.builder(Note.class)
+                .withField("text")
+                .build(String.class);
+
+        try (DocumentContext dc = wire.readingDocument()) {
+            assertEquals("hello", text.extract(dc.wire(), dc.index()));
+        }
+    }
+
+    @Test
+    public void methodField() {
+        Wire wire = CreateUtil.create();
+        MethodWriterTest.ServiceOut serviceOut = wire.methodWriter(MethodWriterTest.ServiceOut.class);
+        serviceOut.marketData(new MarketData("MSFT", 100, 110, 90));
+        serviceOut.greeting("Bonjour");
+        serviceOut.marketData(new MarketData("MSFT", 101, 110, 90));
+
+        ToDoubleDocumentExtractor last = DocumentExtractor.builder(MarketData.class)
+                .withMethod(MethodWriterTest.ServiceOut.class, MethodWriterTest.ServiceOut::marketData)
+                .withField("last")
+                .buildDouble();
+
+        assertEquals("[100.0, NaN, 101.0]", readAll(wire, last).toString());
+    }
+
+    private static List<Double> readAll(Wire wire, ToDoubleDocumentExtractor extractor) {
+        List<Double> values = new ArrayList<>();
+        while (true) {
+            try (DocumentContext dc = wire.readingDocument()) {
+                if (!dc.isPresent())
+                    return values;
+                values.add(extractor.extractAsDouble(dc.wire(), dc.index()));
+            }
+        }
+    }
+
+    private static void write(Wire wire, Object o) {
+        try (final DocumentContext dc = wire.writingDocument()) {
+            dc.wire().getValueOut().object(o);
+        }
+    }
+
+    public static final class Outer extends SelfDescribingMarshallable {
+        private String text;
+        private Inner inner;
+        private long id;
+
+        public Outer() {
+        }
+
+        Outer(String text, long innerId, long id) {
+            this.text = text;
+            this.inner = new Inner(innerId);
+            this.id = id;
+        }
+    }
+
+    public static final class Inner extends SelfDescribingMarshallable {
+        private long id;
+
+        public Inner() {
+        }
+
+        Inner(long id) {
+            this.id = id;
+        }
+    }
+
+    public static final class Note extends SelfDescribingMarshallable {
+        private String text;
+        private long id;
+
+        public Note() {
+        }
+
+        Note(String text, long id) {
+            this.text = text;
+            this.id = id;
+        }
+    }
+}
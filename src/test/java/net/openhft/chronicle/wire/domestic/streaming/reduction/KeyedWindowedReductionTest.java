@@ -0,0 +1,219 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire.domestic.streaming.reduction;
+
+import net.openhft.chronicle.wire.*;
+import net.openhft.chronicle.wire.converter.NanoTime;
+import net.openhft.chronicle.wire.domestic.extractor.DocumentExtractor;
+import net.openhft.chronicle.wire.domestic.reduction.*;
+import net.openhft.chronicle.wire.domestic.streaming.CreateUtil;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeyedWindowedReductionTest extends WireTestCommon {
+
+    private static final long MSFT = Base85LongConverter.INSTANCE.parse("MSFT");
+    private static final long AAPL = Base85LongConverter.INSTANCE.parse("AAPL");
+
+    @Test
+    public void keyedDouble() {
+        Reduction<KeyedDoubleStatistics> vwap = Reductions.keyedDouble(
+                DocumentExtractor.builder(Trade.class).withReusing(Trade::new).build(),
+                Trade::symbol,
+                Trade::price,
+                Trade::quantity);
+
+        Wire wire = CreateUtil.create();
+        write(wire, new Trade(1, "MSFT", 100, 10));
+        write(wire, new Trade(2, "AAPL", 200, 5));
+        write(wire, new Trade(3, "MSFT", 110, 30));
+        vwap.accept(wire);
+
+        KeyedDoubleStatistics stats = vwap.reduction();
+        assertEquals(2, stats.size());
+        assertEquals(2, stats.count(MSFT));
+        assertEquals(107.5, stats.mean(MSFT), 1e-9);
+        assertEquals(40, stats.totalWeight(MSFT), 0);
+        // (10 * 7.5^2 + 30 * 2.5^2) / 40
+        assertEquals(18.75, stats.variance(MSFT), 1e-9);
+        assertEquals(100, stats.min(MSFT), 0);
+        assertEquals(110, stats.max(MSFT), 0);
+        assertEquals(210, stats.sum(MSFT), 0);
+        assertEquals(200, stats.mean(AAPL), 0);
+        assertEquals(0, stats.variance(AAPL), 0);
+        assertFalse(stats.containsKey(Base85LongConverter.INSTANCE.parse("IBM")));
+        assertTrue(Double.isNaN(stats.mean(Base85LongConverter.INSTANCE.parse("IBM"))));
+
+        List<String> keys = new ArrayList<>();
+        stats.forEachKey(k -> keys.add(Base85LongConverter.INSTANCE.asString(k)));
+        assertEquals("[MSFT, AAPL]", keys.toString());
+    }
+
+    @Test
+    public void keyedLongManyKeys() {
+        KeyedLongStatistics stats = new KeyedLongStatistics();
+        for (int i = 0; i < 1000; i++)
+            for (long key = 0; key < 100; key++)
+                stats.accept(key * 1_000_003, key + i);
+        assertEquals(100, stats.size());
+        for (long key = 0; key < 100; key++) {
+            long k = key * 1_000_003;
+            assertEquals(1000, stats.count(k));
+            assertEquals(key, stats.min(k));
+            assertEquals(key + 999, stats.max(k));
+            assertEquals(1000 * key + 999 * 1000 / 2, stats.sum(k));
+            assertEquals(key + 499.5, stats.mean(k), 1e-9);
+            assertEquals((1000.0 * 1000 - 1) / 12, stats.variance(k), 1e-6);
+        }
+        assertEquals(Long.MIN_VALUE, stats.min(-1));
+    }
+
+    @Test
+    public void keyedLongEncodedKey() {
+        Reduction<KeyedLongStatistics> counting = Reductions.keyedLong(
+                DocumentExtractor.builder(MarketData.class).withReusing(MarketData::new).build(),
+                Reductions.encodedKey(Base85LongConverter.INSTANCE, MarketData::symbol),
+                md -> (long) md.last());
+
+        Wire wire = CreateUtil.create();
+        write(wire, new MarketData("MSFT", 10, 11, 9));
+        write(wire, new MarketData("MSFT", 100, 110, 90));
+        write(wire, new MarketData("AAPL", 200, 220, 180));
+        counting.accept(wire);
+
+        assertEquals(110, counting.reduction().sum(MSFT));
+        assertEquals(200, counting.reduction().max(AAPL));
+    }
+
+    @Test
+    public void tumblingWindow() {
+        Reduction<WindowedStatistics> window = Reductions.tumblingWindow(
+                DocumentExtractor.builder(Trade.class).withReusing(Trade::new).build(),
+                Trade::time,
+                Trade::price,
+                1000);
+
+        Wire wire = CreateUtil.create();
+        write(wire, new Trade(1500, "MSFT", 1, 1));
+        write(wire, new Trade(1999, "MSFT", 3, 1));
+        window.accept(wire);
+        WindowedStatistics stats = window.reduction();
+        assertEquals(1000, stats.windowStart());
+        assertEquals(2000, stats.windowEnd());
+        assertEquals(2, stats.count());
+        assertEquals(2, stats.mean(), 0);
+        assertEquals(1, stats.variance(), 0);
+
+        write(wire, new Trade(2000, "MSFT", 5, 1));
+        write(wire, new Trade(1998, "MSFT", 7, 1));
+        window.accept(wire);
+        assertEquals(2000, stats.windowStart());
+        assertEquals(1, stats.count());
+        assertEquals(5, stats.max(), 0);
+        assertEquals(1, stats.late());
+
+        // the window just finished
+        WindowedStatistics previous = stats.previous();
+        assertEquals(1000, previous.windowStart());
+        assertEquals(2, previous.count());
+        assertEquals(2, previous.mean(), 0);
+        assertEquals(1, previous.variance(), 0);
+    }
+
+    @Test
+    public void slidingWindow() {
+        WindowedStatistics stats = new WindowedStatistics(300, 3);
+        assertTrue(Double.isNaN(stats.mean()));
+        stats.accept(50, 1);
+        stats.accept(150, 2);
+        stats.accept(250, 3);
+        assertEquals(0, stats.windowStart());
+        assertEquals(3, stats.count());
+        assertEquals(2, stats.mean(), 0);
+        assertEquals(2.0 / 3, stats.variance(), 1e-12);
+        assertEquals(1, stats.min(), 0);
+        assertEquals(3, stats.max(), 0);
+
+        stats.accept(350, 4);
+        assertEquals(100, stats.windowStart());
+        assertEquals(3, stats.count());
+        assertEquals(9, stats.sum(), 0);
+        assertEquals(2, stats.min(), 0);
+
+        // an earlier value still within the window
+        stats.accept(120, 6);
+        assertEquals(4, stats.count());
+        assertEquals(6, stats.max(), 0);
+
+        stats.accept(10_000, 8);
+        assertEquals(1, stats.count());
+        assertEquals(8, stats.mean(), 0);
+        assertEquals(0, stats.variance(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void slidingWindowMustDivide() {
+        Reductions.slidingWindow(DocumentExtractor.builder(Trade.class).build(), Trade::time, Trade::price, 1000, 300);
+    }
+
+    private static void write(Wire wire, Object o) {
+        try (final DocumentContext dc = wire.writingDocument()) {
+            dc.wire().getValueOut().object(o);
+        }
+    }
+
+    public static final class Trade extends SelfDescribingMarshallable {
+        @NanoTime
+        private long time;
+        @LongConversion(Base85LongConverter.class)
+        private long symbol;
+        private double price;
+        private double quantity;
+
+        public Trade() {
+        }
+
+        Trade(long time, String symbol, double price, double quantity) {
+            this.time = time;
+            this.symbol = Base85LongConverter.INSTANCE.parse(symbol);
+            this.price = price;
+            this.quantity = quantity;
+        }
+
+        long time() {
+            return time;
+        }
+
+        long symbol() {
+            return symbol;
+        }
+
+        double price() {
+            return price;
+        }
+
+        double quantity() {
+            return quantity;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2016-2022 chronicle.software
+ *
+ *       https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.wire.internal;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.core.io.IOTools;
+import net.openhft.chronicle.wire.WireTestCommon;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class GeneratedClassCacheTest extends WireTestCommon {
+
+    @Test
+    public void keyDependsOnTheSource() {
+        GeneratedClassCache cache = new GeneratedClassCache(IOTools.createTempFile("keyDependsOnTheSource"), null);
+        String key = cache.key("a.B", "class B {}");
+        assertEquals(32, key.length());
+        assertEquals(key, cache.key("a.B", "class B {}"));
+        assertNotEquals(key, cache.key("a.B", "class B { }"));
+        assertNotEquals(key, cache.key("a.C", "class B {}"));
+        assertNotEquals(key, new GeneratedClassCache(IOTools.createTempFile("keyDependsOnTheSource"), "-g")
+                .key("a.B", "class B {}"));
+    }
+
+    @Test
+    public void missingIsNull() {
+        GeneratedClassCache cache = new GeneratedClassCache(IOTools.createTempFile("missingIsNull"), null);
+        assertNull(cache.load(getClass().getClassLoader(), "a.B", cache.key("a.B", "class B {}")));
+    }
+
+    @Test
+    public void storeAndLoad() throws IOException {
+        File dir = IOTools.createTempFile("storeAndLoad");
+        GeneratedClassCache cache = new GeneratedClassCache(dir, null);
+        String className = Cached.class.getName();
+        String key = cache.key(className, "source");
+
+        // as the compiler would write it
+        File stagingDir = cache.newStagingDir();
+        File classFile = new File(stagingDir, className.replace('.', File.separatorChar) + ".class");
+        assertTrue(classFile.getParentFile().mkdirs());
+        try (InputStream in = Cached.class.getResourceAsStream(classFile.getName())) {
+            Files.copy(in, classFile.toPath());
+        }
+        cache.store(stagingDir, className, key);
+        assertFalse(classFile.exists());
+
+        // a class loader which doesn't have the class yet
+        try (URLClassLoader loader = new URLClassLoader(new URL[0], getClass().getClassLoader())) {
+            Class<?> aClass = new GeneratedClassCache(dir, null).load(loader, className, key);
+            assertNotNull(aClass);
+            assertEquals(className, aClass.getName());
+            assertNotSame(Cached.class, aClass);
+            assertSame(loader, aClass.getClassLoader());
+        }
+        assertNull(cache.load(getClass().getClassLoader(), className, cache.key(className, "other source")));
+    }
+
+    @Test
+    public void deadStagingIsRemoved() throws IOException {
+        assumeTrue(OS.isLinux());
+        File dir = IOTools.createTempFile("deadStagingIsRemoved");
+        Files.createDirectories(dir.toPath(), PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        // above the largest pid on Linux
+        File deadStaging = new File(dir, "staging-999999999/a/B.class");
+        assertTrue(deadStaging.getParentFile().mkdirs());
+        Files.write(deadStaging.toPath(), new byte[1]);
+        File deadTmp = new File(dir, "a.B-0123.tmp-999999999-1");
+        assertTrue(deadTmp.mkdirs());
+        File liveStaging = new File(dir, "staging-" + Jvm.getProcessId() + "/a");
+        assertTrue(liveStaging.mkdirs());
+
+        new GeneratedClassCache(dir, null);
+        assertFalse(new File(dir, "staging-999999999").exists());
+        assertFalse(deadTmp.exists());
+        assertTrue(liveStaging.exists());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sharedDirectoryIsRejected() throws IOException {
+        assumeTrue(OS.isLinux());
+        File dir = IOTools.createTempFile("sharedDirectoryIsRejected");
+        assertTrue(dir.mkdirs());
+        Files.setPosixFilePermissions(dir.toPath(), PosixFilePermissions.fromString("rwxrwxrwx"));
+        new GeneratedClassCache(dir, null);
+    }
+
+    @Test
+    public void sharedEntryIsNotLoaded() throws IOException {
+        assumeTrue(OS.isLinux());
+        File dir = IOTools.createTempFile("sharedEntryIsNotLoaded");
+        GeneratedClassCache cache = new GeneratedClassCache(dir, null);
+        assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(dir.toPath())));
+        String className = Cached.class.getName();
+        String key = cache.key(className, "source");
+        File entry = new File(dir, className + '-' + key);
+        assertTrue(entry.mkdir());
+        File classFile = new File(entry, className + ".class");
+        try (InputStream in = Cached.class.getResourceAsStream(className.substring(className.lastIndexOf('.') + 1) + ".class")) {
+            Files.copy(in, classFile.toPath());
+        }
+        Files.setPosixFilePermissions(classFile.toPath(), PosixFilePermissions.fromString("rw-rw-rw-"));
+        expectException("is writable by others");
+        try (URLClassLoader loader = new URLClassLoader(new URL[0], getClass().getClassLoader())) {
+            assertNull(cache.load(loader, className, key));
+        }
+    }
+
+    static class Cached {
+    }
+}